@@ -5,6 +5,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * ShopX应用启动类
@@ -14,6 +15,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 @MapperScan("com.shopx.mapper")
 @EnableCaching
 @EnableAsync
+@EnableScheduling
 public class ShopXApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,17 @@
+package com.shopx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读查询注解
+ * 开启读写分离时，标注的方法（或类中所有方法）内的查询路由到从库；
+ * 方法内发生写入后，同一线程后续的查询改回主库，写入本身总是走主库
+ * 与 @Transactional(readOnly = true) 效果相同，但不需要开启事务
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+}
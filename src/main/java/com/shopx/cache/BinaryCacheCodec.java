@@ -0,0 +1,503 @@
+package com.shopx.cache;
+
+import com.shopx.entity.Product;
+import com.shopx.entity.User;
+import com.shopx.util.ResponseUtil;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑二进制缓存编解码器
+ * 热点实体（Product、User、权限列表、分页结果）按固定字段顺序写入，整数使用变长编码，List/Map逐项递归编码；
+ * 其他类型交给fallback序列化器；编码结果超过阈值时使用Deflate压缩
+ * <p>
+ * 格式：头字节（格式版本 << 1 | 压缩标记） + [原始长度] + 值
+ * 实体字段增减时需提升FORMAT_VERSION，旧版本数据解码失败后按未命中重新加载
+ */
+public class BinaryCacheCodec implements CacheCodec {
+
+    private static final int FORMAT_VERSION = 2;
+    private static final int FLAG_COMPRESSED = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_TRUE = 4;
+    private static final byte TAG_FALSE = 5;
+    private static final byte TAG_DECIMAL = 6;
+    private static final byte TAG_BIG_DECIMAL = 7;
+    private static final byte TAG_DATETIME = 8;
+    private static final byte TAG_LIST = 9;
+    private static final byte TAG_NULL_VALUE = 10;
+    private static final byte TAG_MAP = 11;
+    private static final byte TAG_PRODUCT = 20;
+    private static final byte TAG_USER = 21;
+    private static final byte TAG_PAGE_RESULT = 22;
+    private static final byte TAG_FALLBACK = 127;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressThreshold;
+
+    /**
+     * @param fallback 非热点类型使用的序列化器
+     * @param compressThreshold 超过该字节数时压缩，0表示不压缩
+     */
+    public BinaryCacheCodec(RedisSerializer<Object> fallback, int compressThreshold) {
+        this.fallback = fallback;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        Output out = new Output(256);
+        out.writeByte(FORMAT_VERSION << 1);
+        writeValue(out, value);
+        byte[] raw = out.toByteArray();
+
+        int payloadLength = raw.length - 1;
+        if (compressThreshold > 0 && payloadLength > compressThreshold) {
+            byte[] compressed = compress(raw, 1, payloadLength);
+            if (compressed.length + 5 < payloadLength) {
+                Output packed = new Output(compressed.length + 6);
+                packed.writeByte((FORMAT_VERSION << 1) | FLAG_COMPRESSED);
+                packed.writeVarLong(payloadLength);
+                packed.writeBytes(compressed, 0, compressed.length);
+                return packed.toByteArray();
+            }
+        }
+        return raw;
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int header = bytes[0] & 0xFF;
+        if ((header >>> 1) != FORMAT_VERSION) {
+            throw new IllegalStateException("不支持的缓存格式版本: " + (header >>> 1));
+        }
+        Input in = new Input(bytes, 1);
+        if ((header & FLAG_COMPRESSED) != 0) {
+            int length = (int) in.readVarLong();
+            in = new Input(decompress(bytes, in.position, bytes.length - in.position, length), 0);
+        }
+        return readValue(in);
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(TAG_STRING);
+            out.writeString(s);
+        } else if (value instanceof Long l) {
+            out.writeByte(TAG_LONG);
+            out.writeZigZag(l);
+        } else if (value instanceof Integer i) {
+            out.writeByte(TAG_INT);
+            out.writeZigZag(i);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TAG_TRUE : TAG_FALSE);
+        } else if (value == NullValue.INSTANCE) {
+            out.writeByte(TAG_NULL_VALUE);
+        } else if (value instanceof BigDecimal d) {
+            writeDecimal(out, d);
+        } else if (value instanceof LocalDateTime t) {
+            out.writeByte(TAG_DATETIME);
+            out.writeZigZag(t.toEpochSecond(ZoneOffset.UTC));
+            out.writeVarLong(t.getNano());
+        } else if (value instanceof Product p) {
+            out.writeByte(TAG_PRODUCT);
+            writeProduct(out, p);
+        } else if (value instanceof User u) {
+            out.writeByte(TAG_USER);
+            writeUser(out, u);
+        } else if (value instanceof ResponseUtil.PageResult<?> page) {
+            out.writeByte(TAG_PAGE_RESULT);
+            writePageResult(out, page);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TAG_LIST);
+            out.writeVarLong(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(TAG_MAP);
+            out.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            byte[] bytes = fallback.serialize(value);
+            out.writeByte(TAG_FALLBACK);
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        }
+    }
+
+    private Object readValue(Input in) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return in.readString();
+            case TAG_LONG:
+                return in.readZigZag();
+            case TAG_INT:
+                return (int) in.readZigZag();
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_NULL_VALUE:
+                return NullValue.INSTANCE;
+            case TAG_DECIMAL:
+                return BigDecimal.valueOf(in.readZigZag(), (int) in.readZigZag());
+            case TAG_BIG_DECIMAL: {
+                int scale = (int) in.readZigZag();
+                return new BigDecimal(new BigInteger(in.readBytes((int) in.readVarLong())), scale);
+            }
+            case TAG_DATETIME:
+                return LocalDateTime.ofEpochSecond(in.readZigZag(), (int) in.readVarLong(), ZoneOffset.UTC);
+            case TAG_PRODUCT:
+                return readProduct(in);
+            case TAG_USER:
+                return readUser(in);
+            case TAG_PAGE_RESULT:
+                return readPageResult(in);
+            case TAG_LIST: {
+                int size = (int) in.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TAG_MAP: {
+                int size = (int) in.readVarLong();
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            }
+            case TAG_FALLBACK:
+                return fallback.deserialize(in.readBytes((int) in.readVarLong()));
+            default:
+                throw new IllegalStateException("未知的缓存值类型标记: " + tag);
+        }
+    }
+
+    private void writeDecimal(Output out, BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 63) {
+            out.writeByte(TAG_DECIMAL);
+            out.writeZigZag(unscaled.longValue());
+            out.writeZigZag(value.scale());
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(TAG_BIG_DECIMAL);
+            out.writeZigZag(value.scale());
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        }
+    }
+
+    private void writeProduct(Output out, Product p) {
+        writeValue(out, p.getId());
+        writeValue(out, p.getName());
+        writeValue(out, p.getDescription());
+        writeValue(out, p.getImage());
+        writeValue(out, p.getPrice());
+        writeValue(out, p.getShippingFee());
+        writeValue(out, p.getTaxRate());
+        writeValue(out, p.getStock());
+        writeValue(out, p.getCategory());
+        writeValue(out, p.getCreateBy());
+        writeValue(out, p.getEnabled());
+        writeValue(out, p.getSuitableScenarios());
+        writeValue(out, p.getSeasonality());
+        writeValue(out, p.getLifestyleTags());
+        writeValue(out, p.getArModelUrl());
+        writeValue(out, p.getVrExperienceUrl());
+        writeValue(out, p.getHas3dPreview());
+        writeValue(out, p.getIsRecyclable());
+        writeValue(out, p.getIsRentable());
+        writeValue(out, p.getRecycleValue());
+        writeValue(out, p.getLikeCount());
+        writeValue(out, p.getShareCount());
+        writeValue(out, p.getViewCount());
+        writeValue(out, p.getCompletenessScore());
+        writeValue(out, p.getCreateTime());
+        writeValue(out, p.getUpdateTime());
+    }
+
+    private Product readProduct(Input in) {
+        Product p = new Product();
+        p.setId((Long) readValue(in));
+        p.setName((String) readValue(in));
+        p.setDescription((String) readValue(in));
+        p.setImage((String) readValue(in));
+        p.setPrice((BigDecimal) readValue(in));
+        p.setShippingFee((BigDecimal) readValue(in));
+        p.setTaxRate((BigDecimal) readValue(in));
+        p.setStock((Integer) readValue(in));
+        p.setCategory((String) readValue(in));
+        p.setCreateBy((Long) readValue(in));
+        p.setEnabled((Boolean) readValue(in));
+        p.setSuitableScenarios((String) readValue(in));
+        p.setSeasonality((String) readValue(in));
+        p.setLifestyleTags((String) readValue(in));
+        p.setArModelUrl((String) readValue(in));
+        p.setVrExperienceUrl((String) readValue(in));
+        p.setHas3dPreview((Boolean) readValue(in));
+        p.setIsRecyclable((Boolean) readValue(in));
+        p.setIsRentable((Boolean) readValue(in));
+        p.setRecycleValue((BigDecimal) readValue(in));
+        p.setLikeCount((Integer) readValue(in));
+        p.setShareCount((Integer) readValue(in));
+        p.setViewCount((Integer) readValue(in));
+        p.setCompletenessScore((Integer) readValue(in));
+        p.setCreateTime((LocalDateTime) readValue(in));
+        p.setUpdateTime((LocalDateTime) readValue(in));
+        return p;
+    }
+
+    private void writeUser(Output out, User u) {
+        writeValue(out, u.getId());
+        writeValue(out, u.getUsername());
+        writeValue(out, u.getPassword());
+        writeValue(out, u.getEmail());
+        writeValue(out, u.getPhone());
+        writeValue(out, u.getRole());
+        writeValue(out, u.getAvatar());
+        writeValue(out, u.getEnabled());
+        writeValue(out, u.getPreferences());
+        writeValue(out, u.getLifestyle());
+        writeValue(out, u.getScenarios());
+        writeValue(out, u.getFollowerCount());
+        writeValue(out, u.getFollowingCount());
+        writeValue(out, u.getSocialProfile());
+        writeValue(out, u.getSustainabilityScore());
+        writeValue(out, u.getRecycleCount());
+        writeValue(out, u.getCreateTime());
+        writeValue(out, u.getUpdateTime());
+        writeValue(out, u.getVersion());
+    }
+
+    private User readUser(Input in) {
+        User u = new User();
+        u.setId((Long) readValue(in));
+        u.setUsername((String) readValue(in));
+        u.setPassword((String) readValue(in));
+        u.setEmail((String) readValue(in));
+        u.setPhone((String) readValue(in));
+        u.setRole((String) readValue(in));
+        u.setAvatar((String) readValue(in));
+        u.setEnabled((Boolean) readValue(in));
+        u.setPreferences((String) readValue(in));
+        u.setLifestyle((String) readValue(in));
+        u.setScenarios((String) readValue(in));
+        u.setFollowerCount((Integer) readValue(in));
+        u.setFollowingCount((Integer) readValue(in));
+        u.setSocialProfile((String) readValue(in));
+        u.setSustainabilityScore((Integer) readValue(in));
+        u.setRecycleCount((Integer) readValue(in));
+        u.setCreateTime((LocalDateTime) readValue(in));
+        u.setUpdateTime((LocalDateTime) readValue(in));
+        u.setVersion((Integer) readValue(in));
+        return u;
+    }
+
+    /**
+     * hasNext/hasPrevious由其他字段推导，不单独写入
+     */
+    private void writePageResult(Output out, ResponseUtil.PageResult<?> page) {
+        writeValue(out, page.getData());
+        out.writeZigZag(page.getTotal());
+        out.writeZigZag(page.getPage());
+        out.writeZigZag(page.getSize());
+        out.writeZigZag(page.getTotalPages());
+        writeValue(out, page.isKeyset());
+        writeValue(out, page.getCursor());
+        writeValue(out, page.getNextCursor());
+        writeValue(out, page.isApproximateTotal());
+        writeValue(out, page.getFacets());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseUtil.PageResult<Object> readPageResult(Input in) {
+        ResponseUtil.PageResult<Object> page = new ResponseUtil.PageResult<>();
+        page.setData((List<Object>) readValue(in));
+        page.setTotal(in.readZigZag());
+        page.setPage((int) in.readZigZag());
+        page.setSize((int) in.readZigZag());
+        page.setTotalPages((int) in.readZigZag());
+        page.setKeyset((Boolean) readValue(in));
+        page.setCursor((String) readValue(in));
+        page.setNextCursor((String) readValue(in));
+        page.setApproximateTotal((Boolean) readValue(in));
+        page.setFacets((Map<String, Map<String, Long>>) readValue(in));
+        return page;
+    }
+
+    private static byte[] compress(byte[] data, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            Output out = new Output(Math.max(64, length / 2));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.writeBytes(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] result = new byte[originalLength];
+            int n = 0;
+            while (n < originalLength) {
+                int read = inflater.inflate(result, n, originalLength - n);
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("缓存数据解压失败: 数据不完整");
+                }
+                n += read;
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("缓存数据解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 可扩容的字节输出缓冲区
+     */
+    private static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buffer[position++] = (byte) b;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+            }
+        }
+    }
+
+    /**
+     * 字节输入游标
+     */
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+                if (shift > 63) {
+                    throw new IllegalStateException("变长整数格式错误");
+                }
+            }
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.shopx.cache;
+
+/**
+ * 缓存值编解码器
+ * CacheManager写入Redis前调用encode，读取后调用decode；可通过声明同类型Bean替换默认实现
+ */
+public interface CacheCodec {
+
+    /**
+     * 编码缓存值
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码缓存值，bytes为null时返回null
+     */
+    Object decode(byte[] bytes);
+}
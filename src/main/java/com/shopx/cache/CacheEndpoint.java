@@ -0,0 +1,33 @@
+package com.shopx.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存监控端点
+ * 访问 /actuator/cache 查看各key前缀的L1/L2命中率及启动预热状态
+ */
+@Component
+@Endpoint(id = "cache")
+public class CacheEndpoint {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheWarmUp cacheWarmUp;
+
+    @ReadOperation
+    public Map<String, Object> cache() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("localSize", cacheManager.getLocalSize());
+        result.put("prefixes", cacheManager.getStats());
+        result.put("warmup", cacheWarmUp.getStatus());
+        return result;
+    }
+}
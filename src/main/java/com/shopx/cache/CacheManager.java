@@ -1,23 +1,76 @@
 package com.shopx.cache;
 
+import com.shopx.config.ShopXConfig;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * 统一缓存管理类
  * 提供统一的缓存操作接口
+ * 读取顺序：进程内本地缓存（L1） -> Redis（L2），本地缓存通过Redis频道广播失效保持各节点一致
+ * 访问量超过阈值的热点key会广播给所有节点，各节点在本地短TTL副本中保留一份，分担单个Redis分片的压力
+ * 写入Redis的值统一经 {@link CacheCodec} 编码为字节
  */
 @Slf4j
 @Component
-public class CacheManager {
+public class CacheManager implements MessageListener {
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private RedisTemplate<String, byte[]> cacheRedisTemplate;
+
+    @Autowired
+    private CacheCodec codec;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    @Qualifier("asyncExecutor")
+    private Executor asyncExecutor;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
 
     /**
      * 缓存前缀常量
@@ -27,13 +80,105 @@ public class CacheManager {
     public static final String SESSION_PREFIX = "shopx:session:";
     public static final String PERMISSION_PREFIX = "shopx:permission:";
     public static final String RECOMMENDATION_PREFIX = "shopx:recommendation:";
+    public static final String TAG_PREFIX = "shopx:tag:";
+    public static final String SEARCH_RESULT_PREFIX = "shopx:search:result:";
+
+    /**
+     * 缓存标签常量
+     */
+    public static final String PRODUCT_LIST_TAG = "product-list";
+    public static final String CATEGORY_TAG_PREFIX = "category:";
+    public static final String SEARCH_RESULT_TAG = "search-result";
+
+    /**
+     * 缓存过期时间常量
+     */
+    public static final Duration USER_TTL = Duration.ofHours(1);
+    public static final Duration PRODUCT_TTL = Duration.ofMinutes(30);
+    public static final Duration PERMISSION_TTL = Duration.ofMinutes(15);
+    public static final Duration PRODUCT_LIST_TTL = Duration.ofMinutes(5);
+
+    /**
+     * 标签集合的最短保留时间，保证集合不会先于其成员过期
+     */
+    private static final Duration TAG_TTL = Duration.ofDays(1);
+
+    /**
+     * 失效消息格式：节点ID|key1\nkey2...，key为*表示清空全部
+     */
+    private static final String MESSAGE_SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = "\n";
+    private static final String ALL_KEYS = "*";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheStats stats = new CacheStats();
+
+    private LocalCache localCache;
+
+    /**
+     * 热点key探测与本地副本，未启用时为null
+     */
+    private HotKeyDetector hotKeyDetector;
+    private LocalCache hotReplica;
+
+    /**
+     * 本节点正在回源的key，同key的并发未命中共享同一次加载
+     */
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点正在后台提前刷新的key；与inFlight分开，未命中的请求不会等待一次可能不加载的刷新
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 各key前缀最近一次回源耗时（毫秒），用于计算提前刷新概率
+     */
+    private final Map<String, Long> loadCostMillis = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        ShopXConfig.Cache.Local local = shopXConfig.getCache().getLocal();
+        ShopXConfig.Cache.HotKey hotKey = shopXConfig.getCache().getHotKey();
+        if (Boolean.TRUE.equals(local.getEnabled())) {
+            localCache = new LocalCache(local.getMaximumSize());
+            log.info("本地缓存已启用: nodeId={}, maximumSize={}, ttl={}", nodeId, local.getMaximumSize(), local.getTtl());
+        } else {
+            log.info("本地缓存未启用");
+        }
+        if (Boolean.TRUE.equals(hotKey.getEnabled())) {
+            hotKeyDetector = new HotKeyDetector(hotKey.getSketchDepth(), hotKey.getSketchWidth(), hotKey.getSampleRate(),
+                    hotKey.getThreshold(), TimeUnit.SECONDS.toMillis(hotKey.getHoldSeconds()), hotKey.getMaxHotKeys());
+            // 副本容量留出余量，避免分段LRU提前淘汰热点key
+            hotReplica = new LocalCache(hotKey.getMaxHotKeys() * 2);
+            listenerContainer.addMessageListener(this, new ChannelTopic(hotKey.getChannel()));
+            log.info("热点key探测已启用: threshold={}/{}s, sampleRate=1/{}, replicaTtl={}s",
+                    hotKey.getThreshold(), hotKey.getWindowSeconds(), hotKey.getSampleRate(), hotKey.getReplicaTtlSeconds());
+        }
+        if (localCache != null || hotReplica != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(shopXConfig.getCache().getInvalidationChannel()));
+        }
+    }
+
+    /**
+     * 热点探测计数按窗口衰减，在调度线程上扫描计数数组，不占用请求线程
+     */
+    @Scheduled(initialDelayString = "${shopx.cache.hot-key.window-seconds:10}",
+            fixedDelayString = "${shopx.cache.hot-key.window-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public void decayHotKeys() {
+        if (hotKeyDetector != null) {
+            hotKeyDetector.decay();
+        }
+    }
 
     /**
      * 设置缓存
      */
     public void set(String key, Object value) {
         try {
-            redisTemplate.opsForValue().set(key, value);
+            cacheRedisTemplate.opsForValue().set(key, codec.encode(value));
+            refreshLocal(key, value);
             log.debug("设置缓存成功: key={}", key);
         } catch (Exception e) {
             log.error("设置缓存失败: key={}", key, e);
@@ -45,7 +190,8 @@ public class CacheManager {
      */
     public void set(String key, Object value, long timeout, TimeUnit unit) {
         try {
-            redisTemplate.opsForValue().set(key, value, timeout, unit);
+            cacheRedisTemplate.opsForValue().set(key, codec.encode(value), timeout, unit);
+            refreshLocal(key, value);
             log.debug("设置缓存成功: key={}, timeout={} {}", key, timeout, unit);
         } catch (Exception e) {
             log.error("设置缓存失败: key={}", key, e);
@@ -57,21 +203,61 @@ public class CacheManager {
      */
     public void set(String key, Object value, Duration duration) {
         try {
-            redisTemplate.opsForValue().set(key, value, duration);
+            cacheRedisTemplate.opsForValue().set(key, codec.encode(value), duration);
+            refreshLocal(key, value);
             log.debug("设置缓存成功: key={}, duration={}", key, duration);
         } catch (Exception e) {
             log.error("设置缓存失败: key={}", key, e);
         }
     }
 
+    /**
+     * 设置缓存并登记到标签，之后可通过 {@link #invalidateTags(String...)} 按标签整体失效
+     */
+    @SuppressWarnings("unchecked")
+    public void set(String key, Object value, Duration duration, String... tags) {
+        try {
+            Duration tagTtl = duration.compareTo(TAG_TTL) > 0 ? duration : TAG_TTL;
+            byte[] encoded = codec.encode(value);
+            byte[] member = key.getBytes(StandardCharsets.UTF_8);
+            cacheRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                    ops.opsForValue().set(key, encoded, duration);
+                    for (String tag : tags) {
+                        ops.opsForSet().add(TAG_PREFIX + tag, member);
+                        ops.expire(TAG_PREFIX + tag, tagTtl);
+                    }
+                    return null;
+                }
+            });
+            refreshLocal(key, value);
+            log.debug("设置缓存成功: key={}, duration={}, tags={}", key, duration, Arrays.toString(tags));
+        } catch (Exception e) {
+            log.error("设置缓存失败: key={}", key, e);
+        }
+    }
+
     /**
      * 获取缓存
      */
     public Object get(String key) {
+        String prefix = resolvePrefix(key);
+        Object local = getLocal(key, prefix);
+        if (local != null) {
+            return unwrap(local);
+        }
         try {
-            Object value = redisTemplate.opsForValue().get(key);
+            Object value = codec.decode(cacheRedisTemplate.opsForValue().get(key));
+            if (value != null) {
+                stats.recordL2Hit(prefix);
+                putLocal(key, value);
+            } else {
+                stats.recordMiss(prefix);
+            }
             log.debug("获取缓存: key={}, hit={}", key, value != null);
-            return value;
+            return unwrap(value);
         } catch (Exception e) {
             log.error("获取缓存失败: key={}", key, e);
             return null;
@@ -90,12 +276,118 @@ public class CacheManager {
         return null;
     }
 
+    /**
+     * 批量获取缓存，先查本地缓存，剩余key通过一次MGET读取
+     * 返回命中的key -> value，未命中及缓存为空值占位的key不出现在结果中
+     */
+    public Map<String, Object> getAll(Collection<String> keys) {
+        Map<String, Object> result = new HashMap<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (String key : keys) {
+            Object local = getLocal(key, resolvePrefix(key));
+            if (local != null) {
+                putIfPresent(result, key, local);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return result;
+        }
+        try {
+            List<byte[]> values = cacheRedisTemplate.opsForValue().multiGet(remoteKeys);
+            for (int i = 0; i < remoteKeys.size(); i++) {
+                String key = remoteKeys.get(i);
+                Object value = values != null ? decodeQuietly(key, values.get(i)) : null;
+                if (value != null) {
+                    stats.recordL2Hit(resolvePrefix(key));
+                    putLocal(key, value);
+                    putIfPresent(result, key, value);
+                } else {
+                    stats.recordMiss(resolvePrefix(key));
+                }
+            }
+            log.debug("批量获取缓存: keys={}, hits={}", keys.size(), result.size());
+        } catch (Exception e) {
+            log.error("批量获取缓存失败: keys={}", remoteKeys, e);
+        }
+        return result;
+    }
+
+    /**
+     * 批量设置缓存（带过期时间），通过管道一次往返写入
+     */
+    @SuppressWarnings("unchecked")
+    public void setAll(Map<String, ?> entries, Duration duration) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, byte[]> encoded = new HashMap<>();
+            entries.forEach((key, value) -> encoded.put(key, codec.encode(value)));
+            cacheRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                    encoded.forEach((key, value) -> ops.opsForValue().set(key, value, duration));
+                    return null;
+                }
+            });
+            List<String> localKeys = new ArrayList<>();
+            entries.forEach((key, value) -> {
+                if (putLocal(key, value)) {
+                    localKeys.add(key);
+                }
+            });
+            publishInvalidation(localKeys);
+            log.debug("批量设置缓存成功: size={}, duration={}", entries.size(), duration);
+        } catch (Exception e) {
+            log.error("批量设置缓存失败: keys={}", entries.keySet(), e);
+        }
+    }
+
+    /**
+     * 读取缓存，未命中时通过loader回源并写入缓存
+     * 同一key的并发未命中在本节点内合并为一次加载，跨节点通过Redisson锁保证只有一个节点回源；
+     * 命中但临近过期的key按概率提前在后台刷新，避免集中过期时的缓存击穿
+     * loader返回null时写入短TTL的空值占位，期间同key的请求直接返回null
+     */
+    public <T> T getOrLoad(String key, Duration ttl, Supplier<T> loader) {
+        return getOrLoad(key, ttl, loader, new String[0]);
+    }
+
+    /**
+     * 读取缓存，未命中时回源并登记到指定标签
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String key, Duration ttl, Supplier<T> loader, String... tags) {
+        String prefix = resolvePrefix(key);
+        Object local = getLocal(key, prefix);
+        if (local != null) {
+            return (T) unwrap(local);
+        }
+
+        CachedValue cached = getWithTtl(key);
+        if (cached != null && cached.value != null) {
+            stats.recordL2Hit(prefix);
+            putLocal(key, cached.value);
+            if (shouldRefreshEarly(prefix, cached.ttlMillis)) {
+                refreshAsync(key, ttl, loader, tags);
+            }
+            return (T) unwrap(cached.value);
+        }
+
+        stats.recordMiss(prefix);
+        return (T) unwrap(loadSingleFlight(key, ttl, loader, tags));
+    }
+
     /**
      * 删除缓存
      */
     public void delete(String key) {
         try {
-            redisTemplate.delete(key);
+            cacheRedisTemplate.delete(key);
+            invalidateLocal(List.of(key));
             log.debug("删除缓存成功: key={}", key);
         } catch (Exception e) {
             log.error("删除缓存失败: key={}", key, e);
@@ -107,19 +399,49 @@ public class CacheManager {
      */
     public void delete(String... keys) {
         try {
-            redisTemplate.delete(java.util.Arrays.asList(keys));
-            log.debug("批量删除缓存成功: keys={}", java.util.Arrays.toString(keys));
+            cacheRedisTemplate.delete(Arrays.asList(keys));
+            invalidateLocal(Arrays.asList(keys));
+            log.debug("批量删除缓存成功: keys={}", Arrays.toString(keys));
         } catch (Exception e) {
-            log.error("批量删除缓存失败: keys={}", java.util.Arrays.toString(keys), e);
+            log.error("批量删除缓存失败: keys={}", Arrays.toString(keys), e);
         }
     }
 
+    /**
+     * 按标签失效缓存
+     * 先将标签集合RENAME为临时key与后续写入隔离，再删除集合中登记的所有key，全程不使用KEYS/SCAN
+     */
+    public void invalidateTags(String... tags) {
+        List<String> keys = new ArrayList<>();
+        for (String tag : tags) {
+            String tagKey = TAG_PREFIX + tag;
+            String detachedKey = tagKey + ":invalidating:" + UUID.randomUUID();
+            try {
+                if (!Boolean.TRUE.equals(cacheRedisTemplate.hasKey(tagKey))) {
+                    continue;
+                }
+                cacheRedisTemplate.rename(tagKey, detachedKey);
+                Set<byte[]> members = cacheRedisTemplate.opsForSet().members(detachedKey);
+                if (members != null) {
+                    members.forEach(member -> keys.add(new String(member, StandardCharsets.UTF_8)));
+                }
+                cacheRedisTemplate.delete(detachedKey);
+            } catch (Exception e) {
+                log.error("按标签失效缓存失败: tag={}", tag, e);
+            }
+        }
+        if (!keys.isEmpty()) {
+            delete(keys.toArray(new String[0]));
+        }
+        log.debug("按标签失效缓存: tags={}, keys={}", Arrays.toString(tags), keys.size());
+    }
+
     /**
      * 检查缓存是否存在
      */
     public boolean exists(String key) {
         try {
-            Boolean exists = redisTemplate.hasKey(key);
+            Boolean exists = cacheRedisTemplate.hasKey(key);
             log.debug("检查缓存存在: key={}, exists={}", key, exists);
             return Boolean.TRUE.equals(exists);
         } catch (Exception e) {
@@ -133,7 +455,7 @@ public class CacheManager {
      */
     public void expire(String key, long timeout, TimeUnit unit) {
         try {
-            redisTemplate.expire(key, timeout, unit);
+            cacheRedisTemplate.expire(key, timeout, unit);
             log.debug("设置过期时间成功: key={}, timeout={} {}", key, timeout, unit);
         } catch (Exception e) {
             log.error("设置过期时间失败: key={}", key, e);
@@ -145,7 +467,7 @@ public class CacheManager {
      */
     public long getExpire(String key) {
         try {
-            Long expire = redisTemplate.getExpire(key);
+            Long expire = cacheRedisTemplate.getExpire(key);
             return expire != null ? expire : -1;
         } catch (Exception e) {
             log.error("获取过期时间失败: key={}", key, e);
@@ -157,11 +479,12 @@ public class CacheManager {
      * 用户缓存操作
      */
     public void setUserCache(Long userId, Object user) {
-        set(USER_PREFIX + userId, user, Duration.ofHours(1));
+        set(USER_PREFIX + userId, user, USER_TTL);
     }
 
-    public Object getUserCache(Long userId) {
-        return get(USER_PREFIX + userId);
+    @SuppressWarnings("unchecked")
+    public <T> T getUserCache(Long userId) {
+        return (T) get(USER_PREFIX + userId);
     }
 
     public void deleteUserCache(Long userId) {
@@ -172,11 +495,12 @@ public class CacheManager {
      * 商品缓存操作
      */
     public void setProductCache(Long productId, Object product) {
-        set(PRODUCT_PREFIX + productId, product, Duration.ofMinutes(30));
+        set(PRODUCT_PREFIX + productId, product, PRODUCT_TTL);
     }
 
-    public Object getProductCache(Long productId) {
-        return get(PRODUCT_PREFIX + productId);
+    @SuppressWarnings("unchecked")
+    public <T> T getProductCache(Long productId) {
+        return (T) get(PRODUCT_PREFIX + productId);
     }
 
     public void deleteProductCache(Long productId) {
@@ -187,11 +511,12 @@ public class CacheManager {
      * 权限缓存操作
      */
     public void setPermissionCache(Long userId, Object permissions) {
-        set(PERMISSION_PREFIX + userId, permissions, Duration.ofMinutes(15));
+        set(PERMISSION_PREFIX + userId, permissions, PERMISSION_TTL);
     }
 
-    public Object getPermissionCache(Long userId) {
-        return get(PERMISSION_PREFIX + userId);
+    @SuppressWarnings("unchecked")
+    public <T> T getPermissionCache(Long userId) {
+        return (T) get(PERMISSION_PREFIX + userId);
     }
 
     public void deletePermissionCache(Long userId) {
@@ -203,10 +528,415 @@ public class CacheManager {
      */
     public void clearAllCache() {
         try {
-            redisTemplate.getConnectionFactory().getConnection().flushDb();
+            cacheRedisTemplate.getConnectionFactory().getConnection().flushDb();
+            if (localCache != null) {
+                localCache.invalidateAll();
+            }
+            if (hotReplica != null) {
+                hotReplica.invalidateAll();
+            }
+            publishInvalidation(List.of(ALL_KEYS));
             log.info("清除所有缓存成功");
         } catch (Exception e) {
             log.error("清除所有缓存失败", e);
         }
     }
+
+    /**
+     * 按key前缀统计的L1/L2命中率
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        return stats.snapshot();
+    }
+
+    /**
+     * 本地缓存当前条目数
+     */
+    public long getLocalSize() {
+        return localCache != null ? localCache.size() : 0;
+    }
+
+    /**
+     * 当前热点key及其估算访问量
+     */
+    public Map<String, Object> getHotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", hotKeyDetector != null);
+        if (hotKeyDetector != null) {
+            result.put("threshold", hotKeyDetector.getThreshold());
+            result.put("sampleRate", hotKeyDetector.getSampleRate());
+            result.put("replicaSize", hotReplica.size());
+            result.put("keys", hotKeyDetector.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * 接收其他节点广播的失效消息
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        String[] keys = body.substring(separator + 1).split(KEY_SEPARATOR);
+        if (hotKeyDetector != null
+                && shopXConfig.getCache().getHotKey().getChannel().equals(new String(message.getChannel(), StandardCharsets.UTF_8))) {
+            for (String key : keys) {
+                hotKeyDetector.markHot(key);
+            }
+            log.debug("收到热点key广播: {}", body);
+            return;
+        }
+        for (String key : keys) {
+            if (ALL_KEYS.equals(key)) {
+                if (localCache != null) {
+                    localCache.invalidateAll();
+                }
+                if (hotReplica != null) {
+                    hotReplica.invalidateAll();
+                }
+                return;
+            }
+            if (localCache != null) {
+                localCache.invalidate(key);
+            }
+            if (hotReplica != null) {
+                hotReplica.invalidate(key);
+            }
+        }
+        log.debug("收到本地缓存失效广播: {}", body);
+    }
+
+    /**
+     * 从本地缓存或热点副本读取，命中时记录L1命中
+     * 每次读取都会计入热点探测，新出现的热点key广播给其他节点
+     */
+    private Object getLocal(String key, String prefix) {
+        if (hotKeyDetector != null && hotKeyDetector.record(key)) {
+            publishHotKey(key);
+        }
+        Object local = null;
+        if (localTtlMillis(key) > 0) {
+            local = localCache.get(key);
+        }
+        if (local == null && hotReplica != null) {
+            local = hotReplica.get(key);
+        }
+        if (local != null) {
+            stats.recordL1Hit(prefix);
+            log.debug("获取缓存: key={}, hit=L1", key);
+        }
+        return local;
+    }
+
+    /**
+     * 写入本地缓存，热点key同时写入热点副本
+     * 返回是否写入了任一本地结构（需要广播失效）
+     */
+    private boolean putLocal(String key, Object value) {
+        boolean stored = false;
+        // 空值占位在本地的存活时间不超过负缓存TTL
+        long maxTtl = value == NullValue.INSTANCE ? negativeTtlMillis() : Long.MAX_VALUE;
+        long localTtl = Math.min(localTtlMillis(key), maxTtl);
+        if (localTtl > 0) {
+            localCache.put(key, value, localTtl);
+            stored = true;
+        }
+        if (hotKeyDetector != null && hotKeyDetector.isHot(key)) {
+            long replicaTtl = TimeUnit.SECONDS.toMillis(shopXConfig.getCache().getHotKey().getReplicaTtlSeconds());
+            hotReplica.put(key, value, Math.min(replicaTtl, maxTtl));
+            stored = true;
+        }
+        return stored;
+    }
+
+    private static Object unwrap(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+
+    private static void putIfPresent(Map<String, Object> result, String key, Object value) {
+        if (value != NullValue.INSTANCE) {
+            result.put(key, value);
+        }
+    }
+
+    private long negativeTtlMillis() {
+        Integer seconds = shopXConfig.getCache().getNegativeTtlSeconds();
+        return seconds != null && seconds > 0 ? TimeUnit.SECONDS.toMillis(seconds) : 0;
+    }
+
+    private void publishHotKey(String key) {
+        try {
+            stringRedisTemplate.convertAndSend(shopXConfig.getCache().getHotKey().getChannel(), nodeId + MESSAGE_SEPARATOR + key);
+            log.info("检测到热点key: key={}, estimate={}", key, hotKeyDetector.estimate(key));
+        } catch (Exception e) {
+            log.error("发布热点key消息失败: key={}", key, e);
+        }
+    }
+
+    /**
+     * 通过管道一次往返同时读取值与剩余过期时间（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    private CachedValue getWithTtl(String key) {
+        try {
+            List<Object> results = cacheRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                    ops.opsForValue().get(key);
+                    ops.getExpire(key, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+            });
+            Object ttl = results.get(1);
+            Object value = codec.decode((byte[]) results.get(0));
+            return new CachedValue(value, ttl instanceof Number ? ((Number) ttl).longValue() : -1);
+        } catch (Exception e) {
+            log.error("获取缓存失败: key={}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 解码失败（如实体结构变更后的旧数据）按未命中处理
+     */
+    private Object decodeQuietly(String key, byte[] bytes) {
+        try {
+            return codec.decode(bytes);
+        } catch (Exception e) {
+            log.warn("缓存解码失败，按未命中处理: key={}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 本节点内合并同key的并发回源
+     */
+    private Object loadSingleFlight(String key, Duration ttl, Supplier<?> loader, String[] tags) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return awaitLoad(key, existing, loader);
+        }
+        try {
+            Object value = loadWithLock(key, ttl, loader, tags);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private Object awaitLoad(String key, CompletableFuture<Object> future, Supplier<?> loader) {
+        ShopXConfig.Cache.Load load = shopXConfig.getCache().getLoad();
+        try {
+            return future.get(load.getLockWaitMillis() + load.getLockLeaseMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("缓存加载失败: " + key, e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("等待缓存加载超时，直接回源: key={}", key);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待缓存加载被中断: " + key, e);
+        }
+    }
+
+    /**
+     * 跨节点回源：持锁节点负责加载，其他节点等锁后复查Redis
+     * 获取锁超时或Redisson不可用时降级为直接回源
+     */
+    private Object loadWithLock(String key, Duration ttl, Supplier<?> loader, String[] tags) {
+        ShopXConfig.Cache.Load load = shopXConfig.getCache().getLoad();
+        RLock lock = redissonClient.getLock(loadLockKey(key));
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(load.getLockWaitMillis(), load.getLockLeaseMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("获取缓存加载锁失败，直接回源: key={}", key, e);
+        }
+        try {
+            // 等锁期间其他节点可能已完成加载
+            CachedValue cached = getWithTtl(key);
+            if (cached != null && cached.value != null) {
+                putLocal(key, cached.value);
+                return cached.value;
+            }
+            return loadAndSet(key, ttl, loader, tags);
+        } finally {
+            unlockQuietly(lock, locked);
+        }
+    }
+
+    /**
+     * 后台提前刷新，同一key同时只有一个刷新任务，且其他节点正在刷新时直接跳过
+     * 刷新可能因未取得锁而不加载，因此不登记到inFlight，同key的未命中仍自行回源
+     */
+    private void refreshAsync(String key, Duration ttl, Supplier<?> loader, String[] tags) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            asyncExecutor.execute(() -> {
+                RLock lock = redissonClient.getLock(loadLockKey(key));
+                boolean locked = false;
+                try {
+                    locked = lock.tryLock(0, shopXConfig.getCache().getLoad().getLockLeaseMillis(), TimeUnit.MILLISECONDS);
+                    if (locked) {
+                        loadAndSet(key, ttl, loader, tags);
+                        log.debug("提前刷新缓存: key={}", key);
+                    }
+                } catch (Exception e) {
+                    log.warn("提前刷新缓存失败: key={}", key, e);
+                } finally {
+                    unlockQuietly(lock, locked);
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private Object loadAndSet(String key, Duration ttl, Supplier<?> loader, String[] tags) {
+        long start = System.currentTimeMillis();
+        Object value = loader.get();
+        loadCostMillis.put(resolvePrefix(key), System.currentTimeMillis() - start);
+        if (value == null) {
+            long negativeTtl = negativeTtlMillis();
+            if (negativeTtl > 0) {
+                set(key, NullValue.INSTANCE, Duration.ofMillis(Math.min(negativeTtl, ttl.toMillis())));
+            }
+        } else if (tags.length > 0) {
+            set(key, value, ttl, tags);
+        } else {
+            set(key, value, ttl);
+        }
+        return value;
+    }
+
+    /**
+     * XFetch：剩余时间越短、回源越慢，提前刷新概率越高
+     * 触发条件 -cost * beta * ln(rand) >= 剩余时间
+     */
+    private boolean shouldRefreshEarly(String prefix, long ttlMillis) {
+        double beta = shopXConfig.getCache().getLoad().getEarlyRefreshBeta();
+        if (ttlMillis <= 0 || beta <= 0) {
+            return false;
+        }
+        long cost = Math.max(1, loadCostMillis.getOrDefault(prefix, 1L));
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -cost * beta * Math.log(random) >= ttlMillis;
+    }
+
+    private String loadLockKey(String key) {
+        return shopXConfig.getRedis().getLockPrefix() + "cache:" + key;
+    }
+
+    private void unlockQuietly(RLock lock, boolean locked) {
+        try {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            log.warn("释放缓存加载锁失败: lock={}", lock.getName(), e);
+        }
+    }
+
+    /**
+     * 写入后刷新本节点L1，并通知其他节点丢弃旧值
+     */
+    private void refreshLocal(String key, Object value) {
+        if (putLocal(key, value)) {
+            publishInvalidation(List.of(key));
+        }
+    }
+
+    /**
+     * 删除本节点L1中的key，并通知其他节点
+     */
+    private void invalidateLocal(List<String> keys) {
+        if (localCache == null && hotReplica == null) {
+            return;
+        }
+        List<String> localKeys = new ArrayList<>();
+        for (String key : keys) {
+            boolean local = localTtlMillis(key) > 0;
+            // 热点状态通过广播在各节点间共享，本节点判定为热点说明其他节点也持有副本
+            boolean hot = hotKeyDetector != null && hotKeyDetector.isHot(key);
+            if (local) {
+                localCache.invalidate(key);
+            }
+            if (hotReplica != null) {
+                hotReplica.invalidate(key);
+            }
+            if (local || hot) {
+                localKeys.add(key);
+            }
+        }
+        publishInvalidation(localKeys);
+    }
+
+    private void publishInvalidation(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            String message = nodeId + MESSAGE_SEPARATOR + String.join(KEY_SEPARATOR, keys);
+            stringRedisTemplate.convertAndSend(shopXConfig.getCache().getInvalidationChannel(), message);
+        } catch (Exception e) {
+            log.error("发布缓存失效消息失败: keys={}", keys, e);
+        }
+    }
+
+    /**
+     * key对应前缀的本地缓存TTL（毫秒），0表示不进入本地缓存
+     */
+    private long localTtlMillis(String key) {
+        if (localCache == null) {
+            return 0;
+        }
+        Integer seconds = shopXConfig.getCache().getLocal().getTtl().get(resolvePrefixName(key));
+        return seconds != null && seconds > 0 ? TimeUnit.SECONDS.toMillis(seconds) : 0;
+    }
+
+    /**
+     * 解析key前缀，如 shopx:product:1 -> shopx:product:
+     */
+    static String resolvePrefix(String key) {
+        int first = key.indexOf(':');
+        int second = first < 0 ? -1 : key.indexOf(':', first + 1);
+        return second < 0 ? key : key.substring(0, second + 1);
+    }
+
+    /**
+     * 解析key前缀名，如 shopx:product:1 -> product
+     */
+    static String resolvePrefixName(String key) {
+        int first = key.indexOf(':');
+        int second = first < 0 ? -1 : key.indexOf(':', first + 1);
+        return second < 0 ? "" : key.substring(first + 1, second);
+    }
+
+    private static final class CachedValue {
+        private final Object value;
+        private final long ttlMillis;
+
+        CachedValue(Object value, long ttlMillis) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package com.shopx.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存命中统计
+ * 按key前缀分别统计本地缓存（L1）与Redis（L2）的命中情况
+ */
+public class CacheStats {
+
+    private final Map<String, PrefixStats> stats = new ConcurrentHashMap<>();
+
+    public void recordL1Hit(String prefix) {
+        statsFor(prefix).l1Hits.increment();
+    }
+
+    public void recordL2Hit(String prefix) {
+        statsFor(prefix).l2Hits.increment();
+    }
+
+    public void recordMiss(String prefix) {
+        statsFor(prefix).misses.increment();
+    }
+
+    /**
+     * 统计快照
+     * l1HitRatio = L1命中 / 总请求；l2HitRatio = L2命中 / 穿透到L2的请求
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        stats.forEach((prefix, s) -> {
+            long l1Hits = s.l1Hits.sum();
+            long l2Hits = s.l2Hits.sum();
+            long misses = s.misses.sum();
+            long l2Requests = l2Hits + misses;
+            long requests = l1Hits + l2Requests;
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("requests", requests);
+            item.put("l1Hits", l1Hits);
+            item.put("l2Hits", l2Hits);
+            item.put("misses", misses);
+            item.put("l1HitRatio", ratio(l1Hits, requests));
+            item.put("l2HitRatio", ratio(l2Hits, l2Requests));
+            item.put("hitRatio", ratio(l1Hits + l2Hits, requests));
+            result.put(prefix, item);
+        });
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private PrefixStats statsFor(String prefix) {
+        return stats.computeIfAbsent(prefix, p -> new PrefixStats());
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0.0 : (double) part / total;
+    }
+
+    private static final class PrefixStats {
+        private final LongAdder l1Hits = new LongAdder();
+        private final LongAdder l2Hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
@@ -0,0 +1,255 @@
+package com.shopx.cache;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.constant.Constants;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.service.ProductService;
+import com.shopx.service.UserService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 启动缓存预热
+ * ApplicationRunner在ApplicationReadyEvent之前执行，预热完成（或超时）后就绪探针才会变为ACCEPTING_TRAFFIC；
+ * 预热内容：热门商品详情与热门列表、各角色权限列表、各分类第一页列表，按配置并行、限速加载
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CacheWarmUp implements ApplicationRunner {
+
+    private static final List<String> ROLES = List.of(
+            Constants.UserRole.USER, Constants.UserRole.SELLER, Constants.UserRole.ADMIN);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    private final AtomicInteger totalTasks = new AtomicInteger();
+    private final AtomicInteger completedTasks = new AtomicInteger();
+    private final AtomicInteger failedTasks = new AtomicInteger();
+    private final AtomicLong loadedItems = new AtomicLong();
+
+    private volatile String state = "PENDING";
+    private volatile long durationMillis;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("shopx.cache.warmup.tasks", totalTasks, AtomicInteger::get)
+                .tag("state", "total").description("缓存预热任务总数").register(meterRegistry);
+        Gauge.builder("shopx.cache.warmup.tasks", completedTasks, AtomicInteger::get)
+                .tag("state", "completed").description("缓存预热已完成任务数").register(meterRegistry);
+        Gauge.builder("shopx.cache.warmup.tasks", failedTasks, AtomicInteger::get)
+                .tag("state", "failed").description("缓存预热失败任务数").register(meterRegistry);
+        Gauge.builder("shopx.cache.warmup.items", loadedItems, AtomicLong::get)
+                .description("缓存预热已加载条目数").register(meterRegistry);
+        Gauge.builder("shopx.cache.warmup.progress", this, CacheWarmUp::progress)
+                .description("缓存预热进度（0-1）").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    /**
+     * 执行预热，单个任务失败只记录不影响启动
+     */
+    public void warmUp() {
+        ShopXConfig.Cache.Warmup config = shopXConfig.getCache().getWarmup();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            state = "DISABLED";
+            log.info("缓存预热未启用");
+            return;
+        }
+
+        state = "RUNNING";
+        long start = System.currentTimeMillis();
+        List<WarmUpTask> tasks = planTasks(config);
+        totalTasks.set(tasks.size());
+        log.info("开始缓存预热: tasks={}, parallelism={}, ratePerSecond={}",
+                tasks.size(), config.getParallelism(), config.getRatePerSecond());
+
+        RateLimiter rateLimiter = new RateLimiter(config.getRatePerSecond());
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "shopx-warmup-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?>[] futures = tasks.stream()
+                    .map(task -> CompletableFuture.runAsync(() -> execute(task, rateLimiter), executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).get(config.getTimeoutSeconds(), TimeUnit.SECONDS);
+            state = failedTasks.get() == 0 ? "COMPLETED" : "COMPLETED_WITH_ERRORS";
+        } catch (TimeoutException e) {
+            state = "TIMEOUT";
+            log.warn("缓存预热超时，剩余任务放弃: timeout={}s", config.getTimeoutSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = "INTERRUPTED";
+        } catch (ExecutionException e) {
+            state = "FAILED";
+            log.error("缓存预热失败", e);
+        } finally {
+            executor.shutdownNow();
+            durationMillis = System.currentTimeMillis() - start;
+        }
+        log.info("缓存预热结束: state={}, completed={}/{}, failed={}, items={}, cost={}ms",
+                state, completedTasks.get(), totalTasks.get(), failedTasks.get(), loadedItems.get(), durationMillis);
+    }
+
+    /**
+     * 预热状态（供监控端点展示）
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("totalTasks", totalTasks.get());
+        status.put("completedTasks", completedTasks.get());
+        status.put("failedTasks", failedTasks.get());
+        status.put("loadedItems", loadedItems.get());
+        status.put("progress", progress());
+        status.put("durationMillis", durationMillis);
+        return status;
+    }
+
+    private double progress() {
+        int total = totalTasks.get();
+        return total == 0 ? 0.0 : (double) (completedTasks.get() + failedTasks.get()) / total;
+    }
+
+    private List<WarmUpTask> planTasks(ShopXConfig.Cache.Warmup config) {
+        List<WarmUpTask> tasks = new ArrayList<>();
+
+        for (String role : ROLES) {
+            tasks.add(new WarmUpTask("permission:" + role, 1, () -> userService.getRolePermissions(role)));
+        }
+
+        for (Integer limit : config.getHotLimits()) {
+            tasks.add(new WarmUpTask("hot:" + limit, limit, () -> productService.getHotProducts(limit)));
+        }
+
+        try {
+            List<Long> hotIds = productMapper.selectHotProductIds(config.getHotProductCount());
+            int batchSize = Math.max(1, config.getProductBatchSize());
+            for (int i = 0; i < hotIds.size(); i += batchSize) {
+                List<Long> batch = hotIds.subList(i, Math.min(i + batchSize, hotIds.size()));
+                tasks.add(new WarmUpTask("products:" + i, batch.size(), () -> productService.getProductsByIds(batch)));
+            }
+        } catch (Exception e) {
+            log.error("查询热门商品失败，跳过商品详情预热", e);
+        }
+
+        int pageSize = config.getCategoryPageSize();
+        tasks.add(new WarmUpTask("category:all", pageSize, () -> productService.getProducts(1, pageSize, null, null)));
+        try {
+            for (String category : productMapper.selectCategories()) {
+                tasks.add(new WarmUpTask("category:" + category, pageSize * 2, () -> {
+                    productService.getProducts(1, pageSize, null, category);
+                    productService.getProductsByCategory(category, 1, pageSize);
+                }));
+            }
+        } catch (Exception e) {
+            log.error("查询商品分类失败，跳过分类列表预热", e);
+        }
+        return tasks;
+    }
+
+    private void execute(WarmUpTask task, RateLimiter rateLimiter) {
+        rateLimiter.acquire(task.weight);
+        try {
+            task.loader.run();
+            completedTasks.incrementAndGet();
+            loadedItems.addAndGet(task.weight);
+        } catch (Exception e) {
+            failedTasks.incrementAndGet();
+            log.warn("缓存预热任务失败: task={}", task.name, e);
+        }
+        logProgress();
+    }
+
+    /**
+     * 每完成10%输出一次进度
+     */
+    private void logProgress() {
+        int total = totalTasks.get();
+        int done = completedTasks.get() + failedTasks.get();
+        if (total > 0 && done * 10 / total != (done - 1) * 10 / total) {
+            log.info("缓存预热进度: {}/{} ({}%)", done, total, done * 100 / total);
+        }
+    }
+
+    private static final class WarmUpTask {
+
+        private final String name;
+        private final int weight;
+        private final Runnable loader;
+
+        WarmUpTask(String name, int weight, Runnable loader) {
+            this.name = name;
+            this.weight = Math.max(1, weight);
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * 按条目数平滑限速：每个任务预约 weight / ratePerSecond 秒的时间片，未到时间片起点时等待
+     */
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+        private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+
+        RateLimiter(int ratePerSecond) {
+            this.intervalNanos = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+        }
+
+        void acquire(int permits) {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            long cost = intervalNanos * permits;
+            long previous = nextFreeNanos.getAndUpdate(next -> Math.max(next, now) + cost);
+            long waitNanos = previous - now;
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+    }
+}
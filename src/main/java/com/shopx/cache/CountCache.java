@@ -0,0 +1,91 @@
+package com.shopx.cache;
+
+import com.shopx.config.ShopXConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数缓存
+ * 页码分页（CachedCountPaginationInterceptor，key为规范化SQL+参数的摘要）与游标分页的可选总数（key为业务前缀，
+ * 如 order:user:1）共用同一个本地缓存与配置 shopx.pagination.count-cache，
+ * 总数缓存 ttl-seconds，期间新增/删除的行不会立即反映；enabled=false 时每次都精确计数
+ */
+public class CountCache {
+
+    private final ShopXConfig.Pagination.CountCache config;
+    private final LocalCache cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong approximations = new AtomicLong();
+
+    public CountCache(ShopXConfig.Pagination.CountCache config) {
+        this.config = config;
+        this.cache = new LocalCache(config.getMaxEntries());
+    }
+
+    public ShopXConfig.Pagination.CountCache getConfig() {
+        return config;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getEnabled());
+    }
+
+    /**
+     * 读取缓存的总数，未命中返回null
+     */
+    public Long getIfPresent(String key) {
+        Object cached = cache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return (Long) cached;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, long total) {
+        cache.put(key, total, config.getTtlSeconds() * 1000L);
+    }
+
+    /**
+     * 读取缓存的总数，未命中时通过counter计数并缓存；未启用时直接计数
+     */
+    public long get(String key, Supplier<Long> counter) {
+        if (!isEnabled()) {
+            Long count = counter.get();
+            return count != null ? count : 0L;
+        }
+        Long cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Long count = counter.get();
+        long total = count != null ? count : 0L;
+        put(key, total);
+        return total;
+    }
+
+    /**
+     * 记录一次用表统计信息代替精确计数
+     */
+    public void recordApproximation() {
+        approximations.incrementAndGet();
+    }
+
+    /**
+     * 注册计数缓存命中、未命中、使用表统计信息的次数
+     */
+    public void registerMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("shopx.pagination.count.cache", hits, AtomicLong::get)
+                .tag("result", "hit").description("分页计数缓存命中次数").register(meterRegistry);
+        FunctionCounter.builder("shopx.pagination.count.cache", misses, AtomicLong::get)
+                .tag("result", "miss").description("分页计数缓存未命中次数").register(meterRegistry);
+        FunctionCounter.builder("shopx.pagination.count.cache", approximations, AtomicLong::get)
+                .tag("result", "approximate").description("分页计数使用表统计信息的次数").register(meterRegistry);
+    }
+}
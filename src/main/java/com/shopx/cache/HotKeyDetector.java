@@ -0,0 +1,178 @@
+package com.shopx.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 热点key探测器
+ * 按采样率抽样访问，用Count-Min Sketch估算每个key在当前窗口内的访问量，超过阈值即判定为热点；
+ * 由定时任务每个窗口调用一次 {@link #decay()} 把计数减半，使历史热度逐步衰减，请求线程只做自增
+ */
+public class HotKeyDetector {
+
+    private final int depth;
+    private final int width;
+    private final AtomicIntegerArray counters;
+    private final int sampleRate;
+    private final long threshold;
+    private final long holdMillis;
+    private final int maxHotKeys;
+    private final LongSupplier clock;
+
+    /**
+     * 热点key -> 热点状态到期时间
+     */
+    private final Map<String, Long> hotKeys = new ConcurrentHashMap<>();
+
+    /**
+     * @param depth Sketch行数（哈希函数个数）
+     * @param width Sketch每行计数器个数，向上取整为2的幂
+     * @param sampleRate 每N次访问抽样一次，1表示全部计数
+     * @param threshold 窗口内估算访问量达到该值判定为热点
+     * @param holdMillis 热点状态保持时间，期间再次达到阈值会续期
+     * @param maxHotKeys 同时保持的热点key上限
+     */
+    public HotKeyDetector(int depth, int width, int sampleRate, long threshold, long holdMillis, int maxHotKeys) {
+        this(depth, width, sampleRate, threshold, holdMillis, maxHotKeys, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock 毫秒时钟，用于热点状态到期判断
+     */
+    public HotKeyDetector(int depth, int width, int sampleRate, long threshold, long holdMillis, int maxHotKeys,
+                          LongSupplier clock) {
+        this.depth = Math.max(1, depth);
+        this.width = Math.max(16, Integer.highestOneBit(width - 1) << 1);
+        this.counters = new AtomicIntegerArray(this.depth * this.width);
+        this.sampleRate = Math.max(1, sampleRate);
+        this.threshold = threshold;
+        this.holdMillis = holdMillis;
+        this.maxHotKeys = maxHotKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * 记录一次访问
+     * 返回true表示该key刚成为热点或热点状态过半需要续期，调用方应广播给其他节点
+     */
+    public boolean record(String key) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return false;
+        }
+        int h1 = key.hashCode();
+        int h2 = mix(h1) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * width + ((h1 + i * h2) & (width - 1));
+            min = Math.min(min, counters.incrementAndGet(index));
+        }
+        if ((long) min * sampleRate < threshold) {
+            return false;
+        }
+        return markHot(key, clock.getAsLong());
+    }
+
+    /**
+     * 标记为热点（收到其他节点广播时调用）
+     */
+    public boolean markHot(String key) {
+        return markHot(key, clock.getAsLong());
+    }
+
+    /**
+     * 是否为热点key
+     */
+    public boolean isHot(String key) {
+        Long expireAt = hotKeys.get(key);
+        if (expireAt == null) {
+            return false;
+        }
+        if (expireAt <= clock.getAsLong()) {
+            hotKeys.remove(key, expireAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 估算key在当前窗口内的访问量
+     */
+    public long estimate(String key) {
+        int h1 = key.hashCode();
+        int h2 = mix(h1) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counters.get(i * width + ((h1 + i * h2) & (width - 1))));
+        }
+        return (long) min * sampleRate;
+    }
+
+    /**
+     * 当前热点key列表，按估算访问量降序
+     */
+    public List<Map<String, Object>> snapshot() {
+        long now = clock.getAsLong();
+        List<Map<String, Object>> result = new ArrayList<>();
+        hotKeys.forEach((key, expireAt) -> {
+            if (expireAt <= now) {
+                hotKeys.remove(key, expireAt);
+                return;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("key", key);
+            item.put("estimate", estimate(key));
+            item.put("expiresInMillis", expireAt - now);
+            result.add(item);
+        });
+        result.sort(Comparator.comparingLong((Map<String, Object> item) -> (Long) item.get("estimate")).reversed());
+        return result;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    private boolean markHot(String key, long now) {
+        Long expireAt = hotKeys.get(key);
+        if (expireAt == null && hotKeys.size() >= maxHotKeys) {
+            return false;
+        }
+        if (expireAt != null && expireAt - now > holdMillis / 2) {
+            return false;
+        }
+        hotKeys.put(key, now + holdMillis);
+        return true;
+    }
+
+    /**
+     * 所有计数减半并清理已到期的热点key，每个窗口由定时任务调用一次
+     * 减半与并发自增之间不加锁，少量计数误差对热点判定可以接受
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+        long now = clock.getAsLong();
+        hotKeys.entrySet().removeIf(entry -> entry.getValue() <= now);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shopx.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 热点key监控端点
+ * 访问 /actuator/hotkeys 查看本节点当前的热点key集合及估算访问量
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        return cacheManager.getHotKeys();
+    }
+}
@@ -0,0 +1,259 @@
+package com.shopx.cache;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.LongConsumer;
+
+/**
+ * 商品/用户ID布隆过滤器
+ * 启动时及定期从数据库重建，新建商品/用户时写入并广播给其他节点；广播是即发即弃的，
+ * 另按 catch-up-interval-millis 从数据库增量补入大于已加载最大ID的新ID。
+ * 判定为一定不存在的ID直接拒绝，不再访问缓存与数据库；但大于已加载最大ID的ID可能是尚未补入的新记录，仍放行回源。
+ * 过滤器尚未构建完成时一律放行
+ */
+@Slf4j
+@Component
+public class IdBloomFilter implements MessageListener {
+
+    public static final String PRODUCT = "product";
+    public static final String USER = "user";
+
+    private static final String MESSAGE_SEPARATOR = ":";
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    private final Holder products = new Holder();
+    private final Holder users = new Holder();
+
+    @PostConstruct
+    public void init() {
+        if (isEnabled()) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(shopXConfig.getCache().getBloom().getChannel()));
+        }
+    }
+
+    /**
+     * 启动完成、对外提供服务前构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期重建，清除已删除ID并修正可能丢失的广播
+     */
+    @Scheduled(initialDelayString = "${shopx.cache.bloom.rebuild-interval-millis:3600000}",
+            fixedDelayString = "${shopx.cache.bloom.rebuild-interval-millis:3600000}")
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        rebuild(PRODUCT, products, productMapper::selectIdsAfter);
+        rebuild(USER, users, userMapper::selectIdsAfter);
+    }
+
+    /**
+     * 增量补入上次扫描以来新建的ID，弥补丢失的广播
+     * 每次从上上次的最大ID开始扫描，与上一轮重叠一个间隔，覆盖ID较小但提交较晚的记录
+     */
+    @Scheduled(initialDelayString = "${shopx.cache.bloom.catch-up-interval-millis:10000}",
+            fixedDelayString = "${shopx.cache.bloom.catch-up-interval-millis:10000}")
+    public void catchUp() {
+        if (!isEnabled()) {
+            return;
+        }
+        catchUp(PRODUCT, products, productMapper::selectIdsAfter);
+        catchUp(USER, users, userMapper::selectIdsAfter);
+    }
+
+    public boolean mightContainProduct(Long id) {
+        return mightContain(products, id);
+    }
+
+    public boolean mightContainUser(Long id) {
+        return mightContain(users, id);
+    }
+
+    /**
+     * 登记新建商品ID，并通知其他节点
+     */
+    public void addProduct(Long id) {
+        add(PRODUCT, products, id);
+    }
+
+    /**
+     * 登记新建用户ID，并通知其他节点
+     */
+    public void addUser(Long id) {
+        add(USER, users, id);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        try {
+            long id = Long.parseLong(body.substring(separator + 1));
+            Holder holder = PRODUCT.equals(body.substring(0, separator)) ? products : users;
+            holder.put(id);
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法解析的布隆过滤器消息: {}", body);
+        }
+    }
+
+    private boolean mightContain(Holder holder, Long id) {
+        if (id == null || !isEnabled()) {
+            return true;
+        }
+        BloomFilter filter = holder.current;
+        return filter == null || filter.mightContain(id) || id > holder.maxId;
+    }
+
+    private void add(String type, Holder holder, Long id) {
+        if (id == null || !isEnabled()) {
+            return;
+        }
+        holder.put(id);
+        try {
+            stringRedisTemplate.convertAndSend(shopXConfig.getCache().getBloom().getChannel(), type + MESSAGE_SEPARATOR + id);
+        } catch (Exception e) {
+            log.error("发布布隆过滤器消息失败: type={}, id={}", type, id, e);
+        }
+    }
+
+    /**
+     * 按ID游标分批扫描构建新过滤器，完成后整体替换
+     * 构建期间新增的ID同时写入新旧两个过滤器，避免替换后丢失
+     */
+    private void rebuild(String type, Holder holder, BiFunction<Long, Integer, List<Long>> idLoader) {
+        ShopXConfig.Cache.Bloom config = shopXConfig.getCache().getBloom();
+        long start = System.currentTimeMillis();
+        try {
+            BloomFilter filter = new BloomFilter(config.getExpectedInsertions(), config.getFalsePositiveRate());
+            holder.building = filter;
+            long[] scanned = scan(filter::put, idLoader, 0);
+            synchronized (holder) {
+                holder.current = filter;
+                holder.maxId = Math.max(holder.maxId, scanned[1]);
+                holder.scanFrom = holder.maxId;
+            }
+            if (scanned[0] > config.getExpectedInsertions()) {
+                log.warn("布隆过滤器元素数超过预期，误判率将上升: type={}, count={}, expected={}",
+                        type, scanned[0], config.getExpectedInsertions());
+            }
+            log.info("布隆过滤器重建完成: type={}, count={}, maxId={}, bits={}, hashes={}, cost={}ms",
+                    type, scanned[0], scanned[1], filter.bitSize(), filter.hashCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("布隆过滤器重建失败，保留原过滤器: type={}", type, e);
+        } finally {
+            holder.building = null;
+        }
+    }
+
+    /**
+     * 从上次扫描位置起增量补入，与全量重建一样同时写入正在构建的过滤器
+     */
+    private void catchUp(String type, Holder holder, BiFunction<Long, Integer, List<Long>> idLoader) {
+        if (holder.current == null) {
+            return;
+        }
+        try {
+            long from = holder.scanFrom;
+            long[] scanned = scan(holder::put, idLoader, from);
+            synchronized (holder) {
+                holder.scanFrom = holder.maxId;
+                holder.maxId = Math.max(holder.maxId, scanned[1]);
+            }
+            if (scanned[0] > 0) {
+                log.debug("布隆过滤器增量补入: type={}, from={}, count={}, maxId={}", type, from, scanned[0], scanned[1]);
+            }
+        } catch (Exception e) {
+            log.warn("布隆过滤器增量补入失败: type={}", type, e);
+        }
+    }
+
+    /**
+     * 从afterId之后按ID游标分批写入过滤器，返回 {写入数, 最大ID}
+     */
+    private long[] scan(LongConsumer sink, BiFunction<Long, Integer, List<Long>> idLoader, long afterId) {
+        int batchSize = shopXConfig.getCache().getBloom().getRebuildBatchSize();
+        long lastId = afterId;
+        long count = 0;
+        while (true) {
+            List<Long> ids = idLoader.apply(lastId, batchSize);
+            for (Long id : ids) {
+                sink.accept(id);
+            }
+            count += ids.size();
+            if (!ids.isEmpty()) {
+                lastId = ids.get(ids.size() - 1);
+            }
+            if (ids.size() < batchSize) {
+                return new long[]{count, lastId};
+            }
+        }
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(shopXConfig.getCache().getBloom().getEnabled());
+    }
+
+    private static final class Holder {
+
+        private volatile BloomFilter current;
+        private volatile BloomFilter building;
+        /**
+         * 已从数据库加载的最大ID；过滤器判定不存在但ID更大时仍放行
+         */
+        private volatile long maxId;
+        /**
+         * 下次增量扫描的起点（上一轮扫描前的最大ID）
+         */
+        private volatile long scanFrom;
+
+        void put(long id) {
+            BloomFilter filter = current;
+            if (filter != null) {
+                filter.put(id);
+            }
+            BloomFilter next = building;
+            if (next != null) {
+                next.put(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.shopx.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内本地缓存（L1）
+ * 按key哈希分段的LRU结构，每段独立加锁，条目带过期时间
+ */
+public class LocalCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments;
+    private final LongSupplier clock;
+
+    public LocalCache(int maximumSize) {
+        this(maximumSize, System::currentTimeMillis);
+    }
+
+    /**
+     * @param maximumSize 最大条目数，按段均分
+     * @param clock 毫秒时钟，用于判断过期
+     */
+    public LocalCache(int maximumSize, LongSupplier clock) {
+        this.clock = clock;
+        int segmentCapacity = Math.max(1, maximumSize / SEGMENT_COUNT);
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期返回null
+     */
+    public Object get(String key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(clock.getAsLong())) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    /**
+     * 写入缓存值
+     */
+    public void put(String key, Object value, long ttlMillis) {
+        if (value == null || ttlMillis <= 0) {
+            return;
+        }
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry(value, clock.getAsLong() + ttlMillis));
+        }
+    }
+
+    /**
+     * 移除缓存值
+     */
+    public void invalidate(String key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * 当前条目数（包含尚未清理的过期条目）
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * 访问顺序的LinkedHashMap，超过容量时淘汰最久未访问的条目
+     */
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long expireAt;
+
+        Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expireAt;
+        }
+    }
+}
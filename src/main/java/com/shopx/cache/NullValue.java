@@ -0,0 +1,10 @@
+package com.shopx.cache;
+
+/**
+ * 空值占位符
+ * 回源结果为null时写入缓存，表示“已确认不存在”，避免不存在的key反复穿透到数据库
+ */
+public enum NullValue {
+
+    INSTANCE
+}
@@ -0,0 +1,51 @@
+package com.shopx.config;
+
+import com.shopx.cache.BinaryCacheCodec;
+import com.shopx.cache.CacheCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * 缓存配置
+ * 提供本地缓存失效广播所需的Redis订阅容器，以及CacheManager使用的字节模板和编解码器
+ */
+@Configuration
+public class CacheConfig {
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * 缓存专用模板：key为字符串，value为CacheCodec编码后的原始字节
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> cacheRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setHashKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheCodec cacheCodec() {
+        return new BinaryCacheCodec(RedisSerializer.java(), shopXConfig.getCache().getCodec().getCompressThreshold());
+    }
+}
@@ -0,0 +1,156 @@
+package com.shopx.config;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.ParameterUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.shopx.cache.CountCache;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 带计数缓存的分页拦截器
+ * 在MyBatis-Plus分页插件执行COUNT之前，以“规范化SQL + 参数值”为key查CountCache（与游标分页的总数共用），
+ * 命中时直接复用总数，未命中时照常执行COUNT并缓存 shopx.pagination.count-cache.ttl-seconds；
+ * approximate开启时，无WHERE、无JOIN的单表全量计数改用表统计信息（information_schema.TABLES.TABLE_ROWS），
+ * 估算值低于approximate-min-rows时仍精确计数（小表统计误差大，且精确计数本身很便宜）
+ * 只对mappers中配置的Mapper生效，总数允许在TTL内与实时数量有偏差
+ */
+@Slf4j
+public class CachedCountPaginationInterceptor extends PaginationInnerInterceptor {
+
+    private static final String TABLE_ROWS_SQL =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    private final ShopXConfig.Pagination.CountCache config;
+    private final CountCache cache;
+
+    public CachedCountPaginationInterceptor(DbType dbType, CountCache cache) {
+        super(dbType);
+        this.config = cache.getConfig();
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        IPage<?> page = ParameterUtils.findPage(parameter).orElse(null);
+        if (!cache.isEnabled() || page == null || page.getSize() < 0 || !page.searchCount()
+                || resultHandler != Executor.NO_RESULT_HANDLER || !isCached(ms)) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+
+        String key = countKey(ms, parameter, boundSql);
+        Long cached = cache.getIfPresent(key);
+        if (cached != null) {
+            page.setTotal(cached);
+            return continuePage(page);
+        }
+
+        Long approximate = config.getApproximate() ? approximateCount(executor, boundSql.getSql()) : null;
+        boolean proceed;
+        if (approximate != null) {
+            cache.recordApproximation();
+            page.setTotal(approximate);
+            proceed = continuePage(page);
+        } else {
+            // 精确计数由父类执行，并写入page.total
+            proceed = super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        cache.put(key, page.getTotal());
+        return proceed;
+    }
+
+    private boolean isCached(MappedStatement ms) {
+        String id = ms.getId();
+        String namespace = id.substring(0, id.lastIndexOf('.'));
+        String mapper = namespace.substring(namespace.lastIndexOf('.') + 1);
+        return config.getMappers().contains(mapper);
+    }
+
+    /**
+     * 规范化SQL（合并空白、转小写）加上按参数映射顺序取出的参数值，取MD5作为缓存key
+     */
+    private String countKey(MappedStatement ms, Object parameter, BoundSql boundSql) {
+        StringBuilder builder = new StringBuilder(ms.getId()).append('|')
+                .append(boundSql.getSql().trim().replaceAll("\\s+", " ").toLowerCase());
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        MetaObject metaObject = parameter == null ? null : ms.getConfiguration().newMetaObject(parameter);
+        for (ParameterMapping mapping : mappings) {
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (ms.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                value = metaObject.getValue(property);
+            }
+            builder.append('|').append(value);
+        }
+        return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 无过滤条件的单表查询返回表统计行数，其余情况返回null（走精确计数）
+     */
+    private Long approximateCount(Executor executor, String sql) {
+        String table = unfilteredTable(sql);
+        if (table == null) {
+            return null;
+        }
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            try (PreparedStatement statement = connection.prepareStatement(TABLE_ROWS_SQL)) {
+                statement.setString(1, table);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        long rows = resultSet.getLong(1);
+                        return rows >= config.getApproximateMinRows() ? rows : null;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("读取表统计信息失败，改为精确计数: table={}", table, e);
+        }
+        return null;
+    }
+
+    private String unfilteredTable(String sql) {
+        try {
+            Statement statement = CCJSqlParserUtil.parse(sql);
+            if (!(statement instanceof Select select) || !(select.getSelectBody() instanceof PlainSelect plainSelect)) {
+                return null;
+            }
+            if (plainSelect.getWhere() != null || plainSelect.getJoins() != null || plainSelect.getGroupBy() != null
+                    || plainSelect.getHaving() != null || plainSelect.getDistinct() != null
+                    || !(plainSelect.getFromItem() instanceof Table table)) {
+                return null;
+            }
+            return table.getName().replace("`", "");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
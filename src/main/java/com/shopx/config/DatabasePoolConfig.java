@@ -1,12 +1,89 @@
 package com.shopx.config;
 
+import com.shopx.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * 极简数据库配置
- * 使用Spring Boot默认配置
+ * 数据库连接池配置
+ * 默认使用Spring Boot自动配置的单个HikariCP连接池；
+ * shopx.read-write.enabled=true 时改为主库 + 从库连接池，由ReadWriteRoutingDataSource按只读标记路由
  */
+@Slf4j
 @Configuration
+@ConditionalOnProperty(prefix = "shopx.read-write", name = "enabled", havingValue = "true")
 public class DatabasePoolConfig {
-    // 使用Spring Boot默认的HikariCP配置
-}
\ No newline at end of file
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+
+    /**
+     * 主库连接池，沿用spring.datasource与spring.datasource.hikari配置
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shopx-primary");
+        return dataSource;
+    }
+
+    /**
+     * 路由数据源，外层LazyConnectionDataSourceProxy使连接在事务只读属性确定后才真正获取
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        ShopXConfig.ReadWrite config = shopXConfig.getReadWrite();
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < config.getReplicas().size(); i++) {
+            ShopXConfig.ReadWrite.Replica replica = config.getReplicas().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shopx-replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setDriverClassName(properties.getDriverClassName());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+            replicaPools.add(dataSource);
+        }
+        log.info("启用读写分离: replicas={}", replicas.size());
+        routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicas, config);
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * 定期检查从库复制延迟
+     */
+    @Scheduled(fixedDelayString = "${shopx.read-write.lag-check-interval-millis:5000}")
+    public void checkReplicaLag() {
+        if (routingDataSource != null) {
+            routingDataSource.checkReplicaLag();
+        }
+    }
+
+    @PreDestroy
+    public void closeReplicas() {
+        replicaPools.forEach(HikariDataSource::close);
+    }
+}
@@ -1,6 +1,10 @@
 package com.shopx.config;
 
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,13 +14,49 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class MessageQueueConfig {
 
+    /**
+     * 批量消费的监听容器工厂名称
+     */
+    public static final String BATCH_LISTENER_FACTORY = "batchListenerContainerFactory";
+
+    /**
+     * 无法解析的订单消息转入的死信队列
+     */
+    public static final String ORDER_DEAD_LETTER_QUEUE = "shopx.order.dlq";
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
     @Bean
     public Queue orderQueue() {
         return new Queue("shopx.order.queue", true);
     }
 
+    @Bean
+    public Queue orderDeadLetterQueue() {
+        return new Queue(ORDER_DEAD_LETTER_QUEUE, true);
+    }
+
     @Bean
     public Queue notificationQueue() {
         return new Queue("shopx.notification.queue", true);
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量消费：每次最多取batchSize条消息交给监听方法，等待batchReceiveTimeoutMillis仍不足一批时按已收到的消息处理；
+     * 整批处理成功后才确认，失败时整批重新投递（坏消息由监听方法逐条转入死信队列，不在此失败）
+     */
+    @Bean(BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        ShopXConfig.Checkout config = shopXConfig.getCheckout();
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(config.getBatchSize());
+        factory.setPrefetchCount(config.getBatchSize());
+        factory.setReceiveTimeout(config.getBatchReceiveTimeoutMillis());
+        return factory;
+    }
+}
@@ -1,15 +1,24 @@
 package com.shopx.config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.annotation.FieldFill;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.injector.DefaultSqlInjector;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.extension.injector.methods.InsertBatchSomeColumn;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.shopx.cache.CountCache;
+import com.shopx.datasource.WriteTrackingInnerInterceptor;
+import com.shopx.mapper.BatchMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.ibatis.reflection.MetaObject;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * MyBatis-Plus配置
@@ -18,15 +27,51 @@ import java.time.LocalDateTime;
 public class MybatisPlusConfig {
     
     /**
-     * 分页插件
+     * 分页总数缓存，页码分页插件与游标分页的可选总数共用
      */
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public CountCache countCache(ShopXConfig shopXConfig, MeterRegistry meterRegistry) {
+        CountCache countCache = new CountCache(shopXConfig.getPagination().getCountCache());
+        countCache.registerMetrics(meterRegistry);
+        return countCache;
+    }
+    
+    /**
+     * 分页插件（COUNT结果带短期缓存，见CachedCountPaginationInterceptor）
+     */
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor(CountCache countCache) {
+        CachedCountPaginationInterceptor pagination = new CachedCountPaginationInterceptor(DbType.MYSQL, countCache);
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
-        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+        // 标记写入，供读写分离路由使用
+        interceptor.addInnerInterceptor(new WriteTrackingInnerInterceptor());
+        interceptor.addInnerInterceptor(pagination);
         return interceptor;
     }
     
+    /**
+     * SQL注入器：为BatchMapper注入多行INSERT
+     */
+    @Bean
+    public BatchSqlInjector batchSqlInjector() {
+        return new BatchSqlInjector();
+    }
+    
+    /**
+     * 在默认方法之外，为继承BatchMapper的Mapper增加insertBatchSomeColumn
+     */
+    public static class BatchSqlInjector extends DefaultSqlInjector {
+        
+        @Override
+        public List<AbstractMethod> getMethodList(Class<?> mapperClass, TableInfo tableInfo) {
+            List<AbstractMethod> methods = super.getMethodList(mapperClass, tableInfo);
+            if (BatchMapper.class.isAssignableFrom(mapperClass)) {
+                methods.add(new InsertBatchSomeColumn(field -> field.getFieldFill() != FieldFill.UPDATE));
+            }
+            return methods;
+        }
+    }
+    
     /**
      * 自动填充处理器
      */
@@ -0,0 +1,74 @@
+package com.shopx.config;
+
+import com.shopx.recommend.ItemSimilarityJob;
+import com.shopx.recommend.ItemSimilarityStore;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 推荐离线任务配置
+ * 商品相似度模型按cron定期重建；启动时Redis中还没有任何版本则立即触发一次
+ */
+@Slf4j
+@Configuration
+public class RecommendJobConfig {
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    @Autowired
+    private ItemSimilarityStore itemSimilarityStore;
+
+    /**
+     * 延迟获取：Scheduler的创建依赖本类定义的JobDetail与Trigger
+     */
+    @Autowired
+    private ObjectProvider<Scheduler> schedulerProvider;
+
+    @Bean
+    public JobDetail itemSimilarityJobDetail() {
+        return JobBuilder.newJob(ItemSimilarityJob.class)
+                .withIdentity(ItemSimilarityJob.JOB_KEY)
+                .withDescription("商品相似度模型重建")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger itemSimilarityTrigger(JobDetail itemSimilarityJobDetail) {
+        return TriggerBuilder.newTrigger()
+                .forJob(itemSimilarityJobDetail)
+                .withIdentity("itemSimilarityTrigger", "recommend")
+                .withSchedule(CronScheduleBuilder.cronSchedule(shopXConfig.getRecommend().getItemSimilarity().getCron())
+                        .withMisfireHandlingInstructionDoNothing())
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildItemSimilarityIfMissing() {
+        if (!Boolean.TRUE.equals(shopXConfig.getRecommend().getItemSimilarity().getEnabled())) {
+            return;
+        }
+        itemSimilarityStore.refreshVersion();
+        if (itemSimilarityStore.isReady()) {
+            return;
+        }
+        try {
+            schedulerProvider.getObject().triggerJob(ItemSimilarityJob.JOB_KEY);
+            log.info("尚无商品相似度模型，已触发首次构建");
+        } catch (Exception e) {
+            log.error("触发商品相似度模型构建失败", e);
+        }
+    }
+}
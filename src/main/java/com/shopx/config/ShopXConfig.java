@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,6 +43,61 @@ public class ShopXConfig {
      */
     private Security security = new Security();
     
+    /**
+     * 缓存配置
+     */
+    private Cache cache = new Cache();
+    
+    /**
+     * 秒杀配置
+     */
+    private FlashSale flashSale = new FlashSale();
+    
+    /**
+     * 异步下单配置
+     */
+    private Checkout checkout = new Checkout();
+    
+    /**
+     * 分布式ID生成配置
+     */
+    private IdGenerator idGenerator = new IdGenerator();
+    
+    /**
+     * 批量写入配置
+     */
+    private Batch batch = new Batch();
+    
+    /**
+     * 分页配置
+     */
+    private Pagination pagination = new Pagination();
+    
+    /**
+     * 读写分离配置
+     */
+    private ReadWrite readWrite = new ReadWrite();
+    
+    /**
+     * 商品计数写回配置
+     */
+    private Counter counter = new Counter();
+    
+    /**
+     * 热门商品排行配置
+     */
+    private HotRanking hotRanking = new HotRanking();
+    
+    /**
+     * 商品搜索索引配置
+     */
+    private Search search = new Search();
+    
+    /**
+     * 推荐配置
+     */
+    private Recommend recommend = new Recommend();
+    
     @Data
     public static class Redis {
         private String lockPrefix = "shopx:lock:";
@@ -86,4 +144,234 @@ public class ShopXConfig {
         private Integer passwordMinLength = 6;
         private Integer passwordMaxLength = 20;
     }
+    
+    @Data
+    public static class Cache {
+        private String invalidationChannel = "shopx:cache:invalidate";
+        private Integer negativeTtlSeconds = 60; // 回源结果为空时空值占位的TTL，0表示不缓存空值
+        private Local local = new Local();
+        private Load load = new Load();
+        private Codec codec = new Codec();
+        private HotKey hotKey = new HotKey();
+        private Bloom bloom = new Bloom();
+        private Warmup warmup = new Warmup();
+        
+        @Data
+        public static class Local {
+            private Boolean enabled = true;
+            private Integer maximumSize = 10000;
+            // key前缀名（shopx:<name>:）-> 本地缓存TTL（秒），未配置的前缀不进入本地缓存
+            private Map<String, Integer> ttl = new HashMap<>(Map.of("product", 30, "user", 60, "permission", 60));
+        }
+        
+        @Data
+        public static class Load {
+            private Long lockWaitMillis = 3000L;   // 等待其他节点回源的最长时间
+            private Long lockLeaseMillis = 10000L; // 回源锁持有时间
+            private Double earlyRefreshBeta = 1.0; // 提前刷新系数，越大越早刷新，0表示关闭
+        }
+        
+        @Data
+        public static class Codec {
+            private Integer compressThreshold = 1024; // 编码结果超过该字节数时压缩，0表示不压缩
+        }
+        
+        @Data
+        public static class HotKey {
+            private Boolean enabled = true;
+            private String channel = "shopx:cache:hotkey"; // 热点key广播频道
+            private Integer sampleRate = 10;        // 每N次访问抽样一次
+            private Long threshold = 500L;          // 窗口内估算访问量达到该值判定为热点
+            private Integer windowSeconds = 10;     // 计数衰减窗口
+            private Integer holdSeconds = 60;       // 热点状态保持时间
+            private Integer replicaTtlSeconds = 5;  // 本地热点副本TTL
+            private Integer maxHotKeys = 1000;
+            private Integer sketchDepth = 4;
+            private Integer sketchWidth = 4096;
+        }
+        
+        @Data
+        public static class Bloom {
+            private Boolean enabled = true;
+            private String channel = "shopx:cache:bloom";  // 新增ID广播频道
+            private Long expectedInsertions = 1000000L;
+            private Double falsePositiveRate = 0.01;
+            private Integer rebuildBatchSize = 5000;
+            private Long rebuildIntervalMillis = 3600000L; // 定期全量重建间隔
+            private Long catchUpIntervalMillis = 10000L;   // 增量补入新ID的间隔，弥补丢失的广播
+        }
+        
+        @Data
+        public static class Warmup {
+            private Boolean enabled = true;
+            private Integer hotProductCount = 200;         // 预热的热门商品数（按浏览量、点赞数排序）
+            private Integer productBatchSize = 50;         // 每个商品预热任务加载的商品数
+            private List<Integer> hotLimits = new ArrayList<>(List.of(10)); // 预热的热门商品列表limit
+            private Integer categoryPageSize = 20;         // 分类列表预热第一页的大小
+            private Integer parallelism = 4;               // 并行加载线程数
+            private Integer ratePerSecond = 200;           // 每秒最多加载的条目数，0表示不限速
+            private Integer timeoutSeconds = 120;          // 整体超时，超时后不再等待剩余任务
+        }
+    }
+    
+    @Data
+    public static class FlashSale {
+        private Boolean enabled = true;
+        private List<Long> productIds = new ArrayList<>(); // 启动时预加载到Redis的秒杀商品
+        private Integer defaultPerUserLimit = 1;           // 每人限购数量，0表示不限购
+        private Long reconcileIntervalMillis = 10000L;     // Redis库存与t_product.stock对账间隔
+        private Integer pendingTimeoutSeconds = 1800;      // 预占超过该时间仍未结算时由对账任务处理
+    }
+    
+    @Data
+    public static class Checkout {
+        private Integer batchSize = 50;                   // 消费者每批最多落库的订单数
+        private Long batchReceiveTimeoutMillis = 200L;    // 凑批等待时间，超时后不足一批也落库
+        private Integer ticketTtlSeconds = 86400;         // 下单凭证状态保留时间
+        private Integer idempotencyTtlSeconds = 86400;    // 幂等键保留时间，期间相同幂等键的重复提交返回同一凭证
+    }
+    
+    @Data
+    public static class IdGenerator {
+        private Long epochMillis = 1704067200000L;   // 起始时间 2024-01-01 00:00:00 UTC，41位时间戳约可用69年
+        private Integer workerId = -1;               // 大于等于0时使用固定workerId，不再从Redis租用
+        private String leaseKeyPrefix = "shopx:idgen:worker:";
+        private Integer leaseTtlSeconds = 30;        // workerId租约时间
+        private Long renewIntervalMillis = 10000L;   // 续约间隔，应明显小于租约时间
+        private Long redisTimeoutMillis = 3000L;     // Redis命令超时，与spring.redis.timeout一致；续约间隔+超时为发号安全余量
+    }
+    
+    @Data
+    public static class Batch {
+        private Integer chunkSize = 500;             // 每条多行INSERT/每次JDBC批量提交的最大行数
+    }
+    
+    @Data
+    public static class Counter {
+        private Long flushIntervalMillis = 5000L;    // 浏览/点赞/分享增量批量写回数据库的间隔
+        private Integer stripes = 16;                // 分段数，分段之间的累加与切换互不阻塞
+    }
+    
+    @Data
+    public static class HotRanking {
+        private Boolean enabled = true;
+        private Long flushIntervalMillis = 5000L;    // 本地累计的热度批量写入Redis的间隔
+        private Integer maxEntries = 1000;           // 每个排行（窗口 x 分类）保留的商品数
+        private Double viewWeight = 1.0;             // 浏览一次的热度
+        private Double likeWeight = 3.0;             // 点赞一次的热度
+        private Double purchaseWeight = 10.0;        // 购买一件的热度
+    }
+    
+    @Data
+    public static class Search {
+        private Boolean enabled = true;              // 关闭或索引未就绪时回退为数据库LIKE查询
+        private String channel = "shopx:search:index";  // 商品变更广播频道
+        private Long refreshIntervalMillis = 1000L;  // 增量刷新变更商品的间隔
+        private Long rebuildIntervalMillis = 3600000L; // 定期全量重建间隔（清除已删除文档、刷新浏览量）
+        private Integer rebuildBatchSize = 5000;
+        private Float k1 = 1.2f;                     // BM25词频饱和参数
+        private Float b = 0.75f;                     // BM25文档长度归一化参数
+        private Integer nameBoost = 3;               // 名称中词频的权重倍数
+        // 价格分面的分界（元），如 50,100 分为 0-50、50-100、100+ 三档
+        private List<Integer> facetPriceBuckets = new ArrayList<>(List.of(50, 100, 200, 500, 1000, 5000));
+        private Suggestion suggestion = new Suggestion();
+        private ResultCache resultCache = new ResultCache();
+        private History history = new History();
+        
+        @Data
+        public static class Suggestion {
+            private Boolean enabled = true;          // 关闭或前缀树未就绪时回退为数据库LIKE查询
+            private Integer topK = 10;               // 每个前缀缓存的建议条数，也是单次补全的上限
+            private Double queryWeight = 2.0;        // 搜索词每被搜索一次计入的权重（商品权重为 1+ln(1+浏览+3*点赞)）
+            private Integer queryWindowDays = 30;    // 统计热门搜索词的时间窗口
+            private Integer maxQueries = 10000;      // 参与补全的热门搜索词数量上限
+            private Integer minQueryUsers = 3;       // 搜索词至少被多少个不同登录用户搜索过才进入补全
+            private Integer maxQueryLength = 50;
+            private Long queryRefreshIntervalMillis = 300000L; // 热门搜索词对账间隔
+        }
+        
+        @Data
+        public static class ResultCache {
+            private Boolean enabled = true;          // 高级搜索结果缓存（按规范化的关键词+筛选条件+页码）
+            private Integer ttlSeconds = 60;         // 商品变更会主动失效，TTL只兜底浏览量排序等不触发失效的变化
+            private Integer warmTopQueries = 20;     // 定期预热的热门检索数
+            private Integer warmPages = 3;           // 每个热门检索预热的页数
+            private Long warmIntervalMillis = 60000L;
+            private Integer maxTrackedQueries = 10000; // 参与热度统计的检索数上限
+        }
+        
+        @Data
+        public static class History {
+            private Integer queueCapacity = 10000;   // 待写入队列容量，满时丢弃新记录
+            private Long flushIntervalMillis = 1000L; // 批量写入间隔，每块行数取 shopx.batch.chunk-size
+            private Integer maxPerUser = 100;        // 每个用户保留的最近记录数
+            private Long trimIntervalMillis = 60000L; // 裁剪用户历史的间隔
+        }
+    }
+    
+    @Data
+    public static class Recommend {
+        private Double userSimilarityThreshold = 0.3; // 协同过滤只采纳Jaccard相似度高于此值的用户
+        private Matrix matrix = new Matrix();
+        private ItemSimilarity itemSimilarity = new ItemSimilarity();
+        
+        @Data
+        public static class Matrix {
+            private Boolean enabled = true;          // 关闭或矩阵未就绪时回退为数据库查询
+            // 计入用户-商品交互的行为类型
+            private List<String> behaviorTypes = new ArrayList<>(List.of("LIKE", "PURCHASE"));
+            private Integer loadBatchSize = 5000;    // 扫描t_user_behavior的每批行数
+            private Long refreshIntervalMillis = 5000L; // 追加扫描其他节点写入的行为的间隔
+            private Long rebuildIntervalMillis = 21600000L; // 定期全量重建间隔
+        }
+        
+        @Data
+        public static class ItemSimilarity {
+            private Boolean enabled = true;          // 关闭或尚无模型时回退为按需查询数据库
+            private String cron = "0 30 3 * * ?";    // Quartz重建时间
+            private Integer topN = 20;               // 每个商品保留的相似商品数
+            private Integer maxUserItems = 500;      // 交互商品数超过此值的用户不参与共现统计
+            private Integer parallelism = 0;         // 计算线程数，0为CPU核数
+            private Integer writeBatchSize = 1000;   // 每次HSET写入的商品数
+            private Long versionRefreshIntervalMillis = 30000L; // 各节点读取当前版本号的间隔
+            private Integer previousVersionTtlSeconds = 600;   // 切换后旧版本的保留时间
+            private Integer stagingTtlSeconds = 3600;          // 新版本写入期间的过期时间（每批写入后顺延），切换后清除
+        }
+    }
+    
+    @Data
+    public static class Pagination {
+        private CountCache countCache = new CountCache();
+        
+        @Data
+        public static class CountCache {
+            private Boolean enabled = true;
+            private Integer ttlSeconds = 30;          // 页码分页COUNT结果与游标分页总数的缓存时间
+            private Integer maxEntries = 10000;
+            private Boolean approximate = true;       // 无过滤条件的全表计数使用表统计信息
+            private Long approximateMinRows = 100000L; // 统计行数低于该值时仍精确计数
+            // 页码分页缓存生效的Mapper（简单类名），其余Mapper每次分页都精确计数；游标分页的总数始终按近似值缓存
+            private List<String> mappers = new ArrayList<>(List.of(
+                    "ProductMapper", "CustomerServiceTicketMapper", "LoginHistoryMapper"));
+        }
+    }
+    
+    @Data
+    public static class ReadWrite {
+        private Boolean enabled = false;             // 关闭时只使用spring.datasource单个连接池
+        private List<Replica> replicas = new ArrayList<>();
+        private Long maxLagSeconds = 5L;             // 复制延迟超过该值的从库暂停使用
+        private Long lagCheckIntervalMillis = 5000L;
+        private String lagQuery = "SHOW REPLICA STATUS";
+        private String lagColumn = "Seconds_Behind_Source";
+        private Long stickyMillis = 5000L;           // 写入后同一线程在该时间内的只读查询仍走主库
+        
+        @Data
+        public static class Replica {
+            private String url;
+            private String username;
+            private String password;
+            private Integer maximumPoolSize = 20;
+        }
+    }
 }
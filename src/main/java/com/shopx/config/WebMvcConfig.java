@@ -1,7 +1,12 @@
 package com.shopx.config;
 
+import com.shopx.datasource.RoutingContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -10,7 +15,7 @@ import java.nio.file.Paths;
 
 /**
  * Web MVC 扩展配置
- * 用于暴露本地上传目录为静态资源
+ * 用于暴露本地上传目录为静态资源，并在请求结束时清理读写分离路由上下文
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
@@ -27,6 +32,18 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations(uploadLocation);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 请求结束时清理读写分离的线程上下文（写入粘滞标记）
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                        Object handler, Exception ex) {
+                RoutingContext.clear();
+            }
+        });
+    }
 }
 
 
@@ -359,4 +359,15 @@ public class Constants {
         public static final String LOCKED = "LOCKED";
         public static final String DELETED = "DELETED";
     }
+
+    /**
+     * 业务单号前缀常量（前缀 + 雪花ID）
+     */
+    public static class IdPrefix {
+        public static final String ORDER = "ORD";
+        public static final String FLASH_SALE_ORDER = "FS";
+        public static final String RETURN_ORDER = "RT";
+        public static final String RECYCLE_ORDER = "RC";
+        public static final String TICKET = "T";
+    }
 }
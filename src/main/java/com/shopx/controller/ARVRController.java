@@ -239,25 +239,6 @@ public class ARVRController {
                         .last("LIMIT 10")
                 );
                 
-                List<RecentExperienceDTO> recentExperiences = recentRecords.stream()
-                    .map(record -> {
-                        RecentExperienceDTO exp = new RecentExperienceDTO();
-                        exp.setProductId(record.getProductId());
-                        exp.setExperienceType(record.getExperienceType());
-                        exp.setDurationSeconds(record.getDurationSeconds());
-                        exp.setExperienceTime(record.getCreateTime());
-                        try {
-                            Product product = productService.getProductById(record.getProductId());
-                            if (product != null) {
-                                exp.setProductName(product.getName());
-                            }
-                        } catch (Exception e) {
-                            log.warn("获取商品信息失败: productId={}", record.getProductId());
-                        }
-                        return exp;
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-                
                 // 获取最喜欢的商品（体验次数最多的商品）
                 List<com.shopx.entity.ExperienceRecord> allRecords = experienceRecordMapper.selectList(
                     new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<com.shopx.entity.ExperienceRecord>()
@@ -270,20 +251,40 @@ public class ARVRController {
                         java.util.stream.Collectors.counting()
                     ));
                 
-                List<FavoriteProductDTO> favoriteProducts = productCounts.entrySet().stream()
+                List<Map.Entry<Long, Long>> topEntries = productCounts.entrySet().stream()
                     .sorted((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()))
                     .limit(5)
+                    .collect(java.util.stream.Collectors.toList());
+                
+                // 最近体验与最喜欢的商品一次批量获取
+                java.util.Set<Long> productIds = new java.util.HashSet<>();
+                recentRecords.forEach(record -> productIds.add(record.getProductId()));
+                topEntries.forEach(entry -> productIds.add(entry.getKey()));
+                Map<Long, Product> products = productService.getProductsByIds(productIds);
+                
+                List<RecentExperienceDTO> recentExperiences = recentRecords.stream()
+                    .map(record -> {
+                        RecentExperienceDTO exp = new RecentExperienceDTO();
+                        exp.setProductId(record.getProductId());
+                        exp.setExperienceType(record.getExperienceType());
+                        exp.setDurationSeconds(record.getDurationSeconds());
+                        exp.setExperienceTime(record.getCreateTime());
+                        Product product = products.get(record.getProductId());
+                        if (product != null) {
+                            exp.setProductName(product.getName());
+                        }
+                        return exp;
+                    })
+                    .collect(java.util.stream.Collectors.toList());
+                
+                List<FavoriteProductDTO> favoriteProducts = topEntries.stream()
                     .map(entry -> {
                         FavoriteProductDTO fav = new FavoriteProductDTO();
                         fav.setProductId(entry.getKey());
                         fav.setExperienceCount(entry.getValue());
-                        try {
-                            Product product = productService.getProductById(entry.getKey());
-                            if (product != null) {
-                                fav.setProductName(product.getName());
-                            }
-                        } catch (Exception e) {
-                            log.warn("获取商品信息失败: productId={}", entry.getKey());
+                        Product product = products.get(entry.getKey());
+                        if (product != null) {
+                            fav.setProductName(product.getName());
                         }
                         return fav;
                     })
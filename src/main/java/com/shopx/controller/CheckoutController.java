@@ -1,9 +1,12 @@
 package com.shopx.controller;
 
 import com.shopx.annotation.ApiVersion;
+import com.shopx.dto.CheckoutTicketDTO;
 import com.shopx.entity.ApiResponse;
 import com.shopx.entity.CartItem;
 import com.shopx.entity.Order;
+import com.shopx.exception.BusinessException;
+import com.shopx.service.AsyncCheckoutService;
 import com.shopx.service.CartService;
 import com.shopx.service.OrderService;
 import com.shopx.service.PriceService;
@@ -43,6 +46,9 @@ public class CheckoutController {
     @Autowired
     private PriceService priceService;
     
+    @Autowired
+    private AsyncCheckoutService asyncCheckoutService;
+    
     /**
      * 获取结算信息（3步流程：确认商品 → 选择地址 → 支付）
      */
@@ -122,6 +128,56 @@ public class CheckoutController {
         }
     }
     
+    /**
+     * 异步创建订单：预占库存后立即返回下单凭证，订单由后台按批创建
+     */
+    @Operation(summary = "异步创建订单", description = "从购物车异步创建订单，通过凭证轮询或订阅 /topic/checkout/{ticket} 获取结果")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "已受理"),
+            @ApiResponse(responseCode = "400", description = "请求参数错误或库存不足"),
+            @ApiResponse(responseCode = "503", description = "排队失败")
+    })
+    @PostMapping("/create-order-async")
+    public ResponseEntity<ApiResponse<CheckoutTicketDTO>> createOrderAsync(
+            @Parameter(description = "幂等键，重复提交时返回同一凭证", required = true) @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @Parameter(description = "收货地址", required = true) @RequestParam String shippingAddress,
+            @Parameter(description = "购物车项ID列表", required = false) @RequestParam(required = false) List<Long> cartItemIds) {
+        
+        try {
+            Long userId = SaTokenUtil.getCurrentUserId();
+            CheckoutTicketDTO ticket = asyncCheckoutService.submit(userId, cartItemIds, shippingAddress, idempotencyKey);
+            return ResponseUtil.success("订单已受理", ticket);
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("异步创建订单失败", e);
+            return ResponseUtil.error("创建订单失败，请稍后重试");
+        }
+    }
+    
+    /**
+     * 查询异步下单结果
+     */
+    @Operation(summary = "查询下单结果", description = "根据下单凭证查询异步下单状态")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "查询成功"),
+            @ApiResponse(responseCode = "404", description = "凭证不存在或已过期")
+    })
+    @GetMapping("/tickets/{ticket}")
+    public ResponseEntity<ApiResponse<CheckoutTicketDTO>> getTicket(
+            @Parameter(description = "下单凭证", required = true) @PathVariable String ticket) {
+        
+        try {
+            Long userId = SaTokenUtil.getCurrentUserId();
+            return ResponseUtil.success("查询成功", asyncCheckoutService.getTicket(userId, ticket));
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("查询下单结果失败", e);
+            return ResponseUtil.error("查询下单结果失败，请稍后重试");
+        }
+    }
+    
     /**
      * 游客购买（可选注册）
      */
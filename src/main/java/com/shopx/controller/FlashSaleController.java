@@ -0,0 +1,130 @@
+package com.shopx.controller;
+
+import cn.dev33.satoken.annotation.SaCheckPermission;
+import com.shopx.annotation.ApiVersion;
+import com.shopx.constant.Constants;
+import com.shopx.dto.FlashSaleReservationDTO;
+import com.shopx.entity.ApiResponse;
+import com.shopx.exception.BusinessException;
+import com.shopx.service.FlashSaleService;
+import com.shopx.util.ResponseUtil;
+import com.shopx.util.SaTokenUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 秒杀控制器
+ * 下单请求只做Redis预占并返回订单号，订单由消息队列异步落库
+ */
+@Slf4j
+@RestController
+@RequestMapping("/flash-sale")
+@ApiVersion("v1")
+@Tag(name = "秒杀", description = "秒杀抢购相关API")
+public class FlashSaleController {
+    
+    @Autowired
+    private FlashSaleService flashSaleService;
+    
+    /**
+     * 秒杀下单
+     */
+    @Operation(summary = "秒杀下单", description = "预占秒杀库存，订单异步创建")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "抢购成功，订单排队中"),
+            @ApiResponse(responseCode = "400", description = "已售罄或超出限购"),
+            @ApiResponse(responseCode = "503", description = "排队失败")
+    })
+    @PostMapping("/{productId}/reserve")
+    public ResponseEntity<ApiResponse<FlashSaleReservationDTO>> reserve(
+            @Parameter(description = "商品ID", required = true) @PathVariable Long productId,
+            @Parameter(description = "数量") @RequestParam(defaultValue = "1") Integer quantity,
+            @Parameter(description = "收货地址", required = true) @RequestParam String shippingAddress) {
+        
+        try {
+            Long userId = SaTokenUtil.getCurrentUserId();
+            FlashSaleReservationDTO reservation = flashSaleService.reserve(userId, productId, quantity, shippingAddress);
+            return ResponseUtil.success("抢购成功，订单处理中", reservation);
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("秒杀下单失败", e);
+            return ResponseUtil.error("秒杀下单失败，请稍后重试");
+        }
+    }
+    
+    /**
+     * 获取秒杀状态
+     */
+    @Operation(summary = "获取秒杀状态", description = "获取秒杀剩余库存和限购信息")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功")
+    })
+    @GetMapping("/{productId}/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSaleStatus(
+            @Parameter(description = "商品ID", required = true) @PathVariable Long productId) {
+        
+        try {
+            return ResponseUtil.success("获取成功", flashSaleService.getSaleStatus(productId));
+        } catch (Exception e) {
+            log.error("获取秒杀状态失败", e);
+            return ResponseUtil.error("获取秒杀状态失败，请稍后重试");
+        }
+    }
+    
+    /**
+     * 开始秒杀
+     */
+    @Operation(summary = "开始秒杀", description = "将商品库存加载到秒杀库存")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "开始成功"),
+            @ApiResponse(responseCode = "403", description = "权限不足")
+    })
+    @SaCheckPermission(Constants.Permission.PRODUCT_UPDATE)
+    @PostMapping("/{productId}/start")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> startSale(
+            @Parameter(description = "商品ID", required = true) @PathVariable Long productId,
+            @Parameter(description = "每人限购数量，0表示不限购") @RequestParam(required = false) Integer perUserLimit) {
+        
+        try {
+            flashSaleService.startSale(productId, perUserLimit);
+            return ResponseUtil.success("秒杀已开始", flashSaleService.getSaleStatus(productId));
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("开始秒杀失败", e);
+            return ResponseUtil.error("开始秒杀失败，请稍后重试");
+        }
+    }
+    
+    /**
+     * 结束秒杀
+     */
+    @Operation(summary = "结束秒杀", description = "同步库存并移除秒杀数据")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "结束成功"),
+            @ApiResponse(responseCode = "403", description = "权限不足")
+    })
+    @SaCheckPermission(Constants.Permission.PRODUCT_UPDATE)
+    @PostMapping("/{productId}/end")
+    public ResponseEntity<ApiResponse<Void>> endSale(
+            @Parameter(description = "商品ID", required = true) @PathVariable Long productId) {
+        
+        try {
+            flashSaleService.endSale(productId);
+            return ResponseUtil.success("秒杀已结束");
+        } catch (Exception e) {
+            log.error("结束秒杀失败", e);
+            return ResponseUtil.error("结束秒杀失败，请稍后重试");
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.shopx.controller;
 import com.shopx.annotation.ApiVersion;
 import com.shopx.entity.ApiResponse;
 import com.shopx.entity.Order;
+import com.shopx.exception.BusinessException;
 import com.shopx.service.OrderService;
 import com.shopx.util.ResponseUtil;
 import com.shopx.util.SaTokenUtil;
@@ -61,14 +62,17 @@ public class OrderController {
     /**
      * 获取订单列表
      */
-    @Operation(summary = "获取订单列表", description = "获取当前用户的订单列表")
+    @Operation(summary = "获取订单列表", description = "获取当前用户的订单列表，支持页码分页和游标分页")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "查询成功")
     })
     @GetMapping
     public ResponseEntity<ApiResponse<ResponseUtil.PageResult<Order>>> getOrders(
             @Parameter(description = "页码", required = false) @RequestParam(defaultValue = "1") int page,
-            @Parameter(description = "每页大小", required = false) @RequestParam(defaultValue = "20") int size) {
+            @Parameter(description = "每页大小", required = false) @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "分页模式：offset（页码）/cursor（游标）", required = false) @RequestParam(defaultValue = "offset") String pageMode,
+            @Parameter(description = "游标，取上一页返回的nextCursor，游标模式第一页不传", required = false) @RequestParam(required = false) String cursor,
+            @Parameter(description = "游标模式下是否返回近似总数", required = false) @RequestParam(defaultValue = "false") boolean withTotal) {
         
         try {
             Long userId = SaTokenUtil.getCurrentUserId();
@@ -76,8 +80,12 @@ public class OrderController {
                 return ResponseUtil.unauthorized("请先登录");
             }
             
-            ResponseUtil.PageResult<Order> result = orderService.getOrders(userId, page, size);
+            ResponseUtil.PageResult<Order> result = "cursor".equalsIgnoreCase(pageMode)
+                    ? orderService.getOrdersByCursor(userId, cursor, size, withTotal)
+                    : orderService.getOrders(userId, page, size);
             return ResponseUtil.success("查询成功", result);
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("获取订单列表失败", e);
             return ResponseUtil.error("获取订单列表失败，请稍后重试");
@@ -8,6 +8,9 @@ import com.shopx.entity.ApiResponse;
 import com.shopx.entity.Product;
 import com.shopx.entity.SavedFilter;
 import com.shopx.entity.SearchHistory;
+import com.shopx.exception.BusinessException;
+import com.shopx.service.HotRankingService;
+import com.shopx.service.ProductCounterService;
 import com.shopx.service.ProductService;
 import com.shopx.service.SearchService;
 import com.shopx.util.ResponseUtil;
@@ -42,11 +45,17 @@ public class ProductController {
     @Autowired
     private SearchService searchService;
     
+    @Autowired
+    private ProductCounterService productCounterService;
+    
+    @Autowired
+    private HotRankingService hotRankingService;
+    
     /**
      * 获取所有商品
      * 返回系统中所有可用的商品列表，支持分页和筛选
      */
-    @Operation(summary = "获取商品列表", description = "获取系统中所有商品，支持分页查询")
+    @Operation(summary = "获取商品列表", description = "获取系统中所有商品，支持页码分页和游标分页")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "查询成功"),
             @ApiResponse(responseCode = "500", description = "服务器内部错误")
@@ -56,11 +65,18 @@ public class ProductController {
             @Parameter(description = "页码", required = false) @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "每页大小", required = false) @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "关键词", required = false) @RequestParam(required = false) String keyword,
-            @Parameter(description = "分类", required = false) @RequestParam(required = false) String category) {
+            @Parameter(description = "分类", required = false) @RequestParam(required = false) String category,
+            @Parameter(description = "分页模式：offset（页码）/cursor（游标）", required = false) @RequestParam(defaultValue = "offset") String pageMode,
+            @Parameter(description = "游标，取上一页返回的nextCursor，游标模式第一页不传", required = false) @RequestParam(required = false) String cursor,
+            @Parameter(description = "游标模式下是否返回近似总数", required = false) @RequestParam(defaultValue = "false") boolean withTotal) {
         
         try {
-            ResponseUtil.PageResult<Product> result = productService.getProducts(page, size, keyword, category);
+            ResponseUtil.PageResult<Product> result = "cursor".equalsIgnoreCase(pageMode)
+                    ? productService.getProductsByCursor(cursor, size, keyword, category, withTotal)
+                    : productService.getProducts(page, size, keyword, category);
             return ResponseUtil.success("查询成功", result);
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("获取商品列表失败", e);
             return ResponseUtil.error("获取商品列表失败，请稍后重试");
@@ -82,6 +98,8 @@ public class ProductController {
         
         try {
             Product product = productService.getProductById(id);
+            productCounterService.incrementView(id);
+            hotRankingService.recordView(id, product.getCategory());
             return ResponseUtil.success("查询成功", product);
         } catch (Exception e) {
             log.error("获取商品详情失败", e);
@@ -207,17 +225,22 @@ public class ProductController {
     /**
      * 获取热门商品
      */
-    @Operation(summary = "获取热门商品", description = "获取浏览量最高的商品")
+    @Operation(summary = "获取热门商品", description = "按时间窗口内浏览/点赞/购买的衰减热度排行，可按分类查询")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "查询成功")
+            @ApiResponse(responseCode = "200", description = "查询成功"),
+            @ApiResponse(responseCode = "400", description = "请求参数错误")
     })
     @GetMapping("/hot")
     public ResponseEntity<ApiResponse<List<Product>>> getHotProducts(
-            @Parameter(description = "数量限制", required = false) @RequestParam(defaultValue = "10") int limit) {
+            @Parameter(description = "数量限制", required = false) @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "分类，不传为全站排行", required = false) @RequestParam(required = false) String category,
+            @Parameter(description = "时间窗口：1h/24h/7d", required = false) @RequestParam(defaultValue = "24h") String window) {
         
         try {
-            List<Product> products = productService.getHotProducts(limit);
+            List<Product> products = productService.getHotProducts(limit, category, window);
             return ResponseUtil.success("查询成功", products);
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("获取热门商品失败", e);
             return ResponseUtil.error("获取热门商品失败，请稍后重试");
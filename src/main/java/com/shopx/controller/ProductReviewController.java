@@ -3,6 +3,7 @@ package com.shopx.controller;
 import com.shopx.annotation.ApiVersion;
 import com.shopx.entity.ApiResponse;
 import com.shopx.entity.ProductReview;
+import com.shopx.exception.BusinessException;
 import com.shopx.service.ProductReviewService;
 import com.shopx.util.ResponseUtil;
 import com.shopx.util.SaTokenUtil;
@@ -61,7 +62,7 @@ public class ProductReviewController {
     /**
      * 获取商品评价列表
      */
-    @Operation(summary = "获取评价列表", description = "获取商品评价列表，支持筛选和排序")
+    @Operation(summary = "获取评价列表", description = "获取商品评价列表，支持筛选和排序；游标分页固定按时间倒序")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "查询成功")
     })
@@ -71,12 +72,18 @@ public class ProductReviewController {
             @Parameter(description = "页码", required = false) @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "每页大小", required = false) @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "排序方式", required = false) @RequestParam(required = false) String sortBy,
-            @Parameter(description = "排序顺序", required = false) @RequestParam(required = false) String order) {
+            @Parameter(description = "排序顺序", required = false) @RequestParam(required = false) String order,
+            @Parameter(description = "分页模式：offset（页码）/cursor（游标）", required = false) @RequestParam(defaultValue = "offset") String pageMode,
+            @Parameter(description = "游标，取上一页返回的nextCursor，游标模式第一页不传", required = false) @RequestParam(required = false) String cursor,
+            @Parameter(description = "游标模式下是否返回近似总数", required = false) @RequestParam(defaultValue = "false") boolean withTotal) {
         
         try {
-            ResponseUtil.PageResult<ProductReview> result = reviewService.getProductReviews(
-                    productId, page, size, sortBy, order);
+            ResponseUtil.PageResult<ProductReview> result = "cursor".equalsIgnoreCase(pageMode)
+                    ? reviewService.getProductReviewsByCursor(productId, cursor, size, withTotal)
+                    : reviewService.getProductReviews(productId, page, size, sortBy, order);
             return ResponseUtil.success("查询成功", result);
+        } catch (BusinessException e) {
+            return ResponseUtil.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("获取评价列表失败", e);
             return ResponseUtil.error("获取评价列表失败，请稍后重试");
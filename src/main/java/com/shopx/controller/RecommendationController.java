@@ -303,6 +303,28 @@ public class RecommendationController {
         }
     }
 
+    /**
+     * 获取相似商品
+     */
+    @Operation(summary = "获取相似商品", description = "根据用户共同行为推荐与指定商品相似的商品")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "获取成功")
+    })
+    @GetMapping("/similar/{productId}")
+    public ResponseEntity<ApiResponse<List<Product>>> getSimilarProducts(
+            @Parameter(description = "商品ID", required = true) @PathVariable Long productId,
+            @Parameter(description = "返回数量", required = false) @RequestParam(defaultValue = "10") int limit) {
+
+        try {
+            List<Product> products = recommendationService != null ?
+                recommendationService.similarProductRecommend(productId, limit) : new ArrayList<>();
+            return ResponseUtil.success("获取相似商品成功", products);
+        } catch (Exception e) {
+            log.error("获取相似商品失败", e);
+            return ResponseUtil.error("获取相似商品失败，请稍后重试");
+        }
+    }
+
     /**
      * 获取推荐算法列表
      */
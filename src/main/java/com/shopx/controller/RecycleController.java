@@ -6,6 +6,7 @@ import com.shopx.annotation.ApiVersion;
 import com.shopx.constant.Constants;
 import com.shopx.entity.ApiResponse;
 import com.shopx.entity.RecycleOrder;
+import com.shopx.service.IdGeneratorService;
 import com.shopx.service.RecycleOrderService;
 import com.shopx.util.ResponseUtil;
 import com.shopx.util.SaTokenUtil;
@@ -35,6 +36,9 @@ public class RecycleController {
     @Autowired
     private RecycleOrderService recycleOrderService;
     
+    @Autowired
+    private IdGeneratorService idGeneratorService;
+    
     @Autowired(required = false)
     private com.shopx.service.CommunityService communityService;
     
@@ -66,6 +70,7 @@ public class RecycleController {
             
             // 创建回收订单
             RecycleOrder order = new RecycleOrder();
+            order.setRecycleNo(idGeneratorService.nextNo(Constants.IdPrefix.RECYCLE_ORDER));
             order.setUserId(userId);
             order.setProductName((String) orderData.get("productName"));
             order.setQuantity((Integer) orderData.get("quantity"));
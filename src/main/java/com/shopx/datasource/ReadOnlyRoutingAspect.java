@@ -0,0 +1,28 @@
+package com.shopx.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * @ReadOnly 切面
+ * 在方法执行期间标记当前线程为只读，由ReadWriteRoutingDataSource据此路由到从库
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadOnlyRoutingAspect {
+
+    @Around("@annotation(com.shopx.annotation.ReadOnly) || @within(com.shopx.annotation.ReadOnly)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        RoutingContext.enterReadOnly();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RoutingContext.exitReadOnly();
+        }
+    }
+}
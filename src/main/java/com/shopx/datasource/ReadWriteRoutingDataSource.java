@@ -0,0 +1,122 @@
+package com.shopx.datasource;
+
+import com.shopx.config.ShopXConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离路由数据源
+ * 以下情况路由到从库，其余一律走主库：
+ * 1. 只读事务（@Transactional(readOnly = true)）
+ * 2. @ReadOnly 方法内、且不在读写事务中
+ * 并且当前线程在粘滞窗口内没有写入过、至少有一个从库延迟不超过 max-lag-seconds；多个可用从库轮询
+ * 需要外层包一层LazyConnectionDataSourceProxy，使连接在事务属性确定后、第一条语句执行时才获取
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA_PREFIX = "replica-";
+
+    private final List<DataSource> replicas;
+    private final ShopXConfig.ReadWrite config;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    /**
+     * 各从库是否可用（延迟未超限且复制正常），由checkReplicaLag定期刷新；
+     * 第一次检查之前一律视为不可用，延迟未知的从库不接收读请求
+     */
+    private volatile boolean[] available;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ShopXConfig.ReadWrite config) {
+        this.replicas = new ArrayList<>(replicas);
+        this.config = config;
+        this.available = new boolean[replicas.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA_PREFIX + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnlyTransaction = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        boolean readWriteTransaction = TransactionSynchronizationManager.isActualTransactionActive() && !readOnlyTransaction;
+        if (readWriteTransaction || !(readOnlyTransaction || RoutingContext.isReadOnly())) {
+            return PRIMARY;
+        }
+        if (RoutingContext.wroteWithin(config.getStickyMillis())) {
+            return PRIMARY;
+        }
+        int replica = nextAvailableReplica();
+        return replica < 0 ? PRIMARY : REPLICA_PREFIX + replica;
+    }
+
+    private int nextAvailableReplica() {
+        boolean[] current = available;
+        int count = current.length;
+        if (count == 0) {
+            return -1;
+        }
+        int start = Math.floorMod(roundRobin.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            int candidate = (start + i) % count;
+            if (current[candidate]) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 检查各从库复制延迟，延迟超过 max-lag-seconds、复制中断或查询失败的从库暂停使用
+     */
+    public void checkReplicaLag() {
+        boolean[] next = new boolean[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            Long lag = queryLagSeconds(replicas.get(i));
+            next[i] = lag != null && lag <= config.getMaxLagSeconds();
+            if (next[i] != available[i]) {
+                log.warn("从库状态变化: replica={}, available={}, lagSeconds={}", i, next[i], lag);
+            }
+        }
+        available = next;
+    }
+
+    public boolean isReplicaAvailable(int index) {
+        return available[index];
+    }
+
+    private Long queryLagSeconds(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(config.getLagQuery())) {
+            if (!resultSet.next()) {
+                // 未配置复制
+                return null;
+            }
+            long lag = resultSet.getLong(config.getLagColumn());
+            // 复制线程停止时延迟为NULL
+            return resultSet.wasNull() ? null : lag;
+        } catch (Exception e) {
+            log.warn("查询从库延迟失败: {}", e.getMessage());
+            return null;
+        }
+    }
+}
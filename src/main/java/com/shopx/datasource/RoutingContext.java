@@ -0,0 +1,53 @@
+package com.shopx.datasource;
+
+/**
+ * 读写分离路由上下文（线程级）
+ * 记录当前线程是否处于 @ReadOnly 方法内，以及最近一次写入的时间；
+ * 写入后的粘滞窗口内只读查询仍走主库，保证同一请求能读到自己刚写入的数据
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<int[]> READ_ONLY_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<Long> LAST_WRITE_MILLIS = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static void enterReadOnly() {
+        READ_ONLY_DEPTH.get()[0]++;
+    }
+
+    public static void exitReadOnly() {
+        int[] depth = READ_ONLY_DEPTH.get();
+        if (--depth[0] <= 0) {
+            READ_ONLY_DEPTH.remove();
+        }
+    }
+
+    public static boolean isReadOnly() {
+        return READ_ONLY_DEPTH.get()[0] > 0;
+    }
+
+    /**
+     * 标记当前线程发生了写入
+     */
+    public static void markWrite() {
+        LAST_WRITE_MILLIS.set(System.currentTimeMillis());
+    }
+
+    /**
+     * 当前线程是否在最近 windowMillis 毫秒内写入过
+     */
+    public static boolean wroteWithin(long windowMillis) {
+        Long lastWrite = LAST_WRITE_MILLIS.get();
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < windowMillis;
+    }
+
+    /**
+     * 请求结束时清理，避免线程复用时带到下一个请求
+     */
+    public static void clear() {
+        READ_ONLY_DEPTH.remove();
+        LAST_WRITE_MILLIS.remove();
+    }
+}
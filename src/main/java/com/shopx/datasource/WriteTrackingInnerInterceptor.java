@@ -0,0 +1,18 @@
+package com.shopx.datasource;
+
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * 写入跟踪拦截器
+ * INSERT/UPDATE/DELETE执行前（获取连接之前）标记当前线程发生写入：
+ * 写入本身因此路由到主库，粘滞窗口内后续的只读查询也继续走主库
+ */
+public class WriteTrackingInnerInterceptor implements InnerInterceptor {
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) {
+        RoutingContext.markWrite();
+    }
+}
@@ -0,0 +1,32 @@
+package com.shopx.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 异步下单命令
+ * 库存预占成功后投递到订单队列，由消费者按批创建订单
+ */
+@Data
+public class CheckoutOrderCommand {
+    private String ticket;
+    private String orderNo;
+    private Long userId;
+    private String shippingAddress;
+    private BigDecimal totalAmount;
+    private List<Item> items = new ArrayList<>();
+    private List<Long> cartItemIds = new ArrayList<>();
+    private LocalDateTime createTime;
+    
+    @Data
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+        private BigDecimal price;
+        private BigDecimal subtotal;
+    }
+}
@@ -0,0 +1,23 @@
+package com.shopx.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 异步下单凭证DTO
+ * 客户端凭ticket轮询或订阅 /topic/checkout/{ticket} 获取下单结果
+ */
+@Data
+public class CheckoutTicketDTO {
+    private String ticket;
+    private Long userId;
+    private String status; // QUEUED, SUCCESS, FAILED
+    private Long orderId;
+    private String orderNo;
+    private BigDecimal totalAmount;
+    private String message;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+}
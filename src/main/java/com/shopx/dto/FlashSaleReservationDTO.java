@@ -0,0 +1,23 @@
+package com.shopx.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 秒杀预占DTO
+ * 预占成功后作为消息体投递到订单队列，由消费者异步创建订单
+ */
+@Data
+public class FlashSaleReservationDTO {
+    private String orderNo;
+    private Long userId;
+    private Long productId;
+    private Integer quantity;
+    private BigDecimal price;
+    private String shippingAddress;
+    private Integer remainingStock;
+    private String status; // QUEUED
+    private LocalDateTime createTime;
+}
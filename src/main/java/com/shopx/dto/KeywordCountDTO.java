@@ -0,0 +1,12 @@
+package com.shopx.dto;
+
+import lombok.Data;
+
+/**
+ * 搜索词及其搜索次数
+ */
+@Data
+public class KeywordCountDTO {
+    private String keyword;
+    private Long searchCount;
+}
@@ -0,0 +1,18 @@
+package com.shopx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品计数增量（浏览/点赞/分享），用于批量回写t_product
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCounterDelta {
+    private Long productId;
+    private long views;
+    private long likes;
+    private long shares;
+}
@@ -14,6 +14,7 @@ public class RecycleOrder {
     @TableId(type = IdType.AUTO)
     private Long id;
     
+    private String recycleNo;        // 回收单号
     private Long userId;
     private Long productId;
     private String productName;      // 商品名称
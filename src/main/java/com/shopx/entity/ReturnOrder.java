@@ -15,6 +15,11 @@ public class ReturnOrder {
     @TableId(type = IdType.AUTO)
     private Long id;
     
+    /**
+     * 退货单号
+     */
+    private String returnNo;
+    
     /**
      * 原订单ID
      */
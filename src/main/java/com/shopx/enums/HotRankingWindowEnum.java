@@ -0,0 +1,60 @@
+package com.shopx.enums;
+
+import java.time.Duration;
+
+/**
+ * 热门排行时间窗口枚举
+ * 热度按指数衰减，半衰期为窗口长度的1/4：一个窗口之前的事件只剩1/16的权重
+ */
+public enum HotRankingWindowEnum {
+    HOUR("1h", Duration.ofHours(1), "近1小时"),
+    DAY("24h", Duration.ofHours(24), "近24小时"),
+    WEEK("7d", Duration.ofDays(7), "近7天");
+
+    private static final int HALF_LIVES_PER_WINDOW = 4;
+
+    private final String code;
+    private final Duration length;
+    private final String description;
+
+    HotRankingWindowEnum(String code, Duration length, String description) {
+        this.code = code;
+        this.length = length;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getHalfLifeMillis() {
+        return length.toMillis() / HALF_LIVES_PER_WINDOW;
+    }
+
+    /**
+     * 未指定时默认24小时，无法识别时返回null
+     */
+    public static HotRankingWindowEnum fromCode(String code) {
+        if (code == null || code.isBlank()) {
+            return getDefault();
+        }
+        for (HotRankingWindowEnum window : values()) {
+            if (window.code.equalsIgnoreCase(code)) {
+                return window;
+            }
+        }
+        return null;
+    }
+
+    public static HotRankingWindowEnum getDefault() {
+        return DAY;
+    }
+}
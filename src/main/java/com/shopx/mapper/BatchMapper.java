@@ -0,0 +1,16 @@
+package com.shopx.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import java.util.List;
+
+/**
+ * 支持多行INSERT的Mapper
+ * insertBatchSomeColumn 由 MybatisPlusConfig.BatchSqlInjector 注入，生成
+ * INSERT INTO t (...) VALUES (...), (...), ... 一条语句写入整批数据，自增主键回填到各实体；
+ * 整批写入所有列（值为null的列也写入NULL，不使用数据库默认值），请通过 {@link com.shopx.util.BatchWriteUtil#insertValues} 分块调用
+ */
+public interface BatchMapper<T> extends BaseMapper<T> {
+    
+    int insertBatchSomeColumn(List<T> entityList);
+}
@@ -1,6 +1,5 @@
 package com.shopx.mapper;
 
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.shopx.entity.Order;
 import org.apache.ibatis.annotations.Mapper;
 
@@ -8,6 +7,6 @@ import org.apache.ibatis.annotations.Mapper;
  * 订单Mapper接口
  */
 @Mapper
-public interface OrderMapper extends BaseMapper<Order> {
+public interface OrderMapper extends BatchMapper<Order> {
 }
 
@@ -3,6 +3,7 @@ package com.shopx.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.shopx.dto.ProductCounterDelta;
 import com.shopx.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -10,6 +11,7 @@ import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品Mapper接口
@@ -34,6 +36,18 @@ public interface ProductMapper extends BaseMapper<Product> {
     @Select("SELECT * FROM t_product WHERE enabled = 1 ORDER BY view_count DESC, like_count DESC LIMIT #{limit}")
     List<Product> selectHotProducts(@Param("limit") int limit);
     
+    /**
+     * 获取热门商品ID（与selectHotProducts排序一致，用于缓存预热）
+     */
+    @Select("SELECT id FROM t_product WHERE enabled = 1 ORDER BY view_count DESC, like_count DESC LIMIT #{limit}")
+    List<Long> selectHotProductIds(@Param("limit") int limit);
+    
+    /**
+     * 获取所有在售商品分类
+     */
+    @Select("SELECT DISTINCT category FROM t_product WHERE enabled = 1 AND category IS NOT NULL AND category <> ''")
+    List<String> selectCategories();
+    
     /**
      * 获取推荐商品（基于用户偏好）
      */
@@ -41,22 +55,55 @@ public interface ProductMapper extends BaseMapper<Product> {
     List<Product> selectRecommendedProducts(@Param("lifestyle") String lifestyle, @Param("limit") int limit);
     
     /**
-     * 更新商品浏览量
+     * 批量累加商品浏览/点赞/分享数，单条语句完成（由ProductCounterService定期写回）
+     */
+    @Update("<script>UPDATE t_product SET " +
+            "view_count = view_count + CASE id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.productId} THEN #{d.views} </foreach>END, " +
+            "like_count = GREATEST(like_count + CASE id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.productId} THEN #{d.likes} </foreach>END, 0), " +
+            "share_count = share_count + CASE id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.productId} THEN #{d.shares} </foreach>END " +
+            "WHERE id IN <foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d.productId}</foreach></script>")
+    int batchIncrementCounters(@Param("deltas") List<ProductCounterDelta> deltas);
+    
+    /**
+     * 按ID游标分批读取商品ID（用于重建布隆过滤器）
+     */
+    @Select("SELECT id FROM t_product WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+    
+    /**
+     * 条件扣减库存，库存不足时不更新
+     * @return 1表示扣减成功，0表示库存不足或商品不存在
+     */
+    @Update("UPDATE t_product SET stock = stock - #{quantity} WHERE id = #{id} AND stock >= #{quantity}")
+    int decreaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    /**
+     * 批量条件扣减库存（productId -> 数量），单条语句完成，行锁按主键顺序获取
+     * @return 扣减成功的商品数，小于传入数量时说明部分商品库存不足，调用方需回滚事务
      */
-    @Update("UPDATE t_product SET view_count = view_count + 1 WHERE id = #{id}")
-    int updateViewCount(@Param("id") Long id);
+    @Update("<script>UPDATE t_product SET stock = stock - CASE id " +
+            "<foreach collection='quantities' index='id' item='quantity'>WHEN #{id} THEN #{quantity} </foreach>END " +
+            "WHERE id IN <foreach collection='quantities' index='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND stock >= CASE id " +
+            "<foreach collection='quantities' index='id' item='quantity'>WHEN #{id} THEN #{quantity} </foreach>END</script>")
+    int batchDecreaseStock(@Param("quantities") Map<Long, Integer> quantities);
     
     /**
-     * 更新商品点赞数
+     * 批量增加库存（productId -> 数量），用于取消订单等库存回补
      */
-    @Update("UPDATE t_product SET like_count = like_count + #{increment} WHERE id = #{id}")
-    int updateLikeCount(@Param("id") Long id, @Param("increment") int increment);
+    @Update("<script>UPDATE t_product SET stock = stock + CASE id " +
+            "<foreach collection='quantities' index='id' item='quantity'>WHEN #{id} THEN #{quantity} </foreach>END " +
+            "WHERE id IN <foreach collection='quantities' index='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int batchIncreaseStock(@Param("quantities") Map<Long, Integer> quantities);
     
     /**
-     * 更新商品分享数
+     * 查询数据库中的实时库存
      */
-    @Update("UPDATE t_product SET share_count = share_count + #{increment} WHERE id = #{id}")
-    int updateShareCount(@Param("id") Long id, @Param("increment") int increment);
+    @Select("SELECT stock FROM t_product WHERE id = #{id}")
+    Integer selectStock(@Param("id") Long id);
     
     /**
      * 批量更新商品状态
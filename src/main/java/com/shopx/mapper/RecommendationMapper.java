@@ -1,6 +1,5 @@
 package com.shopx.mapper;
 
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.shopx.entity.Recommendation;
 import org.apache.ibatis.annotations.Mapper;
 
@@ -8,6 +7,6 @@ import org.apache.ibatis.annotations.Mapper;
  * 推荐记录Mapper
  */
 @Mapper
-public interface RecommendationMapper extends BaseMapper<Recommendation> {
+public interface RecommendationMapper extends BatchMapper<Recommendation> {
 }
 
@@ -1,13 +1,27 @@
 package com.shopx.mapper;
 
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.shopx.dto.KeywordCountDTO;
 import com.shopx.entity.SearchHistory;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 搜索历史Mapper
  */
 @Mapper
-public interface SearchHistoryMapper extends BaseMapper<SearchHistory> {
-}
+public interface SearchHistoryMapper extends BatchMapper<SearchHistory> {
 
+    /**
+     * 时间窗口内搜索次数最多的关键词（只统计有结果的搜索，且至少有minUsers个不同登录用户搜索过）
+     */
+    @Select("SELECT keyword, COUNT(*) AS search_count FROM t_search_history " +
+            "WHERE create_time >= #{since} AND result_count > 0 " +
+            "GROUP BY keyword HAVING COUNT(DISTINCT user_id) >= #{minUsers} " +
+            "ORDER BY search_count DESC LIMIT #{limit}")
+    List<KeywordCountDTO> selectPopularKeywords(@Param("since") LocalDateTime since, @Param("minUsers") int minUsers,
+                                                @Param("limit") int limit);
+}
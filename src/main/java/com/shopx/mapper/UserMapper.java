@@ -3,10 +3,20 @@ package com.shopx.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.shopx.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 /**
  * 用户Mapper
  */
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+    
+    /**
+     * 按ID游标分批读取用户ID（用于重建布隆过滤器）
+     */
+    @Select("SELECT id FROM t_user WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
 }
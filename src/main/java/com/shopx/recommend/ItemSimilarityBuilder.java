@@ -0,0 +1,170 @@
+package com.shopx.recommend;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 商品-商品相似度离线计算
+ * 在UserItemMatrix的副本上，对每个商品经其列（交互过的用户）和这些用户的行累计共现次数，
+ * 相似度取二值向量的余弦 共现数/sqrt(两商品交互用户数之积)，每个商品保留前N个邻居。
+ * 商品按区间切分为ForkJoin任务并行计算，每个叶子任务复用一个按商品下标的计数数组；
+ * 交互商品数超过maxUserItems的用户（爬虫、刷单等）不参与共现统计，避免平方级放大
+ * 邻居列表编码为紧凑字节：每个邻居为 8字节商品ID + 4字节相似度
+ */
+public final class ItemSimilarityBuilder {
+
+    public static final int BYTES_PER_NEIGHBOR = Long.BYTES + Float.BYTES;
+
+    private static final int ITEMS_PER_TASK = 256;
+
+    private final UserItemMatrix matrix;
+    private final int topN;
+    private final int maxUserItems;
+
+    /**
+     * @param matrix 只读副本（UserItemMatrix.copy()），计算期间不能再写入
+     */
+    public ItemSimilarityBuilder(UserItemMatrix matrix, int topN, int maxUserItems) {
+        this.matrix = matrix;
+        this.topN = Math.max(1, topN);
+        this.maxUserItems = Math.max(1, maxUserItems);
+    }
+
+    /**
+     * 计算全部商品的邻居，返回 商品ID -> 编码后的邻居列表（没有邻居的商品不出现）
+     */
+    public Map<Long, byte[]> build(ForkJoinPool pool) {
+        List<Map.Entry<Long, byte[]>> entries = pool.invoke(new Task(0, matrix.items()));
+        Map<Long, byte[]> result = new LinkedHashMap<>(entries.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, byte[]> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 解码邻居列表为 商品ID -> 相似度，按相似度降序
+     */
+    public static Map<Long, Double> decode(byte[] encoded) {
+        Map<Long, Double> neighbors = new LinkedHashMap<>();
+        if (encoded == null) {
+            return neighbors;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        while (buffer.remaining() >= BYTES_PER_NEIGHBOR) {
+            long itemId = buffer.getLong();
+            neighbors.put(itemId, (double) buffer.getFloat());
+        }
+        return neighbors;
+    }
+
+    private final class Task extends RecursiveTask<List<Map.Entry<Long, byte[]>>> {
+
+        private final int from;
+        private final int to;
+
+        Task(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Map.Entry<Long, byte[]>> compute() {
+            if (to - from <= ITEMS_PER_TASK) {
+                return computeDirectly();
+            }
+            int middle = (from + to) >>> 1;
+            Task left = new Task(from, middle);
+            left.fork();
+            List<Map.Entry<Long, byte[]>> right = new Task(middle, to).compute();
+            List<Map.Entry<Long, byte[]>> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+
+        private List<Map.Entry<Long, byte[]>> computeDirectly() {
+            int[] counts = new int[matrix.items()];
+            int[] touched = new int[matrix.items()];
+            int[] topItems = new int[topN];
+            float[] topScores = new float[topN];
+            List<Map.Entry<Long, byte[]>> result = new ArrayList<>();
+            for (int item = from; item < to; item++) {
+                int touchedCount = cooccurrences(item, counts, touched);
+                int kept = 0;
+                double degree = matrix.itemColumnLength(item);
+                for (int i = 0; i < touchedCount; i++) {
+                    int other = touched[i];
+                    float score = (float) (counts[other] / Math.sqrt(degree * matrix.itemColumnLength(other)));
+                    counts[other] = 0;
+                    kept = offer(topItems, topScores, kept, other, score);
+                }
+                if (kept > 0) {
+                    result.add(Map.entry(matrix.itemId(item), encode(topItems, topScores, kept)));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 累计与item共现的商品次数，返回出现过的商品数（下标写入touched）
+         */
+        private int cooccurrences(int item, int[] counts, int[] touched) {
+            int touchedCount = 0;
+            int[] column = matrix.itemColumn(item);
+            for (int u = 0, users = matrix.itemColumnLength(item); u < users; u++) {
+                int user = column[u];
+                int rowLength = matrix.userRowLength(user);
+                if (rowLength > maxUserItems) {
+                    continue;
+                }
+                int[] row = matrix.userRow(user);
+                for (int i = 0; i < rowLength; i++) {
+                    int other = row[i];
+                    if (other != item && counts[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+            return touchedCount;
+        }
+
+        /**
+         * 插入按相似度降序（相同时商品ID升序）的前N列表，返回列表长度
+         */
+        private int offer(int[] topItems, float[] topScores, int kept, int other, float score) {
+            if (kept == topN && !before(score, other, topScores[kept - 1], topItems[kept - 1])) {
+                return kept;
+            }
+            int position = kept == topN ? kept - 1 : kept;
+            while (position > 0 && before(score, other, topScores[position - 1], topItems[position - 1])) {
+                topItems[position] = topItems[position - 1];
+                topScores[position] = topScores[position - 1];
+                position--;
+            }
+            topItems[position] = other;
+            topScores[position] = score;
+            return kept == topN ? kept : kept + 1;
+        }
+
+        private boolean before(float score, int item, float otherScore, int otherItem) {
+            if (score != otherScore) {
+                return score > otherScore;
+            }
+            return matrix.itemId(item) < matrix.itemId(otherItem);
+        }
+
+        private byte[] encode(int[] topItems, float[] topScores, int kept) {
+            ByteBuffer buffer = ByteBuffer.allocate(kept * BYTES_PER_NEIGHBOR);
+            for (int i = 0; i < kept; i++) {
+                buffer.putLong(matrix.itemId(topItems[i]));
+                buffer.putFloat(topScores[i]);
+            }
+            return buffer.array();
+        }
+    }
+}
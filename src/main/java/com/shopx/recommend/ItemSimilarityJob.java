@@ -0,0 +1,59 @@
+package com.shopx.recommend;
+
+import com.shopx.config.ShopXConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 商品相似度模型重建任务（Quartz）
+ * 取用户-商品交互矩阵的副本，在独立的ForkJoinPool中计算每个商品的前N个相似商品，
+ * 写入ItemSimilarityStore的新版本后切换
+ */
+@Slf4j
+@DisallowConcurrentExecution
+public class ItemSimilarityJob extends QuartzJobBean {
+
+    public static final JobKey JOB_KEY = JobKey.jobKey("itemSimilarityJob", "recommend");
+
+    @Autowired
+    private UserItemMatrixEngine userItemMatrixEngine;
+
+    @Autowired
+    private ItemSimilarityStore itemSimilarityStore;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
+        ShopXConfig.Recommend.ItemSimilarity config = shopXConfig.getRecommend().getItemSimilarity();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int parallelism = config.getParallelism() > 0 ? config.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            UserItemMatrix snapshot = userItemMatrixEngine.snapshot();
+            Map<Long, byte[]> neighbors = new ItemSimilarityBuilder(snapshot, config.getTopN(), config.getMaxUserItems())
+                    .build(pool);
+            String version = itemSimilarityStore.publish(neighbors);
+            log.info("商品相似度模型重建完成: version={}, items={}, products={}, parallelism={}, cost={}ms",
+                    version, snapshot.itemCount(), neighbors.size(), parallelism, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("商品相似度模型重建失败，保留当前版本", e);
+            throw new JobExecutionException(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.shopx.recommend;
+
+import com.shopx.config.ShopXConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 商品相似度模型存储
+ * 每个版本一个Redis哈希（商品ID -> ItemSimilarityBuilder编码的邻居列表），写完整个版本后
+ * 再改写当前版本号，读方要么读到完整的旧版本，要么读到完整的新版本；
+ * 旧版本设置过期而不是立即删除，给持有旧版本号的节点留出切换时间；
+ * 新版本写入期间带有暂存过期时间，切换后才清除，发布中途失败时写了一半的哈希会自动过期
+ * 各节点定期读取当前版本号缓存在本地，查询一个商品的邻居只需一次HGET
+ */
+@Slf4j
+@Component
+public class ItemSimilarityStore {
+
+    public static final String KEY_PREFIX = "shopx:recommend:item-sim:";
+    public static final String VERSION_KEY = KEY_PREFIX + "version";
+
+    @Autowired
+    private RedisTemplate<String, byte[]> cacheRedisTemplate;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    /**
+     * 本节点已知的当前版本，null表示还没有可用的模型
+     */
+    private volatile String version;
+
+    public boolean isReady() {
+        return isEnabled() && version != null;
+    }
+
+    /**
+     * 商品的相似商品及相似度（按相似度降序），模型未启用或不可用时返回null
+     */
+    public Map<Long, Double> neighbors(Long productId) {
+        String current = version;
+        if (!isEnabled() || current == null || productId == null) {
+            return null;
+        }
+        try {
+            Object encoded = cacheRedisTemplate.opsForHash().get(key(current), String.valueOf(productId));
+            return ItemSimilarityBuilder.decode((byte[]) encoded);
+        } catch (Exception e) {
+            log.error("读取商品相似度失败: productId={}, version={}", productId, current, e);
+            return null;
+        }
+    }
+
+    /**
+     * 写入新版本并切换为当前版本，返回新版本号
+     */
+    public String publish(Map<Long, byte[]> neighbors) {
+        ShopXConfig.Recommend.ItemSimilarity config = config();
+        String next = String.valueOf(System.currentTimeMillis());
+        String nextKey = key(next);
+        int batchSize = Math.max(1, config.getWriteBatchSize());
+        Duration stagingTtl = Duration.ofSeconds(config.getStagingTtlSeconds());
+        Map<String, byte[]> batch = new HashMap<>(batchSize * 4 / 3 + 1);
+        try {
+            for (Map.Entry<Long, byte[]> entry : neighbors.entrySet()) {
+                batch.put(String.valueOf(entry.getKey()), entry.getValue());
+                if (batch.size() == batchSize) {
+                    stage(nextKey, batch, stagingTtl);
+                }
+            }
+            if (!batch.isEmpty()) {
+                stage(nextKey, batch, stagingTtl);
+            }
+        } catch (RuntimeException e) {
+            discard(nextKey);
+            throw e;
+        }
+
+        // 切换失败时不删除新版本（切换可能已生效），由暂存过期时间兜底
+        String previous = stringRedisTemplate.opsForValue().getAndSet(VERSION_KEY, next);
+        version = next;
+        cacheRedisTemplate.persist(nextKey);
+        if (previous != null && !previous.equals(next)) {
+            cacheRedisTemplate.expire(key(previous), Duration.ofSeconds(config.getPreviousVersionTtlSeconds()));
+        }
+        log.info("商品相似度模型切换版本: version={}, previous={}, products={}", next, previous, neighbors.size());
+        return next;
+    }
+
+    /**
+     * 写入一批邻居并（重新）设置暂存过期时间：哈希在第一批写入后才存在，之后每批顺延，避免写入耗时超过过期时间
+     */
+    private void stage(String key, Map<String, byte[]> batch, Duration stagingTtl) {
+        cacheRedisTemplate.opsForHash().putAll(key, batch);
+        cacheRedisTemplate.expire(key, stagingTtl);
+        batch.clear();
+    }
+
+    private void discard(String key) {
+        try {
+            cacheRedisTemplate.delete(key);
+        } catch (Exception e) {
+            log.warn("删除未完成的商品相似度版本失败，等待其过期: key={}", key, e);
+        }
+    }
+
+    /**
+     * 定期读取当前版本号（其他节点发布的新版本）
+     */
+    @Scheduled(fixedDelayString = "${shopx.recommend.item-similarity.version-refresh-interval-millis:30000}")
+    public void refreshVersion() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            String current = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+            if (current != null && !current.equals(version)) {
+                log.info("商品相似度模型版本更新: {} -> {}", version, current);
+                version = current;
+            }
+        } catch (Exception e) {
+            log.error("读取商品相似度模型版本失败", e);
+        }
+    }
+
+    private static String key(String version) {
+        return KEY_PREFIX + "v" + version;
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(config().getEnabled());
+    }
+
+    private ShopXConfig.Recommend.ItemSimilarity config() {
+        return shopXConfig.getRecommend().getItemSimilarity();
+    }
+}
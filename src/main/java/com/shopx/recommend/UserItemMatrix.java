@@ -0,0 +1,334 @@
+package com.shopx.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户-商品交互稀疏矩阵（只记录是否交互过，不记次数）
+ * 用户ID、商品ID经LongIntHashMap映射为连续下标；每个用户一行、每个商品一列，
+ * 行与列都是按下标升序的int数组（留有余量，新增时二分定位后原地移动）。
+ * 用户相似度只遍历目标用户交互过的商品的列，累计与其他用户的交集大小后按Jaccard计算，
+ * 不再扫描全部用户；候选商品为相似用户的行中目标用户未交互过的商品，按相似度之和排序
+ * 读多写少，读写锁保护
+ */
+public class UserItemMatrix {
+
+    private static final int[] EMPTY_ROW = new int[0];
+    private static final int INITIAL_ROW_CAPACITY = 4;
+
+    private final LongIntHashMap userIndex;
+    private final LongIntHashMap itemIndex;
+
+    private long[] userIds;
+    private int[][] userItems;
+    private int[] userItemCounts;
+    private int users;
+
+    private long[] itemIds;
+    private int[][] itemUsers;
+    private int[] itemUserCounts;
+    private int items;
+
+    private long interactions;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public UserItemMatrix() {
+        this(1024, 1024);
+    }
+
+    public UserItemMatrix(int expectedUsers, int expectedItems) {
+        int userCapacity = Math.max(16, expectedUsers);
+        int itemCapacity = Math.max(16, expectedItems);
+        userIndex = new LongIntHashMap(userCapacity, -1);
+        itemIndex = new LongIntHashMap(itemCapacity, -1);
+        userIds = new long[userCapacity];
+        userItems = new int[userCapacity][];
+        userItemCounts = new int[userCapacity];
+        itemIds = new long[itemCapacity];
+        itemUsers = new int[itemCapacity][];
+        itemUserCounts = new int[itemCapacity];
+    }
+
+    /**
+     * 记录一次交互，已存在时返回false
+     */
+    public boolean add(long userId, long itemId) {
+        lock.writeLock().lock();
+        try {
+            int user = userIndex.putIfAbsent(userId, users);
+            if (user == users) {
+                addUser(userId);
+            }
+            int item = itemIndex.putIfAbsent(itemId, items);
+            if (item == items) {
+                addItem(itemId);
+            }
+            if (!insert(userItems, userItemCounts, user, item)) {
+                return false;
+            }
+            insert(itemUsers, itemUserCounts, item, user);
+            interactions++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 用户交互过的商品ID，顺序为商品首次进入矩阵的先后
+     */
+    public long[] items(long userId) {
+        lock.readLock().lock();
+        try {
+            int user = userIndex.get(userId);
+            if (user < 0) {
+                return new long[0];
+            }
+            long[] result = new long[userItemCounts[user]];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = itemIds[userItems[user][i]];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 与目标用户至少有一个共同商品的用户及其Jaccard相似度（交集/并集）
+     */
+    public Map<Long, Double> similarUsers(long userId) {
+        lock.readLock().lock();
+        try {
+            int user = userIndex.get(userId);
+            if (user < 0) {
+                return new HashMap<>();
+            }
+            LongIntHashMap overlaps = overlaps(user);
+            Map<Long, Double> similarities = new HashMap<>(overlaps.size() * 4 / 3 + 1);
+            overlaps.forEach((other, shared) ->
+                    similarities.put(userIds[(int) other], jaccard(user, (int) other, shared)));
+            return similarities;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 协同过滤候选：相似度高于minSimilarity的用户交互过、目标用户未交互过的商品，
+     * 按这些用户的相似度之和降序（相同时商品ID升序），最多limit个
+     */
+    public List<Long> recommend(long userId, double minSimilarity, int limit) {
+        lock.readLock().lock();
+        try {
+            int user = userIndex.get(userId);
+            if (user < 0 || limit <= 0) {
+                return new ArrayList<>();
+            }
+            int[] own = userItems[user];
+            int ownCount = userItemCounts[user];
+            LongIntHashMap candidates = new LongIntHashMap(64, -1);
+            double[][] scores = {new double[64]};
+            overlaps(user).forEach((other, shared) -> {
+                double similarity = jaccard(user, (int) other, shared);
+                if (similarity <= minSimilarity) {
+                    return;
+                }
+                int[] row = userItems[(int) other];
+                for (int i = 0, n = userItemCounts[(int) other]; i < n; i++) {
+                    if (Arrays.binarySearch(own, 0, ownCount, row[i]) >= 0) {
+                        continue;
+                    }
+                    int slot = candidates.putIfAbsent(row[i], candidates.size());
+                    if (slot == scores[0].length) {
+                        scores[0] = Arrays.copyOf(scores[0], slot * 2);
+                    }
+                    scores[0][slot] += similarity;
+                }
+            });
+            return top(candidates, scores[0], limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 深拷贝：拷贝期间持读锁，在线写入等待拷贝完成（耗时与矩阵大小成正比）；
+     * 之后离线计算只读副本，计算过程不再与在线写入争用锁
+     */
+    public UserItemMatrix copy() {
+        lock.readLock().lock();
+        try {
+            UserItemMatrix copy = new UserItemMatrix(users, items);
+            for (int user = 0; user < users; user++) {
+                copy.userIndex.put(userIds[user], user);
+                copy.userIds[user] = userIds[user];
+                copy.userItems[user] = Arrays.copyOf(userItems[user], userItemCounts[user]);
+                copy.userItemCounts[user] = userItemCounts[user];
+            }
+            for (int item = 0; item < items; item++) {
+                copy.itemIndex.put(itemIds[item], item);
+                copy.itemIds[item] = itemIds[item];
+                copy.itemUsers[item] = Arrays.copyOf(itemUsers[item], itemUserCounts[item]);
+                copy.itemUserCounts[item] = itemUserCounts[item];
+            }
+            copy.users = users;
+            copy.items = items;
+            copy.interactions = interactions;
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int userCount() {
+        lock.readLock().lock();
+        try {
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return items;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long interactionCount() {
+        lock.readLock().lock();
+        try {
+            return interactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * 以下方法不加锁，只供ItemSimilarityBuilder在copy()得到的副本上使用
+     */
+
+    int[] userRow(int user) {
+        return userItems[user];
+    }
+
+    int userRowLength(int user) {
+        return userItemCounts[user];
+    }
+
+    int[] itemColumn(int item) {
+        return itemUsers[item];
+    }
+
+    int itemColumnLength(int item) {
+        return itemUserCounts[item];
+    }
+
+    long itemId(int item) {
+        return itemIds[item];
+    }
+
+    int items() {
+        return items;
+    }
+
+    /**
+     * 经目标用户各商品的列累计：其他用户下标 -> 共同商品数
+     */
+    private LongIntHashMap overlaps(int user) {
+        int[] row = userItems[user];
+        int count = userItemCounts[user];
+        LongIntHashMap overlaps = new LongIntHashMap(Math.min(1 << 16, count * 16), 0);
+        for (int i = 0; i < count; i++) {
+            int item = row[i];
+            int[] column = itemUsers[item];
+            for (int j = 0, n = itemUserCounts[item]; j < n; j++) {
+                if (column[j] != user) {
+                    overlaps.addTo(column[j], 1);
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private double jaccard(int user, int other, int shared) {
+        return (double) shared / (userItemCounts[user] + userItemCounts[other] - shared);
+    }
+
+    private List<Long> top(LongIntHashMap candidates, double[] scores, int limit) {
+        long[] itemKeys = new long[candidates.size()];
+        int[] slots = new int[candidates.size()];
+        int[] n = {0};
+        candidates.forEach((item, slot) -> {
+            itemKeys[n[0]] = itemIds[(int) item];
+            slots[n[0]++] = slot;
+        });
+        Integer[] order = new Integer[itemKeys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int compare = Double.compare(scores[slots[b]], scores[slots[a]]);
+            return compare != 0 ? compare : Long.compare(itemKeys[a], itemKeys[b]);
+        });
+        List<Long> result = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && i < limit; i++) {
+            result.add(itemKeys[order[i]]);
+        }
+        return result;
+    }
+
+    private void addUser(long userId) {
+        if (users == userIds.length) {
+            int capacity = users * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            userItems = Arrays.copyOf(userItems, capacity);
+            userItemCounts = Arrays.copyOf(userItemCounts, capacity);
+        }
+        userIds[users] = userId;
+        userItems[users] = EMPTY_ROW;
+        users++;
+    }
+
+    private void addItem(long itemId) {
+        if (items == itemIds.length) {
+            int capacity = items * 2;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            itemUsers = Arrays.copyOf(itemUsers, capacity);
+            itemUserCounts = Arrays.copyOf(itemUserCounts, capacity);
+        }
+        itemIds[items] = itemId;
+        itemUsers[items] = EMPTY_ROW;
+        items++;
+    }
+
+    /**
+     * 按升序插入下标，已存在时返回false
+     */
+    private static boolean insert(int[][] rows, int[] counts, int row, int value) {
+        int[] values = rows[row];
+        int count = counts[row];
+        int position = Arrays.binarySearch(values, 0, count, value);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (count == values.length) {
+            values = Arrays.copyOf(values, Math.max(INITIAL_ROW_CAPACITY, count + (count >> 1) + 1));
+            rows[row] = values;
+        }
+        System.arraycopy(values, position, values, position + 1, count - position);
+        values[position] = value;
+        counts[row] = count + 1;
+        return true;
+    }
+}
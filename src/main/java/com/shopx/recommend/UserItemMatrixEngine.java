@@ -0,0 +1,192 @@
+package com.shopx.recommend;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.shopx.config.ShopXConfig;
+import com.shopx.entity.UserBehavior;
+import com.shopx.mapper.UserBehaviorMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 用户-商品交互矩阵引擎
+ * 启动时及定期按ID游标分批扫描t_user_behavior构建UserItemMatrix，完成后整体替换；
+ * 本节点记录的行为立即写入矩阵，其他节点写入的行为由定期追加扫描（ID大于已扫描位置）补上，
+ * 重复写入是幂等的。事务提交顺序与自增ID顺序不一致时可能漏掉的行由下次全量重建补齐
+ * 矩阵未启用或未就绪时查询方法返回null，由调用方回退为数据库查询
+ */
+@Slf4j
+@Component
+public class UserItemMatrixEngine {
+
+    private static final String[] LOADED_COLUMNS = {"id", "user_id", "product_id"};
+
+    @Autowired
+    private UserBehaviorMapper userBehaviorMapper;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    private volatile UserItemMatrix matrix;
+
+    /**
+     * 已扫描到的最大行为ID
+     */
+    private volatile long lastLoadedId;
+
+    /**
+     * 全量重建与追加扫描互斥
+     */
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    /**
+     * 启动完成、对外提供服务前构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return isEnabled() && matrix != null;
+    }
+
+    /**
+     * 记录一次用户行为，只有参与协同过滤的行为类型进入矩阵
+     */
+    public void record(Long userId, Long productId, String behaviorType) {
+        UserItemMatrix current = matrix;
+        if (current == null || !isEnabled() || userId == null || productId == null
+                || !config().getBehaviorTypes().contains(behaviorType)) {
+            return;
+        }
+        current.add(userId, productId);
+    }
+
+    /**
+     * 与用户有共同商品的用户及Jaccard相似度，矩阵未就绪时返回null
+     */
+    public Map<Long, Double> similarUsers(Long userId) {
+        UserItemMatrix current = matrix;
+        if (!isEnabled() || current == null) {
+            return null;
+        }
+        return current.similarUsers(userId);
+    }
+
+    /**
+     * 按相似用户的相似度之和排序的候选商品ID，矩阵未就绪时返回null
+     */
+    public List<Long> recommend(Long userId, int limit) {
+        UserItemMatrix current = matrix;
+        if (!isEnabled() || current == null) {
+            return null;
+        }
+        return current.recommend(userId, shopXConfig.getRecommend().getUserSimilarityThreshold(), limit);
+    }
+
+    /**
+     * 供离线计算使用的矩阵副本；矩阵未启用或未就绪时直接从数据库构建
+     */
+    public UserItemMatrix snapshot() {
+        UserItemMatrix current = matrix;
+        if (isEnabled() && current != null) {
+            return current.copy();
+        }
+        UserItemMatrix loaded = new UserItemMatrix();
+        load(loaded, 0);
+        return loaded;
+    }
+
+    /**
+     * 追加扫描其他节点写入的行为；全量重建进行中时跳过
+     */
+    @Scheduled(fixedDelayString = "${shopx.recommend.matrix.refresh-interval-millis:5000}")
+    public void refresh() {
+        UserItemMatrix current = matrix;
+        if (!isEnabled() || current == null || !maintenanceLock.tryLock()) {
+            return;
+        }
+        try {
+            long before = current.interactionCount();
+            lastLoadedId = load(current, lastLoadedId);
+            log.debug("用户交互矩阵追加: interactions={}", current.interactionCount() - before);
+        } catch (Exception e) {
+            log.error("用户交互矩阵追加扫描失败，下次重试", e);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * 扫描构建新矩阵，完成后整体替换；失败时保留原矩阵
+     * 构建期间写入的行为在替换后的第一次追加扫描中补上
+     */
+    @Scheduled(initialDelayString = "${shopx.recommend.matrix.rebuild-interval-millis:21600000}",
+            fixedDelayString = "${shopx.recommend.matrix.rebuild-interval-millis:21600000}")
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        maintenanceLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            UserItemMatrix current = matrix;
+            UserItemMatrix next = current == null ? new UserItemMatrix()
+                    : new UserItemMatrix(current.userCount(), current.itemCount());
+            long loadedId = load(next, 0);
+            matrix = next;
+            lastLoadedId = loadedId;
+            log.info("用户交互矩阵重建完成: users={}, items={}, interactions={}, cost={}ms",
+                    next.userCount(), next.itemCount(), next.interactionCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("用户交互矩阵重建失败，保留原矩阵", e);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * 按ID游标分批读取afterId之后的行为写入矩阵，返回读到的最大ID
+     */
+    private long load(UserItemMatrix target, long afterId) {
+        ShopXConfig.Recommend.Matrix config = config();
+        int batchSize = Math.max(1, config.getLoadBatchSize());
+        long lastId = afterId;
+        while (true) {
+            QueryWrapper<UserBehavior> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(LOADED_COLUMNS)
+                       .gt("id", lastId)
+                       .in("behavior_type", config.getBehaviorTypes())
+                       .orderByAsc("id")
+                       .last("LIMIT " + batchSize);
+            List<UserBehavior> behaviors = userBehaviorMapper.selectList(queryWrapper);
+            for (UserBehavior behavior : behaviors) {
+                if (behavior.getUserId() != null && behavior.getProductId() != null) {
+                    target.add(behavior.getUserId(), behavior.getProductId());
+                }
+            }
+            if (!behaviors.isEmpty()) {
+                lastId = behaviors.get(behaviors.size() - 1).getId();
+            }
+            if (behaviors.size() < batchSize) {
+                return lastId;
+            }
+        }
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(config().getEnabled());
+    }
+
+    private ShopXConfig.Recommend.Matrix config() {
+        return shopXConfig.getRecommend().getMatrix();
+    }
+}
@@ -0,0 +1,97 @@
+package com.shopx.search;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 汉字转拼音
+ * 每个汉字取pinyin4j返回的第一个读音（多音字只取常用读音），不带声调，ü写作v，与拼音输入法一致；
+ * 非汉字转小写后原样保留。逐字结果缓存
+ */
+public final class PinyinConverter {
+
+    private static final String NONE = "";
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    private static final Map<Character, String> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    private PinyinConverter() {
+    }
+
+    /**
+     * 全拼，如"华为手机" -> "huaweishouji"
+     */
+    public static String toPinyin(String text) {
+        return convert(text, false);
+    }
+
+    /**
+     * 拼音首字母，如"华为手机" -> "hwsj"
+     */
+    public static String toInitials(String text) {
+        return convert(text, true);
+    }
+
+    public static boolean containsHan(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (isHan(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String convert(String text, boolean initialsOnly) {
+        if (text == null || text.isEmpty()) {
+            return NONE;
+        }
+        StringBuilder result = new StringBuilder(initialsOnly ? text.length() : text.length() * 4);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String pinyin = pinyinOf(c);
+            if (pinyin.isEmpty()) {
+                result.append(Character.toLowerCase(c));
+            } else if (initialsOnly) {
+                result.append(pinyin.charAt(0));
+            } else {
+                result.append(pinyin);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String pinyinOf(char c) {
+        if (!isHan(c)) {
+            return NONE;
+        }
+        return CACHE.computeIfAbsent(c, key -> {
+            try {
+                String[] readings = PinyinHelper.toHanyuPinyinStringArray(key, FORMAT);
+                return readings != null && readings.length > 0 ? readings[0] : NONE;
+            } catch (BadHanyuPinyinOutputFormatCombination e) {
+                return NONE;
+            }
+        });
+    }
+
+    private static boolean isHan(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+}
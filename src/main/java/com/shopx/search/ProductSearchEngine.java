@@ -0,0 +1,290 @@
+package com.shopx.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.shopx.cache.CacheManager;
+import com.shopx.config.ShopXConfig;
+import com.shopx.entity.Product;
+import com.shopx.mapper.ProductMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 商品搜索引擎
+ * 启动时及定期从数据库全量构建ProductSearchIndex，完成后整体替换；
+ * 商品新增/修改/删除/库存变化时登记变更ID（事务提交后），定期批量回查数据库增量更新索引，
+ * 并把本节点的变更ID广播给其他节点。索引未就绪时search返回null，由调用方回退为数据库查询
+ * 搜索建议前缀树复用同一次扫描与回查，随索引一起重建、增量更新
+ * 每个节点在自己的索引更新了可检索内容后按标签失效搜索结果缓存，避免失效早于本节点索引更新而缓存旧结果
+ */
+@Slf4j
+@Component
+public class ProductSearchEngine implements MessageListener {
+
+    private static final String ID_SEPARATOR = ",";
+    private static final int MAX_IDS_PER_MESSAGE = 1000;
+
+    private static final String[] INDEXED_COLUMNS = {"id", "name", "description", "lifestyle_tags", "category",
+            "price", "stock", "has_3d_preview", "is_recyclable", "enabled", "view_count", "like_count", "create_time"};
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    @Autowired
+    private SearchSuggestionEngine suggestionEngine;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private volatile ProductSearchIndex index;
+
+    /**
+     * 待回查的商品ID（含其他节点广播的）
+     */
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 本节点产生、待广播的商品ID
+     */
+    private final Set<Long> localDirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 全量重建与增量刷新互斥
+     */
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        if (isEnabled()) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(config().getChannel()));
+        }
+    }
+
+    /**
+     * 启动完成、对外提供服务前构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return isEnabled() && index != null;
+    }
+
+    /**
+     * 检索商品，索引未启用或未就绪时返回null
+     */
+    public ProductSearchResult search(ProductSearchQuery query) {
+        ProductSearchIndex current = index;
+        if (!isEnabled() || current == null) {
+            return null;
+        }
+        return current.search(query);
+    }
+
+    /**
+     * 登记变更的商品；在事务中调用时提交后才登记，避免回查到未提交的旧数据
+     */
+    public void markDirty(Collection<Long> productIds) {
+        if (!isEnabled() || productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(productIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(ids);
+                }
+            });
+        } else {
+            enqueue(ids);
+        }
+    }
+
+    public void markDirty(Long productId) {
+        if (productId != null) {
+            markDirty(List.of(productId));
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String id : body.split(ID_SEPARATOR)) {
+            try {
+                dirty.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                log.warn("忽略无法解析的搜索索引消息: {}", id);
+            }
+        }
+    }
+
+    /**
+     * 广播本节点的变更，并回查数据库更新变更商品；全量重建进行中时留到重建完成后处理
+     */
+    @Scheduled(fixedDelayString = "${shopx.search.refresh-interval-millis:1000}")
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        publishLocalChanges();
+        ProductSearchIndex current = index;
+        if (current == null || dirty.isEmpty() || !maintenanceLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Long> ids = new ArrayList<>(dirty);
+            dirty.removeAll(ids);
+            try {
+                boolean changed = apply(current, ids);
+                if (changed) {
+                    cacheManager.invalidateTags(CacheManager.SEARCH_RESULT_TAG);
+                }
+                log.debug("搜索索引增量刷新: products={}, changed={}", ids.size(), changed);
+            } catch (Exception e) {
+                log.error("搜索索引增量刷新失败，下次重试: products={}", ids.size(), e);
+                dirty.addAll(ids);
+            }
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * 按ID游标分批扫描构建新索引，完成后整体替换；失败时保留原索引
+     * 构建期间变更的商品仍留在待回查集合中，替换后的第一次刷新补上
+     */
+    @Scheduled(initialDelayString = "${shopx.search.rebuild-interval-millis:3600000}",
+            fixedDelayString = "${shopx.search.rebuild-interval-millis:3600000}")
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        ShopXConfig.Search config = config();
+        int batchSize = Math.max(1, config.getRebuildBatchSize());
+        maintenanceLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            ProductSearchIndex next = new ProductSearchIndex(config.getK1(), config.getB(), config.getNameBoost(),
+                    config.getFacetPriceBuckets());
+            SuggestionTrie suggestions = suggestionEngine.newTrie();
+            long lastId = 0;
+            while (true) {
+                QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select(INDEXED_COLUMNS)
+                           .gt("id", lastId)
+                           .orderByAsc("id")
+                           .last("LIMIT " + batchSize);
+                List<Product> products = productMapper.selectList(queryWrapper);
+                for (Product product : products) {
+                    next.upsert(product);
+                    if (suggestions != null) {
+                        suggestions.upsertProduct(product);
+                    }
+                }
+                if (products.size() < batchSize) {
+                    break;
+                }
+                lastId = products.get(products.size() - 1).getId();
+            }
+            index = next;
+            suggestionEngine.install(suggestions);
+            cacheManager.invalidateTags(CacheManager.SEARCH_RESULT_TAG);
+            log.info("搜索索引重建完成: products={}, terms={}, cost={}ms",
+                    next.size(), next.termCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("搜索索引重建失败，保留原索引", e);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private void enqueue(List<Long> ids) {
+        dirty.addAll(ids);
+        localDirty.addAll(ids);
+    }
+
+    /**
+     * 回查并更新索引，返回是否有商品的可检索内容发生变化
+     */
+    private boolean apply(ProductSearchIndex target, List<Long> ids) {
+        boolean changed = false;
+        int batchSize = Math.max(1, config().getRebuildBatchSize());
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<Long> batch = ids.subList(i, Math.min(i + batchSize, ids.size()));
+            QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(INDEXED_COLUMNS).in("id", batch);
+            Set<Long> found = new HashSet<>();
+            for (Product product : productMapper.selectList(queryWrapper)) {
+                changed |= target.upsert(product);
+                suggestionEngine.productChanged(product);
+                found.add(product.getId());
+            }
+            for (Long id : batch) {
+                if (!found.contains(id)) {
+                    changed |= target.remove(id);
+                    suggestionEngine.productRemoved(id);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void publishLocalChanges() {
+        if (localDirty.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(localDirty);
+        localDirty.removeAll(ids);
+        try {
+            for (int i = 0; i < ids.size(); i += MAX_IDS_PER_MESSAGE) {
+                String body = ids.subList(i, Math.min(i + MAX_IDS_PER_MESSAGE, ids.size())).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(ID_SEPARATOR));
+                stringRedisTemplate.convertAndSend(config().getChannel(), body);
+            }
+        } catch (Exception e) {
+            log.error("发布搜索索引变更失败: products={}", ids.size(), e);
+        }
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(config().getEnabled());
+    }
+
+    private ShopXConfig.Search config() {
+        return shopXConfig.getSearch();
+    }
+}
@@ -0,0 +1,610 @@
+package com.shopx.search;
+
+import com.shopx.entity.Product;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品倒排索引
+ * 文档号为内部连续int：商品更新时旧文档标记删除、追加新文档，因此倒排表按文档号递增、只追加不插入；
+ * 已删除文档留在倒排表中，由存活位图过滤，整体重建时清除；
+ * 可检索内容未变的更新（库存数量、浏览/点赞数等）原地改写排序列，不重新分词，也不产生已删除文档
+ * 名称、描述、生活方式标签合并为一个字段，名称中的词频乘以 nameBoost；相关度按BM25计算，多个词取交集
+ * 分类、有货、3D预览、可回收为位图（RoaringBitmap），与存活位图求交后作为候选过滤；价格区间任意，按文档的价格列逐个判断
+ * 需要分面统计时把命中文档收集为位图，与各分类、价格档、有货位图求交计数，不再逐个分面查库
+ * 查询并发持读锁，增量更新持写锁
+ */
+public class ProductSearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_PRICE = "price";
+    public static final String FACET_STOCK_STATUS = "stockStatus";
+
+    /**
+     * 默认价格分面的分界（元）
+     */
+    public static final List<Integer> DEFAULT_PRICE_BUCKETS = List.of(50, 100, 200, 500, 1000, 5000);
+
+    private final float k1;
+    private final float b;
+    private final int nameBoost;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final Map<String, RoaringBitmap> categories = new HashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final RoaringBitmap has3dPreview = new RoaringBitmap();
+    private final RoaringBitmap recyclable = new RoaringBitmap();
+
+    /**
+     * 价格分档：分界（分）升序，第i档为 [bounds[i-1], bounds[i])，首档从0起、末档无上限
+     */
+    private final long[] priceBounds;
+    private final String[] priceLabels;
+    private final RoaringBitmap[] priceBuckets;
+
+    private long[] productIds = new long[INITIAL_CAPACITY];
+    private int[] docLengths = new int[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private int[] viewCounts = new int[INITIAL_CAPACITY];
+    private int[] likeCounts = new int[INITIAL_CAPACITY];
+    private long[] createTimes = new long[INITIAL_CAPACITY];
+    private long[] signatureHigh = new long[INITIAL_CAPACITY];
+    private long[] signatureLow = new long[INITIAL_CAPACITY];
+
+    private int maxDoc;
+    private int liveCount;
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSearchIndex(float k1, float b, int nameBoost) {
+        this(k1, b, nameBoost, DEFAULT_PRICE_BUCKETS);
+    }
+
+    public ProductSearchIndex(float k1, float b, int nameBoost, List<Integer> priceBuckets) {
+        this.k1 = k1;
+        this.b = b;
+        this.nameBoost = Math.max(1, nameBoost);
+        int[] bounds = (priceBuckets != null ? priceBuckets : DEFAULT_PRICE_BUCKETS).stream()
+                .mapToInt(Integer::intValue)
+                .filter(bound -> bound > 0)
+                .sorted()
+                .distinct()
+                .toArray();
+        this.priceBounds = new long[bounds.length];
+        this.priceLabels = new String[bounds.length + 1];
+        this.priceBuckets = new RoaringBitmap[bounds.length + 1];
+        for (int i = 0; i <= bounds.length; i++) {
+            int lower = i == 0 ? 0 : bounds[i - 1];
+            if (i < bounds.length) {
+                priceBounds[i] = bounds[i] * 100L;
+                priceLabels[i] = lower + "-" + bounds[i];
+            } else {
+                priceLabels[i] = lower + "+";
+            }
+            this.priceBuckets[i] = new RoaringBitmap();
+        }
+    }
+
+    /**
+     * 新增或替换商品；已停用的商品从索引移除
+     * 返回可检索内容（文本、分类、价格、有无货、3D预览、可回收、上下架）是否变化，只有库存数量或浏览/点赞数变化时返回false
+     */
+    public boolean upsert(Product product) {
+        if (product == null || product.getId() == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            long[] signature = signature(product);
+            Integer previous = docByProduct.get(product.getId());
+            boolean changed = previous == null || !hasSignature(previous, signature);
+            if (!changed && !Boolean.FALSE.equals(product.getEnabled())) {
+                updateStoredFields(previous, product);
+                return false;
+            }
+            removeInternal(product.getId());
+            if (Boolean.FALSE.equals(product.getEnabled())) {
+                return previous != null;
+            }
+            addInternal(product, signature);
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除商品，返回索引中原先是否存在
+     */
+    public boolean remove(Long productId) {
+        if (productId == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            return removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 存活商品数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已删除但仍占用倒排表的文档数
+     */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return maxDoc - liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductSearchResult search(ProductSearchQuery query) {
+        String keyword = query.getKeyword();
+        List<String> terms = SearchTokenizer.tokenizeQuery(keyword);
+        int offset = Math.max(0, query.getOffset());
+        int limit = Math.max(0, query.getLimit());
+        if (keyword != null && !keyword.isBlank() && terms.isEmpty()) {
+            return new ProductSearchResult(Collections.emptyList(), 0, null);
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap filter = filter(query);
+            if (filter == null) {
+                return new ProductSearchResult(Collections.emptyList(), 0, query.isFacets() ? facets(new RoaringBitmap()) : null);
+            }
+            long minPrice = query.getMinPrice() != null ? toCents(query.getMinPrice()) : Long.MIN_VALUE;
+            long maxPrice = query.getMaxPrice() != null ? toCents(query.getMaxPrice()) : Long.MAX_VALUE;
+
+            ProductSearchQuery.Sort sort = query.getSort();
+            if (sort == null || (sort == ProductSearchQuery.Sort.RELEVANCE && terms.isEmpty())) {
+                sort = terms.isEmpty() ? ProductSearchQuery.Sort.NEWEST : ProductSearchQuery.Sort.RELEVANCE;
+            }
+            TopHits top = new TopHits(offset + limit, order(sort));
+            boolean priceFiltered = minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE;
+            // 无关键词、无价格条件时命中集就是过滤位图本身，不必另行收集
+            RoaringBitmap matched = query.isFacets() && (!terms.isEmpty() || priceFiltered) ? new RoaringBitmap() : null;
+            long total = terms.isEmpty()
+                    ? collectFiltered(filter, minPrice, maxPrice, top, matched)
+                    : collectMatches(terms, filter, minPrice, maxPrice, top, matched);
+            Map<String, Map<String, Long>> facets = null;
+            if (query.isFacets()) {
+                facets = facets(matched != null ? matched : filter);
+            }
+            return new ProductSearchResult(top.page(offset), total, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addInternal(Product product, long[] signature) {
+        int doc = maxDoc++;
+        ensureCapacity(maxDoc);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, product.getName(), nameBoost);
+        addTerms(frequencies, product.getDescription(), 1);
+        addTerms(frequencies, product.getLifestyleTags(), 1);
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+
+        productIds[doc] = product.getId();
+        docLengths[doc] = length;
+        priceCents[doc] = product.getPrice() != null ? toCents(product.getPrice()) : 0L;
+        viewCounts[doc] = product.getViewCount() != null ? product.getViewCount() : 0;
+        likeCounts[doc] = product.getLikeCount() != null ? product.getLikeCount() : 0;
+        createTimes[doc] = toMillis(product.getCreateTime());
+        signatureHigh[doc] = signature[0];
+        signatureLow[doc] = signature[1];
+
+        live.add(doc);
+        if (product.getStock() != null && product.getStock() > 0) {
+            inStock.add(doc);
+        }
+        if (Boolean.TRUE.equals(product.getHas3dPreview())) {
+            has3dPreview.add(doc);
+        }
+        if (Boolean.TRUE.equals(product.getIsRecyclable())) {
+            recyclable.add(doc);
+        }
+        if (product.getCategory() != null && !product.getCategory().isEmpty()) {
+            categories.computeIfAbsent(product.getCategory(), category -> new RoaringBitmap()).add(doc);
+        }
+        priceBuckets[priceBucket(priceCents[doc])].add(doc);
+        docByProduct.put(product.getId(), doc);
+        liveCount++;
+        totalLength += length;
+    }
+
+    /**
+     * 只改写不参与检索的排序列，倒排表和位图保持不变
+     */
+    private void updateStoredFields(int doc, Product product) {
+        viewCounts[doc] = product.getViewCount() != null ? product.getViewCount() : 0;
+        likeCounts[doc] = product.getLikeCount() != null ? product.getLikeCount() : 0;
+        createTimes[doc] = toMillis(product.getCreateTime());
+    }
+
+    private boolean removeInternal(Long productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        // 只清存活位；其余位图中的旧文档位在与存活位图求交时即被排除，整体重建时清除
+        live.remove(doc);
+        liveCount--;
+        totalLength -= docLengths[doc];
+        return true;
+    }
+
+    /**
+     * 可检索内容的128位摘要（SHA-256前16字节），用于判断更新是否影响检索结果；
+     * 字段按长度前缀依次写入，不同字段组合不会拼出相同输入，碰撞概率可忽略
+     */
+    private static long[] signature(Product product) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        updateText(digest, product.getName());
+        updateText(digest, product.getDescription());
+        updateText(digest, product.getLifestyleTags());
+        updateText(digest, product.getCategory());
+        updateLong(digest, product.getPrice() != null ? toCents(product.getPrice()) : 0L);
+        updateLong(digest, product.getStock() != null && product.getStock() > 0 ? 1 : 0);
+        updateLong(digest, Boolean.TRUE.equals(product.getHas3dPreview()) ? 1 : 0);
+        updateLong(digest, Boolean.TRUE.equals(product.getIsRecyclable()) ? 1 : 0);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new long[]{hash.getLong(), hash.getLong()};
+    }
+
+    private boolean hasSignature(int doc, long[] signature) {
+        return signatureHigh[doc] == signature[0] && signatureLow[doc] == signature[1];
+    }
+
+    private static void updateText(MessageDigest digest, String text) {
+        if (text == null) {
+            updateLong(digest, -1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        updateLong(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void updateLong(MessageDigest digest, long value) {
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * 存活位图与各筛选位图求交（不修改原位图，无筛选条件时直接返回存活位图）；分类不存在时返回null
+     */
+    private RoaringBitmap filter(ProductSearchQuery query) {
+        RoaringBitmap filter = live;
+        if (query.getCategory() != null && !query.getCategory().isEmpty()) {
+            RoaringBitmap category = categories.get(query.getCategory());
+            if (category == null) {
+                return null;
+            }
+            filter = RoaringBitmap.and(filter, category);
+        }
+        if (Boolean.TRUE.equals(query.getInStock())) {
+            filter = RoaringBitmap.and(filter, inStock);
+        } else if (Boolean.FALSE.equals(query.getInStock())) {
+            filter = RoaringBitmap.andNot(filter, inStock);
+        }
+        if (query.isHas3dPreview()) {
+            filter = RoaringBitmap.and(filter, has3dPreview);
+        }
+        if (query.isRecyclable()) {
+            filter = RoaringBitmap.and(filter, recyclable);
+        }
+        return filter;
+    }
+
+    /**
+     * 命中文档按文档号递增收集到matched（为null时不收集）
+     */
+    private long collectFiltered(RoaringBitmap filter, long minPrice, long maxPrice, TopHits top, RoaringBitmap matched) {
+        long total = 0;
+        IntIterator docs = filter.getIntIterator();
+        while (docs.hasNext()) {
+            int doc = docs.next();
+            if (priceCents[doc] >= minPrice && priceCents[doc] <= maxPrice) {
+                total++;
+                top.offer(doc, 0f);
+                if (matched != null) {
+                    matched.add(doc);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 以文档频率最小的词为主遍历，其余倒排表按文档号跳跃查找，全部命中才计分
+     */
+    private long collectMatches(List<String> terms, RoaringBitmap filter, long minPrice, long maxPrice, TopHits top,
+                                RoaringBitmap matched) {
+        PostingList[] lists = new PostingList[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) {
+                return 0;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        int documents = Math.max(1, liveCount);
+        double averageLength = liveCount > 0 ? (double) totalLength / liveCount : 1.0;
+        double[] idf = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            int df = Math.min(lists[i].size, documents);
+            idf[i] = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+        }
+
+        int[] cursors = new int[lists.length];
+        PostingList lead = lists[0];
+        long total = 0;
+        candidates:
+        for (int i = 0; i < lead.size; i++) {
+            int doc = lead.docs[i];
+            if (!filter.contains(doc) || priceCents[doc] < minPrice || priceCents[doc] > maxPrice) {
+                continue;
+            }
+            double norm = k1 * (1 - b + b * docLengths[doc] / averageLength);
+            double score = idf[0] * termScore(lead.freqs[i], norm);
+            for (int t = 1; t < lists.length; t++) {
+                PostingList list = lists[t];
+                int position = list.advance(cursors[t], doc);
+                cursors[t] = position;
+                if (position >= list.size || list.docs[position] != doc) {
+                    continue candidates;
+                }
+                score += idf[t] * termScore(list.freqs[position], norm);
+            }
+            total++;
+            top.offer(doc, (float) score);
+            if (matched != null) {
+                matched.add(doc);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 命中集与各分面位图求交计数：分类按数量降序、只列有命中的；价格档按区间顺序全部列出；库存分有货/缺货
+     */
+    private Map<String, Map<String, Long>> facets(RoaringBitmap matched) {
+        List<Map.Entry<String, Long>> categoryCounts = new ArrayList<>();
+        for (Map.Entry<String, RoaringBitmap> entry : categories.entrySet()) {
+            long count = RoaringBitmap.andCardinality(matched, entry.getValue());
+            if (count > 0) {
+                categoryCounts.add(Map.entry(entry.getKey(), count));
+            }
+        }
+        categoryCounts.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        categoryCounts.forEach(entry -> byCategory.put(entry.getKey(), entry.getValue()));
+
+        Map<String, Long> byPrice = new LinkedHashMap<>();
+        for (int i = 0; i < priceBuckets.length; i++) {
+            byPrice.put(priceLabels[i], (long) RoaringBitmap.andCardinality(matched, priceBuckets[i]));
+        }
+
+        long inStockCount = RoaringBitmap.andCardinality(matched, inStock);
+        Map<String, Long> byStock = new LinkedHashMap<>();
+        byStock.put("inStock", inStockCount);
+        byStock.put("outOfStock", matched.getLongCardinality() - inStockCount);
+
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put(FACET_CATEGORY, byCategory);
+        facets.put(FACET_PRICE, byPrice);
+        facets.put(FACET_STOCK_STATUS, byStock);
+        return facets;
+    }
+
+    private int priceBucket(long cents) {
+        int index = Arrays.binarySearch(priceBounds, cents);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private double termScore(int frequency, double norm) {
+        return frequency * (k1 + 1) / (frequency + norm);
+    }
+
+    /**
+     * 排序规则（排在前面的为"更好"），相同时新商品在前
+     */
+    private Comparator<Hit> order(ProductSearchQuery.Sort sort) {
+        Comparator<Hit> newest = Comparator.<Hit>comparingLong(hit -> createTimes[hit.doc])
+                .thenComparingLong(hit -> productIds[hit.doc])
+                .reversed();
+        switch (sort) {
+            case RELEVANCE:
+                return Comparator.<Hit>comparingDouble(hit -> -hit.score).thenComparing(newest);
+            case PRICE_ASC:
+                return Comparator.<Hit>comparingLong(hit -> priceCents[hit.doc]).thenComparing(newest);
+            case PRICE_DESC:
+                return Comparator.<Hit>comparingLong(hit -> -priceCents[hit.doc]).thenComparing(newest);
+            case POPULARITY:
+                return Comparator.<Hit>comparingInt(hit -> -viewCounts[hit.doc])
+                        .thenComparingInt(hit -> -likeCounts[hit.doc])
+                        .thenComparing(newest);
+            default:
+                return newest;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productIds.length) {
+            return;
+        }
+        int grown = Math.max(capacity, productIds.length + (productIds.length >> 1));
+        productIds = Arrays.copyOf(productIds, grown);
+        docLengths = Arrays.copyOf(docLengths, grown);
+        priceCents = Arrays.copyOf(priceCents, grown);
+        viewCounts = Arrays.copyOf(viewCounts, grown);
+        likeCounts = Arrays.copyOf(likeCounts, grown);
+        createTimes = Arrays.copyOf(createTimes, grown);
+        signatureHigh = Arrays.copyOf(signatureHigh, grown);
+        signatureLow = Arrays.copyOf(signatureLow, grown);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).longValue();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    /**
+     * 倒排表：文档号递增的int数组与对应词频
+     */
+    private static final class PostingList {
+
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size << 1);
+                freqs = Arrays.copyOf(freqs, size << 1);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        /**
+         * 从from开始查找第一个文档号>=target的位置：先倍增步长定位区间，再在区间内二分
+         */
+        int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            int high = from + 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            int index = Arrays.binarySearch(docs, low + 1, Math.min(high, size), target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    private static final class Hit {
+
+        private int doc;
+        private float score;
+
+        Hit(int doc, float score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    /**
+     * 保留排序最前的capacity个命中，堆顶为其中最差的一个
+     */
+    private final class TopHits {
+
+        private final int capacity;
+        private final Comparator<Hit> order;
+        private final PriorityQueue<Hit> heap;
+        private final Hit probe = new Hit(0, 0f);
+
+        TopHits(int capacity, Comparator<Hit> order) {
+            this.capacity = capacity;
+            this.order = order;
+            this.heap = new PriorityQueue<>(Math.max(1, Math.min(capacity, INITIAL_CAPACITY)), order.reversed());
+        }
+
+        void offer(int doc, float score) {
+            if (capacity == 0) {
+                return;
+            }
+            if (heap.size() >= capacity) {
+                probe.doc = doc;
+                probe.score = score;
+                if (order.compare(probe, heap.peek()) >= 0) {
+                    return;
+                }
+                heap.poll();
+            }
+            heap.add(new Hit(doc, score));
+        }
+
+        List<Long> page(int offset) {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(order);
+            List<Long> page = new ArrayList<>();
+            for (int i = offset; i < hits.size(); i++) {
+                page.add(productIds[hits.get(i).doc]);
+            }
+            return page;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.shopx.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品检索条件
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchQuery {
+
+    /**
+     * 关键词，为空时只按筛选条件过滤
+     */
+    private String keyword;
+
+    private String category;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    /**
+     * true只要有货，false只要缺货，null不限
+     */
+    private Boolean inStock;
+
+    private boolean has3dPreview;
+
+    private boolean recyclable;
+
+    /**
+     * 排序方式，null时有关键词按相关度、无关键词按最新
+     */
+    private Sort sort;
+
+    private int offset;
+
+    private int limit;
+
+    /**
+     * 是否同时统计分类、价格档、库存状态的分面计数
+     */
+    private boolean facets;
+
+    public enum Sort {
+        RELEVANCE,
+        PRICE_ASC,
+        PRICE_DESC,
+        POPULARITY,
+        NEWEST
+    }
+}
@@ -0,0 +1,28 @@
+package com.shopx.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品检索结果：当前页商品ID（按排序）与命中总数
+ * 可整体放入搜索结果缓存（不含商品详情，命中后按ID取商品缓存）
+ */
+@Data
+@AllArgsConstructor
+public class ProductSearchResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Long> productIds;
+
+    private long total;
+
+    /**
+     * 分面统计：维度 -> 取值 -> 命中数，未请求分面时为null
+     */
+    private Map<String, Map<String, Long>> facets;
+}
@@ -0,0 +1,125 @@
+package com.shopx.search;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.dto.KeywordCountDTO;
+import com.shopx.entity.Product;
+import com.shopx.mapper.SearchHistoryMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 搜索建议引擎
+ * 商品名称随ProductSearchEngine的全量重建一起装入新的SuggestionTrie，增量刷新时同步更新；
+ * 热门搜索词只来自t_search_history：装入时及定期按窗口内搜索次数对账，且至少有min-query-users个
+ * 不同登录用户搜索过、总数不超过max-queries，单个客户端无法把任意文本推入所有人的补全，也不会让前缀树无限增长。
+ * 补全只读内存，前缀树未就绪时suggest返回null，由调用方回退为数据库查询
+ */
+@Slf4j
+@Component
+public class SearchSuggestionEngine {
+
+    @Autowired
+    private SearchHistoryMapper searchHistoryMapper;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    private volatile SuggestionTrie trie;
+
+    public boolean isReady() {
+        return isEnabled() && trie != null;
+    }
+
+    /**
+     * 按前缀补全，前缀树未启用或未就绪时返回null
+     */
+    public List<String> suggest(String keyword, int limit) {
+        SuggestionTrie current = trie;
+        if (!isEnabled() || current == null) {
+            return null;
+        }
+        return current.suggest(keyword, limit);
+    }
+
+    /**
+     * 供全量重建使用的空前缀树，未启用时返回null
+     */
+    public SuggestionTrie newTrie() {
+        return isEnabled() ? new SuggestionTrie(config().getTopK()) : null;
+    }
+
+    /**
+     * 全量重建完成：载入热门搜索词后整体替换
+     */
+    public void install(SuggestionTrie next) {
+        if (next == null) {
+            return;
+        }
+        loadPopularQueries(next);
+        trie = next;
+        log.info("搜索建议前缀树重建完成: suggestions={}, nodes={}", next.size(), next.nodeCount());
+    }
+
+    public void productChanged(Product product) {
+        SuggestionTrie current = trie;
+        if (current != null) {
+            current.upsertProduct(product);
+        }
+    }
+
+    public void productRemoved(Long productId) {
+        SuggestionTrie current = trie;
+        if (current != null) {
+            current.removeProduct(productId);
+        }
+    }
+
+    /**
+     * 定期按数据库中的搜索次数对账热门搜索词权重
+     */
+    @Scheduled(initialDelayString = "${shopx.search.suggestion.query-refresh-interval-millis:300000}",
+            fixedDelayString = "${shopx.search.suggestion.query-refresh-interval-millis:300000}")
+    public void refreshQueries() {
+        SuggestionTrie current = trie;
+        if (current != null && isEnabled()) {
+            loadPopularQueries(current);
+        }
+    }
+
+    private void loadPopularQueries(SuggestionTrie target) {
+        ShopXConfig.Search.Suggestion config = config();
+        try {
+            LocalDateTime since = LocalDateTime.now().minusDays(config.getQueryWindowDays());
+            List<KeywordCountDTO> keywords = searchHistoryMapper.selectPopularKeywords(since,
+                    config.getMinQueryUsers(), config.getMaxQueries());
+            int loaded = 0;
+            for (KeywordCountDTO keyword : keywords) {
+                if (isValidQuery(keyword.getKeyword()) && keyword.getSearchCount() != null) {
+                    target.setQueryWeight(keyword.getKeyword(), keyword.getSearchCount() * config.getQueryWeight());
+                    loaded++;
+                }
+            }
+            log.debug("搜索建议热门词对账: keywords={}", loaded);
+        } catch (Exception e) {
+            log.error("加载热门搜索词失败，搜索建议暂只含商品名称", e);
+        }
+    }
+
+    private boolean isValidQuery(String keyword) {
+        return StringUtils.hasText(keyword) && keyword.trim().length() <= config().getMaxQueryLength();
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(shopXConfig.getSearch().getEnabled()) && Boolean.TRUE.equals(config().getEnabled());
+    }
+
+    private ShopXConfig.Search.Suggestion config() {
+        return shopXConfig.getSearch().getSuggestion();
+    }
+}
@@ -0,0 +1,84 @@
+package com.shopx.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词器
+ * 拉丁字母/数字按连续片段切成小写单词；中日韩文字按连续片段切成二元组（bigram）。
+ * 建索引时另外输出单字，使单字查询也能命中；查询时片段长度>=2只用二元组，相当于按子串匹配。
+ * 拉丁文本按整词匹配：查询 "phone" 不再命中 "iphone"，与原先数据库 LIKE '%...%' 的子串语义不同
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 索引分词：单词 + 二元组 + 单字
+     */
+    public static List<String> tokenize(String text) {
+        return split(text, true);
+    }
+
+    /**
+     * 查询分词：去重，保持原顺序
+     */
+    public static List<String> tokenizeQuery(String text) {
+        return new ArrayList<>(new LinkedHashSet<>(split(text, false)));
+    }
+
+    private static List<String> split(String text, boolean forIndex) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int start = i;
+                while (i < length && isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                addCjk(text.substring(start, i), tokens, forIndex);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length) {
+                    int next = text.codePointAt(i);
+                    if (!Character.isLetterOrDigit(next) || isCjk(next)) {
+                        break;
+                    }
+                    i += Character.charCount(next);
+                }
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addCjk(String run, List<String> tokens, boolean forIndex) {
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1 || forIndex) {
+            for (int codePoint : codePoints) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,483 @@
+package com.shopx.search;
+
+import com.shopx.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 搜索建议前缀树
+ * 压缩前缀树（边上存字符串），每个节点缓存该前缀下权重最高的topK条建议，补全时沿前缀走到节点直接取出，
+ * 耗时只与前缀长度有关。每条建议以三个键挂入树中：去空白的小写原文、全拼、拼音首字母，
+ * 因此"手"、"shouj"、"sj"都能补全出"手机"
+ * 建议来源为商品名称与热门搜索词：商品权重随浏览/点赞数对数增长，同名商品累加；搜索词按搜索次数加权；同一文本两者相加
+ * 权重上升时沿路径把建议插入各节点的topK；下降或删除时沿路径自下而上由子节点的topK重新归并
+ * 查询并发持读锁，更新持写锁
+ */
+public class SuggestionTrie {
+
+    private static final Suggestion[] EMPTY = new Suggestion[0];
+
+    /**
+     * 商品权重中点赞相对浏览的倍数
+     */
+    private static final double LIKE_WEIGHT = 3;
+
+    private static final Comparator<Suggestion> ORDER = Comparator
+            .comparingDouble((Suggestion s) -> s.weight).reversed()
+            .thenComparing(s -> s.text);
+
+    private final int topK;
+    private final Node root = new Node("");
+
+    /**
+     * 规范化文本 -> 建议
+     */
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+    /**
+     * 商品ID -> 该商品当前计入的名称与权重，商品改名/停用时据此撤回
+     */
+    private final Map<Long, ProductEntry> products = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int nodeCount = 1;
+
+    public SuggestionTrie(int topK) {
+        this.topK = Math.max(1, topK);
+    }
+
+    /**
+     * 按前缀补全，最多返回 min(limit, topK) 条
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    return List.of();
+                }
+                int length = Math.min(child.label.length(), key.length() - i);
+                if (!key.regionMatches(i, child.label, 0, length)) {
+                    return List.of();
+                }
+                i += length;
+                node = child;
+            }
+            Suggestion[] top = node.top;
+            int count = Math.min(limit, top.length);
+            List<String> result = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                result.add(top[j].text);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或更新商品名称；停用或无名称的商品撤回
+     */
+    public void upsertProduct(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        String key = normalize(product.getName());
+        if (!Boolean.TRUE.equals(product.getEnabled()) || key.isEmpty()) {
+            removeProduct(product.getId());
+            return;
+        }
+        double weight = productWeight(product);
+        lock.writeLock().lock();
+        try {
+            ProductEntry previous = products.get(product.getId());
+            if (previous != null && previous.key.equals(key)) {
+                contribute(product.getName(), key, 0, weight - previous.weight, 0);
+            } else {
+                if (previous != null) {
+                    contribute(null, previous.key, -1, -previous.weight, 0);
+                }
+                contribute(product.getName(), key, 1, weight, 0);
+            }
+            products.put(product.getId(), new ProductEntry(key, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(Long productId) {
+        lock.writeLock().lock();
+        try {
+            ProductEntry previous = products.remove(productId);
+            if (previous != null) {
+                contribute(null, previous.key, -1, -previous.weight, 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 设置搜索词的权重（定期按搜索次数对账），0表示撤回
+     */
+    public void setQueryWeight(String query, double weight) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Suggestion suggestion = suggestions.get(key);
+            double current = suggestion != null ? suggestion.queryWeight : 0;
+            contribute(query, key, 0, 0, weight - current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 累加搜索词的权重（本节点产生的搜索）
+     */
+    public void addQueryWeight(String query, double delta) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            contribute(query, key, 0, 0, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return suggestions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 小写并去掉空白，"Nike 运动鞋"与"nike运动鞋"视为同一条建议
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                result.append(c);
+            }
+        }
+        return result.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static double productWeight(Product product) {
+        long views = product.getViewCount() != null ? Math.max(0, product.getViewCount()) : 0;
+        long likes = product.getLikeCount() != null ? Math.max(0, product.getLikeCount()) : 0;
+        return 1 + Math.log1p(views + LIKE_WEIGHT * likes);
+    }
+
+    /**
+     * 调整一条建议的商品数、商品权重与搜索词权重，并维护它各个键路径上的topK；调用方持写锁
+     */
+    private void contribute(String text, String key, int productDelta, double productWeightDelta, double queryWeightDelta) {
+        Suggestion suggestion = suggestions.get(key);
+        boolean created = suggestion == null;
+        if (created) {
+            if (productDelta <= 0 && queryWeightDelta <= 0) {
+                return;
+            }
+            suggestion = new Suggestion(text.trim(), keysOf(key));
+            suggestions.put(key, suggestion);
+        } else if (productDelta > 0 && suggestion.products == 0) {
+            // 商品名称优先于用户输入的搜索词作为展示文本
+            suggestion.text = text.trim();
+        }
+
+        double before = suggestion.weight;
+        suggestion.products += productDelta;
+        suggestion.productWeight = suggestion.products > 0 ? suggestion.productWeight + productWeightDelta : 0;
+        suggestion.queryWeight = Math.max(0, suggestion.queryWeight + queryWeightDelta);
+        suggestion.weight = suggestion.productWeight + suggestion.queryWeight;
+
+        if (suggestion.products <= 0 && suggestion.queryWeight <= 0) {
+            suggestions.remove(key);
+            for (String path : suggestion.keys) {
+                detach(path, suggestion);
+            }
+        } else if (created) {
+            for (String path : suggestion.keys) {
+                for (Node node : insert(path, suggestion)) {
+                    offer(node, suggestion);
+                }
+            }
+        } else if (suggestion.weight >= before) {
+            for (String path : suggestion.keys) {
+                for (Node node : path(path)) {
+                    offer(node, suggestion);
+                }
+            }
+        } else {
+            for (String path : suggestion.keys) {
+                recompute(path(path));
+            }
+        }
+    }
+
+    /**
+     * 键的全部形式：原文，含汉字时加上全拼与首字母
+     */
+    private static String[] keysOf(String key) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(key);
+        if (PinyinConverter.containsHan(key)) {
+            keys.add(PinyinConverter.toPinyin(key));
+            keys.add(PinyinConverter.toInitials(key));
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    /**
+     * 插入键，必要时拆分边；返回从根到终止节点的路径
+     */
+    private List<Node> insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            char first = key.charAt(i);
+            Node child = node.child(first);
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.putChild(first, child);
+                nodeCount++;
+                node = child;
+                path.add(node);
+                break;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // 拆分：中间节点承接公共部分，原节点成为其唯一子节点，topK与原节点相同
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.putChild(child.label.charAt(0), child);
+                middle.top = child.top.clone();
+                node.putChild(first, middle);
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        node.addTerminal(suggestion);
+        return path;
+    }
+
+    /**
+     * 已存在的键从根到终止节点的路径
+     */
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                throw new IllegalStateException("搜索建议键不存在: " + key);
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    /**
+     * 从终止节点移除建议，剪掉空叶子，再沿路径重新归并topK
+     */
+    private void detach(String key, Suggestion suggestion) {
+        List<Node> path = path(key);
+        Node last = path.get(path.size() - 1);
+        last.removeTerminal(suggestion);
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (node.hasTerminals() || node.hasChildren()) {
+                break;
+            }
+            path.get(i - 1).removeChild(node.label.charAt(0));
+            path.remove(i);
+            nodeCount--;
+        }
+        recompute(path);
+    }
+
+    /**
+     * 建议权重上升或新增：若能进入节点的topK则插入并上浮到正确位置
+     */
+    private void offer(Node node, Suggestion suggestion) {
+        Suggestion[] top = node.top;
+        int position = -1;
+        for (int i = 0; i < top.length; i++) {
+            if (top[i] == suggestion) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) {
+            if (top.length < topK) {
+                top = Arrays.copyOf(top, top.length + 1);
+            } else if (ORDER.compare(suggestion, top[top.length - 1]) >= 0) {
+                return;
+            }
+            position = top.length - 1;
+            top[position] = suggestion;
+        }
+        while (position > 0 && ORDER.compare(top[position], top[position - 1]) < 0) {
+            Suggestion swap = top[position - 1];
+            top[position - 1] = top[position];
+            top[position] = swap;
+            position--;
+        }
+        node.top = top;
+    }
+
+    /**
+     * 自下而上重新归并路径上各节点的topK：本节点终止的建议 + 各子节点的topK
+     */
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Set<Suggestion> candidates = new LinkedHashSet<>();
+            if (node.terminals != null) {
+                candidates.addAll(node.terminals);
+            }
+            if (node.children != null) {
+                for (Node child : node.children.values()) {
+                    candidates.addAll(Arrays.asList(child.top));
+                }
+            }
+            node.top = candidates.stream()
+                    .sorted(ORDER)
+                    .limit(topK)
+                    .toArray(Suggestion[]::new);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Suggestion {
+        private String text;
+        private final String[] keys;
+        private int products;
+        private double productWeight;
+        private double queryWeight;
+        private double weight;
+
+        private Suggestion(String text, String[] keys) {
+            this.text = text;
+            this.keys = keys;
+        }
+    }
+
+    private static final class ProductEntry {
+        private final String key;
+        private final double weight;
+
+        private ProductEntry(String key, double weight) {
+            this.key = key;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Node {
+        private String label;
+        private Map<Character, Node> children;
+        private List<Suggestion> terminals;
+        private Suggestion[] top = EMPTY;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char c) {
+            return children != null ? children.get(c) : null;
+        }
+
+        private void putChild(char c, Node child) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            children.put(c, child);
+        }
+
+        private void removeChild(char c) {
+            if (children != null) {
+                children.remove(c);
+            }
+        }
+
+        private boolean hasChildren() {
+            return children != null && !children.isEmpty();
+        }
+
+        private void addTerminal(Suggestion suggestion) {
+            if (terminals == null) {
+                terminals = new ArrayList<>(1);
+            }
+            if (!terminals.contains(suggestion)) {
+                terminals.add(suggestion);
+            }
+        }
+
+        private void removeTerminal(Suggestion suggestion) {
+            if (terminals != null) {
+                terminals.remove(suggestion);
+            }
+        }
+
+        private boolean hasTerminals() {
+            return terminals != null && !terminals.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.shopx.service;
+
+import com.shopx.dto.CheckoutOrderCommand;
+import com.shopx.dto.CheckoutTicketDTO;
+
+import java.util.List;
+
+/**
+ * 异步下单服务接口
+ * 请求线程只校验购物车、预占库存并投递下单命令，订单由消息队列消费者按批落库
+ */
+public interface AsyncCheckoutService {
+    
+    /**
+     * 订单队列中异步下单消息的类型标识
+     */
+    String MESSAGE_TYPE = "CHECKOUT_ORDER";
+    
+    /**
+     * 提交异步下单，相同幂等键的重复提交返回同一凭证
+     * @param idempotencyKey 客户端生成的幂等键
+     */
+    CheckoutTicketDTO submit(Long userId, List<Long> cartItemIds, String shippingAddress, String idempotencyKey);
+    
+    /**
+     * 查询下单凭证状态
+     */
+    CheckoutTicketDTO getTicket(Long userId, String ticket);
+    
+    /**
+     * 批量创建订单（消息队列消费者调用，重复投递时幂等）
+     */
+    void persistBatch(List<CheckoutOrderCommand> commands);
+}
@@ -30,6 +30,11 @@ public interface CartService {
      */
     void removeFromCart(Long userId, Long productId);
     
+    /**
+     * 从购物车批量移除商品
+     */
+    void removeFromCart(Long userId, List<Long> productIds);
+    
     /**
      * 清空购物车
      */
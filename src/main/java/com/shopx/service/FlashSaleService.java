@@ -0,0 +1,49 @@
+package com.shopx.service;
+
+import com.shopx.dto.FlashSaleReservationDTO;
+
+import java.util.Map;
+
+/**
+ * 秒杀服务接口
+ * 秒杀商品的库存预加载到Redis，下单时通过Lua脚本原子预占，订单经消息队列异步落库
+ */
+public interface FlashSaleService {
+    
+    /**
+     * 订单队列中秒杀订单消息的类型标识
+     */
+    String MESSAGE_TYPE = "FLASH_SALE_ORDER";
+    
+    /**
+     * 开始秒杀：将商品当前库存加载到Redis
+     * @param productId 商品ID
+     * @param perUserLimit 每人限购数量，null使用默认配置，0表示不限购
+     */
+    void startSale(Long productId, Integer perUserLimit);
+    
+    /**
+     * 结束秒杀：同步一次库存后移除Redis中的秒杀数据
+     */
+    void endSale(Long productId);
+    
+    /**
+     * 预占库存并投递异步下单消息
+     */
+    FlashSaleReservationDTO reserve(Long userId, Long productId, Integer quantity, String shippingAddress);
+    
+    /**
+     * 消费下单消息：创建订单并结算预占（重复投递时幂等）
+     */
+    void persistReservation(FlashSaleReservationDTO reservation);
+    
+    /**
+     * 获取秒杀状态（可售、已预占未落库、限购）
+     */
+    Map<String, Object> getSaleStatus(Long productId);
+    
+    /**
+     * 对账：处理超时预占，并将t_product.stock同步为Redis中的可售+已预占
+     */
+    void reconcile();
+}
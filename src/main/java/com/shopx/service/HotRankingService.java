@@ -0,0 +1,42 @@
+package com.shopx.service;
+
+import com.shopx.enums.HotRankingWindowEnum;
+
+import java.util.List;
+
+/**
+ * 热门商品排行服务接口
+ * 按浏览/点赞/购买事件累计时间衰减的热度分，维护全站及各分类在1h/24h/7d窗口内的排行
+ */
+public interface HotRankingService {
+
+    /**
+     * 记录一次浏览
+     */
+    void recordView(Long productId, String category);
+
+    /**
+     * 记录一次点赞
+     */
+    void recordLike(Long productId, String category);
+
+    /**
+     * 记录一次购买
+     */
+    void recordPurchase(Long productId, String category, int quantity);
+
+    /**
+     * 获取排行前limit个商品ID，按热度降序
+     *
+     * @param category 分类，为空时取全站排行
+     * @return 排行尚无数据或Redis不可用时返回空列表
+     */
+    List<Long> getTopProductIds(String category, HotRankingWindowEnum window, int limit);
+
+    /**
+     * 把本地累计的热度写入Redis
+     *
+     * @return 写入的商品数
+     */
+    int flush();
+}
@@ -0,0 +1,24 @@
+package com.shopx.service;
+
+/**
+ * 分布式ID生成服务接口
+ * 生成按时间递增的64位ID，用于订单号、退货单号、回收单号、工单号等业务单号
+ */
+public interface IdGeneratorService {
+    
+    /**
+     * 生成ID，同一节点内严格单调递增，不同节点间按毫秒时间大致有序
+     */
+    long nextId();
+    
+    /**
+     * 生成业务单号：前缀 + ID
+     * @param prefix 单号前缀，见 Constants.IdPrefix
+     */
+    String nextNo(String prefix);
+    
+    /**
+     * 当前节点使用的workerId
+     */
+    int getWorkerId();
+}
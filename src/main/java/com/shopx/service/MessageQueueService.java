@@ -1,9 +1,19 @@
 package com.shopx.service;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.shopx.config.MessageQueueConfig;
+import com.shopx.dto.CheckoutOrderCommand;
+import com.shopx.dto.FlashSaleReservationDTO;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 极简消息队列服务
  */
@@ -11,13 +21,67 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class MessageQueueService {
 
-    @RabbitListener(queues = "shopx.order.queue")
-    public void handleOrderMessage(String message) {
-        log.info("处理订单消息: {}", message);
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    /**
+     * 订单消息按批消费：异步下单命令整批落库，秒杀订单逐条落库，其他消息仅记录
+     * 消息体为 {"type": ..., "payload": ...}；每条消息单独解析，无法解析的消息转入死信队列，
+     * 不让一条坏消息导致整批反复重新投递
+     */
+    @RabbitListener(queues = "shopx.order.queue", containerFactory = MessageQueueConfig.BATCH_LISTENER_FACTORY)
+    public void handleOrderMessages(List<String> messages) {
+        List<CheckoutOrderCommand> commands = new ArrayList<>();
+        for (String message : messages) {
+            CheckoutOrderCommand command = null;
+            FlashSaleReservationDTO reservation = null;
+            try {
+                JSONObject json = message.startsWith("{") ? JSON.parseObject(message) : null;
+                String type = json != null ? json.getString("type") : null;
+                if (AsyncCheckoutService.MESSAGE_TYPE.equals(type)) {
+                    command = requirePayload(json.getObject("payload", CheckoutOrderCommand.class));
+                } else if (FlashSaleService.MESSAGE_TYPE.equals(type)) {
+                    reservation = requirePayload(json.getObject("payload", FlashSaleReservationDTO.class));
+                }
+            } catch (RuntimeException e) {
+                deadLetter(message, e);
+                continue;
+            }
+
+            if (command != null) {
+                commands.add(command);
+            } else if (reservation != null) {
+                flashSaleService.persistReservation(reservation);
+            } else {
+                log.info("处理订单消息: {}", message);
+            }
+        }
+        asyncCheckoutService.persistBatch(commands);
     }
 
     @RabbitListener(queues = "shopx.notification.queue")
     public void handleNotificationMessage(String message) {
         log.info("处理通知消息: {}", message);
     }
-}
\ No newline at end of file
+
+    private static <T> T requirePayload(T payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("消息缺少payload");
+        }
+        return payload;
+    }
+
+    /**
+     * 坏消息原样转入死信队列留待排查；转发失败时向上抛出，整批重新投递
+     */
+    private void deadLetter(String message, RuntimeException cause) {
+        log.error("订单消息无法解析，转入死信队列: {}", message, cause);
+        rabbitTemplate.convertAndSend(MessageQueueConfig.ORDER_DEAD_LETTER_QUEUE, message);
+    }
+}
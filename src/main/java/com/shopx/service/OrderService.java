@@ -20,6 +20,13 @@ public interface OrderService {
      */
     ResponseUtil.PageResult<Order> getOrders(Long userId, int page, int size);
     
+    /**
+     * 获取订单列表（游标分页）
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param withTotal 是否返回缓存的近似总数
+     */
+    ResponseUtil.PageResult<Order> getOrdersByCursor(Long userId, String cursor, int size, boolean withTotal);
+    
     /**
      * 获取订单详情
      */
@@ -0,0 +1,36 @@
+package com.shopx.service;
+
+import com.shopx.entity.Product;
+
+/**
+ * 商品计数服务接口
+ * 浏览/点赞/分享计数先在内存中累加，定期批量写回数据库，避免每次事件都更新商品行
+ */
+public interface ProductCounterService {
+    
+    /**
+     * 浏览量+1
+     */
+    void incrementView(Long productId);
+    
+    /**
+     * 点赞数增减（取消点赞传-1），调用方需基于按用户记录的点赞状态去重，本服务只负责累加
+     */
+    void incrementLike(Long productId, int delta);
+    
+    /**
+     * 分享数+1
+     */
+    void incrementShare(Long productId);
+    
+    /**
+     * 返回合并了未落库增量的商品；没有待写回增量时返回原对象，否则返回副本（不修改缓存中的对象）
+     */
+    Product mergePending(Product product);
+    
+    /**
+     * 将累积的增量批量写回数据库
+     * @return 写回的商品数
+     */
+    int flush();
+}
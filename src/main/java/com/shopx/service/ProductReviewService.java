@@ -21,6 +21,13 @@ public interface ProductReviewService {
      */
     ResponseUtil.PageResult<ProductReview> getProductReviews(Long productId, int page, int size, String sortBy, String order);
     
+    /**
+     * 获取商品评价列表（游标分页，按时间倒序）
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param withTotal 是否返回缓存的近似总数
+     */
+    ResponseUtil.PageResult<ProductReview> getProductReviewsByCursor(Long productId, String cursor, int size, boolean withTotal);
+    
     /**
      * 评价有用性投票
      */
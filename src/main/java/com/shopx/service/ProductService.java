@@ -2,9 +2,12 @@ package com.shopx.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.shopx.entity.Product;
+import com.shopx.search.ProductSearchResult;
 import com.shopx.util.ResponseUtil;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品服务接口
@@ -16,11 +19,24 @@ public interface ProductService {
      */
     ResponseUtil.PageResult<Product> getProducts(int page, int size, String keyword, String category);
     
+    /**
+     * 获取商品列表（游标分页）
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param withTotal 是否返回缓存的近似总数
+     */
+    ResponseUtil.PageResult<Product> getProductsByCursor(String cursor, int size, String keyword, String category, boolean withTotal);
+    
     /**
      * 根据ID获取商品详情
      */
     Product getProductById(Long id);
     
+    /**
+     * 根据ID批量获取商品，缓存未命中的部分一次性从数据库加载
+     * 返回商品ID -> 商品，不存在的商品不出现在结果中
+     */
+    Map<Long, Product> getProductsByIds(Collection<Long> ids);
+    
     /**
      * 创建商品
      */
@@ -46,16 +62,35 @@ public interface ProductService {
      */
     boolean updateStock(Long id, Integer quantity);
     
+    /**
+     * 原子扣减库存（productId -> 数量），任一商品库存不足时抛出异常，由调用方事务整体回滚
+     * 库存变化不失效商品详情缓存，缓存中的stock仅供展示，以数据库条件扣减结果为准
+     */
+    void decreaseStock(Map<Long, Integer> quantities);
+    
+    /**
+     * 原子回补库存（productId -> 数量）
+     */
+    void increaseStock(Map<Long, Integer> quantities);
+    
     /**
      * 检查商品库存
      */
     boolean checkStock(Long id, Integer quantity);
     
     /**
-     * 获取热门商品
+     * 获取热门商品（全站近24小时排行）
      */
     List<Product> getHotProducts(int limit);
     
+    /**
+     * 获取热门商品
+     *
+     * @param category 分类，为空时取全站排行
+     * @param window 时间窗口：1h/24h/7d，为空时取24h
+     */
+    List<Product> getHotProducts(int limit, String category, String window);
+    
     /**
      * 获取推荐商品
      */
@@ -66,6 +101,11 @@ public interface ProductService {
      */
     ResponseUtil.PageResult<Product> searchProducts(String keyword, int page, int size);
     
+    /**
+     * 把搜索索引的检索结果转换为分页结果，商品按检索顺序从缓存批量读取
+     */
+    ResponseUtil.PageResult<Product> toPageResult(ProductSearchResult searchResult, int page, int size);
+    
     /**
      * 根据分类获取商品
      */
@@ -35,6 +35,11 @@ public interface RecommendationService {
      */
     Map<Long, Double> calculateProductSimilarity(Long productId);
     
+    /**
+     * 相似商品推荐
+     */
+    List<Product> similarProductRecommend(Long productId, int limit);
+    
     /**
      * 获取推荐解释
      */
@@ -7,6 +7,7 @@ import com.shopx.mapper.UserMapper;
 import com.shopx.mapper.ProductMapper;
 import com.shopx.mapper.RecommendationMapper;
 import com.shopx.service.ScenarioRecommendationService;
+import com.shopx.util.BatchWriteUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -33,6 +34,9 @@ public class ScenarioRecommendationServiceImpl implements ScenarioRecommendation
     @Autowired
     private RecommendationMapper recommendationMapper;
     
+    @Autowired
+    private BatchWriteUtil batchWriteUtil;
+    
     @Override
     public List<Product> recommendByScenario(Long userId, String scenario) {
         log.info("为用户 {} 推荐场景: {}", userId, scenario);
@@ -50,7 +54,8 @@ public class ScenarioRecommendationServiceImpl implements ScenarioRecommendation
             .limit(20)
             .collect(Collectors.toList());
         
-        // 保存推荐记录
+        // 保存推荐记录（多行INSERT一次写入）
+        List<Recommendation> recommendations = new ArrayList<>(products.size());
         for (Product product : products) {
             Recommendation recommendation = new Recommendation();
             recommendation.setUserId(userId);
@@ -60,8 +65,9 @@ public class ScenarioRecommendationServiceImpl implements ScenarioRecommendation
             recommendation.setScore(BigDecimal.valueOf(0.85));
             recommendation.setModelVersion("v1.0");
             recommendation.setCreateTime(LocalDateTime.now());
-            recommendationMapper.insert(recommendation);
+            recommendations.add(recommendation);
         }
+        batchWriteUtil.insertValues(recommendationMapper, recommendations);
         
         return products;
     }
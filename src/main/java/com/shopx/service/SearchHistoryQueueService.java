@@ -0,0 +1,25 @@
+package com.shopx.service;
+
+import com.shopx.entity.SearchHistory;
+
+/**
+ * 搜索历史异步写入服务接口
+ * 搜索请求只把记录放入有界内存队列，后台定期批量写入数据库，并定期裁剪每个用户的历史条数
+ */
+public interface SearchHistoryQueueService {
+    
+    /**
+     * 放入队列；队列已满时丢弃本条并返回false，不阻塞调用线程
+     */
+    boolean enqueue(SearchHistory history);
+    
+    /**
+     * 取出队列中的全部记录批量写入，返回写入条数
+     */
+    int flush();
+    
+    /**
+     * 裁剪近期有新记录的用户的历史，只保留最近的若干条，返回处理的用户数
+     */
+    int trimUserHistories();
+}
@@ -98,6 +98,13 @@ public interface UserService extends IService<User> {
      */
     List<String> getUserPermissions(Long userId);
     
+    /**
+     * 获取角色权限列表
+     * @param role 角色
+     * @return 权限列表
+     */
+    List<String> getRolePermissions(String role);
+    
     /**
      * 获取用户角色列表
      * @param userId 用户ID
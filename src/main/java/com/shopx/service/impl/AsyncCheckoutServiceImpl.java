@@ -0,0 +1,409 @@
+package com.shopx.service.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.shopx.config.ShopXConfig;
+import com.shopx.constant.Constants;
+import com.shopx.dto.CheckoutOrderCommand;
+import com.shopx.dto.CheckoutTicketDTO;
+import com.shopx.entity.CartItem;
+import com.shopx.entity.Order;
+import com.shopx.entity.OrderItem;
+import com.shopx.entity.Product;
+import com.shopx.exception.BusinessException;
+import com.shopx.mapper.CartItemMapper;
+import com.shopx.mapper.OrderItemMapper;
+import com.shopx.mapper.OrderMapper;
+import com.shopx.service.AsyncCheckoutService;
+import com.shopx.service.CartService;
+import com.shopx.service.IdGeneratorService;
+import com.shopx.service.ProductService;
+import com.shopx.util.BatchWriteUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 异步下单服务实现类
+ * 提交时一次条件UPDATE预占全部商品库存（即扣减t_product.stock），落库失败时回补；
+ * 凭证状态保存在Redis（shopx:checkout:ticket:{ticket}），状态变化同时推送到 /topic/checkout/{ticket}
+ */
+@Slf4j
+@Service
+public class AsyncCheckoutServiceImpl implements AsyncCheckoutService {
+
+    private static final String TICKET_PREFIX = "shopx:checkout:ticket:";
+    private static final String IDEMPOTENCY_PREFIX = "shopx:checkout:idem:";
+    private static final String RELEASED_PREFIX = "shopx:checkout:released:";
+    private static final String TOPIC_PREFIX = "/topic/checkout/";
+    private static final String ORDER_QUEUE = "shopx.order.queue";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private IdGeneratorService idGeneratorService;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    @Autowired
+    private CartItemMapper cartItemMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BatchWriteUtil batchWriteUtil;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    @Override
+    public CheckoutTicketDTO submit(Long userId, List<Long> cartItemIds, String shippingAddress, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new BusinessException(400, "缺少幂等键");
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BusinessException(400, "幂等键长度不能超过" + MAX_IDEMPOTENCY_KEY_LENGTH);
+        }
+
+        String idempotencyRedisKey = IDEMPOTENCY_PREFIX + userId + ":" + idempotencyKey;
+        String ticket = UUID.randomUUID().toString().replace("-", "");
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(idempotencyRedisKey, ticket,
+                Duration.ofSeconds(shopXConfig.getCheckout().getIdempotencyTtlSeconds()));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return getDuplicateTicket(userId, stringRedisTemplate.opsForValue().get(idempotencyRedisKey));
+        }
+
+        Map<Long, Integer> reserved = null;
+        try {
+            CheckoutOrderCommand command = buildCommand(ticket, userId, cartItemIds, shippingAddress);
+            Map<Long, Integer> quantities = quantities(command);
+            // 批量条件扣减是单条语句，放在事务中保证部分商品不足时已扣减的行一起回滚
+            transactionTemplate.executeWithoutResult(status -> productService.decreaseStock(quantities));
+            reserved = quantities;
+
+            CheckoutTicketDTO ticketDTO = new CheckoutTicketDTO();
+            ticketDTO.setTicket(ticket);
+            ticketDTO.setUserId(userId);
+            ticketDTO.setStatus("QUEUED");
+            ticketDTO.setOrderNo(command.getOrderNo());
+            ticketDTO.setTotalAmount(command.getTotalAmount());
+            ticketDTO.setCreateTime(command.getCreateTime());
+            ticketDTO.setUpdateTime(command.getCreateTime());
+            saveTicket(ticketDTO);
+
+            try {
+                JSONObject message = new JSONObject();
+                message.put("type", MESSAGE_TYPE);
+                message.put("payload", command);
+                rabbitTemplate.convertAndSend(ORDER_QUEUE, message.toJSONString());
+            } catch (AmqpException e) {
+                log.error("下单命令投递失败: ticket={}", ticket, e);
+                throw new BusinessException(503, "下单排队失败，请稍后重试");
+            }
+
+            log.info("异步下单已受理: ticket={}, orderNo={}, userId={}, items={}",
+                    ticket, command.getOrderNo(), userId, command.getItems().size());
+            return ticketDTO;
+        } catch (RuntimeException e) {
+            // 命令未投递出去就不会有消费者落库，已预占的库存在这里回补（写凭证、序列化或投递任一步失败）
+            if (reserved != null) {
+                releaseStock(ticket, reserved);
+            }
+            // 未受理时释放幂等键，客户端可用同一幂等键重试
+            stringRedisTemplate.delete(List.of(idempotencyRedisKey, TICKET_PREFIX + ticket));
+            throw e;
+        }
+    }
+
+    @Override
+    public CheckoutTicketDTO getTicket(Long userId, String ticket) {
+        CheckoutTicketDTO ticketDTO = loadTicket(ticket);
+        if (ticketDTO == null) {
+            throw new BusinessException(404, "下单凭证不存在或已过期");
+        }
+        if (!ticketDTO.getUserId().equals(userId)) {
+            throw new BusinessException(403, "无权查看此下单凭证");
+        }
+        return ticketDTO;
+    }
+
+    @Override
+    public void persistBatch(List<CheckoutOrderCommand> commands) {
+        if (commands == null || commands.isEmpty()) {
+            return;
+        }
+
+        // 重复投递的命令按订单号跳过
+        Map<String, CheckoutOrderCommand> byOrderNo = new LinkedHashMap<>();
+        commands.forEach(command -> byOrderNo.putIfAbsent(command.getOrderNo(), command));
+        QueryWrapper<Order> queryWrapper = new QueryWrapper<>();
+        queryWrapper.in("order_no", byOrderNo.keySet());
+        for (Order existing : orderMapper.selectList(queryWrapper)) {
+            markSuccess(byOrderNo.remove(existing.getOrderNo()), existing);
+        }
+        List<CheckoutOrderCommand> pending = new ArrayList<>(byOrderNo.values());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            List<Order> orders = transactionTemplate.execute(status -> insertOrders(pending));
+            for (int i = 0; i < pending.size(); i++) {
+                markSuccess(pending.get(i), orders.get(i));
+            }
+            log.info("批量创建订单成功: count={}, cost={}ms", pending.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("批量创建订单失败，逐条重试: count={}", pending.size(), e);
+            pending.forEach(this::persistOne);
+        }
+    }
+
+    /**
+     * 单条落库；数据错误视为永久失败并回补库存，其他异常（如数据库不可用）向上抛出使整批重新投递。
+     * 失败的订单没有落库，重新投递时不会被订单号去重跳过，回补库存由 releaseFailedOrder 保证只执行一次
+     */
+    private void persistOne(CheckoutOrderCommand command) {
+        try {
+            Order order = transactionTemplate.execute(status -> insertOrders(List.of(command)).get(0));
+            markSuccess(command, order);
+        } catch (DuplicateKeyException e) {
+            QueryWrapper<Order> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("order_no", command.getOrderNo());
+            markSuccess(command, orderMapper.selectOne(queryWrapper));
+        } catch (DataIntegrityViolationException | BusinessException e) {
+            releaseFailedOrder(command);
+            markFailed(command, "订单创建失败，请重新下单");
+            log.error("异步下单失败，已回补库存: ticket={}, orderNo={}", command.getTicket(), command.getOrderNo(), e);
+        }
+    }
+
+    /**
+     * 按订单号SETNX回补标记后回补库存，同一订单重复投递时不会重复回补；回补失败时删除标记，随整批重新投递再次回补
+     */
+    private void releaseFailedOrder(CheckoutOrderCommand command) {
+        String releasedKey = RELEASED_PREFIX + command.getOrderNo();
+        Boolean first = stringRedisTemplate.opsForValue().setIfAbsent(releasedKey, command.getTicket(),
+                Duration.ofSeconds(shopXConfig.getCheckout().getTicketTtlSeconds()));
+        if (!Boolean.TRUE.equals(first)) {
+            log.info("失败订单的库存已回补，忽略重复投递: ticket={}, orderNo={}", command.getTicket(), command.getOrderNo());
+            return;
+        }
+        try {
+            productService.increaseStock(quantities(command));
+        } catch (RuntimeException e) {
+            stringRedisTemplate.delete(releasedKey);
+            throw e;
+        }
+    }
+
+    /**
+     * 在当前事务中以多行INSERT写入一批订单及订单项，并一次删除已下单的购物车项
+     */
+    private List<Order> insertOrders(List<CheckoutOrderCommand> commands) {
+        List<Order> orders = new ArrayList<>(commands.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (CheckoutOrderCommand command : commands) {
+            Order order = new Order();
+            order.setUserId(command.getUserId());
+            order.setOrderNo(command.getOrderNo());
+            order.setTotalAmount(command.getTotalAmount());
+            order.setStatus("PENDING");
+            order.setPaymentStatus("UNPAID");
+            order.setShippingAddress(command.getShippingAddress());
+            order.setCreateTime(command.getCreateTime());
+            order.setUpdateTime(now);
+            orders.add(order);
+        }
+        // 多行INSERT按顺序回填自增主键
+        batchWriteUtil.insertValues(orderMapper, orders);
+
+        List<OrderItem> orderItems = new ArrayList<>();
+        List<Long> cartItemIds = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            CheckoutOrderCommand command = commands.get(i);
+            for (CheckoutOrderCommand.Item item : command.getItems()) {
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrderId(orders.get(i).getId());
+                orderItem.setProductId(item.getProductId());
+                orderItem.setQuantity(item.getQuantity());
+                orderItem.setPrice(item.getPrice());
+                orderItem.setSubtotal(item.getSubtotal());
+                orderItems.add(orderItem);
+            }
+            cartItemIds.addAll(command.getCartItemIds());
+        }
+        batchWriteUtil.insertValues(orderItemMapper, orderItems);
+        if (!cartItemIds.isEmpty()) {
+            cartItemMapper.deleteBatchIds(cartItemIds);
+        }
+        return orders;
+    }
+
+    /**
+     * 校验购物车并生成下单命令，规则与同步下单一致
+     */
+    private CheckoutOrderCommand buildCommand(String ticket, Long userId, List<Long> cartItemIds, String shippingAddress) {
+        List<CartItem> cartItems = cartService.getCartItems(userId);
+        if (cartItems.isEmpty()) {
+            throw new BusinessException(400, "购物车为空，无法创建订单");
+        }
+        if (cartItemIds != null && !cartItemIds.isEmpty()) {
+            cartItems = cartItems.stream()
+                    .filter(item -> cartItemIds.contains(item.getId()))
+                    .collect(Collectors.toList());
+        }
+        if (cartItems.isEmpty()) {
+            throw new BusinessException(400, "选择的商品不存在");
+        }
+
+        Map<Long, Product> products = productService.getProductsByIds(
+                cartItems.stream().map(CartItem::getProductId).collect(Collectors.toList()));
+        CheckoutOrderCommand command = new CheckoutOrderCommand();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (CartItem cartItem : cartItems) {
+            if (!products.containsKey(cartItem.getProductId())) {
+                throw new BusinessException(404, "商品不存在: " + cartItem.getProductId());
+            }
+            CheckoutOrderCommand.Item item = new CheckoutOrderCommand.Item();
+            item.setProductId(cartItem.getProductId());
+            item.setQuantity(cartItem.getQuantity());
+            item.setPrice(cartItem.getPrice());
+            item.setSubtotal(cartItem.getSubtotal());
+            command.getItems().add(item);
+            command.getCartItemIds().add(cartItem.getId());
+            totalAmount = totalAmount.add(cartItem.getSubtotal());
+        }
+
+        command.setTicket(ticket);
+        command.setOrderNo(idGeneratorService.nextNo(Constants.IdPrefix.ORDER));
+        command.setUserId(userId);
+        command.setShippingAddress(shippingAddress);
+        command.setTotalAmount(totalAmount);
+        command.setCreateTime(LocalDateTime.now());
+        return command;
+    }
+
+    private CheckoutTicketDTO getDuplicateTicket(Long userId, String ticket) {
+        CheckoutTicketDTO ticketDTO = ticket != null ? loadTicket(ticket) : null;
+        if (ticketDTO == null) {
+            // 首次提交仍在预占库存，尚未写入凭证
+            ticketDTO = new CheckoutTicketDTO();
+            ticketDTO.setTicket(ticket);
+            ticketDTO.setUserId(userId);
+            ticketDTO.setStatus("QUEUED");
+        }
+        log.info("重复的下单请求，返回已有凭证: userId={}, ticket={}", userId, ticket);
+        return ticketDTO;
+    }
+
+    private void markSuccess(CheckoutOrderCommand command, Order order) {
+        CheckoutTicketDTO ticketDTO = ticketOf(command);
+        ticketDTO.setStatus("SUCCESS");
+        ticketDTO.setOrderId(order.getId());
+        ticketDTO.setOrderNo(order.getOrderNo());
+        ticketDTO.setMessage("订单创建成功");
+        updateTicket(ticketDTO);
+    }
+
+    private void markFailed(CheckoutOrderCommand command, String message) {
+        CheckoutTicketDTO ticketDTO = ticketOf(command);
+        ticketDTO.setStatus("FAILED");
+        ticketDTO.setMessage(message);
+        updateTicket(ticketDTO);
+    }
+
+    /**
+     * 读取命令对应的凭证，凭证已过期时按命令重建
+     */
+    private CheckoutTicketDTO ticketOf(CheckoutOrderCommand command) {
+        CheckoutTicketDTO ticketDTO = loadTicket(command.getTicket());
+        if (ticketDTO == null) {
+            ticketDTO = new CheckoutTicketDTO();
+            ticketDTO.setTicket(command.getTicket());
+            ticketDTO.setUserId(command.getUserId());
+            ticketDTO.setOrderNo(command.getOrderNo());
+            ticketDTO.setTotalAmount(command.getTotalAmount());
+            ticketDTO.setCreateTime(command.getCreateTime());
+        }
+        return ticketDTO;
+    }
+
+    private void updateTicket(CheckoutTicketDTO ticketDTO) {
+        ticketDTO.setUpdateTime(LocalDateTime.now());
+        saveTicket(ticketDTO);
+        try {
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + ticketDTO.getTicket(), ticketDTO);
+        } catch (Exception e) {
+            log.warn("推送下单结果失败: ticket={}", ticketDTO.getTicket(), e);
+        }
+    }
+
+    private void saveTicket(CheckoutTicketDTO ticketDTO) {
+        stringRedisTemplate.opsForValue().set(TICKET_PREFIX + ticketDTO.getTicket(), JSON.toJSONString(ticketDTO),
+                Duration.ofSeconds(shopXConfig.getCheckout().getTicketTtlSeconds()));
+    }
+
+    private CheckoutTicketDTO loadTicket(String ticket) {
+        String json = stringRedisTemplate.opsForValue().get(TICKET_PREFIX + ticket);
+        return json != null ? JSON.parseObject(json, CheckoutTicketDTO.class) : null;
+    }
+
+    /**
+     * 回补提交失败时已预占的库存；回补本身失败只记录日志，不掩盖原始异常
+     */
+    private void releaseStock(String ticket, Map<Long, Integer> quantities) {
+        try {
+            productService.increaseStock(quantities);
+            log.warn("异步下单提交失败，已回补库存: ticket={}", ticket);
+        } catch (RuntimeException e) {
+            log.error("异步下单提交失败且库存回补失败，需人工核对: ticket={}, quantities={}", ticket, quantities, e);
+        }
+    }
+
+    private static Map<Long, Integer> quantities(CheckoutOrderCommand command) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CheckoutOrderCommand.Item item : command.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
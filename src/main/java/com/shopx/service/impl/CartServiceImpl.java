@@ -17,6 +17,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -134,6 +135,21 @@ public class CartServiceImpl extends ServiceImpl<CartItemMapper, CartItem> imple
         cartItemMapper.delete(queryWrapper);
     }
     
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void removeFromCart(Long userId, List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        log.info("从购物车批量移除商品: userId={}, productIds={}", userId, productIds);
+        
+        QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId)
+                   .in("product_id", productIds);
+        
+        cartItemMapper.delete(queryWrapper);
+    }
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void clearCart(Long userId) {
@@ -170,9 +186,13 @@ public class CartServiceImpl extends ServiceImpl<CartItemMapper, CartItem> imple
         List<CartItem> cartItems = getCartItems(userId);
         List<CartItem> updatedItems = new ArrayList<>();
         
+        // 一次批量获取购物车内所有商品
+        Map<Long, Product> products = productService.getProductsByIds(
+                cartItems.stream().map(CartItem::getProductId).collect(Collectors.toList()));
+        
         for (CartItem item : cartItems) {
             try {
-                Product product = productService.getProductById(item.getProductId());
+                Product product = products.get(item.getProductId());
                 
                 if (product == null || !Boolean.TRUE.equals(product.getEnabled())) {
                     // 商品已下架
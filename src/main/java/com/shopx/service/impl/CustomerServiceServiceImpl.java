@@ -3,11 +3,13 @@ package com.shopx.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.shopx.constant.Constants;
 import com.shopx.entity.CustomerServiceTicket;
 import com.shopx.entity.FAQ;
 import com.shopx.mapper.CustomerServiceTicketMapper;
 import com.shopx.mapper.FAQMapper;
 import com.shopx.service.CustomerServiceService;
+import com.shopx.service.IdGeneratorService;
 import com.shopx.util.ResponseUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,13 +35,16 @@ public class CustomerServiceServiceImpl extends ServiceImpl<CustomerServiceTicke
     @Autowired
     private FAQMapper faqMapper;
     
+    @Autowired
+    private IdGeneratorService idGeneratorService;
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public CustomerServiceTicket createTicket(Long userId, String ticketType, String title, String content, String priority) {
         log.info("创建客服工单: userId={}, ticketType={}, title={}", userId, ticketType, title);
         
         // 生成工单号
-        String ticketNo = "T" + System.currentTimeMillis();
+        String ticketNo = idGeneratorService.nextNo(Constants.IdPrefix.TICKET);
         
         CustomerServiceTicket ticket = new CustomerServiceTicket();
         ticket.setUserId(userId);
@@ -0,0 +1,375 @@
+package com.shopx.service.impl;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.shopx.config.ShopXConfig;
+import com.shopx.constant.Constants;
+import com.shopx.dto.FlashSaleReservationDTO;
+import com.shopx.entity.Order;
+import com.shopx.entity.OrderItem;
+import com.shopx.exception.BusinessException;
+import com.shopx.mapper.OrderItemMapper;
+import com.shopx.mapper.OrderMapper;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.service.FlashSaleService;
+import com.shopx.service.IdGeneratorService;
+import com.shopx.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀服务实现类
+ * Redis数据结构（同一商品的key使用相同hash tag，集群下落在同一槽位）：
+ * shopx:flash:{id}:stock   available可售 / pending已预占未落库 / limit每人限购
+ * shopx:flash:{id}:users   userId -> 已购数量
+ * shopx:flash:{id}:pending orderNo -> userId:数量:预占时间
+ * 稳定状态下 t_product.stock 应等于 available + pending：秒杀订单落库时扣减数据库库存，
+ * 其他渠道（普通订单、取消、补货）造成的数据库库存变化由对账任务同步到可售库存，数据库始终是最终依据
+ */
+@Slf4j
+@Service
+public class FlashSaleServiceImpl implements FlashSaleService {
+
+    private static final String KEY_PREFIX = "shopx:flash:";
+    private static final String ACTIVE_KEY = KEY_PREFIX + "active";
+    private static final String ORDER_QUEUE = "shopx.order.queue";
+    private static final String CONFIRM = "confirm";
+    private static final String RELEASE = "release";
+
+    private static final RedisScript<Long> START_SCRIPT = loadScript("scripts/flash_sale_start.lua");
+    private static final RedisScript<Long> RESERVE_SCRIPT = loadScript("scripts/flash_sale_reserve.lua");
+    private static final RedisScript<Long> SETTLE_SCRIPT = loadScript("scripts/flash_sale_settle.lua");
+    private static final RedisScript<Long> ADJUST_SCRIPT = loadScript("scripts/flash_sale_adjust.lua");
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private IdGeneratorService idGeneratorService;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    /**
+     * 上一轮对账观察到的库存偏差，连续两轮偏差一致才修正，避免把正在落库、尚未结算的订单当作偏差
+     */
+    private final Map<Long, Integer> observedDrift = new ConcurrentHashMap<>();
+
+    /**
+     * 启动时预加载配置中指定的秒杀商品，已在进行中的秒杀保持不变
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadConfiguredSales() {
+        ShopXConfig.FlashSale config = shopXConfig.getFlashSale();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        for (Long productId : config.getProductIds()) {
+            try {
+                startSale(productId, null);
+            } catch (BusinessException e) {
+                log.info("跳过秒杀预加载: productId={}, reason={}", productId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void startSale(Long productId, Integer perUserLimit) {
+        Integer stock = productMapper.selectStock(productId);
+        if (stock == null) {
+            throw new BusinessException(404, "商品不存在");
+        }
+        int limit = perUserLimit != null ? perUserLimit : shopXConfig.getFlashSale().getDefaultPerUserLimit();
+
+        // 可售库存、限购与清空上一场数据在同一脚本中完成，避免预占读到缺少limit的库存hash
+        Long started = stringRedisTemplate.execute(START_SCRIPT, keys(productId),
+                String.valueOf(stock), String.valueOf(limit));
+        if (started == null || started == 0) {
+            throw new BusinessException(400, "该商品秒杀已在进行中");
+        }
+        stringRedisTemplate.opsForSet().add(ACTIVE_KEY, String.valueOf(productId));
+
+        log.info("秒杀开始: productId={}, stock={}, perUserLimit={}", productId, stock, limit);
+    }
+
+    @Override
+    public void endSale(Long productId) {
+        reconcileProduct(productId, true);
+        stringRedisTemplate.opsForSet().remove(ACTIVE_KEY, String.valueOf(productId));
+        stringRedisTemplate.delete(List.of(stockKey(productId), usersKey(productId), pendingKey(productId)));
+        observedDrift.remove(productId);
+
+        log.info("秒杀结束: productId={}", productId);
+    }
+
+    @Override
+    public FlashSaleReservationDTO reserve(Long userId, Long productId, Integer quantity, String shippingAddress) {
+        if (quantity == null || quantity <= 0) {
+            throw new BusinessException(400, "购买数量必须大于0");
+        }
+
+        String orderNo = idGeneratorService.nextNo(Constants.IdPrefix.FLASH_SALE_ORDER);
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys(productId),
+                String.valueOf(userId), String.valueOf(quantity), orderNo, String.valueOf(System.currentTimeMillis()));
+        if (result == null || result == -1) {
+            throw new BusinessException(400, "该商品未参加秒杀");
+        }
+        if (result == -2) {
+            throw new BusinessException(400, "超出限购数量");
+        }
+        if (result == -3) {
+            throw new BusinessException(400, "商品已售罄");
+        }
+
+        FlashSaleReservationDTO reservation = new FlashSaleReservationDTO();
+        reservation.setOrderNo(orderNo);
+        reservation.setUserId(userId);
+        reservation.setProductId(productId);
+        reservation.setQuantity(quantity);
+        reservation.setShippingAddress(shippingAddress);
+        reservation.setRemainingStock(result.intValue());
+        reservation.setStatus("QUEUED");
+        reservation.setCreateTime(LocalDateTime.now());
+
+        try {
+            reservation.setPrice(productService.getProductById(productId).getPrice());
+            JSONObject message = new JSONObject();
+            message.put("type", MESSAGE_TYPE);
+            message.put("payload", reservation);
+            rabbitTemplate.convertAndSend(ORDER_QUEUE, message.toJSONString());
+        } catch (AmqpException | BusinessException e) {
+            settle(reservation, RELEASE);
+            log.error("秒杀下单消息投递失败，已释放预占: orderNo={}", orderNo, e);
+            throw new BusinessException(503, "秒杀排队失败，请稍后重试");
+        }
+
+        log.debug("秒杀预占成功: orderNo={}, userId={}, productId={}, quantity={}, remaining={}",
+                orderNo, userId, productId, quantity, result);
+        return reservation;
+    }
+
+    @Override
+    public void persistReservation(FlashSaleReservationDTO reservation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> createOrder(reservation));
+            settle(reservation, CONFIRM);
+        } catch (BusinessException e) {
+            // 数据库库存不足等业务失败不再重试，归还Redis预占
+            settle(reservation, RELEASE);
+            log.warn("秒杀订单落库失败，已释放预占: orderNo={}, reason={}", reservation.getOrderNo(), e.getMessage());
+        }
+        // 其他异常向上抛出，由RabbitMQ重新投递
+    }
+
+    @Override
+    public Map<String, Object> getSaleStatus(Long productId) {
+        Map<Object, Object> stock = stringRedisTemplate.opsForHash().entries(stockKey(productId));
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("productId", productId);
+        status.put("active", !stock.isEmpty());
+        status.put("available", parseInt(stock.get("available")));
+        status.put("pending", parseInt(stock.get("pending")));
+        status.put("perUserLimit", parseInt(stock.get("limit")));
+        return status;
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${shopx.flash-sale.reconcile-interval-millis:10000}",
+            fixedDelayString = "${shopx.flash-sale.reconcile-interval-millis:10000}")
+    public void reconcile() {
+        if (!Boolean.TRUE.equals(shopXConfig.getFlashSale().getEnabled())) {
+            return;
+        }
+        Set<String> active = stringRedisTemplate.opsForSet().members(ACTIVE_KEY);
+        if (active == null || active.isEmpty()) {
+            return;
+        }
+
+        // 多节点部署时只由抢到锁的节点执行
+        RLock lock = redissonClient.getLock(shopXConfig.getRedis().getLockPrefix() + "flash-sale:reconcile");
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(0, shopXConfig.getFlashSale().getReconcileIntervalMillis(), TimeUnit.MILLISECONDS);
+            if (!locked) {
+                return;
+            }
+            for (String productId : active) {
+                try {
+                    reconcileProduct(Long.valueOf(productId), false);
+                } catch (Exception e) {
+                    log.error("秒杀库存对账失败: productId={}", productId, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 单个商品对账
+     * 1. 超时未结算的预占：订单已存在则确认，否则释放
+     * 2. t_product.stock 与 available + pending 不一致时，按偏差调整可售库存
+     */
+    private void reconcileProduct(Long productId, boolean force) {
+        resolveStalePending(productId);
+
+        Integer dbStock = productMapper.selectStock(productId);
+        Map<Object, Object> stock = stringRedisTemplate.opsForHash().entries(stockKey(productId));
+        if (dbStock == null || stock.isEmpty()) {
+            return;
+        }
+        int expected = parseInt(stock.get("available")) + parseInt(stock.get("pending"));
+        int drift = dbStock - expected;
+        if (drift == 0) {
+            observedDrift.remove(productId);
+            return;
+        }
+        Integer previous = observedDrift.put(productId, drift);
+        if (!force && (previous == null || previous != drift)) {
+            log.debug("秒杀库存存在偏差，等待下一轮确认: productId={}, db={}, expected={}", productId, dbStock, expected);
+            return;
+        }
+        Long available = stringRedisTemplate.execute(ADJUST_SCRIPT, List.of(stockKey(productId)), String.valueOf(drift));
+        observedDrift.remove(productId);
+        log.warn("秒杀库存已对账: productId={}, db={}, expected={}, available={}", productId, dbStock, expected, available);
+    }
+
+    private void resolveStalePending(Long productId) {
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(shopXConfig.getFlashSale().getPendingTimeoutSeconds());
+        long now = System.currentTimeMillis();
+        Map<Object, Object> pending = stringRedisTemplate.opsForHash().entries(pendingKey(productId));
+        pending.forEach((field, value) -> {
+            String[] parts = value.toString().split(":");
+            if (parts.length < 3 || now - Long.parseLong(parts[2]) < timeoutMillis) {
+                return;
+            }
+            FlashSaleReservationDTO reservation = new FlashSaleReservationDTO();
+            reservation.setOrderNo(field.toString());
+            reservation.setUserId(Long.valueOf(parts[0]));
+            reservation.setProductId(productId);
+            reservation.setQuantity(Integer.valueOf(parts[1]));
+            boolean persisted = orderExists(reservation.getOrderNo());
+            settle(reservation, persisted ? CONFIRM : RELEASE);
+            log.warn("处理超时秒杀预占: orderNo={}, persisted={}", reservation.getOrderNo(), persisted);
+        });
+    }
+
+    /**
+     * 创建秒杀订单，订单号已存在（重复投递）时直接返回
+     */
+    private void createOrder(FlashSaleReservationDTO reservation) {
+        if (orderExists(reservation.getOrderNo())) {
+            log.info("秒杀订单已存在，忽略重复消息: orderNo={}", reservation.getOrderNo());
+            return;
+        }
+
+        BigDecimal subtotal = reservation.getPrice().multiply(BigDecimal.valueOf(reservation.getQuantity()));
+        Order order = new Order();
+        order.setUserId(reservation.getUserId());
+        order.setOrderNo(reservation.getOrderNo());
+        order.setTotalAmount(subtotal);
+        order.setStatus("PENDING");
+        order.setPaymentStatus("UNPAID");
+        order.setShippingAddress(reservation.getShippingAddress());
+        order.setCreateTime(reservation.getCreateTime());
+        order.setUpdateTime(LocalDateTime.now());
+        orderMapper.insert(order);
+
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrderId(order.getId());
+        orderItem.setProductId(reservation.getProductId());
+        orderItem.setQuantity(reservation.getQuantity());
+        orderItem.setPrice(reservation.getPrice());
+        orderItem.setSubtotal(subtotal);
+        orderItemMapper.insert(orderItem);
+
+        productService.decreaseStock(Map.of(reservation.getProductId(), reservation.getQuantity()));
+        log.info("秒杀订单落库成功: orderId={}, orderNo={}", order.getId(), order.getOrderNo());
+    }
+
+    private boolean orderExists(String orderNo) {
+        QueryWrapper<Order> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("order_no", orderNo);
+        return orderMapper.selectCount(queryWrapper) > 0;
+    }
+
+    private void settle(FlashSaleReservationDTO reservation, String mode) {
+        stringRedisTemplate.execute(SETTLE_SCRIPT, keys(reservation.getProductId()), reservation.getOrderNo(),
+                String.valueOf(reservation.getUserId()), String.valueOf(reservation.getQuantity()), mode);
+    }
+
+    private static List<String> keys(Long productId) {
+        return List.of(stockKey(productId), usersKey(productId), pendingKey(productId));
+    }
+
+    private static String stockKey(Long productId) {
+        return KEY_PREFIX + "{" + productId + "}:stock";
+    }
+
+    private static String usersKey(Long productId) {
+        return KEY_PREFIX + "{" + productId + "}:users";
+    }
+
+    private static String pendingKey(Long productId) {
+        return KEY_PREFIX + "{" + productId + "}:pending";
+    }
+
+    private static int parseInt(Object value) {
+        return value != null ? Integer.parseInt(value.toString()) : 0;
+    }
+
+    private static RedisScript<Long> loadScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
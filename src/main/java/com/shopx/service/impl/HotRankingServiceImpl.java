@@ -0,0 +1,303 @@
+package com.shopx.service.impl;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.enums.HotRankingWindowEnum;
+import com.shopx.service.HotRankingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 热门商品排行服务实现类
+ * 每个窗口 x 分类（含全站）一个Redis有序集合，分数为前向衰减热度：
+ * t时刻的事件计入 权重 x 2^((t - 代起点) / 半衰期)，越新的事件分数越大，已有分数无需逐个衰减，
+ * 读取排行即 ZREVRANGE 0 K-1；
+ * 为避免分数无限增长，每16个半衰期换一代新key，由抢到换代标记的节点把上一代乘以2^-16并入新一代
+ * 事件先在本地按商品累计，定期用一次管道写入Redis
+ */
+@Slf4j
+@Service
+public class HotRankingServiceImpl implements HotRankingService {
+
+    public static final String KEY_PREFIX = "shopx:hot:";
+
+    private static final String SCOPE_ALL = "all";
+    private static final String SCOPE_CATEGORY = "cat:";
+    private static final String CATEGORIES_KEY = KEY_PREFIX + "categories";
+
+    private static final int HALF_LIVES_PER_GENERATION = 16;
+
+    /**
+     * 换代后低于该分数的商品已衰减殆尽，直接移除
+     */
+    private static final double MIN_SCORE = 0.01;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    /**
+     * 分类（无分类为空串） -> 商品ID -> 尚未写入Redis的热度
+     */
+    private final Map<String, Map<Long, DoubleAdder>> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 当前时间（毫秒），测试中可替换
+     */
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * 各窗口本节点已确认换代的代号，只在flushLock内读写
+     */
+    private final long[] rolledGenerations = new long[HotRankingWindowEnum.values().length];
+
+    @Override
+    public void recordView(Long productId, String category) {
+        record(productId, category, config().getViewWeight());
+    }
+
+    @Override
+    public void recordLike(Long productId, String category) {
+        record(productId, category, config().getLikeWeight());
+    }
+
+    @Override
+    public void recordPurchase(Long productId, String category, int quantity) {
+        record(productId, category, config().getPurchaseWeight() * quantity);
+    }
+
+    @Override
+    public List<Long> getTopProductIds(String category, HotRankingWindowEnum window, int limit) {
+        if (!config().getEnabled() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String scope = scope(category);
+        long generation = generation(window, clock.getAsLong());
+        try {
+            Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(key(window, scope, generation), 0, limit - 1);
+            if (members == null || members.isEmpty()) {
+                // 刚跨入新一代、尚未完成换代时读上一代
+                members = stringRedisTemplate.opsForZSet().reverseRange(key(window, scope, generation - 1), 0, limit - 1);
+            }
+            if (members == null) {
+                return Collections.emptyList();
+            }
+            List<Long> productIds = new ArrayList<>(members.size());
+            for (String member : members) {
+                productIds.add(Long.valueOf(member));
+            }
+            return productIds;
+        } catch (Exception e) {
+            log.error("读取热门排行失败: window={}, category={}", window.getCode(), category, e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shopx.hot-ranking.flush-interval-millis:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Override
+    public int flush() {
+        if (!config().getEnabled()) {
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            long now = clock.getAsLong();
+            rollGenerations(now);
+
+            Map<String, Map<Long, Double>> drained = drain();
+            if (drained.isEmpty()) {
+                return 0;
+            }
+            try {
+                write(drained, now);
+            } catch (Exception e) {
+                log.error("写入热门排行失败，热度放回等待重试", e);
+                drained.forEach((category, weights) -> weights.forEach((productId, weight) -> add(category, productId, weight)));
+                return 0;
+            }
+            int products = drained.values().stream().mapToInt(Map::size).sum();
+            log.debug("写入热门排行: categories={}, products={}", drained.size(), products);
+            return products;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void record(Long productId, String category, double weight) {
+        if (productId == null || weight <= 0 || !config().getEnabled()) {
+            return;
+        }
+        add(StringUtils.hasText(category) ? category : "", productId, weight);
+    }
+
+    private void add(String category, Long productId, double weight) {
+        pending.computeIfAbsent(category, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(productId, id -> new DoubleAdder())
+                .add(weight);
+    }
+
+    /**
+     * 取出并清零本地累计的热度；一个周期内没有新事件的商品移出本地表
+     * 排行是近似统计，移除与并发累加之间的极小竞态不做处理
+     */
+    private Map<String, Map<Long, Double>> drain() {
+        Map<String, Map<Long, Double>> drained = new HashMap<>();
+        pending.forEach((category, products) -> products.forEach((productId, adder) -> {
+            double weight = adder.sumThenReset();
+            if (weight > 0) {
+                drained.computeIfAbsent(category, c -> new HashMap<>()).put(productId, weight);
+            } else {
+                products.remove(productId, adder);
+            }
+        }));
+        return drained;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(Map<String, Map<Long, Double>> drained, long now) {
+        int maxEntries = config().getMaxEntries();
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (HotRankingWindowEnum window : HotRankingWindowEnum.values()) {
+                    long generation = generation(window, now);
+                    double factor = Math.pow(2, (double) (now - generationStart(window, generation)) / window.getHalfLifeMillis());
+                    Duration ttl = Duration.ofMillis(generationMillis(window) * 2);
+
+                    Set<String> keys = new LinkedHashSet<>();
+                    drained.forEach((category, weights) -> {
+                        String allKey = key(window, SCOPE_ALL, generation);
+                        String categoryKey = category.isEmpty() ? null : key(window, SCOPE_CATEGORY + category, generation);
+                        weights.forEach((productId, weight) -> {
+                            String member = String.valueOf(productId);
+                            ops.opsForZSet().incrementScore(allKey, member, weight * factor);
+                            if (categoryKey != null) {
+                                ops.opsForZSet().incrementScore(categoryKey, member, weight * factor);
+                            }
+                        });
+                        keys.add(allKey);
+                        if (categoryKey != null) {
+                            keys.add(categoryKey);
+                        }
+                    });
+                    for (String key : keys) {
+                        ops.opsForZSet().removeRange(key, 0, -(maxEntries + 1L));
+                        ops.expire(key, ttl);
+                    }
+                }
+                String[] categories = drained.keySet().stream().filter(c -> !c.isEmpty()).toArray(String[]::new);
+                if (categories.length > 0) {
+                    ops.opsForSet().add(CATEGORIES_KEY, categories);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 跨入新一代时，由抢到换代标记的节点把上一代各排行乘以2^-16合并进新一代
+     * 新一代中换代前已写入的分数同样以新一代起点为基准，直接相加即可
+     */
+    private void rollGenerations(long now) {
+        for (HotRankingWindowEnum window : HotRankingWindowEnum.values()) {
+            long generation = generation(window, now);
+            if (rolledGenerations[window.ordinal()] >= generation) {
+                continue;
+            }
+            try {
+                Duration ttl = Duration.ofMillis(generationMillis(window) * 2);
+                Boolean acquired = stringRedisTemplate.opsForValue()
+                        .setIfAbsent(KEY_PREFIX + window.getCode() + ":rolled:" + generation, "1", ttl);
+                if (Boolean.TRUE.equals(acquired)) {
+                    rollGeneration(window, generation, ttl);
+                }
+                rolledGenerations[window.ordinal()] = generation;
+            } catch (Exception e) {
+                log.error("热门排行换代失败: window={}, generation={}", window.getCode(), generation, e);
+            }
+        }
+    }
+
+    private void rollGeneration(HotRankingWindowEnum window, long generation, Duration ttl) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(SCOPE_ALL);
+        Set<String> categories = stringRedisTemplate.opsForSet().members(CATEGORIES_KEY);
+        if (categories != null) {
+            categories.forEach(category -> scopes.add(SCOPE_CATEGORY + category));
+        }
+        Weights weights = Weights.of(1, Math.pow(2, -HALF_LIVES_PER_GENERATION));
+        int merged = 0;
+        for (String scope : scopes) {
+            String previous = key(window, scope, generation - 1);
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(previous))) {
+                continue;
+            }
+            String current = key(window, scope, generation);
+            stringRedisTemplate.opsForZSet().unionAndStore(current, List.of(previous), current, Aggregate.SUM, weights);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(current, Double.NEGATIVE_INFINITY, MIN_SCORE);
+            stringRedisTemplate.opsForZSet().removeRange(current, 0, -(config().getMaxEntries() + 1L));
+            stringRedisTemplate.expire(current, ttl);
+            merged++;
+        }
+        log.info("热门排行换代: window={}, generation={}, rankings={}", window.getCode(), generation, merged);
+    }
+
+    private static String scope(String category) {
+        return StringUtils.hasText(category) ? SCOPE_CATEGORY + category : SCOPE_ALL;
+    }
+
+    private static String key(HotRankingWindowEnum window, String scope, long generation) {
+        return KEY_PREFIX + window.getCode() + ":" + scope + ":" + generation;
+    }
+
+    private static long generationMillis(HotRankingWindowEnum window) {
+        return window.getHalfLifeMillis() * HALF_LIVES_PER_GENERATION;
+    }
+
+    private static long generation(HotRankingWindowEnum window, long now) {
+        return now / generationMillis(window);
+    }
+
+    private static long generationStart(HotRankingWindowEnum window, long generation) {
+        return generation * generationMillis(window);
+    }
+
+    private ShopXConfig.HotRanking config() {
+        return shopXConfig.getHotRanking();
+    }
+}
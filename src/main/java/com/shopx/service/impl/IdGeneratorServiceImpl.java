@@ -0,0 +1,178 @@
+package com.shopx.service.impl;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.exception.BusinessException;
+import com.shopx.service.IdGeneratorService;
+import com.shopx.util.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * 分布式ID生成服务实现类
+ * workerId通过 SET NX EX 从Redis租用（shopx:idgen:worker:{workerId} -> 节点标识），定期续约；
+ * 以最近一次确认成功的续约（按发起时间）计算发号截止时间 = 续约时间 + 租约时间 - 安全余量，
+ * 余量不小于一个续约间隔加Redis超时；nextId每次检查截止时间，过期即停止发号，不依赖定时任务清理。
+ * 续约报错（租约状态未知）时立即停止发号，直到再次确认租约仍属本节点，
+ * 避免与接手该workerId的节点生成重复ID
+ */
+@Slf4j
+@Service
+public class IdGeneratorServiceImpl implements IdGeneratorService {
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('EXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile SnowflakeIdGenerator generator;
+    private volatile String leaseKey;
+
+    /**
+     * 租用的workerId可以发号的截止时间（毫秒），固定workerId时为Long.MAX_VALUE
+     */
+    private volatile long leaseDeadline;
+
+    /**
+     * 当前时间（毫秒），测试中可替换
+     */
+    private LongSupplier clock = System::currentTimeMillis;
+
+    @PostConstruct
+    public void init() {
+        ShopXConfig.IdGenerator config = shopXConfig.getIdGenerator();
+        if (config.getWorkerId() >= 0) {
+            generator = new SnowflakeIdGenerator(config.getEpochMillis(), config.getWorkerId());
+            leaseDeadline = Long.MAX_VALUE;
+            log.info("ID生成器使用固定workerId: {}", config.getWorkerId());
+            return;
+        }
+        if (safetyMarginMillis(config) >= config.getLeaseTtlSeconds() * 1000L) {
+            throw new IllegalStateException("workerId租约时间必须大于续约间隔与Redis超时之和");
+        }
+        lease();
+    }
+
+    @Override
+    public long nextId() {
+        SnowflakeIdGenerator current = generator;
+        if (current == null || clock.getAsLong() >= leaseDeadline) {
+            throw new BusinessException(503, "ID生成服务暂不可用");
+        }
+        return current.nextId();
+    }
+
+    @Override
+    public String nextNo(String prefix) {
+        return prefix.concat(Long.toString(nextId()));
+    }
+
+    @Override
+    public int getWorkerId() {
+        SnowflakeIdGenerator current = generator;
+        return current != null ? current.getWorkerId() : -1;
+    }
+
+    /**
+     * 续约workerId；租约已被其他节点占用或已过期时重新租用
+     */
+    @Scheduled(initialDelayString = "${shopx.id-generator.renew-interval-millis:10000}",
+            fixedDelayString = "${shopx.id-generator.renew-interval-millis:10000}")
+    public void renew() {
+        String key = leaseKey;
+        if (key == null && generator != null) {
+            return;
+        }
+        ShopXConfig.IdGenerator config = shopXConfig.getIdGenerator();
+        try {
+            if (key != null) {
+                // 以发起时间为准：Redis执行EXPIRE不早于此刻，租约不会早于 attemptAt + TTL 过期
+                long attemptAt = clock.getAsLong();
+                Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(key),
+                        nodeId, String.valueOf(config.getLeaseTtlSeconds()));
+                if (renewed != null && renewed == 1) {
+                    leaseDeadline = deadline(config, attemptAt);
+                    return;
+                }
+                log.warn("workerId租约已丢失，重新租用: key={}", key);
+                leaseDeadline = 0;
+                generator = null;
+                leaseKey = null;
+            }
+            lease();
+        } catch (Exception e) {
+            // 续约结果未知，停止发号；租约仍属本节点时下次续约成功即恢复，已丢失时重新租用
+            leaseDeadline = 0;
+            log.error("workerId续约失败，暂停发号: key={}", key, e);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        String key = leaseKey;
+        if (key == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(key), nodeId);
+            log.info("已释放workerId租约: key={}", key);
+        } catch (Exception e) {
+            log.warn("释放workerId租约失败: key={}", key, e);
+        }
+    }
+
+    /**
+     * 从随机位置开始依次尝试占用空闲的workerId
+     */
+    private void lease() {
+        ShopXConfig.IdGenerator config = shopXConfig.getIdGenerator();
+        Duration ttl = Duration.ofSeconds(config.getLeaseTtlSeconds());
+        int start = ThreadLocalRandom.current().nextInt(SnowflakeIdGenerator.MAX_WORKER_ID + 1);
+        for (int i = 0; i <= SnowflakeIdGenerator.MAX_WORKER_ID; i++) {
+            int workerId = (start + i) & SnowflakeIdGenerator.MAX_WORKER_ID;
+            String key = config.getLeaseKeyPrefix() + workerId;
+            long attemptAt = clock.getAsLong();
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, nodeId, ttl))) {
+                leaseKey = key;
+                generator = new SnowflakeIdGenerator(config.getEpochMillis(), workerId);
+                leaseDeadline = deadline(config, attemptAt);
+                log.info("已租用workerId: {}, nodeId={}", workerId, nodeId);
+                return;
+            }
+        }
+        throw new IllegalStateException("没有可用的workerId，所有" + (SnowflakeIdGenerator.MAX_WORKER_ID + 1) + "个workerId均已被占用");
+    }
+
+    private static long deadline(ShopXConfig.IdGenerator config, long renewedAt) {
+        return renewedAt + config.getLeaseTtlSeconds() * 1000L - safetyMarginMillis(config);
+    }
+
+    /**
+     * 最坏情况下，下一次续约要等一个续约间隔，再加上一次Redis调用超时才能得知结果
+     */
+    private static long safetyMarginMillis(ShopXConfig.IdGenerator config) {
+        return config.getRenewIntervalMillis() + config.getRedisTimeoutMillis();
+    }
+}
@@ -1,26 +1,37 @@
 package com.shopx.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.shopx.cache.CountCache;
+import com.shopx.constant.Constants;
 import com.shopx.entity.*;
 import com.shopx.exception.BusinessException;
 import com.shopx.mapper.OrderItemMapper;
 import com.shopx.mapper.OrderMapper;
 import com.shopx.service.CartService;
+import com.shopx.service.HotRankingService;
+import com.shopx.service.IdGeneratorService;
 import com.shopx.service.OrderService;
 import com.shopx.service.ProductService;
+import com.shopx.util.BatchWriteUtil;
+import com.shopx.util.PageCursor;
 import com.shopx.util.ResponseUtil;
+import com.shopx.validation.ValidationUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +53,18 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private IdGeneratorService idGeneratorService;
+    
+    @Autowired
+    private BatchWriteUtil batchWriteUtil;
+    
+    @Autowired
+    private CountCache countCache;
+    
+    @Autowired
+    private HotRankingService hotRankingService;
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Order createOrder(Long userId, List<Long> cartItemIds, String shippingAddress) {
@@ -64,21 +87,21 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             throw new BusinessException(400, "选择的商品不存在");
         }
         
-        // 检查库存并计算总金额
+        // 批量获取商品并计算总金额；缓存中的库存仅供展示，是否足够以下方的条件扣减为准
+        Map<Long, Product> products = productService.getProductsByIds(
+                cartItems.stream().map(CartItem::getProductId).collect(Collectors.toList()));
         BigDecimal totalAmount = BigDecimal.ZERO;
+        Map<Long, Integer> quantities = new HashMap<>();
         for (CartItem cartItem : cartItems) {
-            Product product = productService.getProductById(cartItem.getProductId());
-            if (product == null) {
+            if (!products.containsKey(cartItem.getProductId())) {
                 throw new BusinessException(404, "商品不存在: " + cartItem.getProductId());
             }
-            if (product.getStock() < cartItem.getQuantity()) {
-                throw new BusinessException(400, "商品库存不足: " + product.getName());
-            }
+            quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
             totalAmount = totalAmount.add(cartItem.getSubtotal());
         }
         
         // 生成订单号
-        String orderNo = generateOrderNo();
+        String orderNo = idGeneratorService.nextNo(Constants.IdPrefix.ORDER);
         
         // 创建订单
         Order order = new Order();
@@ -93,7 +116,8 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         
         orderMapper.insert(order);
         
-        // 创建订单项并扣减库存
+        // 创建订单项（多行INSERT一次写入）
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrderId(order.getId());
@@ -101,17 +125,15 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setPrice(cartItem.getPrice());
             orderItem.setSubtotal(cartItem.getSubtotal());
-            
-            orderItemMapper.insert(orderItem);
-            
-            // 扣减库存
-            Product product = productService.getProductById(cartItem.getProductId());
-            product.setStock(product.getStock() - cartItem.getQuantity());
-            productService.updateProduct(product.getId(), product);
-            
-            // 从购物车移除
-            cartService.removeFromCart(userId, cartItem.getProductId());
+            orderItems.add(orderItem);
         }
+        batchWriteUtil.insertValues(orderItemMapper, orderItems);
+        
+        // 从购物车移除
+        cartService.removeFromCart(userId, new ArrayList<>(quantities.keySet()));
+        
+        // 最后一步原子扣减库存，商品行锁只持有到事务提交；库存不足时抛出异常，订单整体回滚
+        productService.decreaseStock(quantities);
         
         log.info("订单创建成功: orderId={}, orderNo={}", order.getId(), orderNo);
         return order;
@@ -137,6 +159,23 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
                 .build();
     }
     
+    @Override
+    public ResponseUtil.PageResult<Order> getOrdersByCursor(Long userId, String cursor, int size, boolean withTotal) {
+        log.info("游标获取订单列表: userId={}, cursor={}, size={}", userId, cursor, size);
+        
+        ValidationUtils.validPageParams(1, size, "分页参数错误");
+        
+        Long total = withTotal
+                ? countCache.get("order:user:" + userId,
+                        () -> orderMapper.selectCount(new QueryWrapper<Order>().eq("user_id", userId)))
+                : null;
+        
+        QueryWrapper<Order> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId);
+        List<Order> rows = orderMapper.selectList(PageCursor.seek(queryWrapper, cursor, size));
+        return PageCursor.toPage(rows, cursor, size, Order::getCreateTime, Order::getId, total, true);
+    }
+    
     @Override
     public Order getOrderById(Long orderId) {
         log.info("获取订单详情: orderId={}", orderId);
@@ -161,26 +200,24 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
             throw new BusinessException(403, "无权取消此订单");
         }
         
-        // 检查订单状态
-        if (!"PENDING".equals(order.getStatus()) && !"PAID".equals(order.getStatus())) {
+        // 按状态条件更新，并发取消时只有一次成功，避免重复回补库存
+        UpdateWrapper<Order> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.set("status", "CANCELLED")
+                    .set("update_time", LocalDateTime.now())
+                    .eq("id", orderId)
+                    .in("status", "PENDING", "PAID");
+        if (orderMapper.update(null, updateWrapper) == 0) {
             throw new BusinessException(400, "订单状态不允许取消");
         }
         
-        // 恢复库存
+        // 原子回补库存
         QueryWrapper<OrderItem> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("order_id", orderId);
-        List<OrderItem> orderItems = orderItemMapper.selectList(queryWrapper);
-        
-        for (OrderItem orderItem : orderItems) {
-            Product product = productService.getProductById(orderItem.getProductId());
-            product.setStock(product.getStock() + orderItem.getQuantity());
-            productService.updateProduct(product.getId(), product);
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem orderItem : orderItemMapper.selectList(queryWrapper)) {
+            quantities.merge(orderItem.getProductId(), orderItem.getQuantity(), Integer::sum);
         }
-        
-        // 更新订单状态
-        order.setStatus("CANCELLED");
-        order.setUpdateTime(LocalDateTime.now());
-        orderMapper.updateById(order);
+        productService.increaseStock(quantities);
         
         log.info("订单取消成功: orderId={}", orderId);
         return true;
@@ -216,17 +253,37 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, Order> implements
         order.setUpdateTime(LocalDateTime.now());
         orderMapper.updateById(order);
         
+        recordPurchases(orderId);
+        
         log.info("订单支付成功: orderId={}", orderId);
         return true;
     }
     
     /**
-     * 生成订单号
+     * 支付成功的订单计入热门排行；在事务中调用时提交后才计入，回滚的支付不计
      */
-    private String generateOrderNo() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String uuid = UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
-        return "ORD" + timestamp + uuid;
+    private void recordPurchases(Long orderId) {
+        QueryWrapper<OrderItem> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("order_id", orderId);
+        List<OrderItem> orderItems = orderItemMapper.selectList(queryWrapper);
+        Map<Long, Product> products = productService.getProductsByIds(
+                orderItems.stream().map(OrderItem::getProductId).collect(Collectors.toList()));
+        Runnable record = () -> {
+            for (OrderItem orderItem : orderItems) {
+                Product product = products.get(orderItem.getProductId());
+                hotRankingService.recordPurchase(orderItem.getProductId(),
+                        product != null ? product.getCategory() : null, orderItem.getQuantity());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
     }
 }
-
@@ -0,0 +1,243 @@
+package com.shopx.service.impl;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.dto.ProductCounterDelta;
+import com.shopx.entity.Product;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.service.ProductCounterService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品计数服务实现类
+ * 增量按商品ID分段累加在LongAdder中：累加时持有分段读锁（多个线程可同时累加），
+ * 写回时逐段持写锁把整张表换成空表，随后在锁外把换下的增量按 shopx.batch.chunk-size 分批写回，
+ * 每批一条 UPDATE ... CASE id 语句，替代每次事件一条UPDATE；
+ * 写回失败的批次放回分段等待下次重试，应用正常关闭时再写回一次，因此不会丢失计数
+ * 计数只在本节点累加，其他节点读取时看不到本节点尚未写回的增量（最多延迟一个写回间隔）；
+ * 写回后不删除商品详情缓存，详情中的计数允许落后到缓存过期，避免每个写回周期把热门商品的缓存整批清空
+ */
+@Slf4j
+@Service
+public class ProductCounterServiceImpl implements ProductCounterService {
+
+    private static final int VIEWS = 0;
+    private static final int LIKES = 1;
+    private static final int SHARES = 2;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    private Stripe[] stripes;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 已从分段换下、正在写回的增量，写回完成前读取时仍需合并
+     */
+    private volatile List<Map<Long, LongAdder[]>> inFlight = List.of();
+
+    @PostConstruct
+    public void init() {
+        int count = Math.max(1, shopXConfig.getCounter().getStripes());
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void incrementView(Long productId) {
+        increment(productId, VIEWS, 1);
+    }
+
+    @Override
+    public void incrementLike(Long productId, int delta) {
+        increment(productId, LIKES, delta);
+    }
+
+    @Override
+    public void incrementShare(Long productId) {
+        increment(productId, SHARES, 1);
+    }
+
+    @Override
+    public Product mergePending(Product product) {
+        if (product == null || product.getId() == null) {
+            return product;
+        }
+        long[] pending = pending(product.getId());
+        if (pending[VIEWS] == 0 && pending[LIKES] == 0 && pending[SHARES] == 0) {
+            return product;
+        }
+        Product merged = new Product();
+        BeanUtils.copyProperties(product, merged);
+        merged.setViewCount((int) (valueOf(product.getViewCount()) + pending[VIEWS]));
+        merged.setLikeCount((int) Math.max(0, valueOf(product.getLikeCount()) + pending[LIKES]));
+        merged.setShareCount((int) (valueOf(product.getShareCount()) + pending[SHARES]));
+        return merged;
+    }
+
+    @Scheduled(fixedDelayString = "${shopx.counter.flush-interval-millis:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * 应用关闭时写回剩余增量（先于数据源销毁执行）
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        log.info("关闭前写回商品计数: products={}", flushed);
+    }
+
+    @Override
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Map<Long, LongAdder[]>> drained = new ArrayList<>();
+            for (Stripe stripe : stripes) {
+                Map<Long, LongAdder[]> counters = stripe.swap();
+                if (counters != null) {
+                    drained.add(counters);
+                }
+            }
+            if (drained.isEmpty()) {
+                return 0;
+            }
+            inFlight = drained;
+
+            List<ProductCounterDelta> deltas = toDeltas(drained);
+            int chunkSize = Math.max(1, shopXConfig.getBatch().getChunkSize());
+            int written = 0;
+            try {
+                for (; written < deltas.size(); written += chunkSize) {
+                    List<ProductCounterDelta> chunk = deltas.subList(written, Math.min(written + chunkSize, deltas.size()));
+                    productMapper.batchIncrementCounters(chunk);
+                }
+                log.debug("写回商品计数: products={}", deltas.size());
+                return deltas.size();
+            } catch (RuntimeException e) {
+                List<ProductCounterDelta> failed = deltas.subList(written, deltas.size());
+                log.error("写回商品计数失败，{}个商品的增量放回等待重试", failed.size(), e);
+                failed.forEach(this::restore);
+                return written;
+            } finally {
+                inFlight = List.of();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void increment(Long productId, int type, long delta) {
+        if (productId == null || delta == 0) {
+            return;
+        }
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.readLock().lock();
+        try {
+            stripe.counters.computeIfAbsent(productId, id -> newAdders())[type].add(delta);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    private void restore(ProductCounterDelta delta) {
+        increment(delta.getProductId(), VIEWS, delta.getViews());
+        increment(delta.getProductId(), LIKES, delta.getLikes());
+        increment(delta.getProductId(), SHARES, delta.getShares());
+    }
+
+    private long[] pending(Long productId) {
+        long[] pending = new long[3];
+        addTo(pending, stripeFor(productId).counters.get(productId));
+        for (Map<Long, LongAdder[]> counters : inFlight) {
+            addTo(pending, counters.get(productId));
+        }
+        return pending;
+    }
+
+    private static void addTo(long[] pending, LongAdder[] adders) {
+        if (adders != null) {
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] += adders[i].sum();
+            }
+        }
+    }
+
+    /**
+     * 合并换下的各分段，按商品ID排序（多行UPDATE按主键顺序加锁）
+     */
+    private static List<ProductCounterDelta> toDeltas(List<Map<Long, LongAdder[]>> drained) {
+        Map<Long, ProductCounterDelta> merged = new TreeMap<>();
+        for (Map<Long, LongAdder[]> counters : drained) {
+            counters.forEach((productId, adders) -> {
+                long views = adders[VIEWS].sum();
+                long likes = adders[LIKES].sum();
+                long shares = adders[SHARES].sum();
+                if (views != 0 || likes != 0 || shares != 0) {
+                    merged.put(productId, new ProductCounterDelta(productId, views, likes, shares));
+                }
+            });
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private Stripe stripeFor(Long productId) {
+        return stripes[Math.floorMod(Long.hashCode(productId), stripes.length)];
+    }
+
+    private static LongAdder[] newAdders() {
+        return new LongAdder[]{new LongAdder(), new LongAdder(), new LongAdder()};
+    }
+
+    private static long valueOf(Integer count) {
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 计数分段
+     */
+    private static final class Stripe {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private volatile ConcurrentHashMap<Long, LongAdder[]> counters = new ConcurrentHashMap<>();
+
+        /**
+         * 换上空表并返回旧表；持写锁等待正在进行的累加完成，换下后旧表不会再被修改
+         */
+        Map<Long, LongAdder[]> swap() {
+            lock.writeLock().lock();
+            try {
+                if (counters.isEmpty()) {
+                    return null;
+                }
+                Map<Long, LongAdder[]> current = counters;
+                counters = new ConcurrentHashMap<>();
+                return current;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
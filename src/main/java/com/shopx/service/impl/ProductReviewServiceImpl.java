@@ -3,6 +3,7 @@ package com.shopx.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.shopx.cache.CountCache;
 import com.shopx.entity.Order;
 import com.shopx.entity.OrderItem;
 import com.shopx.entity.ProductReview;
@@ -12,7 +13,9 @@ import com.shopx.mapper.OrderMapper;
 import com.shopx.mapper.ProductReviewMapper;
 import com.shopx.mapper.ReviewVoteMapper;
 import com.shopx.service.ProductReviewService;
+import com.shopx.util.PageCursor;
 import com.shopx.util.ResponseUtil;
+import com.shopx.validation.ValidationUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -42,6 +45,9 @@ public class ProductReviewServiceImpl extends ServiceImpl<ProductReviewMapper, P
     @Autowired(required = false)
     private ReviewVoteMapper reviewVoteMapper;
     
+    @Autowired
+    private CountCache countCache;
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ProductReview createReview(Long userId, Long productId, Long orderId, Integer rating, String content, String images, String videos) {
@@ -99,6 +105,21 @@ public class ProductReviewServiceImpl extends ServiceImpl<ProductReviewMapper, P
                 .build();
     }
     
+    @Override
+    public ResponseUtil.PageResult<ProductReview> getProductReviewsByCursor(Long productId, String cursor, int size, boolean withTotal) {
+        ValidationUtils.validPageParams(1, size, "分页参数错误");
+        
+        Long total = withTotal
+                ? countCache.get("review:product:" + productId,
+                        () -> reviewMapper.selectCount(new QueryWrapper<ProductReview>().eq("product_id", productId)))
+                : null;
+        
+        QueryWrapper<ProductReview> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("product_id", productId);
+        List<ProductReview> rows = reviewMapper.selectList(PageCursor.seek(queryWrapper, cursor, size));
+        return PageCursor.toPage(rows, cursor, size, ProductReview::getCreateTime, ProductReview::getId, total, true);
+    }
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean voteHelpful(Long reviewId, Long userId, boolean helpful) {
@@ -4,11 +4,19 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.shopx.cache.CacheManager;
-import com.shopx.constant.Constants;
+import com.shopx.cache.CountCache;
+import com.shopx.cache.IdBloomFilter;
 import com.shopx.entity.Product;
+import com.shopx.enums.HotRankingWindowEnum;
 import com.shopx.exception.BusinessException;
 import com.shopx.mapper.ProductMapper;
+import com.shopx.search.ProductSearchEngine;
+import com.shopx.search.ProductSearchQuery;
+import com.shopx.search.ProductSearchResult;
+import com.shopx.service.HotRankingService;
+import com.shopx.service.ProductCounterService;
 import com.shopx.service.ProductService;
+import com.shopx.util.PageCursor;
 import com.shopx.util.ResponseUtil;
 import com.shopx.util.SaTokenUtil;
 import com.shopx.validation.ValidationUtils;
@@ -18,7 +26,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * 商品服务实现类
@@ -27,12 +46,32 @@ import java.util.List;
 @Service
 public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> implements ProductService {
     
+    /**
+     * 热门排行多取的ID数，用于补足已下架的商品
+     */
+    private static final int HOT_RANKING_SLACK = 10;
+    
     @Autowired
     private ProductMapper productMapper;
     
     @Autowired
     private CacheManager cacheManager;
     
+    @Autowired
+    private CountCache countCache;
+    
+    @Autowired
+    private IdBloomFilter idBloomFilter;
+    
+    @Autowired
+    private ProductCounterService productCounterService;
+    
+    @Autowired
+    private HotRankingService hotRankingService;
+    
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+    
     @Override
     public ResponseUtil.PageResult<Product> getProducts(int page, int size, String keyword, String category) {
         log.info("获取商品列表: page={}, size={}, keyword={}, category={}", page, size, keyword, category);
@@ -40,21 +79,41 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         // 参数校验
         ValidationUtils.validPageParams(page, size, "分页参数错误");
         
-        // 构建查询条件
-        QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
-        
-        if (StringUtils.hasText(keyword)) {
-            queryWrapper.like("name", keyword)
-                       .or()
-                       .like("description", keyword);
+        // 关键词搜索长尾分散不缓存，只缓存全量/分类列表页
+        if (!StringUtils.hasText(keyword)) {
+            String cacheKey = CacheManager.PRODUCT_PREFIX + "list:" + (StringUtils.hasText(category) ? category : "all")
+                    + ":" + page + ":" + size;
+            String tag = StringUtils.hasText(category) ? CacheManager.CATEGORY_TAG_PREFIX + category : CacheManager.PRODUCT_LIST_TAG;
+            return cacheManager.getOrLoad(cacheKey, CacheManager.PRODUCT_LIST_TTL,
+                    () -> queryProducts(page, size, null, category), tag);
         }
         
-        if (StringUtils.hasText(category)) {
-            queryWrapper.eq("category", category);
+        return queryProducts(page, size, keyword, category);
+    }
+    
+    @Override
+    public ResponseUtil.PageResult<Product> getProductsByCursor(String cursor, int size, String keyword, String category, boolean withTotal) {
+        log.info("游标获取商品列表: cursor={}, size={}, keyword={}, category={}", cursor, size, keyword, category);
+        
+        ValidationUtils.validPageParams(1, size, "分页参数错误");
+        
+        Long total = null;
+        if (withTotal) {
+            String countKey = "product:" + (StringUtils.hasText(category) ? category : "all")
+                    + (StringUtils.hasText(keyword) ? ":" + keyword : "");
+            total = countCache.get(countKey,
+                    () -> productMapper.selectCount(buildProductQuery(keyword, category)));
         }
         
-        // 只查询启用的商品
-        queryWrapper.eq("enabled", true);
+        List<Product> rows = productMapper.selectList(PageCursor.seek(buildProductQuery(keyword, category), cursor, size));
+        return PageCursor.toPage(rows, cursor, size, Product::getCreateTime, Product::getId, total, true);
+    }
+    
+    /**
+     * 查询商品列表
+     */
+    private ResponseUtil.PageResult<Product> queryProducts(int page, int size, String keyword, String category) {
+        QueryWrapper<Product> queryWrapper = buildProductQuery(keyword, category);
         queryWrapper.orderByDesc("create_time");
         
         // 分页查询
@@ -70,29 +129,94 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
                 .build();
     }
     
+    /**
+     * 构建商品列表查询条件（不含排序）
+     */
+    private QueryWrapper<Product> buildProductQuery(String keyword, String category) {
+        QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+        
+        if (StringUtils.hasText(keyword)) {
+            queryWrapper.and(w -> w.like("name", keyword)
+                       .or()
+                       .like("description", keyword));
+        }
+        
+        if (StringUtils.hasText(category)) {
+            queryWrapper.eq("category", category);
+        }
+        
+        // 只查询启用的商品
+        queryWrapper.eq("enabled", true);
+        return queryWrapper;
+    }
+    
     @Override
     public Product getProductById(Long id) {
         log.info("获取商品详情: id={}", id);
         
         ValidationUtils.validId(id, "商品ID不能为空");
         
-        // 先从缓存获取
-        Product product = cacheManager.getProductCache(id);
-        if (product != null) {
-            log.debug("从缓存获取商品: id={}", id);
-            return product;
+        // 布隆过滤器判定一定不存在的ID直接拒绝，不访问缓存与数据库
+        if (!idBloomFilter.mightContainProduct(id)) {
+            throw new BusinessException(404, "商品不存在");
         }
         
-        // 从数据库获取
-        product = productMapper.selectById(id);
+        // 缓存未命中时回源数据库，并发未命中只回源一次；不存在的ID缓存空值占位
+        Product product = cacheManager.getOrLoad(CacheManager.PRODUCT_PREFIX + id, CacheManager.PRODUCT_TTL,
+                () -> productMapper.selectById(id));
         if (product == null) {
             throw new BusinessException(404, "商品不存在");
         }
         
-        // 设置缓存
-        cacheManager.setProductCache(id, product);
+        // 叠加本节点尚未写回的浏览/点赞/分享增量
+        return productCounterService.mergePending(product);
+    }
+    
+    @Override
+    public Map<Long, Product> getProductsByIds(Collection<Long> ids) {
+        Map<Long, Product> result = new LinkedHashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
         
-        return product;
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (idBloomFilter.mightContainProduct(id)) {
+                distinctIds.add(id);
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return result;
+        }
+        List<String> keys = distinctIds.stream()
+                .map(id -> CacheManager.PRODUCT_PREFIX + id)
+                .collect(Collectors.toList());
+        Map<String, Object> cached = cacheManager.getAll(keys);
+        
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Object value = cached.get(CacheManager.PRODUCT_PREFIX + id);
+            if (value instanceof Product) {
+                result.put(id, (Product) value);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        
+        // 未命中部分一次性回源并批量回写缓存
+        if (!missingIds.isEmpty()) {
+            Map<String, Product> toCache = new HashMap<>();
+            for (Product product : productMapper.selectBatchIds(missingIds)) {
+                result.put(product.getId(), product);
+                toCache.put(CacheManager.PRODUCT_PREFIX + product.getId(), product);
+            }
+            cacheManager.setAll(toCache, CacheManager.PRODUCT_TTL);
+        }
+        result.replaceAll((id, product) -> productCounterService.mergePending(product));
+        
+        log.debug("批量获取商品: ids={}, cacheHits={}, loaded={}", distinctIds.size(),
+                distinctIds.size() - missingIds.size(), missingIds.size());
+        return result;
     }
     
     @Override
@@ -128,8 +252,11 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         // 保存商品
         productMapper.insert(product);
         
-        // 清除相关缓存
-        cacheManager.delete(Constants.CacheKey.PRODUCT_PREFIX + "list:*");
+        // 登记到布隆过滤器，并清除该ID可能残留的空值占位和相关列表缓存
+        idBloomFilter.addProduct(product.getId());
+        cacheManager.deleteProductCache(product.getId());
+        invalidateListCaches(product.getCategory());
+        productSearchEngine.markDirty(product.getId());
         
         log.info("商品创建成功: id={}, name={}", product.getId(), product.getName());
         return product;
@@ -162,7 +289,8 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         
         // 清除缓存
         cacheManager.deleteProductCache(id);
-        cacheManager.delete(Constants.CacheKey.PRODUCT_PREFIX + "list:*");
+        invalidateListCaches(existingProduct.getCategory(), product.getCategory());
+        productSearchEngine.markDirty(id);
         
         log.info("商品更新成功: id={}", id);
         return product;
@@ -195,7 +323,8 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         
         // 清除缓存
         cacheManager.deleteProductCache(id);
-        cacheManager.delete(Constants.CacheKey.PRODUCT_PREFIX + "list:*");
+        invalidateListCaches(existingProduct.getCategory());
+        productSearchEngine.markDirty(id);
         
         log.info("商品删除成功: id={}", id);
         return true;
@@ -216,16 +345,19 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         }
         
         // 批量软删除
+        Set<String> categories = new HashSet<>();
         for (Long id : ids) {
             Product product = productMapper.selectById(id);
             if (product != null) {
                 product.setEnabled(false);
                 productMapper.updateById(product);
                 cacheManager.deleteProductCache(id);
+                categories.add(product.getCategory());
             }
         }
         
-        cacheManager.delete(Constants.CacheKey.PRODUCT_PREFIX + "list:*");
+        invalidateListCaches(categories.toArray(new String[0]));
+        productSearchEngine.markDirty(ids);
         
         log.info("批量删除商品成功: count={}", ids.size());
         return true;
@@ -249,11 +381,46 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         
         // 清除缓存
         cacheManager.deleteProductCache(id);
+        productSearchEngine.markDirty(id);
         
         log.info("商品库存更新成功: id={}, newStock={}", id, quantity);
         return true;
     }
     
+    @Override
+    public void decreaseStock(Map<Long, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return;
+        }
+        
+        // 按商品ID排序，多商品并发扣减时以一致顺序加锁
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        int updated = sorted.size() == 1
+                ? productMapper.decreaseStock(sorted.keySet().iterator().next(), sorted.values().iterator().next())
+                : productMapper.batchDecreaseStock(sorted);
+        if (updated < sorted.size()) {
+            // 售罄时才失效详情缓存，使展示的库存尽快刷新
+            cacheManager.delete(sorted.keySet().stream()
+                    .map(id -> CacheManager.PRODUCT_PREFIX + id)
+                    .toArray(String[]::new));
+            throw new BusinessException(400, "商品库存不足");
+        }
+        // 有货/缺货筛选依赖库存，变更后异步刷新搜索索引
+        productSearchEngine.markDirty(sorted.keySet());
+        log.debug("扣减库存成功: {}", sorted);
+    }
+    
+    @Override
+    public void increaseStock(Map<Long, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return;
+        }
+        
+        productMapper.batchIncreaseStock(new TreeMap<>(quantities));
+        productSearchEngine.markDirty(quantities.keySet());
+        log.debug("回补库存成功: {}", quantities);
+    }
+    
     @Override
     public boolean checkStock(Long id, Integer quantity) {
         log.debug("检查商品库存: id={}, quantity={}", id, quantity);
@@ -264,15 +431,45 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
     
     @Override
     public List<Product> getHotProducts(int limit) {
-        log.info("获取热门商品: limit={}", limit);
+        return getHotProducts(limit, null, null);
+    }
+    
+    @Override
+    public List<Product> getHotProducts(int limit, String category, String window) {
+        log.info("获取热门商品: limit={}, category={}, window={}", limit, category, window);
         
-        QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("enabled", true)
-                   .orderByDesc("view_count")
-                   .orderByDesc("like_count")
-                   .last("LIMIT " + limit);
+        ValidationUtils.validPageParams(1, limit, "数量限制错误");
+        HotRankingWindowEnum rankingWindow = HotRankingWindowEnum.fromCode(window);
+        if (rankingWindow == null) {
+            throw new BusinessException(400, "不支持的时间窗口: " + window);
+        }
+        
+        // 多取几个ID，补足已下架的商品；商品详情走批量缓存
+        List<Long> productIds = hotRankingService.getTopProductIds(category, rankingWindow, limit + HOT_RANKING_SLACK);
+        if (!productIds.isEmpty()) {
+            Map<Long, Product> products = getProductsByIds(productIds);
+            List<Product> result = productIds.stream()
+                    .map(products::get)
+                    .filter(product -> product != null && !Boolean.FALSE.equals(product.getEnabled()))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+            if (!result.isEmpty()) {
+                return result;
+            }
+        }
         
-        return productMapper.selectList(queryWrapper);
+        // 排行尚无数据（冷启动或Redis不可用）时按累计浏览量从数据库取
+        String cacheKey = CacheManager.PRODUCT_PREFIX + "hot:" + (StringUtils.hasText(category) ? category + ":" : "") + limit;
+        String tag = StringUtils.hasText(category) ? CacheManager.CATEGORY_TAG_PREFIX + category : CacheManager.PRODUCT_LIST_TAG;
+        return cacheManager.getOrLoad(cacheKey, CacheManager.PRODUCT_LIST_TTL, () -> {
+            QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("enabled", true)
+                       .eq(StringUtils.hasText(category), "category", category)
+                       .orderByDesc("view_count")
+                       .orderByDesc("like_count")
+                       .last("LIMIT " + limit);
+            return productMapper.selectList(queryWrapper);
+        }, tag);
     }
     
     @Override
@@ -291,6 +488,16 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         ValidationUtils.notBlank(keyword, "搜索关键词不能为空");
         ValidationUtils.validPageParams(page, size, "分页参数错误");
         
+        // 优先走内存倒排索引，按相关度排序
+        ProductSearchResult searchResult = productSearchEngine.search(ProductSearchQuery.builder()
+                .keyword(keyword)
+                .offset((page - 1) * size)
+                .limit(size)
+                .build());
+        if (searchResult != null) {
+            return toPageResult(searchResult, page, size);
+        }
+        
         QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
         queryWrapper.like("name", keyword)
                    .or()
@@ -312,6 +519,22 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
                 .build();
     }
     
+    @Override
+    public ResponseUtil.PageResult<Product> toPageResult(ProductSearchResult searchResult, int page, int size) {
+        Map<Long, Product> products = getProductsByIds(searchResult.getProductIds());
+        List<Product> records = searchResult.getProductIds().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return ResponseUtil.PageResult.<Product>builder()
+                .data(records)
+                .total(searchResult.getTotal())
+                .page(page)
+                .size(size)
+                .totalPages((int) ((searchResult.getTotal() + size - 1) / size))
+                .build();
+    }
+    
     @Override
     public ResponseUtil.PageResult<Product> getProductsByCategory(String category, int page, int size) {
         log.info("根据分类获取商品: category={}, page={}, size={}", category, page, size);
@@ -319,20 +542,41 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         ValidationUtils.notBlank(category, "商品分类不能为空");
         ValidationUtils.validPageParams(page, size, "分页参数错误");
         
-        QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("category", category)
-                   .eq("enabled", true)
-                   .orderByDesc("create_time");
-        
-        Page<Product> pageParam = new Page<>(page, size);
-        Page<Product> result = productMapper.selectPage(pageParam, queryWrapper);
-        
-        return ResponseUtil.PageResult.<Product>builder()
-                .data(result.getRecords())
-                .total(result.getTotal())
-                .page(page)
-                .size(size)
-                .totalPages((int) result.getPages())
-                .build();
+        String cacheKey = CacheManager.PRODUCT_PREFIX + "category:" + category + ":" + page + ":" + size;
+        return cacheManager.getOrLoad(cacheKey, CacheManager.PRODUCT_LIST_TTL, () -> {
+            QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("category", category)
+                       .eq("enabled", true)
+                       .orderByDesc("create_time");
+            
+            Page<Product> pageParam = new Page<>(page, size);
+            Page<Product> result = productMapper.selectPage(pageParam, queryWrapper);
+            
+            return ResponseUtil.PageResult.<Product>builder()
+                    .data(result.getRecords())
+                    .total(result.getTotal())
+                    .page(page)
+                    .size(size)
+                    .totalPages((int) result.getPages())
+                    .build();
+        }, CacheManager.CATEGORY_TAG_PREFIX + category);
+    }
+    
+    /**
+     * 失效全量列表以及相关分类列表缓存
+     * 搜索索引未就绪时搜索结果来自数据库，一并失效；索引就绪时由索引增量刷新后失效
+     */
+    private void invalidateListCaches(String... categories) {
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheManager.PRODUCT_LIST_TAG);
+        if (!productSearchEngine.isReady()) {
+            tags.add(CacheManager.SEARCH_RESULT_TAG);
+        }
+        for (String category : categories) {
+            if (StringUtils.hasText(category)) {
+                tags.add(CacheManager.CATEGORY_TAG_PREFIX + category);
+            }
+        }
+        cacheManager.invalidateTags(tags.toArray(new String[0]));
     }
 }
@@ -1,11 +1,16 @@
 package com.shopx.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.shopx.annotation.ReadOnly;
+import com.shopx.config.ShopXConfig;
 import com.shopx.constant.Constants;
 import com.shopx.entity.Product;
 import com.shopx.entity.UserBehavior;
 import com.shopx.mapper.ProductMapper;
 import com.shopx.mapper.UserBehaviorMapper;
+import com.shopx.recommend.ItemSimilarityStore;
+import com.shopx.recommend.UserItemMatrixEngine;
+import com.shopx.service.ProductService;
 import com.shopx.service.RecommendationService;
 import com.shopx.service.UserBehaviorService;
 import lombok.extern.slf4j.Slf4j;
@@ -28,9 +33,21 @@ public class RecommendationServiceImpl implements RecommendationService {
     @Autowired
     private ProductMapper productMapper;
     
+    @Autowired
+    private ProductService productService;
+    
     @Autowired(required = false)
     private UserBehaviorService userBehaviorService;
     
+    @Autowired
+    private UserItemMatrixEngine userItemMatrixEngine;
+    
+    @Autowired
+    private ItemSimilarityStore itemSimilarityStore;
+    
+    @Autowired
+    private ShopXConfig shopXConfig;
+    
     @Autowired(required = false)
     private com.shopx.mapper.RecommendationFeedbackMapper recommendationFeedbackMapper;
     
@@ -38,10 +55,26 @@ public class RecommendationServiceImpl implements RecommendationService {
     private com.shopx.mapper.UserRecommendationPreferenceMapper preferenceMapper;
     
     @Override
+    @ReadOnly
     public List<Product> collaborativeFilterRecommend(Long userId, int limit) {
         log.info("协同过滤推荐: userId={}, limit={}", userId, limit);
         
         try {
+            // 交互矩阵就绪时在内存中完成相似用户与候选商品的计算
+            List<Long> candidateIds = userItemMatrixEngine.recommend(userId, limit);
+            if (candidateIds != null) {
+                if (candidateIds.isEmpty()) {
+                    return getHotProducts(limit);
+                }
+                Map<Long, Product> found = productMapper.selectBatchIds(candidateIds).stream()
+                    .collect(Collectors.toMap(Product::getId, p -> p));
+                List<Product> products = candidateIds.stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+                return filterPurchasedProducts(userId, products);
+            }
+            
             // 1. 获取用户行为数据
             List<UserBehavior> userBehaviors = userBehaviorMapper.selectList(
                 new LambdaQueryWrapper<UserBehavior>()
@@ -66,7 +99,7 @@ public class RecommendationServiceImpl implements RecommendationService {
             // 4. 从相似用户喜欢的商品中推荐
             Set<Long> recommendedProductIds = new HashSet<>();
             for (Map.Entry<Long, Double> entry : similarUsers.entrySet()) {
-                if (entry.getValue() > 0.3) { // 相似度阈值
+                if (entry.getValue() > shopXConfig.getRecommend().getUserSimilarityThreshold()) {
                     List<UserBehavior> similarUserBehaviors = userBehaviorMapper.selectList(
                         new LambdaQueryWrapper<UserBehavior>()
                             .eq(UserBehavior::getUserId, entry.getKey())
@@ -103,6 +136,7 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
     
     @Override
+    @ReadOnly
     public List<Product> contentBasedRecommend(Long userId, int limit) {
         log.info("内容推荐: userId={}, limit={}", userId, limit);
         
@@ -177,6 +211,7 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
     
     @Override
+    @ReadOnly
     public List<Product> hybridRecommend(Long userId, int limit) {
         log.info("混合推荐: userId={}, limit={}", userId, limit);
         
@@ -214,9 +249,15 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
     
     @Override
+    @ReadOnly
     public Map<Long, Double> calculateUserSimilarity(Long userId) {
         log.info("计算用户相似度: userId={}", userId);
         
+        Map<Long, Double> fromMatrix = userItemMatrixEngine.similarUsers(userId);
+        if (fromMatrix != null) {
+            return fromMatrix;
+        }
+        
         Map<Long, Double> similarities = new HashMap<>();
         
         try {
@@ -276,9 +317,16 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
     
     @Override
+    @ReadOnly
     public Map<Long, Double> calculateProductSimilarity(Long productId) {
         log.info("计算商品相似度: productId={}", productId);
         
+        // 离线模型可用时直接读取预计算的相似商品
+        Map<Long, Double> precomputed = itemSimilarityStore.neighbors(productId);
+        if (precomputed != null) {
+            return precomputed;
+        }
+        
         Map<Long, Double> similarities = new HashMap<>();
         
         try {
@@ -336,6 +384,38 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
     
     @Override
+    @ReadOnly
+    public List<Product> similarProductRecommend(Long productId, int limit) {
+        log.info("相似商品推荐: productId={}, limit={}", productId, limit);
+        
+        try {
+            List<Long> similarIds = calculateProductSimilarity(productId).entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+            
+            if (similarIds.isEmpty()) {
+                return getHotProducts(limit);
+            }
+            
+            // 保持相似度顺序，排除已下架商品
+            Map<Long, Product> found = productMapper.selectBatchIds(similarIds).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+            return similarIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .filter(p -> !Boolean.FALSE.equals(p.getEnabled()))
+                .collect(Collectors.toList());
+                
+        } catch (Exception e) {
+            log.error("相似商品推荐失败", e);
+            return getHotProducts(limit);
+        }
+    }
+    
+    @Override
+    @ReadOnly
     public Map<String, Object> getRecommendationExplanation(Long userId, Long productId, String algorithm) {
         log.info("获取推荐解释: userId={}, productId={}, algorithm={}", userId, productId, algorithm);
         
@@ -356,7 +436,7 @@ public class RecommendationServiceImpl implements RecommendationService {
                     // 协同过滤解释
                     Map<Long, Double> similarUsers = calculateUserSimilarity(userId);
                     long similarUserCount = similarUsers.values().stream()
-                        .filter(sim -> sim > 0.3)
+                        .filter(sim -> sim > shopXConfig.getRecommend().getUserSimilarityThreshold())
                         .count();
                     
                     explanation.put("reason", String.format(
@@ -427,11 +507,7 @@ public class RecommendationServiceImpl implements RecommendationService {
      */
     private List<Product> getHotProducts(int limit) {
         try {
-            return productMapper.selectList(
-                new LambdaQueryWrapper<Product>()
-                    .orderByDesc(Product::getViewCount)
-                    .last("LIMIT " + limit)
-            );
+            return productService.getHotProducts(limit);
         } catch (Exception e) {
             log.error("获取热门商品失败", e);
             return new ArrayList<>();
@@ -439,6 +515,7 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
     
     @Override
+    @ReadOnly
     public List<Product> filterPurchasedProducts(Long userId, List<Product> products) {
         if (userId == null || products == null || products.isEmpty()) {
             return products;
@@ -488,6 +565,7 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
     
     @Override
+    @ReadOnly
     public Map<String, Object> getUserRecommendationPreferences(Long userId) {
         Map<String, Object> preferences = new HashMap<>();
         preferences.put("filterPurchased", true);
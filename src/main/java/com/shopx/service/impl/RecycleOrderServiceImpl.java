@@ -2,6 +2,7 @@ package com.shopx.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.shopx.annotation.ReadOnly;
 import com.shopx.entity.RecycleOrder;
 import com.shopx.mapper.RecycleOrderMapper;
 import com.shopx.service.RecycleOrderService;
@@ -54,6 +55,7 @@ public class RecycleOrderServiceImpl extends ServiceImpl<RecycleOrderMapper, Rec
     }
 
     @Override
+    @ReadOnly
     public Map<String, Object> getUserRecycleStats(Long userId) {
         List<RecycleOrder> orders = getByUserId(userId);
         
@@ -3,6 +3,7 @@ package com.shopx.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.shopx.constant.Constants;
 import com.shopx.entity.Order;
 import com.shopx.entity.OrderItem;
 import com.shopx.entity.ReturnOrder;
@@ -10,6 +11,7 @@ import com.shopx.exception.BusinessException;
 import com.shopx.mapper.OrderItemMapper;
 import com.shopx.mapper.OrderMapper;
 import com.shopx.mapper.ReturnOrderMapper;
+import com.shopx.service.IdGeneratorService;
 import com.shopx.service.ReturnService;
 import com.shopx.util.ResponseUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +40,9 @@ public class ReturnServiceImpl extends ServiceImpl<ReturnOrderMapper, ReturnOrde
     @Autowired
     private OrderItemMapper orderItemMapper;
     
+    @Autowired
+    private IdGeneratorService idGeneratorService;
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ReturnOrder createReturnOrder(Long orderId, Long productId, Integer quantity, String reason, String description) {
@@ -69,6 +74,7 @@ public class ReturnServiceImpl extends ServiceImpl<ReturnOrderMapper, ReturnOrde
         
         // 创建退货订单
         ReturnOrder returnOrder = new ReturnOrder();
+        returnOrder.setReturnNo(idGeneratorService.nextNo(Constants.IdPrefix.RETURN_ORDER));
         returnOrder.setOrderId(orderId);
         returnOrder.setUserId(order.getUserId());
         returnOrder.setProductId(productId);
@@ -0,0 +1,211 @@
+package com.shopx.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.shopx.config.ShopXConfig;
+import com.shopx.entity.SearchHistory;
+import com.shopx.mapper.SearchHistoryMapper;
+import com.shopx.service.SearchHistoryQueueService;
+import com.shopx.util.BatchWriteUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 搜索历史异步写入服务实现类
+ * 搜索线程只做一次非阻塞offer；队列满时丢弃新记录（搜索历史允许少量丢失，不能拖慢搜索），并计入丢弃数；
+ * 后台按 flush-interval 取空队列，按 shopx.batch.chunk-size 分块多行INSERT，写入失败的批次丢弃并计数；
+ * 写入过的用户登记下来，由裁剪任务定期只保留最近 max-per-user 条，替代每次搜索后的查询+删除
+ * 队列在本节点内存中，进程异常退出时未写入的记录会丢失；正常关闭时先写完再退出
+ */
+@Slf4j
+@Service
+public class SearchHistoryQueueServiceImpl implements SearchHistoryQueueService {
+
+    @Autowired
+    private SearchHistoryMapper searchHistoryMapper;
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<SearchHistory> queue;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 有新记录写入、待裁剪的用户
+     */
+    private final Set<Long> usersToTrim = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * 上次写入时已报告过的丢弃数，丢弃日志按写入周期汇总输出
+     */
+    private long reportedDrops;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, config().getQueueCapacity()));
+        Gauge.builder("shopx.search.history.queue.size", queue, BlockingQueue::size)
+                .description("搜索历史待写入队列长度").register(meterRegistry);
+        Gauge.builder("shopx.search.history.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("搜索历史队列剩余容量").register(meterRegistry);
+        registerCounter(accepted, "accepted", "搜索历史入队条数");
+        registerCounter(dropped, "dropped", "队列已满丢弃的搜索历史条数");
+        registerCounter(written, "written", "写入数据库的搜索历史条数");
+        registerCounter(failed, "failed", "写入失败丢弃的搜索历史条数");
+    }
+
+    @Override
+    public boolean enqueue(SearchHistory history) {
+        if (history.getCreateTime() == null) {
+            // 以搜索时间而非写入时间为准
+            history.setCreateTime(LocalDateTime.now());
+        }
+        if (queue.offer(history)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${shopx.search.history.flush-interval-millis:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * 应用关闭时写入队列中剩余的记录（先于数据源销毁执行）
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        log.info("关闭前写入搜索历史: records={}", flushed);
+    }
+
+    @Override
+    public int flush() {
+        flushLock.lock();
+        try {
+            reportDrops();
+            int chunkSize = Math.max(1, shopXConfig.getBatch().getChunkSize());
+            int total = 0;
+            List<SearchHistory> batch = new ArrayList<>(chunkSize);
+            // 只取本轮开始时已在队列中的数量，持续高写入时也能结束本轮
+            int remaining = queue.size();
+            while (remaining > 0 && queue.drainTo(batch, Math.min(chunkSize, remaining)) > 0) {
+                remaining -= batch.size();
+                total += write(batch, chunkSize);
+                batch.clear();
+            }
+            return total;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shopx.search.history.trim-interval-millis:60000}",
+            fixedDelayString = "${shopx.search.history.trim-interval-millis:60000}")
+    public void scheduledTrim() {
+        trimUserHistories();
+    }
+
+    @Override
+    public int trimUserHistories() {
+        if (usersToTrim.isEmpty()) {
+            return 0;
+        }
+        List<Long> userIds = new ArrayList<>(usersToTrim);
+        usersToTrim.removeAll(userIds);
+        int maxPerUser = Math.max(1, config().getMaxPerUser());
+        int trimmed = 0;
+        for (Long userId : userIds) {
+            try {
+                trimmed += trim(userId, maxPerUser) ? 1 : 0;
+            } catch (Exception e) {
+                log.warn("裁剪搜索历史失败，下次重试: userId={}", userId, e);
+                usersToTrim.add(userId);
+            }
+        }
+        log.debug("裁剪搜索历史: users={}, trimmed={}", userIds.size(), trimmed);
+        return userIds.size();
+    }
+
+    private int write(List<SearchHistory> batch, int chunkSize) {
+        try {
+            int inserted = BatchWriteUtil.insertValues(searchHistoryMapper, batch, chunkSize);
+            written.addAndGet(batch.size());
+            for (SearchHistory history : batch) {
+                if (history.getUserId() != null) {
+                    usersToTrim.add(history.getUserId());
+                }
+            }
+            return inserted;
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.error("批量写入搜索历史失败，丢弃本批: records={}", batch.size(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * 按ID倒序定位第 maxPerUser+1 条，删除它及更早的记录（走 user_id 索引，不回表排序）
+     */
+    private boolean trim(Long userId, int maxPerUser) {
+        QueryWrapper<SearchHistory> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id")
+                   .eq("user_id", userId)
+                   .orderByDesc("id")
+                   .last("LIMIT " + maxPerUser + ", 1");
+        List<SearchHistory> boundary = searchHistoryMapper.selectList(queryWrapper);
+        if (boundary.isEmpty()) {
+            return false;
+        }
+        QueryWrapper<SearchHistory> deleteWrapper = new QueryWrapper<>();
+        deleteWrapper.eq("user_id", userId)
+                    .le("id", boundary.get(0).getId());
+        searchHistoryMapper.delete(deleteWrapper);
+        return true;
+    }
+
+    private void reportDrops() {
+        long drops = dropped.get();
+        if (drops > reportedDrops) {
+            log.warn("搜索历史队列已满，丢弃记录: dropped={}, total={}, capacity={}",
+                    drops - reportedDrops, drops, config().getQueueCapacity());
+            reportedDrops = drops;
+        }
+    }
+
+    private void registerCounter(AtomicLong counter, String result, String description) {
+        FunctionCounter.builder("shopx.search.history.events", counter, AtomicLong::get)
+                .tag("result", result).description(description).register(meterRegistry);
+    }
+
+    private ShopXConfig.Search.History config() {
+        return shopXConfig.getSearch().getHistory();
+    }
+}
@@ -1,24 +1,45 @@
 package com.shopx.service.impl;
 
+import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.shopx.annotation.ReadOnly;
+import com.shopx.cache.CacheManager;
+import com.shopx.config.ShopXConfig;
 import com.shopx.entity.Product;
 import com.shopx.entity.SavedFilter;
 import com.shopx.entity.SearchHistory;
 import com.shopx.mapper.ProductMapper;
 import com.shopx.mapper.SavedFilterMapper;
 import com.shopx.mapper.SearchHistoryMapper;
+import com.shopx.search.ProductSearchEngine;
+import com.shopx.search.ProductSearchQuery;
+import com.shopx.search.ProductSearchResult;
+import com.shopx.search.SearchSuggestionEngine;
+import com.shopx.service.ProductService;
+import com.shopx.service.SearchHistoryQueueService;
 import com.shopx.service.SearchService;
 import com.shopx.util.ResponseUtil;
 import com.shopx.util.SaTokenUtil;
+import com.shopx.validation.ValidationUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +49,14 @@ import java.util.stream.Collectors;
 @Service
 public class SearchServiceImpl implements SearchService {
     
+    /**
+     * 检索实际使用的筛选条件，其余字段不进入缓存key
+     */
+    private static final Set<String> FILTER_KEYS = Set.of("minPrice", "maxPrice", "category", "stockStatus",
+            "has3dPreview", "isRecyclable", "sortBy", "sortOrder");
+    private static final Set<String> PRICE_KEYS = Set.of("minPrice", "maxPrice");
+    private static final Set<String> FLAG_KEYS = Set.of("has3dPreview", "isRecyclable");
+    
     @Autowired
     private ProductMapper productMapper;
     
@@ -37,10 +66,278 @@ public class SearchServiceImpl implements SearchService {
     @Autowired
     private SavedFilterMapper savedFilterMapper;
     
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+    
+    @Autowired
+    private SearchSuggestionEngine searchSuggestionEngine;
+    
+    @Autowired
+    private SearchHistoryQueueService searchHistoryQueueService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ShopXConfig shopXConfig;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    
+    /**
+     * 近期的检索（不含页码）及次数，定期取最热的预热前几页；每轮预热后次数减半
+     */
+    private final Map<String, PopularSearch> popularSearches = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("shopx.search.cache", cacheHits, AtomicLong::get)
+                .tag("result", "hit").description("搜索结果缓存命中次数").register(meterRegistry);
+        FunctionCounter.builder("shopx.search.cache", cacheMisses, AtomicLong::get)
+                .tag("result", "miss").description("搜索结果缓存未命中次数").register(meterRegistry);
+    }
+    
     @Override
+    @ReadOnly
     public ResponseUtil.PageResult<Product> advancedSearch(String keyword, Map<String, Object> filters, int page, int size) {
         log.info("高级搜索: keyword={}, filters={}, page={}, size={}", keyword, filters, page, size);
         
+        ValidationUtils.validPageParams(page, size, "分页参数错误");
+        
+        // 按规范化的条件检索（先查结果缓存），缓存中只有商品ID，商品详情按ID取商品缓存
+        String normalizedKeyword = normalizeKeyword(keyword);
+        Map<String, Object> canonicalFilters = canonicalizeFilters(filters);
+        ProductSearchResult searchResult = cachedSearch(normalizedKeyword, canonicalFilters, page, size);
+        ResponseUtil.PageResult<Product> pageResult = productService.toPageResult(searchResult, page, size);
+        pageResult.setFacets(searchResult.getFacets());
+        
+        // 保存搜索历史
+        try {
+            Long userId = SaTokenUtil.getCurrentUserId();
+            String filterJson = filters != null ? convertFiltersToJson(filters) : null;
+            saveSearchHistory(userId, keyword, "ADVANCED", filterJson, (int) pageResult.getTotal());
+        } catch (Exception e) {
+            log.warn("保存搜索历史失败", e);
+        }
+        
+        return pageResult;
+    }
+    
+    /**
+     * 预热近期最热检索的前几页，已缓存的页不重复加载；之后热度减半，淘汰不再被检索的
+     */
+    @ReadOnly
+    @Scheduled(initialDelayString = "${shopx.search.result-cache.warm-interval-millis:60000}",
+            fixedDelayString = "${shopx.search.result-cache.warm-interval-millis:60000}")
+    public void warmPopularSearches() {
+        ShopXConfig.Search.ResultCache config = resultCacheConfig();
+        if (!Boolean.TRUE.equals(config.getEnabled()) || popularSearches.isEmpty()) {
+            return;
+        }
+        List<PopularSearch> top = popularSearches.values().stream()
+                .sorted(Comparator.comparingLong((PopularSearch search) -> search.count.get()).reversed())
+                .limit(config.getWarmTopQueries())
+                .collect(Collectors.toList());
+        int warmed = 0;
+        for (PopularSearch search : top) {
+            try {
+                for (int page = 1; page <= config.getWarmPages(); page++) {
+                    int current = page;
+                    ProductSearchResult result = cacheManager.getOrLoad(resultCacheKey(search.signature, page),
+                            Duration.ofSeconds(config.getTtlSeconds()),
+                            () -> executeSearch(search.keyword, search.filters, current, search.size),
+                            CacheManager.SEARCH_RESULT_TAG);
+                    warmed++;
+                    if (result == null || (long) page * search.size >= result.getTotal()) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("预热搜索结果失败: keyword={}, filters={}", search.keyword, search.filters, e);
+            }
+        }
+        popularSearches.values().removeIf(search -> search.count.updateAndGet(count -> count / 2) == 0);
+        log.debug("搜索结果预热完成: searches={}, pages={}", top.size(), warmed);
+    }
+    
+    /**
+     * 先查结果缓存，未命中时检索并写入；同时登记检索热度
+     */
+    private ProductSearchResult cachedSearch(String keyword, Map<String, Object> filters, int page, int size) {
+        ShopXConfig.Search.ResultCache config = resultCacheConfig();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return executeSearch(keyword, filters, page, size);
+        }
+        String signature = signature(keyword, filters, size);
+        PopularSearch popular = popularSearches.get(signature);
+        if (popular == null && popularSearches.size() < config.getMaxTrackedQueries()) {
+            popular = popularSearches.computeIfAbsent(signature, key -> new PopularSearch(key, keyword, filters, size));
+        }
+        if (popular != null) {
+            popular.count.incrementAndGet();
+        }
+        
+        AtomicBoolean loaded = new AtomicBoolean();
+        ProductSearchResult result = cacheManager.getOrLoad(resultCacheKey(signature, page),
+                Duration.ofSeconds(config.getTtlSeconds()), () -> {
+                    loaded.set(true);
+                    return executeSearch(keyword, filters, page, size);
+                }, CacheManager.SEARCH_RESULT_TAG);
+        (loaded.get() ? cacheMisses : cacheHits).incrementAndGet();
+        return result != null ? result : executeSearch(keyword, filters, page, size);
+    }
+    
+    /**
+     * 优先走内存倒排索引（相关度排序，附带分面计数），索引未就绪时回退为数据库查询（不含分面）
+     */
+    private ProductSearchResult executeSearch(String keyword, Map<String, Object> filters, int page, int size) {
+        ProductSearchResult searchResult = productSearchEngine.search(buildSearchQuery(keyword, filters, page, size));
+        if (searchResult != null) {
+            return searchResult;
+        }
+        ResponseUtil.PageResult<Product> pageResult = queryByDatabase(keyword, filters, page, size);
+        List<Long> productIds = pageResult.getData().stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+        return new ProductSearchResult(productIds, pageResult.getTotal(), null);
+    }
+    
+    /**
+     * 检索签名：规范化关键词 + 规范化筛选条件 + 每页条数，不含页码
+     */
+    private static String signature(String keyword, Map<String, Object> filters, int size) {
+        String canonical = (keyword != null ? keyword : "") + "\n" + JSON.toJSONString(filters) + "\n" + size;
+        return DigestUtils.md5DigestAsHex(canonical.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String resultCacheKey(String signature, int page) {
+        return CacheManager.SEARCH_RESULT_PREFIX + signature + ":" + page;
+    }
+    
+    /**
+     * 去掉首尾空白、合并连续空白并转小写，空关键词视为无关键词
+     */
+    private static String normalizeKeyword(String keyword) {
+        if (!StringUtils.hasText(keyword)) {
+            return null;
+        }
+        return keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * 筛选条件的规范形式：只保留检索使用的字段并按字段名排序；去掉空值与为false的开关；
+     * 价格统一为去掉多余0的十进制串；未指定排序字段时去掉排序方向，指定时方向缺省为desc
+     * 同一组条件无论字段顺序、数值写法如何都得到相同结果
+     */
+    private static Map<String, Object> canonicalizeFilters(Map<String, Object> filters) {
+        Map<String, Object> canonical = new TreeMap<>();
+        if (filters == null) {
+            return canonical;
+        }
+        for (Map.Entry<String, Object> entry : filters.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (!FILTER_KEYS.contains(key) || value == null || !StringUtils.hasText(value.toString())) {
+                continue;
+            }
+            String text = value.toString().trim();
+            if (PRICE_KEYS.contains(key)) {
+                canonical.put(key, canonicalDecimal(text));
+            } else if (FLAG_KEYS.contains(key)) {
+                if (Boolean.parseBoolean(text)) {
+                    canonical.put(key, true);
+                }
+            } else if ("sortOrder".equals(key)) {
+                canonical.put(key, "asc".equalsIgnoreCase(text) ? "asc" : "desc");
+            } else {
+                canonical.put(key, text);
+            }
+        }
+        if (canonical.containsKey("sortBy")) {
+            canonical.putIfAbsent("sortOrder", "desc");
+        } else {
+            canonical.remove("sortOrder");
+        }
+        return canonical;
+    }
+    
+    private static String canonicalDecimal(String text) {
+        try {
+            return new BigDecimal(text).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            // 非法数值原样保留，检索时按原逻辑报错
+            return text;
+        }
+    }
+    
+    private ShopXConfig.Search.ResultCache resultCacheConfig() {
+        return shopXConfig.getSearch().getResultCache();
+    }
+    
+    /**
+     * 把筛选条件转换为索引检索条件
+     */
+    private ProductSearchQuery buildSearchQuery(String keyword, Map<String, Object> filters, int page, int size) {
+        ProductSearchQuery query = ProductSearchQuery.builder()
+                .keyword(keyword)
+                .offset((page - 1) * size)
+                .limit(size)
+                .facets(true)
+                .build();
+        if (filters == null) {
+            return query;
+        }
+        
+        Object minPrice = filters.get("minPrice");
+        if (minPrice != null) {
+            query.setMinPrice(new BigDecimal(minPrice.toString()));
+        }
+        Object maxPrice = filters.get("maxPrice");
+        if (maxPrice != null) {
+            query.setMaxPrice(new BigDecimal(maxPrice.toString()));
+        }
+        Object category = filters.get("category");
+        if (category != null && StringUtils.hasText(category.toString())) {
+            query.setCategory(category.toString());
+        }
+        Object stockStatus = filters.get("stockStatus");
+        if (stockStatus != null) {
+            if ("inStock".equals(stockStatus.toString())) {
+                query.setInStock(true);
+            } else if ("outOfStock".equals(stockStatus.toString())) {
+                query.setInStock(false);
+            }
+        }
+        Object has3dPreview = filters.get("has3dPreview");
+        query.setHas3dPreview(has3dPreview != null && Boolean.parseBoolean(has3dPreview.toString()));
+        Object isRecyclable = filters.get("isRecyclable");
+        query.setRecyclable(isRecyclable != null && Boolean.parseBoolean(isRecyclable.toString()));
+        
+        Object sortBy = filters.get("sortBy");
+        if (sortBy != null) {
+            String sort = sortBy.toString();
+            String order = filters.get("sortOrder") != null ? filters.get("sortOrder").toString() : "desc";
+            if ("price".equals(sort)) {
+                query.setSort("asc".equalsIgnoreCase(order) ? ProductSearchQuery.Sort.PRICE_ASC : ProductSearchQuery.Sort.PRICE_DESC);
+            } else if ("popularity".equals(sort)) {
+                query.setSort(ProductSearchQuery.Sort.POPULARITY);
+            } else if ("newest".equals(sort)) {
+                query.setSort(ProductSearchQuery.Sort.NEWEST);
+            }
+        }
+        return query;
+    }
+    
+    /**
+     * 数据库查询（LIKE匹配）
+     */
+    private ResponseUtil.PageResult<Product> queryByDatabase(String keyword, Map<String, Object> filters, int page, int size) {
         QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
         
         // 关键词搜索
@@ -131,15 +428,6 @@ public class SearchServiceImpl implements SearchService {
         Page<Product> pageParam = new Page<>(page, size);
         Page<Product> result = productMapper.selectPage(pageParam, queryWrapper);
         
-        // 保存搜索历史
-        try {
-            Long userId = SaTokenUtil.getCurrentUserId();
-            String filterJson = filters != null ? convertFiltersToJson(filters) : null;
-            saveSearchHistory(userId, keyword, "ADVANCED", filterJson, (int) result.getTotal());
-        } catch (Exception e) {
-            log.warn("保存搜索历史失败", e);
-        }
-        
         return ResponseUtil.PageResult.<Product>builder()
                 .data(result.getRecords())
                 .total(result.getTotal())
@@ -150,10 +438,21 @@ public class SearchServiceImpl implements SearchService {
     }
     
     @Override
+    @ReadOnly
     public List<String> getSearchSuggestions(String keyword, int limit) {
-        log.info("获取搜索建议: keyword={}, limit={}", keyword, limit);
+        log.debug("获取搜索建议: keyword={}, limit={}", keyword, limit);
+        
+        if (!StringUtils.hasText(keyword)) {
+            return Collections.emptyList();
+        }
+        
+        // 优先走内存前缀树（商品名称+热门搜索词，支持拼音/首字母），未就绪时回退为数据库查询
+        List<String> suggestions = searchSuggestionEngine.suggest(keyword, limit);
+        if (suggestions != null) {
+            return suggestions;
+        }
         
-        if (!StringUtils.hasText(keyword) || keyword.length() < 2) {
+        if (keyword.length() < 2) {
             return Collections.emptyList();
         }
         
@@ -185,23 +484,8 @@ public class SearchServiceImpl implements SearchService {
         history.setFilterConditions(filterConditions);
         history.setResultCount(resultCount != null ? resultCount : 0);
         
-        searchHistoryMapper.insert(history);
-        
-        // 限制每个用户的搜索历史数量（保留最近100条）
-        if (userId != null) {
-            QueryWrapper<SearchHistory> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("user_id", userId)
-                       .orderByDesc("create_time")
-                       .last("LIMIT 100, 1");
-            List<SearchHistory> oldHistories = searchHistoryMapper.selectList(queryWrapper);
-            if (!oldHistories.isEmpty()) {
-                Long oldestId = oldHistories.get(0).getId();
-                QueryWrapper<SearchHistory> deleteWrapper = new QueryWrapper<>();
-                deleteWrapper.eq("user_id", userId)
-                            .lt("id", oldestId);
-                searchHistoryMapper.delete(deleteWrapper);
-            }
-        }
+        // 异步批量写入，每个用户的历史条数由后台任务定期裁剪
+        searchHistoryQueueService.enqueue(history);
     }
     
     @Override
@@ -276,31 +560,27 @@ public class SearchServiceImpl implements SearchService {
     }
     
     /**
-     * 将筛选条件Map转换为JSON字符串
+     * 将筛选条件Map转换为规范形式的JSON字符串（字段有序、与传入顺序无关）
      */
     private String convertFiltersToJson(Map<String, Object> filters) {
-        try {
-            // 简单的JSON转换，实际可以使用Jackson或Gson
-            StringBuilder json = new StringBuilder("{");
-            boolean first = true;
-            for (Map.Entry<String, Object> entry : filters.entrySet()) {
-                if (!first) {
-                    json.append(",");
-                }
-                json.append("\"").append(entry.getKey()).append("\":");
-                if (entry.getValue() instanceof String) {
-                    json.append("\"").append(entry.getValue()).append("\"");
-                } else {
-                    json.append(entry.getValue());
-                }
-                first = false;
-            }
-            json.append("}");
-            return json.toString();
-        } catch (Exception e) {
-            log.warn("转换筛选条件为JSON失败", e);
-            return null;
+        return JSON.toJSONString(canonicalizeFilters(filters));
+    }
+    
+    /**
+     * 热门检索：规范化的条件与近期次数
+     */
+    private static final class PopularSearch {
+        private final String signature;
+        private final String keyword;
+        private final Map<String, Object> filters;
+        private final int size;
+        private final AtomicLong count = new AtomicLong();
+        
+        private PopularSearch(String signature, String keyword, Map<String, Object> filters, int size) {
+            this.signature = signature;
+            this.keyword = keyword;
+            this.filters = filters;
+            this.size = size;
         }
     }
 }
-
@@ -3,6 +3,7 @@ package com.shopx.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.shopx.annotation.ReadOnly;
 import com.shopx.constant.Constants;
 import com.shopx.entity.AccountSecurity;
 import com.shopx.entity.LoginHistory;
@@ -300,6 +301,7 @@ public class SecurityServiceImpl extends ServiceImpl<LoginHistoryMapper, LoginHi
     }
     
     @Override
+    @ReadOnly
     public Map<String, Object> getSecurityStats(Long userId) {
         Map<String, Object> stats = new HashMap<>();
         
@@ -12,13 +12,16 @@ import com.shopx.mapper.ProductReservationMapper;
 import com.shopx.mapper.StockNotificationMapper;
 import com.shopx.service.ProductService;
 import com.shopx.service.StockService;
+import com.shopx.util.BatchWriteUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +43,9 @@ public class StockServiceImpl extends ServiceImpl<StockNotificationMapper, Stock
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private BatchWriteUtil batchWriteUtil;
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean checkAndSyncStock(Long productId, Integer quantity) {
@@ -117,12 +123,23 @@ public class StockServiceImpl extends ServiceImpl<StockNotificationMapper, Stock
                    .eq("status", Constants.StockReservationStatus.PENDING);
         List<StockNotification> notifications = notificationMapper.selectList(queryWrapper);
         
+        if (notifications.isEmpty()) {
+            return;
+        }
+        
+        // 一条 UPDATE ... WHERE id IN (...) AND status = 'PENDING' 批量标记为已发送；
+        // 部分行已被并发任务标记时整体回滚，由先完成标记的任务发送，避免重复通知
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = notifications.stream().map(StockNotification::getId).collect(Collectors.toList());
+        int updated = batchWriteUtil.updateByIds(notificationMapper, ids,
+                wrapper -> wrapper.set("status", "SENT").set("notify_time", now)
+                        .eq("status", Constants.StockReservationStatus.PENDING));
+        if (updated != ids.size()) {
+            throw new BusinessException(409, "到货通知正在由其他任务处理");
+        }
+        
         // 发送通知（这里应该调用通知服务）
         for (StockNotification notification : notifications) {
-            notification.setStatus("SENT");
-            notification.setNotifyTime(LocalDateTime.now());
-            notificationMapper.updateById(notification);
-            
             // 这里应该发送实际的通知（邮件、短信、推送等）
             log.info("发送到货通知: userId={}, productId={}", notification.getUserId(), productId);
         }
@@ -194,7 +211,8 @@ public class StockServiceImpl extends ServiceImpl<StockNotificationMapper, Stock
         // 查找所有待处理的预订
         QueryWrapper<ProductReservation> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("product_id", productId)
-                   .eq("status", Constants.StockReservationStatus.PENDING);
+                   .eq("status", Constants.StockReservationStatus.PENDING)
+                   .orderByAsc("create_time");
         List<ProductReservation> reservations = reservationMapper.selectList(queryWrapper);
         
         // 检查库存是否足够
@@ -203,21 +221,37 @@ public class StockServiceImpl extends ServiceImpl<StockNotificationMapper, Stock
             return;
         }
         
-        // 按创建时间顺序处理预订
+        // 按创建时间顺序在内存中挑出当前库存能满足的预订
+        int available = product.getStock();
+        int total = 0;
+        List<ProductReservation> fulfilled = new ArrayList<>();
         for (ProductReservation reservation : reservations) {
-            if (product.getStock() >= reservation.getQuantity()) {
-                reservation.setStatus("FULFILLED");
-                reservation.setActualArrivalTime(LocalDateTime.now());
-                reservationMapper.updateById(reservation);
-                
-                // 扣减库存
-                product.setStock(product.getStock() - reservation.getQuantity());
-                productMapper.updateById(product);
-                
-                // 发送通知（这里应该调用通知服务）
-                log.info("预订已满足: reservationId={}, userId={}", reservation.getId(), reservation.getUserId());
+            if (available - total >= reservation.getQuantity()) {
+                total += reservation.getQuantity();
+                fulfilled.add(reservation);
             }
         }
+        if (fulfilled.isEmpty()) {
+            return;
+        }
+        
+        // 先按PENDING条件标记预订，部分行已被并发任务处理时不扣库存并回滚，避免同一批预订扣减两次
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = fulfilled.stream().map(ProductReservation::getId).collect(Collectors.toList());
+        int updated = batchWriteUtil.updateByIds(reservationMapper, ids,
+                wrapper -> wrapper.set("status", "FULFILLED").set("actual_arrival_time", now)
+                        .eq("status", Constants.StockReservationStatus.PENDING));
+        if (updated != ids.size()) {
+            throw new BusinessException(409, "预订正在由其他任务处理");
+        }
+        
+        // 条件扣减总量，库存被并发修改导致不足时抛出异常并回滚
+        productService.decreaseStock(Map.of(productId, total));
+        
+        // 发送通知（这里应该调用通知服务）
+        for (ProductReservation reservation : fulfilled) {
+            log.info("预订已满足: reservationId={}, userId={}", reservation.getId(), reservation.getUserId());
+        }
     }
     
     @Override
@@ -3,10 +3,13 @@ package com.shopx.service.impl;
 import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.shopx.annotation.ReadOnly;
 import com.shopx.entity.UserBehavior;
 import com.shopx.mapper.UserBehaviorMapper;
+import com.shopx.recommend.UserItemMatrixEngine;
 import com.shopx.service.UserBehaviorService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,6 +23,9 @@ import java.util.stream.Collectors;
 @Service
 public class UserBehaviorServiceImpl extends ServiceImpl<UserBehaviorMapper, UserBehavior> implements UserBehaviorService {
     
+    @Autowired
+    private UserItemMatrixEngine userItemMatrixEngine;
+    
     @Override
     public void recordBehavior(Long userId, Long productId, String behaviorType, Map<String, Object> metadata) {
         UserBehavior behavior = new UserBehavior();
@@ -34,10 +40,12 @@ public class UserBehaviorServiceImpl extends ServiceImpl<UserBehaviorMapper, Use
         behavior.setCreateTime(LocalDateTime.now());
         
         save(behavior);
+        userItemMatrixEngine.record(userId, productId, behaviorType);
         log.info("记录用户行为: userId={}, productId={}, behaviorType={}", userId, productId, behaviorType);
     }
     
     @Override
+    @ReadOnly
     public Map<String, Object> getUserBehaviorStats(Long userId) {
         Map<String, Object> stats = new HashMap<>();
         
@@ -3,6 +3,7 @@ package com.shopx.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.shopx.cache.CacheManager;
+import com.shopx.cache.IdBloomFilter;
 import com.shopx.constant.Constants;
 import com.shopx.entity.User;
 import com.shopx.exception.BusinessException;
@@ -31,25 +32,17 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Autowired
     private CacheManager cacheManager;
     
+    @Autowired
+    private IdBloomFilter idBloomFilter;
+    
     @Override
     public User findByUsername(String username) {
         ValidationUtils.notBlank(username, "用户名不能为空");
         
-        // 先从缓存获取
-        User user = cacheManager.getUserCache(getUserIdByUsername(username));
-        if (user != null) {
-            return user;
-        }
-        
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("username", username);
-        user = userMapper.selectOne(queryWrapper);
-        
-        if (user != null) {
-            cacheManager.setUserCache(user.getId(), user);
-        }
-        
-        return user;
+        // 先通过缓存的用户名->ID映射定位用户，再走用户缓存
+        Number userId = cacheManager.getOrLoad(CacheManager.USER_PREFIX + "name:" + username, CacheManager.USER_TTL,
+                () -> getUserIdByUsername(username));
+        return userId != null ? getUserById(userId.longValue()) : null;
     }
     
     @Override
@@ -128,7 +121,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         
         userMapper.insert(user);
         
-        // 设置缓存
+        // 登记到布隆过滤器；注册前的用户名检查会缓存空值占位，需一并清除
+        idBloomFilter.addUser(user.getId());
+        cacheManager.delete(CacheManager.USER_PREFIX + "name:" + user.getUsername());
         cacheManager.setUserCache(user.getId(), user);
         
         log.info("用户创建成功: id={}, username={}", user.getId(), user.getUsername());
@@ -154,18 +149,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     public User getUserById(Long id) {
         ValidationUtils.validId(id, "用户ID不能为空");
         
-        // 先从缓存获取
-        User user = cacheManager.getUserCache(id);
-        if (user != null) {
-            return user;
+        if (!idBloomFilter.mightContainUser(id)) {
+            return null;
         }
-        
-        user = userMapper.selectById(id);
-        if (user != null) {
-            cacheManager.setUserCache(id, user);
-        }
-        
-        return user;
+        return cacheManager.getOrLoad(CacheManager.USER_PREFIX + id, CacheManager.USER_TTL,
+                () -> userMapper.selectById(id));
     }
     
     @Override
@@ -176,7 +164,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         ValidationUtils.notBlank(newPassword, "新密码不能为空");
         ValidationUtils.validPassword(newPassword, "新密码格式不正确");
         
-        User user = getUserById(userId);
+        // 本地缓存返回的是共享实例，修改前从数据库读取新的实体
+        User user = userMapper.selectById(userId);
         if (user == null) {
             throw new BusinessException(404, "用户不存在");
         }
@@ -201,7 +190,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     public boolean disableUser(Long userId) {
         ValidationUtils.validId(userId, "用户ID不能为空");
         
-        User user = getUserById(userId);
+        // 本地缓存返回的是共享实例，修改前从数据库读取新的实体
+        User user = userMapper.selectById(userId);
         if (user == null) {
             throw new BusinessException(404, "用户不存在");
         }
@@ -222,7 +212,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     public boolean enableUser(Long userId) {
         ValidationUtils.validId(userId, "用户ID不能为空");
         
-        User user = getUserById(userId);
+        // 本地缓存返回的是共享实例，修改前从数据库读取新的实体
+        User user = userMapper.selectById(userId);
         if (user == null) {
             throw new BusinessException(404, "用户不存在");
         }
@@ -242,24 +233,20 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     public List<String> getUserPermissions(Long userId) {
         ValidationUtils.validId(userId, "用户ID不能为空");
         
-        // 先从缓存获取
-        List<String> permissions = cacheManager.getPermissionCache(userId);
-        if (permissions != null) {
-            return permissions;
-        }
-        
-        User user = getUserById(userId);
-        if (user == null) {
+        if (!idBloomFilter.mightContainUser(userId)) {
             return List.of();
         }
+        // 权限按角色缓存，用户角色变更后无需单独失效
+        User user = getUserById(userId);
+        return user != null ? getRolePermissions(user.getRole()) : List.of();
+    }
+    
+    @Override
+    public List<String> getRolePermissions(String role) {
+        ValidationUtils.notBlank(role, "角色不能为空");
         
-        // 根据角色返回权限
-        permissions = getPermissionsByRole(user.getRole());
-        
-        // 设置缓存
-        cacheManager.setPermissionCache(userId, permissions);
-        
-        return permissions;
+        return cacheManager.getOrLoad(CacheManager.PERMISSION_PREFIX + "role:" + role, CacheManager.PERMISSION_TTL,
+                () -> getPermissionsByRole(role));
     }
     
     @Override
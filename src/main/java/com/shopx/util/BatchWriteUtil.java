@@ -0,0 +1,86 @@
+package com.shopx.util;
+
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.shopx.config.ShopXConfig;
+import com.shopx.mapper.BatchMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 批量写入工具类
+ * 按 shopx.batch.chunk-size 分块，替代逐行 insert/updateById：
+ * 1. insertValues：多行VALUES，一条语句写入一块数据，需Mapper继承BatchMapper
+ * 2. saveBatch/updateBatchById：MyBatis批量执行器，配合数据源的rewriteBatchedStatements合并发送
+ * 3. updateByIds：多行更新为相同值时，用 UPDATE ... WHERE id IN (...) 一条语句完成
+ * 分块之间不单独开启事务，需要原子性时由调用方包在事务中
+ */
+@Component
+public class BatchWriteUtil {
+
+    @Autowired
+    private ShopXConfig shopXConfig;
+
+    /**
+     * 多行INSERT，自增主键回填到各实体
+     * @return 写入行数
+     */
+    public <T> int insertValues(BatchMapper<T> mapper, List<T> entities) {
+        return insertValues(mapper, entities, chunkSize());
+    }
+
+    public static <T> int insertValues(BatchMapper<T> mapper, List<T> entities, int chunkSize) {
+        if (entities == null || entities.isEmpty()) {
+            return 0;
+        }
+        int inserted = 0;
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            inserted += mapper.insertBatchSomeColumn(entities.subList(from, Math.min(from + chunkSize, entities.size())));
+        }
+        return inserted;
+    }
+
+    /**
+     * JDBC批量插入（只写入非null字段，可使用数据库默认值）
+     */
+    public <T> boolean saveBatch(Collection<T> entities) {
+        return entities == null || entities.isEmpty() || Db.saveBatch(entities, chunkSize());
+    }
+
+    /**
+     * JDBC批量按ID更新，每行可以更新为不同的值
+     */
+    public <T> boolean updateBatchById(Collection<T> entities) {
+        return entities == null || entities.isEmpty() || Db.updateBatchById(entities, chunkSize());
+    }
+
+    /**
+     * 将一组ID对应的行更新为相同的值
+     * @param setter 设置更新列，如 wrapper -> wrapper.set("status", "SENT")
+     * @return 更新行数
+     */
+    public <T> int updateByIds(BaseMapper<T> mapper, List<? extends Serializable> ids, Consumer<UpdateWrapper<T>> setter) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        int chunkSize = chunkSize();
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            UpdateWrapper<T> updateWrapper = new UpdateWrapper<>();
+            setter.accept(updateWrapper);
+            updateWrapper.in("id", ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            updated += mapper.update(null, updateWrapper);
+        }
+        return updated;
+    }
+
+    private int chunkSize() {
+        return Math.max(1, shopXConfig.getBatch().getChunkSize());
+    }
+}
@@ -1,4 +1,4 @@
-package com.shopx.utils;
+package com.shopx.util;
 
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
@@ -0,0 +1,120 @@
+package com.shopx.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.shopx.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标（keyset）分页工具
+ * 游标对客户端不透明，内容为上一页最后一行的 (create_time, id)；
+ * 下一页以 WHERE (create_time, id) < (?, ?) ORDER BY create_time DESC, id DESC LIMIT size+1 查询，
+ * 借助 (..., create_time, id) 联合索引直接定位，耗时与页深无关，也不需要每页执行COUNT(*)
+ */
+public final class PageCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final LocalDateTime createTime;
+    private final long id;
+
+    private PageCursor(LocalDateTime createTime, long id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 编码游标：epochSecond.nano:id，再做URL安全的Base64
+     */
+    public static String encode(LocalDateTime createTime, Long id) {
+        String raw = createTime.toEpochSecond(ZoneOffset.UTC) + "." + createTime.getNano() + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标，为空时返回null（表示第一页）
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int colon = raw.indexOf(':', dot + 1);
+            long epochSecond = Long.parseLong(raw.substring(0, dot));
+            int nano = Integer.parseInt(raw.substring(dot + 1, colon));
+            long id = Long.parseLong(raw.substring(colon + 1));
+            return new PageCursor(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new BusinessException(400, "分页游标无效");
+        }
+    }
+
+    /**
+     * 为查询追加游标条件、(create_time, id) 倒序排序及 LIMIT size+1（多取一行用于判断是否还有下一页）
+     */
+    public static <T> QueryWrapper<T> seek(QueryWrapper<T> queryWrapper, String cursor, int size) {
+        PageCursor position = decode(cursor);
+        if (position != null) {
+            // 展开行值比较，MySQL对 (a, b) < (?, ?) 形式不一定能走范围索引
+            queryWrapper.and(w -> w.lt("create_time", position.createTime)
+                    .or(o -> o.eq("create_time", position.createTime).lt("id", position.id)));
+        }
+        queryWrapper.orderByDesc("create_time", "id");
+        queryWrapper.last("LIMIT " + (size + 1));
+        return queryWrapper;
+    }
+
+    /**
+     * 将 LIMIT size+1 的查询结果组装为游标分页结果，total为精确计数
+     * @param total 总数，跳过计数时传null
+     */
+    public static <T> ResponseUtil.PageResult<T> toPage(List<T> rows, String cursor, int size,
+                                                        Function<T, LocalDateTime> createTime,
+                                                        Function<T, Long> id, Long total) {
+        return toPage(rows, cursor, size, createTime, id, total, false);
+    }
+
+    /**
+     * 将 LIMIT size+1 的查询结果组装为游标分页结果
+     * @param total 总数，跳过计数时传null
+     * @param approximateTotal total是否来自计数缓存或估算（CountCache）
+     */
+    public static <T> ResponseUtil.PageResult<T> toPage(List<T> rows, String cursor, int size,
+                                                        Function<T, LocalDateTime> createTime,
+                                                        Function<T, Long> id, Long total, boolean approximateTotal) {
+        boolean hasMore = rows.size() > size;
+        List<T> data = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            T last = data.get(data.size() - 1);
+            nextCursor = encode(createTime.apply(last), id.apply(last));
+        }
+        return ResponseUtil.PageResult.<T>builder()
+                .data(data)
+                .total(total != null ? total : -1)
+                .size(size)
+                .totalPages(total != null ? (int) Math.ceil((double) total / size) : -1)
+                .keyset(true)
+                .cursor(cursor)
+                .nextCursor(nextCursor)
+                .approximateTotal(total != null && approximateTotal)
+                .build();
+    }
+}
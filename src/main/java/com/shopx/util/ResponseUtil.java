@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 响应工具类
@@ -192,6 +193,8 @@ public class ResponseUtil {
 
     /**
      * 分页结果实体
+     * 页码模式：page/totalPages 有效；
+     * 游标模式（keyset=true）：以 nextCursor 请求下一页，page 不使用，跳过计数时 total/totalPages 为-1
      */
     @lombok.Data
     @lombok.Builder
@@ -205,13 +208,18 @@ public class ResponseUtil {
         private int totalPages;
         private boolean hasNext;
         private boolean hasPrevious;
+        private boolean keyset;
+        private String cursor;
+        private String nextCursor;
+        private boolean approximateTotal; // total来自短期缓存的计数，可能与实时数量略有偏差
+        private Map<String, Map<String, Long>> facets; // 分面统计：维度 -> 取值 -> 命中数，仅搜索索引可用时提供
 
         public boolean isHasNext() {
-            return page < totalPages;
+            return keyset ? nextCursor != null : page < totalPages;
         }
 
         public boolean isHasPrevious() {
-            return page > 1;
+            return keyset ? cursor != null : page > 1;
         }
     }
 }
\ No newline at end of file
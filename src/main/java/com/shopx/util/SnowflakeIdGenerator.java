@@ -0,0 +1,72 @@
+package com.shopx.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花ID生成器
+ * 64位ID：1位符号 | 41位毫秒时间戳（相对epoch） | 10位workerId | 12位序列号
+ * 时间戳与序列号打包在一个AtomicLong中，以CAS推进，无锁；
+ * 同一毫秒序列号用尽时进位到下一毫秒，时钟回拨时沿用上次时间继续递增，保证同一实例生成的ID严格单调递增
+ */
+public class SnowflakeIdGenerator {
+
+    public static final int WORKER_ID_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_WORKER_ID = (1 << WORKER_ID_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = WORKER_ID_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long epochMillis;
+    private final long workerBits;
+    private final LongSupplier clock;
+
+    /**
+     * 高位为相对epoch的时间戳，低12位为序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long epochMillis, int workerId) {
+        this(epochMillis, workerId, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(long epochMillis, int workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId超出范围[0, " + MAX_WORKER_ID + "]: " + workerId);
+        }
+        this.epochMillis = epochMillis;
+        this.workerBits = (long) workerId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - epochMillis) << SEQUENCE_BITS;
+        while (true) {
+            long current = state.get();
+            // 新的毫秒从序列号0开始；否则在上次的基础上加1，序列号溢出时自然进位到时间戳
+            long next = now > current ? now : current + 1;
+            if (state.compareAndSet(current, next)) {
+                return ((next & ~SEQUENCE_MASK) << WORKER_ID_BITS) | workerBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int getWorkerId() {
+        return (int) (workerBits >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * 解析ID中的workerId
+     */
+    public static int workerIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_WORKER_ID);
+    }
+
+    /**
+     * 解析ID的生成时间（毫秒时间戳）
+     */
+    public static long timestampOf(long id, long epochMillis) {
+        return (id >>> TIMESTAMP_SHIFT) + epochMillis;
+    }
+}
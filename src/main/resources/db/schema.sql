@@ -68,7 +68,9 @@ CREATE TABLE t_product (
     
     INDEX idx_category (category),
     INDEX idx_price (price),
-    INDEX idx_scenarios (suitable_scenarios(255))
+    INDEX idx_scenarios (suitable_scenarios(255)),
+    INDEX idx_create_time_id (create_time, id),
+    INDEX idx_category_create_time_id (category, create_time, id)
 );
 
 -- 购物会话表
@@ -112,6 +114,7 @@ CREATE TABLE t_recommendation (
 -- 回收订单表
 CREATE TABLE t_recycle_order (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    recycle_no VARCHAR(50) UNIQUE COMMENT '回收单号',
     user_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     quantity INT DEFAULT 1,
@@ -147,7 +150,8 @@ CREATE TABLE t_order (
     
     INDEX idx_user (user_id),
     INDEX idx_order_no (order_no),
-    INDEX idx_status (status)
+    INDEX idx_status (status),
+    INDEX idx_user_create_time_id (user_id, create_time, id)
 );
 
 -- 订单详情表
@@ -389,7 +393,8 @@ CREATE TABLE t_product_review (
     INDEX idx_product (product_id),
     INDEX idx_user (user_id),
     INDEX idx_order (order_id),
-    INDEX idx_rating (rating)
+    INDEX idx_rating (rating),
+    INDEX idx_product_create_time_id (product_id, create_time, id)
 );
 
 -- 商品审核表
@@ -512,6 +517,7 @@ CREATE TABLE t_shipping_address (
 -- 退货订单表
 CREATE TABLE t_return_order (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    return_no VARCHAR(50) UNIQUE COMMENT '退货单号',
     order_id BIGINT NOT NULL COMMENT '原订单ID',
     user_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
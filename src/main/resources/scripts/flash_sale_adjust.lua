@@ -0,0 +1,13 @@
+-- 秒杀库存对账调整：按数据库库存的变化量（普通订单、取消订单、补货等）修正可售库存，不低于0
+-- KEYS[1] 库存hash
+-- ARGV[1] 调整量（可为负）
+-- 返回：调整后的可售库存；-1 秒杀已结束
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return -1
+end
+local available = redis.call('HINCRBY', KEYS[1], 'available', tonumber(ARGV[1]))
+if available < 0 then
+    redis.call('HSET', KEYS[1], 'available', 0)
+    available = 0
+end
+return available
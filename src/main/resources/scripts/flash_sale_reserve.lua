@@ -0,0 +1,26 @@
+-- 秒杀库存预占
+-- KEYS[1] 库存hash（available可售、pending已预占未落库、limit每人限购）
+-- KEYS[2] 用户已购hash（userId -> 数量）
+-- KEYS[3] 预占明细hash（orderNo -> userId:数量:预占时间）
+-- ARGV[1] 用户ID  ARGV[2] 数量  ARGV[3] 订单号  ARGV[4] 当前时间（毫秒）
+-- 返回：>=0 预占成功后的剩余库存；-1 商品未参加秒杀；-2 超出限购；-3 库存不足
+local available = tonumber(redis.call('HGET', KEYS[1], 'available'))
+if available == nil then
+    return -1
+end
+local quantity = tonumber(ARGV[2])
+local limit = tonumber(redis.call('HGET', KEYS[1], 'limit') or '0')
+if limit > 0 then
+    local bought = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0')
+    if bought + quantity > limit then
+        return -2
+    end
+end
+if available < quantity then
+    return -3
+end
+redis.call('HINCRBY', KEYS[1], 'available', -quantity)
+redis.call('HINCRBY', KEYS[1], 'pending', quantity)
+redis.call('HINCRBY', KEYS[2], ARGV[1], quantity)
+redis.call('HSET', KEYS[3], ARGV[3], ARGV[1] .. ':' .. ARGV[2] .. ':' .. ARGV[4])
+return available - quantity
@@ -0,0 +1,15 @@
+-- 秒杀预占结算：confirm表示订单已落库，release表示放弃预占并归还库存
+-- 以预占明细中的订单号为幂等依据，同一预占只结算一次；秒杀已结束（key已删除）时不做任何操作
+-- KEYS[1] 库存hash  KEYS[2] 用户已购hash  KEYS[3] 预占明细hash
+-- ARGV[1] 订单号  ARGV[2] 用户ID  ARGV[3] 数量  ARGV[4] confirm|release
+-- 返回：1 结算成功；0 预占不存在或已结算
+if redis.call('HDEL', KEYS[3], ARGV[1]) == 0 then
+    return 0
+end
+local quantity = tonumber(ARGV[3])
+redis.call('HINCRBY', KEYS[1], 'pending', -quantity)
+if ARGV[4] == 'release' then
+    redis.call('HINCRBY', KEYS[1], 'available', quantity)
+    redis.call('HINCRBY', KEYS[2], ARGV[2], -quantity)
+end
+return 1
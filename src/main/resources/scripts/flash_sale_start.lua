@@ -0,0 +1,10 @@
+-- 秒杀开始：检查与初始化在同一脚本中完成，预占脚本不会看到只写了一半的库存hash
+-- KEYS[1] 库存hash  KEYS[2] 用户已购hash  KEYS[3] 预占明细hash
+-- ARGV[1] 可售库存  ARGV[2] 每人限购
+-- 返回：1 初始化成功；0 该商品秒杀已在进行中
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('DEL', KEYS[2], KEYS[3])
+redis.call('HSET', KEYS[1], 'available', ARGV[1], 'pending', 0, 'limit', ARGV[2])
+return 1
@@ -0,0 +1,147 @@
+package com.shopx.benchmark;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.shopx.config.MybatisPlusConfig;
+import com.shopx.entity.OrderItem;
+import com.shopx.mapper.OrderItemMapper;
+import com.shopx.util.BatchWriteUtil;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单项批量写入基准测试
+ * 在H2（MySQL模式）上对比同一事务内：逐行insert、JDBC批量执行器、多行VALUES（BatchWriteUtil.insertValues）写入N行的耗时。
+ * H2为进程内数据库，没有网络往返，测得的差距只体现语句解析与执行开销；
+ * 在MySQL上每条语句还要多一次网络往返，批量写入的收益会明显大于这里的结果
+ * 运行：mvn test-compile 后执行本类main方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchInsertBenchmark {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Param({"20", "200", "1000"})
+    private int rows;
+
+    private JdbcDataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:batch_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE t_order_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_id BIGINT, "
+                    + "product_id BIGINT, quantity INT, price DECIMAL(10,2), subtotal DECIMAL(10,2))");
+        }
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("bench", new JdbcTransactionFactory(), dataSource));
+        // 与应用中一致，注入insertBatchSomeColumn
+        GlobalConfigUtils.getGlobalConfig(configuration).setSqlInjector(new MybatisPlusConfig.BatchSqlInjector());
+        configuration.addMapper(OrderItemMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE t_order_item");
+        }
+    }
+
+    @Benchmark
+    public int rowByRow() {
+        List<OrderItem> items = buildItems();
+        try (SqlSession session = sqlSessionFactory.openSession(false)) {
+            OrderItemMapper mapper = session.getMapper(OrderItemMapper.class);
+            int inserted = 0;
+            for (OrderItem item : items) {
+                inserted += mapper.insert(item);
+            }
+            session.commit();
+            return inserted;
+        }
+    }
+
+    @Benchmark
+    public int jdbcBatch() {
+        List<OrderItem> items = buildItems();
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            OrderItemMapper mapper = session.getMapper(OrderItemMapper.class);
+            for (int i = 0; i < items.size(); i++) {
+                mapper.insert(items.get(i));
+                if ((i + 1) % CHUNK_SIZE == 0) {
+                    session.flushStatements();
+                }
+            }
+            int flushed = session.flushStatements().size();
+            session.commit();
+            return flushed;
+        }
+    }
+
+    @Benchmark
+    public int multiRowValues() {
+        List<OrderItem> items = buildItems();
+        try (SqlSession session = sqlSessionFactory.openSession(false)) {
+            int inserted = BatchWriteUtil.insertValues(session.getMapper(OrderItemMapper.class), items, CHUNK_SIZE);
+            session.commit();
+            return inserted;
+        }
+    }
+
+    private List<OrderItem> buildItems() {
+        List<OrderItem> items = new ArrayList<>(rows);
+        BigDecimal price = new BigDecimal("99.00");
+        for (int i = 0; i < rows; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderId((long) (i / 5 + 1));
+            item.setProductId((long) (i % 50 + 1));
+            item.setQuantity(1);
+            item.setPrice(price);
+            item.setSubtotal(price);
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BatchInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,190 @@
+package com.shopx.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.shopx.cache.BinaryCacheCodec;
+import com.shopx.entity.Product;
+import com.shopx.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存编解码基准测试
+ * 对比BinaryCacheCodec与JSON（Jackson）在Product、User、权限列表上的编解码耗时和体积
+ * 运行：mvn test-compile 后执行本类main方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheCodecBenchmark {
+
+    private BinaryCacheCodec binaryCodec;
+    private ObjectMapper objectMapper;
+
+    private Product product;
+    private User user;
+    private List<String> permissions;
+
+    private byte[] productBinary;
+    private byte[] userBinary;
+    private byte[] permissionsBinary;
+    private byte[] productJson;
+    private byte[] userJson;
+    private byte[] permissionsJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        binaryCodec = new BinaryCacheCodec(RedisSerializer.java(), 1024);
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        product = new Product();
+        product.setId(1024L);
+        product.setName("智能空气净化器");
+        product.setDescription("适合卧室与客厅使用的高效空气净化器，支持APP远程控制与滤芯寿命提醒");
+        product.setImage("https://cdn.shopx.com/products/1024.jpg");
+        product.setPrice(new BigDecimal("1299.00"));
+        product.setShippingFee(new BigDecimal("0.00"));
+        product.setTaxRate(new BigDecimal("13.00"));
+        product.setStock(560);
+        product.setCategory("家电");
+        product.setCreateBy(7L);
+        product.setEnabled(true);
+        product.setSuitableScenarios("home,office");
+        product.setSeasonality("all");
+        product.setLifestyleTags("healthy,smart");
+        product.setHas3dPreview(true);
+        product.setIsRecyclable(true);
+        product.setIsRentable(false);
+        product.setRecycleValue(new BigDecimal("120.00"));
+        product.setLikeCount(3210);
+        product.setShareCount(87);
+        product.setViewCount(45678);
+        product.setCompletenessScore(92);
+        product.setCreateTime(LocalDateTime.of(2024, 3, 1, 10, 30));
+        product.setUpdateTime(LocalDateTime.of(2024, 6, 18, 8, 0));
+
+        user = new User();
+        user.setId(42L);
+        user.setUsername("shopper42");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5s1KU8kR1e6rG2dZ0tYt8bW");
+        user.setEmail("shopper42@example.com");
+        user.setPhone("13800000042");
+        user.setRole("USER");
+        user.setEnabled(true);
+        user.setPreferences("{\"theme\":\"dark\",\"language\":\"zh-CN\"}");
+        user.setLifestyle("outdoor,fitness");
+        user.setScenarios("commute,travel");
+        user.setFollowerCount(128);
+        user.setFollowingCount(64);
+        user.setSustainabilityScore(75);
+        user.setRecycleCount(3);
+        user.setCreateTime(LocalDateTime.of(2023, 11, 11, 11, 11));
+        user.setUpdateTime(LocalDateTime.of(2024, 5, 20, 9, 0));
+        user.setVersion(5);
+
+        permissions = new ArrayList<>();
+        for (String resource : List.of("product", "order", "cart", "review", "address", "recycle")) {
+            permissions.add(resource + ":read");
+            permissions.add(resource + ":write");
+        }
+
+        productBinary = binaryCodec.encode(product);
+        userBinary = binaryCodec.encode(user);
+        permissionsBinary = binaryCodec.encode(permissions);
+        productJson = objectMapper.writeValueAsBytes(product);
+        userJson = objectMapper.writeValueAsBytes(user);
+        permissionsJson = objectMapper.writeValueAsBytes(permissions);
+
+        System.out.printf("%n编码体积(bytes) product: binary=%d json=%d, user: binary=%d json=%d, permissions: binary=%d json=%d%n",
+                productBinary.length, productJson.length, userBinary.length, userJson.length,
+                permissionsBinary.length, permissionsJson.length);
+    }
+
+    @Benchmark
+    public byte[] encodeProductBinary() {
+        return binaryCodec.encode(product);
+    }
+
+    @Benchmark
+    public byte[] encodeProductJson() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public Object decodeProductBinary() {
+        return binaryCodec.decode(productBinary);
+    }
+
+    @Benchmark
+    public Object decodeProductJson() throws Exception {
+        return objectMapper.readValue(productJson, Product.class);
+    }
+
+    @Benchmark
+    public byte[] encodeUserBinary() {
+        return binaryCodec.encode(user);
+    }
+
+    @Benchmark
+    public byte[] encodeUserJson() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public Object decodeUserBinary() {
+        return binaryCodec.decode(userBinary);
+    }
+
+    @Benchmark
+    public Object decodeUserJson() throws Exception {
+        return objectMapper.readValue(userJson, User.class);
+    }
+
+    @Benchmark
+    public byte[] encodePermissionsBinary() {
+        return binaryCodec.encode(permissions);
+    }
+
+    @Benchmark
+    public byte[] encodePermissionsJson() throws Exception {
+        return objectMapper.writeValueAsBytes(permissions);
+    }
+
+    @Benchmark
+    public Object decodePermissionsBinary() {
+        return binaryCodec.decode(permissionsBinary);
+    }
+
+    @Benchmark
+    public Object decodePermissionsJson() throws Exception {
+        return objectMapper.readValue(permissionsJson, new TypeReference<List<String>>() {});
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
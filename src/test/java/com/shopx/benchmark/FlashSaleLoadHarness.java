@@ -0,0 +1,168 @@
+package com.shopx.benchmark;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 秒杀压测工具
+ * 对比同一批并发请求下：Redis Lua预占（FlashSaleServiceImpl使用的脚本）与MySQL条件UPDATE扣减的吞吐量，
+ * 并校验两种方式都没有超卖。需要可连接的Redis与MySQL，通过系统属性指定：
+ * -Dredis.uri=redis://localhost:6379 -Djdbc.url=jdbc:mysql://localhost:3306/shopx_bench -Djdbc.user=root -Djdbc.password=
+ * -Dthreads=200 -Drequests=100000 -Dstock=10000
+ * 运行：mvn test-compile 后执行本类main方法
+ */
+public class FlashSaleLoadHarness {
+
+    private static final long PRODUCT_ID = 900000001L;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("threads", 200);
+        int requests = Integer.getInteger("requests", 100000);
+        int stock = Integer.getInteger("stock", 10000);
+
+        System.out.printf("线程数=%d, 请求数=%d, 库存=%d%n", threads, requests, stock);
+        runRedis(System.getProperty("redis.uri", "redis://localhost:6379"), threads, requests, stock);
+        runMysql(System.getProperty("jdbc.url", "jdbc:mysql://localhost:3306/shopx_bench"),
+                System.getProperty("jdbc.user", "root"), System.getProperty("jdbc.password", ""),
+                threads, requests, stock);
+    }
+
+    private static void runRedis(String uri, int threads, int requests, int stock) throws Exception {
+        String script = new ClassPathResource("scripts/flash_sale_reserve.lua")
+                .getContentAsString(StandardCharsets.UTF_8);
+        String[] keys = {
+                "shopx:flash:{" + PRODUCT_ID + "}:stock",
+                "shopx:flash:{" + PRODUCT_ID + "}:users",
+                "shopx:flash:{" + PRODUCT_ID + "}:pending"
+        };
+
+        RedisClient client = RedisClient.create(uri);
+        try (StatefulRedisConnection<String, String> connection = client.connect()) {
+            RedisCommands<String, String> commands = connection.sync();
+            commands.del(keys);
+            commands.hset(keys[0], "available", String.valueOf(stock));
+            commands.hset(keys[0], "pending", "0");
+            commands.hset(keys[0], "limit", "0");
+            String sha = commands.scriptLoad(script);
+
+            AtomicInteger sequence = new AtomicInteger();
+            Result result = run(threads, requests, () -> {
+                int n = sequence.incrementAndGet();
+                Long remaining = commands.evalsha(sha, ScriptOutputType.INTEGER, keys,
+                        String.valueOf(n), "1", "BENCH" + n, String.valueOf(System.currentTimeMillis()));
+                return remaining != null && remaining >= 0;
+            });
+
+            int left = Integer.parseInt(commands.hget(keys[0], "available"));
+            result.print("Redis Lua预占", stock, left);
+            commands.del(keys);
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private static void runMysql(String url, String user, String password,
+                                 int threads, int requests, int stock) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS t_product_bench (id BIGINT PRIMARY KEY, stock INT NOT NULL)");
+            statement.execute("REPLACE INTO t_product_bench (id, stock) VALUES (" + PRODUCT_ID + ", " + stock + ")");
+        }
+
+        // 每个线程独占一个连接，模拟连接池已满的情况
+        ThreadLocal<Connection> connections = ThreadLocal.withInitial(() -> {
+            try {
+                return DriverManager.getConnection(url, user, password);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Result result = run(threads, requests, () -> {
+            try (PreparedStatement statement = connections.get().prepareStatement(
+                    "UPDATE t_product_bench SET stock = stock - 1 WHERE id = ? AND stock >= 1")) {
+                statement.setLong(1, PRODUCT_ID);
+                return statement.executeUpdate() == 1;
+            }
+        });
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT stock FROM t_product_bench WHERE id = " + PRODUCT_ID)) {
+            resultSet.next();
+            result.print("MySQL条件UPDATE", stock, resultSet.getInt(1));
+            statement.execute("DROP TABLE t_product_bench");
+        }
+    }
+
+    private static Result run(int threads, int requests, Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    if (attempt.call()) {
+                        succeeded.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return new Result(requests, succeeded.get(), failed.get(), elapsed);
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        boolean call() throws Exception;
+    }
+
+    private static final class Result {
+
+        private final int requests;
+        private final int succeeded;
+        private final int failed;
+        private final long elapsedNanos;
+
+        Result(int requests, int succeeded, int failed, long elapsedNanos) {
+            this.requests = requests;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        void print(String name, int stock, int left) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            System.out.printf("%s: 耗时=%.2fs, 请求/秒=%.0f, 成交=%d, 错误=%d, 剩余库存=%d, 超卖=%s%n",
+                    name, seconds, requests / seconds, succeeded, failed, left,
+                    succeeded + left != stock || left < 0 ? "是" : "否");
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.shopx.benchmark;
+
+import com.shopx.entity.Product;
+import com.shopx.search.ProductSearchIndex;
+import com.shopx.search.ProductSearchQuery;
+import com.shopx.search.ProductSearchResult;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品搜索基准测试
+ * 同一批随机生成的商品分别写入H2（MySQL模式）与ProductSearchIndex，对比一次"分页查询 + 总数"的耗时：
+ * 数据库路径与原实现一致，为 name/description/lifestyle_tags 三列 LIKE '%kw%' 加 COUNT；
+ * 索引路径为倒排表求交 + BM25 + 位图过滤。filtered 变体附加分类与有货条件
+ * H2为进程内数据库，没有网络往返，MySQL上数据库路径的耗时只会更高
+ * 运行：mvn test-compile 后执行本类main方法（1M商品的准备阶段需要数分钟与数GB堆）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final String[] BRANDS = {"华为", "小米", "苹果", "联想", "耐克", "阿迪", "索尼", "美的", "海尔", "格力"};
+    private static final String[] NOUNS = {"手机", "手机壳", "耳机", "平板", "笔记本", "运动鞋", "跑步鞋", "背包",
+            "电饭煲", "空调", "冰箱", "台灯", "键盘", "鼠标", "手表", "外套", "衬衫", "水杯", "帐篷", "相机"};
+    private static final String[] ADJECTIVES = {"轻薄", "防水", "无线", "智能", "便携", "高清", "静音", "节能", "复古", "限量"};
+    private static final String[] LATIN = {"pro", "max", "lite", "plus", "air", "mini", "ultra", "sport", "classic", "eco"};
+    private static final String[] TAGS = {"户外", "通勤", "居家", "学生", "商务", "健身", "旅行", "环保"};
+    private static final String[] CATEGORIES = {"数码", "服饰", "家电", "运动", "家居"};
+
+    private static final String[] KEYWORDS = {"手机壳", "无线耳机", "运动鞋", "智能手表", "pro", "华为 平板", "防水 帐篷", "节能空调"};
+
+    private static final String SQL_PAGE = "SELECT id FROM t_product WHERE enabled = TRUE "
+            + "AND (name LIKE ? OR description LIKE ? OR lifestyle_tags LIKE ?) %s ORDER BY create_time DESC LIMIT 20";
+    private static final String SQL_COUNT = "SELECT COUNT(*) FROM t_product WHERE enabled = TRUE "
+            + "AND (name LIKE ? OR description LIKE ? OR lifestyle_tags LIKE ?) %s";
+    private static final String FILTER = "AND category = '数码' AND stock > 0";
+
+    @Param({"100000", "1000000"})
+    private int products;
+
+    private JdbcDataSource dataSource;
+    private Connection connection;
+    private ProductSearchIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:search_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE t_product (id BIGINT PRIMARY KEY, name VARCHAR(200), description TEXT, "
+                    + "lifestyle_tags VARCHAR(500), category VARCHAR(100), price DECIMAL(10,2), stock INT, "
+                    + "enabled BOOLEAN, create_time DATETIME)");
+            statement.execute("CREATE INDEX idx_create_time ON t_product (create_time)");
+        }
+        index = new ProductSearchIndex(1.2f, 0.75f, 3);
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO t_product VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, ?)")) {
+            for (long id = 1; id <= products; id++) {
+                Product product = randomProduct(random, id, start.plusSeconds(id));
+                insert.setLong(1, id);
+                insert.setString(2, product.getName());
+                insert.setString(3, product.getDescription());
+                insert.setString(4, product.getLifestyleTags());
+                insert.setString(5, product.getCategory());
+                insert.setBigDecimal(6, product.getPrice());
+                insert.setInt(7, product.getStock());
+                insert.setTimestamp(8, Timestamp.valueOf(product.getCreateTime()));
+                insert.addBatch();
+                if (id % 5000 == 0) {
+                    insert.executeBatch();
+                }
+                index.upsert(product);
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Benchmark
+    public long sqlLike() throws Exception {
+        return sqlSearch(nextKeyword(), "");
+    }
+
+    @Benchmark
+    public long sqlLikeFiltered() throws Exception {
+        return sqlSearch(nextKeyword(), FILTER);
+    }
+
+    @Benchmark
+    public ProductSearchResult invertedIndex() {
+        return index.search(ProductSearchQuery.builder().keyword(nextKeyword()).limit(20).build());
+    }
+
+    @Benchmark
+    public ProductSearchResult invertedIndexFiltered() {
+        return index.search(ProductSearchQuery.builder()
+                .keyword(nextKeyword())
+                .category("数码")
+                .inStock(true)
+                .limit(20)
+                .build());
+    }
+
+    /**
+     * 与原实现相同：整个关键词做一次子串匹配
+     */
+    private long sqlSearch(String keyword, String filter) throws Exception {
+        String pattern = "%" + keyword + "%";
+        long found = 0;
+        try (PreparedStatement page = connection.prepareStatement(String.format(SQL_PAGE, filter))) {
+            bind(page, pattern);
+            try (ResultSet resultSet = page.executeQuery()) {
+                while (resultSet.next()) {
+                    found += resultSet.getLong(1);
+                }
+            }
+        }
+        try (PreparedStatement count = connection.prepareStatement(String.format(SQL_COUNT, filter))) {
+            bind(count, pattern);
+            try (ResultSet resultSet = count.executeQuery()) {
+                resultSet.next();
+                return found + resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, String pattern) throws Exception {
+        statement.setString(1, pattern);
+        statement.setString(2, pattern);
+        statement.setString(3, pattern);
+    }
+
+    private String nextKeyword() {
+        next = (next + 1) % KEYWORDS.length;
+        return KEYWORDS[next];
+    }
+
+    private static Product randomProduct(Random random, long id, LocalDateTime createTime) {
+        String brand = pick(random, BRANDS);
+        String noun = pick(random, NOUNS);
+        Product product = new Product();
+        product.setId(id);
+        product.setName(brand + pick(random, ADJECTIVES) + noun + " " + pick(random, LATIN));
+        product.setDescription(brand + "出品" + pick(random, ADJECTIVES) + noun + "，" + pick(random, ADJECTIVES)
+                + "设计，适合" + pick(random, TAGS) + "使用 " + pick(random, LATIN) + " " + id);
+        product.setLifestyleTags(pick(random, TAGS) + "," + pick(random, TAGS));
+        product.setCategory(pick(random, CATEGORIES));
+        product.setPrice(BigDecimal.valueOf(random.nextInt(500000), 2));
+        product.setStock(random.nextInt(5) == 0 ? 0 : random.nextInt(100));
+        product.setEnabled(true);
+        product.setHas3dPreview(random.nextBoolean());
+        product.setIsRecyclable(random.nextBoolean());
+        product.setViewCount(random.nextInt(10000));
+        product.setLikeCount(random.nextInt(1000));
+        product.setCreateTime(createTime);
+        return product;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,150 @@
+package com.shopx.benchmark;
+
+import com.shopx.entity.UserBehavior;
+import com.shopx.recommend.UserItemMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 用户-商品交互矩阵基准测试
+ * 同一批随机交互（商品热度按幂律分布）分别放入List&lt;UserBehavior&gt;与UserItemMatrix，对比一次用户相似度计算：
+ * 列表路径与原实现一致，每次按用户分组后逐个用户求Jaccard（已省去原实现中的全表查询，只会更快）；
+ * 矩阵路径只遍历目标用户商品的列。另测协同过滤候选打分与单次写入
+ * 运行：mvn test-compile 后执行本类main方法（1M用户的准备阶段需要约1分钟与数GB堆）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class UserItemMatrixBenchmark {
+
+    private static final int PROBE_USERS = 1024;
+
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"100000"})
+    private int items;
+
+    /**
+     * 每个用户的平均交互商品数
+     */
+    @Param({"8"})
+    private int interactionsPerUser;
+
+    private List<UserBehavior> behaviors;
+    private UserItemMatrix matrix;
+    private long[] probes;
+    private Random random;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new Random(42);
+        behaviors = new ArrayList<>(users * interactionsPerUser);
+        matrix = new UserItemMatrix(users, items);
+        for (long userId = 1; userId <= users; userId++) {
+            int count = 1 + random.nextInt(interactionsPerUser * 2 - 1);
+            for (int i = 0; i < count; i++) {
+                long itemId = randomItem();
+                UserBehavior behavior = new UserBehavior();
+                behavior.setUserId(userId);
+                behavior.setProductId(itemId);
+                behavior.setBehaviorType("LIKE");
+                behaviors.add(behavior);
+                matrix.add(userId, itemId);
+            }
+        }
+        probes = new long[PROBE_USERS];
+        for (int i = 0; i < PROBE_USERS; i++) {
+            probes[i] = 1 + random.nextInt(users);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Long, Double> listSimilarity() {
+        long userId = nextProbe();
+        Set<Long> userProductIds = behaviors.stream()
+                .filter(b -> b.getUserId() == userId)
+                .map(UserBehavior::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, List<UserBehavior>> userBehaviorMap = behaviors.stream()
+                .filter(b -> b.getUserId() != userId)
+                .collect(Collectors.groupingBy(UserBehavior::getUserId));
+        Map<Long, Double> similarities = new HashMap<>();
+        for (Map.Entry<Long, List<UserBehavior>> entry : userBehaviorMap.entrySet()) {
+            Set<Long> otherProductIds = entry.getValue().stream()
+                    .map(UserBehavior::getProductId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Set<Long> intersection = new HashSet<>(userProductIds);
+            intersection.retainAll(otherProductIds);
+            Set<Long> union = new HashSet<>(userProductIds);
+            union.addAll(otherProductIds);
+            similarities.put(entry.getKey(), (double) intersection.size() / union.size());
+        }
+        return similarities;
+    }
+
+    @Benchmark
+    public Map<Long, Double> matrixSimilarity() {
+        return matrix.similarUsers(nextProbe());
+    }
+
+    @Benchmark
+    public List<Long> matrixRecommend() {
+        return matrix.recommend(nextProbe(), 0.3, 20);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean matrixAdd() {
+        return matrix.add(1 + random.nextInt(users), randomItem());
+    }
+
+    /**
+     * 幂律分布：少数热门商品占多数交互
+     */
+    private long randomItem() {
+        double u = random.nextDouble();
+        return 1 + (long) (items * u * u * u);
+    }
+
+    private long nextProbe() {
+        next = (next + 1) % PROBE_USERS;
+        return probes[next];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserItemMatrixBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,212 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.dto.CheckoutOrderCommand;
+import com.shopx.entity.CartItem;
+import com.shopx.entity.Order;
+import com.shopx.entity.Product;
+import com.shopx.exception.BusinessException;
+import com.shopx.mapper.CartItemMapper;
+import com.shopx.mapper.OrderItemMapper;
+import com.shopx.mapper.OrderMapper;
+import com.shopx.service.CartService;
+import com.shopx.service.IdGeneratorService;
+import com.shopx.service.ProductService;
+import com.shopx.service.impl.AsyncCheckoutServiceImpl;
+import com.shopx.util.BatchWriteUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 异步下单提交测试
+ */
+@ExtendWith(MockitoExtension.class)
+class AsyncCheckoutServiceTest {
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private IdGeneratorService idGeneratorService;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private OrderItemMapper orderItemMapper;
+
+    @Mock
+    private CartItemMapper cartItemMapper;
+
+    @Mock
+    private BatchWriteUtil batchWriteUtil;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private AsyncCheckoutServiceImpl asyncCheckoutService;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lenient().doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+
+        CartItem cartItem = new CartItem();
+        cartItem.setId(10L);
+        cartItem.setProductId(100L);
+        cartItem.setQuantity(2);
+        cartItem.setPrice(new BigDecimal("5.00"));
+        cartItem.setSubtotal(new BigDecimal("10.00"));
+        lenient().when(cartService.getCartItems(1L)).thenReturn(List.of(cartItem));
+        Product product = new Product();
+        product.setId(100L);
+        lenient().when(productService.getProductsByIds(anyCollection())).thenReturn(Map.of(100L, product));
+        lenient().when(idGeneratorService.nextNo(anyString())).thenReturn("ORD1");
+    }
+
+    @Test
+    void testSubmit_TicketWriteFailureRestoresStock() {
+        // Given: 库存已预占，写凭证时Redis不可用
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(valueOperations).set(startsWith("shopx:checkout:ticket:"), anyString(), any(Duration.class));
+
+        // When & Then
+        assertThrows(RedisConnectionFailureException.class,
+                () -> asyncCheckoutService.submit(1L, null, "地址", "key-1"));
+        verify(productService).decreaseStock(Map.of(100L, 2));
+        verify(productService).increaseStock(Map.of(100L, 2));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void testSubmit_PublishFailureRestoresStockOnce() {
+        // Given
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate).convertAndSend(anyString(), anyString());
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> asyncCheckoutService.submit(1L, null, "地址", "key-2"));
+        assertEquals(503, exception.getCode());
+        verify(productService, times(1)).increaseStock(Map.of(100L, 2));
+    }
+
+    @Test
+    void testSubmit_StockShortageDoesNotRestore() {
+        // Given: 预占失败，事务已回滚
+        doThrow(new BusinessException(400, "库存不足")).when(productService).decreaseStock(anyMap());
+
+        // When & Then
+        assertThrows(BusinessException.class, () -> asyncCheckoutService.submit(1L, null, "地址", "key-3"));
+        verify(productService, never()).increaseStock(anyMap());
+        verify(stringRedisTemplate).delete(anyList());
+    }
+
+    @Test
+    void testPersistBatch_RedeliveredMixedBatchRestoresFailedOrderOnce() {
+        // Given: 整批写入失败后逐条重试，ORD-A数据错误（永久失败），ORD-B数据库不可用（整批重新投递）
+        Set<String> redisKeys = ConcurrentHashMap.newKeySet();
+        when(valueOperations.setIfAbsent(startsWith("shopx:checkout:released:"), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> redisKeys.add(invocation.getArgument(0)));
+        when(batchWriteUtil.insertValues(eq(orderMapper), anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(1);
+            if (orders.size() > 1) {
+                throw new DataAccessResourceFailureException("batch failed");
+            }
+            if ("ORD-A".equals(orders.get(0).getOrderNo())) {
+                throw new DataIntegrityViolationException("bad row");
+            }
+            throw new DataAccessResourceFailureException("db down");
+        });
+        List<CheckoutOrderCommand> batch = List.of(command("ORD-A", 100L, 2), command("ORD-B", 200L, 1));
+
+        // When: 同一批消息投递两次
+        assertThrows(DataAccessResourceFailureException.class, () -> asyncCheckoutService.persistBatch(batch));
+        assertThrows(DataAccessResourceFailureException.class, () -> asyncCheckoutService.persistBatch(batch));
+
+        // Then: ORD-A的库存只回补一次，ORD-B未回补
+        verify(productService, times(1)).increaseStock(Map.of(100L, 2));
+        verify(productService, never()).increaseStock(Map.of(200L, 1));
+    }
+
+    @Test
+    void testPersistBatch_ReleaseFailureClearsMarkerForRetry() {
+        // Given: 回补库存时数据库不可用
+        when(batchWriteUtil.insertValues(eq(orderMapper), anyList()))
+                .thenThrow(new DataIntegrityViolationException("bad row"));
+        doThrow(new DataAccessResourceFailureException("db down")).when(productService).increaseStock(anyMap());
+
+        // When & Then: 回补标记被删除，重新投递时可以再次回补
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> asyncCheckoutService.persistBatch(List.of(command("ORD-A", 100L, 2))));
+        verify(stringRedisTemplate).delete("shopx:checkout:released:ORD-A");
+    }
+
+    private static CheckoutOrderCommand command(String orderNo, Long productId, int quantity) {
+        CheckoutOrderCommand command = new CheckoutOrderCommand();
+        command.setTicket("ticket-" + orderNo);
+        command.setOrderNo(orderNo);
+        command.setUserId(1L);
+        command.setTotalAmount(new BigDecimal("10.00"));
+        CheckoutOrderCommand.Item item = new CheckoutOrderCommand.Item();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal("5.00"));
+        item.setSubtotal(new BigDecimal("10.00"));
+        command.getItems().add(item);
+        return command;
+    }
+}
@@ -0,0 +1,144 @@
+package com.shopx.test;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.shopx.config.ShopXConfig;
+import com.shopx.entity.OrderItem;
+import com.shopx.mapper.OrderItemMapper;
+import com.shopx.util.BatchWriteUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量写入分块测试
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchWriteUtilTest {
+
+    @Mock
+    private OrderItemMapper orderItemMapper;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private BatchWriteUtil batchWriteUtil;
+
+    @BeforeEach
+    void setUp() {
+        shopXConfig.getBatch().setChunkSize(3);
+        lenient().when(orderItemMapper.insertBatchSomeColumn(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        lenient().when(orderItemMapper.update(isNull(), any()))
+                .thenAnswer(invocation -> 1);
+    }
+
+    @Test
+    void testInsertValues_EmptyListWritesNothing() {
+        assertEquals(0, batchWriteUtil.insertValues(orderItemMapper, List.of()));
+        assertEquals(0, batchWriteUtil.insertValues(orderItemMapper, null));
+        verifyNoInteractions(orderItemMapper);
+    }
+
+    @Test
+    void testInsertValues_ExactMultipleOfChunkSize() {
+        // Given
+        List<OrderItem> items = items(6);
+
+        // When
+        int inserted = batchWriteUtil.insertValues(orderItemMapper, items);
+
+        // Then: 两块各3行，无空块
+        assertEquals(6, inserted);
+        assertEquals(List.of(items.subList(0, 3), items.subList(3, 6)), capturedChunks(2));
+    }
+
+    @Test
+    void testInsertValues_RemainderInLastChunk() {
+        // Given
+        List<OrderItem> items = items(7);
+
+        // When
+        int inserted = BatchWriteUtil.insertValues(orderItemMapper, items, 3);
+
+        // Then: 3 + 3 + 1，顺序与原列表一致
+        assertEquals(7, inserted);
+        assertEquals(List.of(items.subList(0, 3), items.subList(3, 6), items.subList(6, 7)), capturedChunks(3));
+    }
+
+    @Test
+    void testInsertValues_ListSmallerThanChunkSize() {
+        List<OrderItem> items = items(2);
+
+        assertEquals(2, batchWriteUtil.insertValues(orderItemMapper, items));
+        assertEquals(List.of(items), capturedChunks(1));
+    }
+
+    @Test
+    void testInsertValues_NonPositiveChunkSizeTreatedAsOne() {
+        shopXConfig.getBatch().setChunkSize(0);
+        List<OrderItem> items = items(2);
+
+        assertEquals(2, batchWriteUtil.insertValues(orderItemMapper, items));
+        assertEquals(List.of(items.subList(0, 1), items.subList(1, 2)), capturedChunks(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testUpdateByIds_OneStatementPerChunk() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 7).boxed().collect(Collectors.toList());
+
+        // When
+        int updated = batchWriteUtil.updateByIds(orderItemMapper, ids, wrapper -> wrapper.set("quantity", 0));
+
+        // Then: 7个ID分3条UPDATE
+        assertEquals(3, updated);
+        ArgumentCaptor<Wrapper<OrderItem>> captor = ArgumentCaptor.forClass(Wrapper.class);
+        verify(orderItemMapper, times(3)).update(isNull(), captor.capture());
+        List<Integer> paramCounts = new ArrayList<>();
+        for (Wrapper<OrderItem> wrapper : captor.getAllValues()) {
+            UpdateWrapper<OrderItem> updateWrapper = (UpdateWrapper<OrderItem>) wrapper;
+            assertTrue(updateWrapper.getSqlSet().startsWith("quantity="));
+            // 1个SET参数 + 本块的ID
+            paramCounts.add(updateWrapper.getParamNameValuePairs().size());
+        }
+        assertEquals(List.of(4, 4, 2), paramCounts);
+
+        assertEquals(0, batchWriteUtil.updateByIds(orderItemMapper, List.of(), wrapper -> wrapper.set("quantity", 0)));
+        verifyNoMoreInteractions(orderItemMapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<OrderItem>> capturedChunks(int expectedCalls) {
+        ArgumentCaptor<List<OrderItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderItemMapper, times(expectedCalls)).insertBatchSomeColumn(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static List<OrderItem> items(int count) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId((long) i);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        return items;
+    }
+}
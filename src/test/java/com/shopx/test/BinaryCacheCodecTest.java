@@ -0,0 +1,176 @@
+package com.shopx.test;
+
+import com.shopx.cache.BinaryCacheCodec;
+import com.shopx.cache.NullValue;
+import com.shopx.entity.Product;
+import com.shopx.entity.User;
+import com.shopx.util.ResponseUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二进制缓存编解码往返测试
+ */
+class BinaryCacheCodecTest {
+
+    private final BinaryCacheCodec codec = new BinaryCacheCodec(RedisSerializer.java(), 0);
+
+    @Test
+    void testRoundTrip_ScalarTypes() {
+        assertNull(roundTrip(null));
+        assertEquals("", roundTrip(""));
+        assertEquals("商品名称 name", roundTrip("商品名称 name"));
+        assertEquals(Long.MIN_VALUE, roundTrip(Long.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE, roundTrip(Long.MAX_VALUE));
+        assertEquals(-1L, roundTrip(-1L));
+        assertEquals(Integer.MIN_VALUE, roundTrip(Integer.MIN_VALUE));
+        assertEquals(42, roundTrip(42));
+        assertEquals(Boolean.TRUE, roundTrip(true));
+        assertEquals(Boolean.FALSE, roundTrip(false));
+        assertSame(NullValue.INSTANCE, roundTrip(NullValue.INSTANCE));
+
+        // 小数保留scale；超过63位的非标度值走大数编码
+        assertEquals(new BigDecimal("19.90"), roundTrip(new BigDecimal("19.90")));
+        assertEquals(new BigDecimal("-0.000001"), roundTrip(new BigDecimal("-0.000001")));
+        BigDecimal big = new BigDecimal("123456789012345678901234567890.123456789");
+        assertEquals(big, roundTrip(big));
+
+        LocalDateTime time = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123456789);
+        assertEquals(time, roundTrip(time));
+    }
+
+    @Test
+    void testRoundTrip_Collections() {
+        List<Object> list = Arrays.asList(1L, "a", null, List.of(2, 3));
+        assertEquals(list, roundTrip(list));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("b", 1L);
+        map.put("a", Map.of("x", 2L));
+        map.put("n", null);
+        Object decoded = roundTrip(map);
+        assertEquals(map, decoded);
+        assertEquals(List.of("b", "a", "n"), new ArrayList<>(((Map<?, ?>) decoded).keySet()));
+    }
+
+    @Test
+    void testRoundTrip_Product() {
+        Product product = new Product();
+        product.setId(1001L);
+        product.setName("无线耳机");
+        product.setDescription("降噪");
+        product.setPrice(new BigDecimal("299.00"));
+        product.setShippingFee(BigDecimal.ZERO);
+        product.setTaxRate(new BigDecimal("0.13"));
+        product.setStock(50);
+        product.setCategory("电子产品");
+        product.setCreateBy(7L);
+        product.setEnabled(true);
+        product.setHas3dPreview(false);
+        product.setLikeCount(3);
+        product.setViewCount(100);
+        product.setCreateTime(LocalDateTime.of(2024, 1, 1, 8, 0));
+        product.setUpdateTime(LocalDateTime.of(2024, 1, 2, 9, 30, 15));
+
+        assertEquals(product, roundTrip(product));
+    }
+
+    @Test
+    void testRoundTrip_User() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setPassword("$2a$10$hash");
+        user.setEmail("alice@example.com");
+        user.setRole("USER");
+        user.setEnabled(true);
+        user.setFollowerCount(12);
+        user.setCreateTime(LocalDateTime.of(2023, 6, 1, 0, 0));
+        user.setVersion(3);
+
+        assertEquals(user, roundTrip(user));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testRoundTrip_PageResultKeepsAllFields() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("商品");
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put("category", new LinkedHashMap<>(Map.of("电子产品", 12L)));
+        facets.put("price", new LinkedHashMap<>(Map.of("0-100", 3L)));
+
+        ResponseUtil.PageResult<Product> page = new ResponseUtil.PageResult<>();
+        page.setData(List.of(product));
+        page.setTotal(120);
+        page.setPage(0);
+        page.setSize(20);
+        page.setTotalPages(6);
+        page.setKeyset(true);
+        page.setCursor("c1");
+        page.setNextCursor("c2");
+        page.setApproximateTotal(true);
+        page.setFacets(facets);
+
+        ResponseUtil.PageResult<Product> decoded = (ResponseUtil.PageResult<Product>) roundTrip(page);
+        assertEquals(page, decoded);
+        assertTrue(decoded.isHasNext());
+        assertTrue(decoded.isHasPrevious());
+
+        // 页码模式、可选字段为空
+        ResponseUtil.PageResult<Product> offsetPage = new ResponseUtil.PageResult<>();
+        offsetPage.setData(List.of());
+        offsetPage.setTotal(-1);
+        offsetPage.setPage(2);
+        offsetPage.setSize(10);
+        assertEquals(offsetPage, roundTrip(offsetPage));
+    }
+
+    @Test
+    void testRoundTrip_FallbackType() {
+        TreeSet<String> set = new TreeSet<>(List.of("b", "a"));
+        Object decoded = roundTrip(set);
+        assertInstanceOf(TreeSet.class, decoded);
+        assertEquals(set, decoded);
+    }
+
+    @Test
+    void testRoundTrip_Compressed() {
+        BinaryCacheCodec compressing = new BinaryCacheCodec(RedisSerializer.java(), 64);
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            list.add("重复的描述文本 repeated description " + (i % 5));
+        }
+        byte[] plain = codec.encode(list);
+        byte[] compressed = compressing.encode(list);
+        assertTrue(compressed.length < plain.length);
+        assertEquals(list, compressing.decode(compressed));
+        // 两种编码互相可读
+        assertEquals(list, codec.decode(compressed));
+        assertEquals(list, compressing.decode(plain));
+    }
+
+    @Test
+    void testDecode_UnknownVersionRejected() {
+        byte[] bytes = codec.encode("x");
+        bytes[0] = (byte) (99 << 1);
+        assertThrows(IllegalStateException.class, () -> codec.decode(bytes));
+        assertNull(codec.decode(new byte[0]));
+    }
+
+    private Object roundTrip(Object value) {
+        return codec.decode(codec.encode(value));
+    }
+}
@@ -0,0 +1,94 @@
+package com.shopx.test;
+
+import com.shopx.cache.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 布隆过滤器测试
+ */
+class BloomFilterTest {
+
+    @Test
+    void testSizing_MatchesOptimalFormula() {
+        // m = -n·ln(p) / (ln2)^2，k = m/n·ln2
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+
+        long optimalBits = (long) Math.ceil(-1_000_000 * Math.log(0.01) / (Math.log(2) * Math.log(2)));
+        assertTrue(filter.bitSize() >= optimalBits);
+        assertTrue(filter.bitSize() - optimalBits < 64, "位数组按64位字向上取整");
+        assertEquals(0, filter.bitSize() % 64);
+        assertEquals(7, filter.hashCount());
+
+        // 误判率越低位数组越大、哈希次数越多
+        BloomFilter stricter = new BloomFilter(1_000_000, 0.001);
+        assertTrue(stricter.bitSize() > filter.bitSize());
+        assertEquals(10, stricter.hashCount());
+    }
+
+    @Test
+    void testSizing_NonPositiveExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+
+        assertEquals(64, filter.bitSize());
+        assertTrue(filter.hashCount() >= 1);
+        assertFalse(filter.mightContain(1L));
+    }
+
+    @Test
+    void testFalsePositiveRate_WithinConfiguredBound() {
+        for (double rate : new double[]{0.05, 0.01, 0.001}) {
+            // Given: 按预期容量写满
+            BloomFilter filter = new BloomFilter(100_000, rate);
+            for (long id = 1; id <= 100_000; id++) {
+                filter.put(id * 7919);
+            }
+
+            // Then: 已写入的一定命中；未写入的误判率不超过配置值的1.5倍
+            for (long id = 1; id <= 100_000; id++) {
+                assertTrue(filter.mightContain(id * 7919));
+            }
+            int falsePositives = 0;
+            int probes = 200_000;
+            for (long id = 1; id <= probes; id++) {
+                if (filter.mightContain(-id)) {
+                    falsePositives++;
+                }
+            }
+            double observed = (double) falsePositives / probes;
+            assertTrue(observed <= rate * 1.5, "rate=" + rate + ", observed=" + observed);
+        }
+    }
+
+    @Test
+    void testPut_ConcurrentWritersLoseNoBits() throws Exception {
+        // Given: 多线程同时置位，相邻ID落在同一个long字中的概率很高
+        BloomFilter filter = new BloomFilter(400_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long offset = t;
+            futures.add(executor.submit(() -> {
+                for (long id = offset; id < 400_000; id += 4) {
+                    filter.put(id);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then: 没有假阴性
+        for (long id = 0; id < 400_000; id++) {
+            assertTrue(filter.mightContain(id), "id=" + id);
+        }
+    }
+}
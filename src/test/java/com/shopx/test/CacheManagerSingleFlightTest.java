@@ -0,0 +1,227 @@
+package com.shopx.test;
+
+import com.shopx.cache.BinaryCacheCodec;
+import com.shopx.cache.CacheCodec;
+import com.shopx.cache.CacheManager;
+import com.shopx.config.ShopXConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 缓存回源合并（single-flight）测试
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheManagerSingleFlightTest {
+
+    private static final String KEY = CacheManager.PRODUCT_PREFIX + "1";
+    private static final int THREADS = 8;
+
+    @Mock
+    private RedisTemplate<String, byte[]> cacheRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    @Spy
+    private CacheCodec codec = new BinaryCacheCodec(RedisSerializer.java(), 0);
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock lock;
+
+    @Mock
+    private Executor asyncExecutor;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private CacheManager cacheManager;
+
+    /**
+     * 模拟的Redis：只记录写入的值
+     */
+    private final ConcurrentHashMap<String, byte[]> redis = new ConcurrentHashMap<>();
+
+    /**
+     * 模拟的剩余TTL（毫秒）
+     */
+    private volatile long ttlMillis = 60_000L;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // 读取值和剩余TTL的管道
+        lenient().when(cacheRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenAnswer(invocation -> Arrays.asList(redis.get(KEY), redis.containsKey(KEY) ? ttlMillis : -2L));
+        lenient().when(cacheRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(byte[].class), any(Duration.class));
+        lenient().when(redissonClient.getLock(anyString())).thenReturn(lock);
+        lenient().when(lock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        lenient().when(lock.isHeldByCurrentThread()).thenReturn(true);
+    }
+
+    @Test
+    void testGetOrLoad_ConcurrentMissesShareOneLoad() throws Exception {
+        // Given: 回源期间其他线程全部进入等待后才返回
+        AtomicInteger loads = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        Supplier<String> loader = () -> {
+            loads.incrementAndGet();
+            awaitOthersWaiting(threads);
+            return "product-1";
+        };
+
+        // When
+        List<Object> results = runConcurrently(threads, () -> cacheManager.getOrLoad(KEY, Duration.ofMinutes(5), loader));
+
+        // Then: 只回源一次、只取一次跨节点锁，所有线程拿到同一结果
+        assertEquals(1, loads.get());
+        verify(redissonClient, times(1)).getLock(anyString());
+        assertEquals(THREADS, results.size());
+        results.forEach(result -> assertEquals("product-1", result));
+
+        // 加载完成后命中缓存，不再回源
+        assertEquals("product-1", cacheManager.getOrLoad(KEY, Duration.ofMinutes(5), loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGetOrLoad_LoaderFailureSharedThenRetried() throws Exception {
+        // Given: 第一次回源失败
+        AtomicInteger loads = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        Supplier<String> failing = () -> {
+            loads.incrementAndGet();
+            awaitOthersWaiting(threads);
+            throw new IllegalStateException("db down");
+        };
+
+        // When: 等待中的线程收到同一个异常
+        List<Object> results = runConcurrently(threads, () -> {
+            try {
+                return cacheManager.getOrLoad(KEY, Duration.ofMinutes(5), failing);
+            } catch (IllegalStateException e) {
+                return e.getMessage();
+            }
+        });
+
+        // Then
+        assertEquals(1, loads.get());
+        results.forEach(result -> assertEquals("db down", result));
+
+        // 失败的加载不会留在进行中列表，下一次请求重新回源
+        assertEquals("product-1", cacheManager.getOrLoad(KEY, Duration.ofMinutes(5), () -> "product-1"));
+    }
+
+    @Test
+    void testGetOrLoad_MissRacingEarlyRefreshLoadsItself() throws Exception {
+        // Given: 命中但即将过期，触发后台提前刷新（任务已提交、尚未执行）
+        shopXConfig.getCache().getLoad().setEarlyRefreshBeta(1e9);
+        ttlMillis = 1L;
+        cacheManager.set(KEY, "stale", Duration.ofMinutes(5));
+        assertEquals("stale", cacheManager.getOrLoad(KEY, Duration.ofMinutes(5), () -> "refreshed"));
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(asyncExecutor).execute(refresh.capture());
+
+        // 刷新时其他节点持有锁，本次刷新不加载
+        lenient().when(lock.tryLock(eq(0L), anyLong(), any(TimeUnit.class))).thenReturn(false);
+        redis.remove(KEY);
+
+        // When: key过期后的未命中与刷新任务同时进行
+        Thread current = Thread.currentThread();
+        Thread refresher = new Thread(() -> {
+            long deadline = System.currentTimeMillis() + 1000;
+            while (current.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            refresh.getValue().run();
+        });
+        refresher.start();
+        Object result = cacheManager.getOrLoad(KEY, Duration.ofMinutes(5), () -> "product-1");
+        refresher.join(TimeUnit.SECONDS.toMillis(5));
+
+        // Then: 未命中自行回源，不会因刷新未加载而得到null
+        assertEquals("product-1", result);
+        assertFalse(refresher.isAlive());
+    }
+
+    private List<Object> runConcurrently(List<Thread> threads, Supplier<Object> task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Object> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    Object result = task.get();
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(thread.isAlive());
+        }
+        return results;
+    }
+
+    /**
+     * 回源线程等待其他线程都阻塞在等待加载结果上（有超时的等待）
+     */
+    private static void awaitOthersWaiting(List<Thread> threads) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean allWaiting = threads.stream()
+                    .filter(thread -> thread != Thread.currentThread())
+                    .allMatch(thread -> thread.getState() == Thread.State.TIMED_WAITING);
+            if (allWaiting) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        fail("其他线程未进入等待");
+    }
+}
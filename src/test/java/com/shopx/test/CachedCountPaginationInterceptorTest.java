@@ -0,0 +1,104 @@
+package com.shopx.test;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.shopx.cache.CountCache;
+import com.shopx.config.CachedCountPaginationInterceptor;
+import com.shopx.config.ShopXConfig;
+import com.shopx.entity.LoginHistory;
+import com.shopx.mapper.LoginHistoryMapper;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分页计数缓存测试
+ * 使用H2（MySQL模式）验证相同SQL与参数的分页查询复用COUNT结果，参数不同则分别计数
+ */
+class CachedCountPaginationInterceptorTest {
+
+    private JdbcDataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
+    private CountCache countCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:count_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE t_login_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, "
+                    + "ip_address VARCHAR(50), device VARCHAR(100), browser VARCHAR(100), location VARCHAR(100), "
+                    + "status VARCHAR(20), failure_reason VARCHAR(200), is_abnormal BOOLEAN, "
+                    + "abnormal_reason VARCHAR(200), create_time DATETIME)");
+            statement.execute("INSERT INTO t_login_history (user_id, status) VALUES (1, 'SUCCESS'), (1, 'SUCCESS'), "
+                    + "(1, 'FAILED'), (2, 'SUCCESS')");
+        }
+
+        ShopXConfig.Pagination.CountCache config = new ShopXConfig.Pagination.CountCache();
+        config.setApproximate(false);
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        countCache = new CountCache(config);
+        interceptor.addInnerInterceptor(new CachedCountPaginationInterceptor(DbType.MYSQL, countCache));
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addInterceptor(interceptor);
+        configuration.addMapper(LoginHistoryMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Test
+    void testSelectPage_ReusesCachedCount() throws Exception {
+        // Given
+        assertEquals(3, pageTotal(1L));
+
+        // When: 新增一条记录后在TTL内再次查询
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO t_login_history (user_id, status) VALUES (1, 'SUCCESS')");
+        }
+
+        // Then: 复用缓存的总数，数据本身仍是实时查询
+        assertEquals(3, pageTotal(1L));
+    }
+
+    @Test
+    void testSelectPage_DifferentParametersCountedSeparately() {
+        assertEquals(3, pageTotal(1L));
+        assertEquals(1, pageTotal(2L));
+        assertEquals(0, pageTotal(3L));
+    }
+
+    @Test
+    void testCountCache_KeyedTotalsShareCacheAndTtlConfig() {
+        // Given: 游标分页的总数与页码分页使用同一个缓存
+        assertEquals(3, countCache.get("login:user:1", () -> 3L));
+
+        // When & Then: TTL内复用，不再计数
+        assertEquals(3, countCache.get("login:user:1", () -> fail("不应再次计数")));
+
+        // 关闭缓存时每次都精确计数
+        countCache.getConfig().setEnabled(false);
+        assertEquals(4, countCache.get("login:user:1", () -> 4L));
+    }
+
+    private long pageTotal(Long userId) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            QueryWrapper<LoginHistory> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("user_id", userId).orderByDesc("id");
+            return session.getMapper(LoginHistoryMapper.class).selectPage(new Page<>(1, 2), queryWrapper).getTotal();
+        }
+    }
+}
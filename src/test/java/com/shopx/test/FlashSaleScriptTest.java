@@ -0,0 +1,201 @@
+package com.shopx.test;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 秒杀Lua脚本测试
+ * 在真实Redis上执行 scripts/flash_sale_*.lua，验证并发预占不会超卖、不会突破限购，释放后库存与限购正确归还。
+ * 需要可连接的Redis，通过系统属性指定：-Dredis.uri=redis://localhost:6379，未指定时跳过
+ */
+@EnabledIfSystemProperty(named = "redis.uri", matches = ".+")
+class FlashSaleScriptTest {
+
+    private static final int THREADS = 64;
+
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisCommands<String, String> commands;
+    private String[] keys;
+    private String startSha;
+    private String reserveSha;
+    private String settleSha;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = RedisClient.create(System.getProperty("redis.uri"));
+        connection = client.connect();
+        commands = connection.sync();
+        long productId = System.nanoTime();
+        keys = new String[]{
+                "shopx:flash:{" + productId + "}:stock",
+                "shopx:flash:{" + productId + "}:users",
+                "shopx:flash:{" + productId + "}:pending"
+        };
+        startSha = commands.scriptLoad(script("scripts/flash_sale_start.lua"));
+        reserveSha = commands.scriptLoad(script("scripts/flash_sale_reserve.lua"));
+        settleSha = commands.scriptLoad(script("scripts/flash_sale_settle.lua"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commands.del(keys);
+        connection.close();
+        client.shutdown();
+    }
+
+    @Test
+    void testReserve_NoOversellUnderConcurrentClaims() throws Exception {
+        // Given: 库存100件，不限购
+        assertEquals(1L, start(100, 0));
+
+        // When: 1000个用户同时抢购，每人1件
+        List<Long> results = runConcurrently(1000, i -> reserve(String.valueOf(i), 1, "FS" + i));
+
+        // Then: 恰好100次成功，每个剩余库存值只出现一次
+        List<Long> succeeded = results.stream().filter(result -> result >= 0).toList();
+        assertEquals(100, succeeded.size());
+        assertEquals(100, succeeded.stream().distinct().count());
+        assertEquals(900, results.stream().filter(result -> result == -3).count());
+        assertEquals("0", commands.hget(keys[0], "available"));
+        assertEquals("100", commands.hget(keys[0], "pending"));
+        assertEquals(100L, commands.hlen(keys[2]));
+    }
+
+    @Test
+    void testReserve_MultiQuantityClaimsNeverExceedStock() throws Exception {
+        // Given: 库存100件，每单3件，无法整除
+        assertEquals(1L, start(100, 0));
+
+        // When
+        List<Long> results = runConcurrently(500, i -> reserve(String.valueOf(i), 3, "FS" + i));
+
+        // Then: 成交33单，剩余1件
+        assertEquals(33, results.stream().filter(result -> result >= 0).count());
+        assertEquals("1", commands.hget(keys[0], "available"));
+        assertEquals("99", commands.hget(keys[0], "pending"));
+    }
+
+    @Test
+    void testReserve_PerUserLimitHoldsUnderConcurrentClaims() throws Exception {
+        // Given: 库存100件，每人限购2件
+        assertEquals(1L, start(100, 2));
+
+        // When: 10个用户各并发发起20次抢购
+        List<Long> results = runConcurrently(200, i -> reserve(String.valueOf(i % 10), 1, "FS" + i));
+
+        // Then: 每个用户恰好买到2件
+        assertEquals(20, results.stream().filter(result -> result >= 0).count());
+        assertEquals(180, results.stream().filter(result -> result == -2).count());
+        for (int userId = 0; userId < 10; userId++) {
+            assertEquals("2", commands.hget(keys[1], String.valueOf(userId)));
+        }
+        assertEquals("80", commands.hget(keys[0], "available"));
+    }
+
+    @Test
+    void testSettle_ReleaseIsIdempotent() {
+        // Given
+        assertEquals(1L, start(10, 1));
+        assertEquals(9L, reserve("1", 1, "FS1"));
+
+        // When: 同一预占释放两次
+        assertEquals(1L, settle("FS1", "1", 1, "release"));
+        assertEquals(0L, settle("FS1", "1", 1, "release"));
+
+        // Then: 库存与限购只归还一次，用户可以再次购买
+        assertEquals("10", commands.hget(keys[0], "available"));
+        assertEquals("0", commands.hget(keys[0], "pending"));
+        assertEquals("0", commands.hget(keys[1], "1"));
+        assertEquals(9L, reserve("1", 1, "FS2"));
+    }
+
+    @Test
+    void testStart_AlreadyActiveKeepsReservations() {
+        // Given: 秒杀进行中且已有预占
+        assertEquals(1L, start(10, 2));
+        assertEquals(9L, reserve("1", 1, "FS1"));
+
+        // When & Then: 重复开始不覆盖库存、限购与预占明细
+        assertEquals(0L, start(50, 5));
+        assertEquals("9", commands.hget(keys[0], "available"));
+        assertEquals("1", commands.hget(keys[0], "pending"));
+        assertEquals("2", commands.hget(keys[0], "limit"));
+        assertEquals(1L, commands.hlen(keys[2]));
+    }
+
+    @Test
+    void testReserve_NotStarted() {
+        assertEquals(-1L, reserve("1", 1, "FS1"));
+    }
+
+    private Long start(int stock, int perUserLimit) {
+        return commands.evalsha(startSha, ScriptOutputType.INTEGER, keys,
+                String.valueOf(stock), String.valueOf(perUserLimit));
+    }
+
+    private Long reserve(String userId, int quantity, String orderNo) {
+        return commands.evalsha(reserveSha, ScriptOutputType.INTEGER, keys,
+                userId, String.valueOf(quantity), orderNo, String.valueOf(System.currentTimeMillis()));
+    }
+
+    private Long settle(String orderNo, String userId, int quantity, String mode) {
+        return commands.evalsha(settleSha, ScriptOutputType.INTEGER, keys,
+                orderNo, userId, String.valueOf(quantity), mode);
+    }
+
+    /**
+     * 所有请求就绪后同时开始，返回每次预占脚本的返回值
+     */
+    private List<Long> runConcurrently(int requests, IndexedReserve reserve) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                futures.add(executor.submit((Callable<Long>) () -> {
+                    start.await();
+                    return reserve.reserve(index);
+                }));
+            }
+            start.countDown();
+
+            List<Long> results = new ArrayList<>();
+            for (Future<Long> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String script(String path) throws Exception {
+        return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface IndexedReserve {
+        Long reserve(int index);
+    }
+}
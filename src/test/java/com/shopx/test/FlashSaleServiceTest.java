@@ -0,0 +1,318 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.dto.FlashSaleReservationDTO;
+import com.shopx.entity.Product;
+import com.shopx.exception.BusinessException;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.service.IdGeneratorService;
+import com.shopx.service.ProductService;
+import com.shopx.service.impl.FlashSaleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 秒杀服务测试
+ * Redis脚本以FakeFlashSaleRedis代替，只验证服务对脚本返回值的处理：开始秒杀只调用一次脚本、
+ * 预占成功才投递下单消息、投递失败时释放预占、错误码映射为业务异常。
+ * 脚本本身的原子性与不超卖由FlashSaleScriptTest在真实Redis上验证
+ */
+@ExtendWith(MockitoExtension.class)
+class FlashSaleServiceTest {
+
+    private static final Long PRODUCT_ID = 1L;
+    private static final int THREADS = 64;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private IdGeneratorService idGeneratorService;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private FlashSaleServiceImpl flashSaleService;
+
+    private FakeFlashSaleRedis redis;
+
+    @BeforeEach
+    void setUp() {
+        redis = new FakeFlashSaleRedis();
+        AtomicLong sequence = new AtomicLong();
+        lenient().when(idGeneratorService.nextNo(anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0) + String.valueOf(sequence.incrementAndGet()));
+        lenient().when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> redis.eval(invocation.getArguments()));
+        lenient().when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setPrice(new BigDecimal("9.90"));
+        lenient().when(productService.getProductById(PRODUCT_ID)).thenReturn(product);
+    }
+
+    @Test
+    void testStartSale_InitialisesStockAndLimitInOneScript() {
+        // Given
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(50);
+
+        // When
+        flashSaleService.startSale(PRODUCT_ID, 2);
+
+        // Then: 可售库存与限购由同一次脚本调用写入，不再分步写hash
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(stringRedisTemplate, never()).opsForHash();
+        verify(setOperations).add("shopx:flash:active", String.valueOf(PRODUCT_ID));
+        assertEquals(50, redis.available);
+        assertEquals(2, redis.limit);
+    }
+
+    @Test
+    void testStartSale_AlreadyActive() {
+        // Given: 秒杀进行中且已有预占
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(50);
+        redis.startSale(10, 2);
+        flashSaleService.reserve(1L, PRODUCT_ID, 1, "地址");
+
+        // When & Then: 重复开始被拒绝，已有预占与限购保持不变
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> flashSaleService.startSale(PRODUCT_ID, 5));
+        assertEquals("该商品秒杀已在进行中", exception.getMessage());
+        assertEquals(9, redis.available);
+        assertEquals(1, redis.pending);
+        assertEquals(2, redis.limit);
+        verify(setOperations, never()).add(anyString(), any(String[].class));
+    }
+
+    @Test
+    void testReserve_ConcurrentClaimsQueueOnlySuccessfulReservations() throws Exception {
+        // Given: 库存100件，不限购
+        redis.startSale(100, 0);
+
+        // When: 1000个用户同时抢购，每人1件
+        List<FlashSaleReservationDTO> reserved = runConcurrently(1000,
+                i -> flashSaleService.reserve((long) i, PRODUCT_ID, 1, "地址"));
+
+        // Then: 只有脚本预占成功的请求返回预占结果并投递下单消息，售罄的请求不投递
+        assertEquals(100, reserved.size());
+        assertEquals(100, reserved.stream().map(FlashSaleReservationDTO::getOrderNo).distinct().count());
+        assertEquals(0, redis.available);
+        assertEquals(100, redis.pending);
+        assertEquals(100, redis.reservations.size());
+        Set<Integer> remaining = reserved.stream().map(FlashSaleReservationDTO::getRemainingStock).collect(Collectors.toSet());
+        assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toSet()), remaining);
+        verify(rabbitTemplate, times(100)).convertAndSend(eq("shopx.order.queue"), anyString());
+    }
+
+    @Test
+    void testReserve_SendFailureReleasesReservation() throws Exception {
+        // Given: 库存10件，消息投递间歇失败
+        redis.startSale(10, 0);
+        AtomicLong sends = new AtomicLong();
+        doAnswer(invocation -> {
+            if (sends.incrementAndGet() % 2 == 0) {
+                throw new AmqpException("broker unavailable");
+            }
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString());
+
+        // When
+        List<FlashSaleReservationDTO> reserved = runConcurrently(200,
+                i -> flashSaleService.reserve((long) i, PRODUCT_ID, 1, "地址"));
+
+        // Then: 投递失败的预占全部归还，只有投递成功的订单占用库存
+        assertFalse(reserved.isEmpty());
+        assertEquals(10, redis.available + reserved.size());
+        assertEquals(reserved.size(), redis.pending);
+        assertEquals(reserved.size(), redis.reservations.size());
+        for (FlashSaleReservationDTO reservation : reserved) {
+            assertTrue(redis.reservations.containsKey(reservation.getOrderNo()));
+        }
+    }
+
+    @Test
+    void testReserve_SoldOut() {
+        // Given
+        redis.startSale(0, 0);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> flashSaleService.reserve(1L, PRODUCT_ID, 1, "地址"));
+        assertEquals("商品已售罄", exception.getMessage());
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void testReserve_OverLimitAndNotStarted() {
+        // Given: 每人限购1件
+        redis.startSale(10, 1);
+        flashSaleService.reserve(1L, PRODUCT_ID, 1, "地址");
+
+        // When & Then
+        assertEquals("超出限购数量", assertThrows(BusinessException.class,
+                () -> flashSaleService.reserve(1L, PRODUCT_ID, 1, "地址")).getMessage());
+        assertEquals("该商品未参加秒杀", assertThrows(BusinessException.class,
+                () -> flashSaleService.reserve(1L, 2L, 1, "地址")).getMessage());
+    }
+
+    /**
+     * 所有请求就绪后同时开始，返回预占成功的结果；售罄、超出限购等业务失败视为未抢到
+     */
+    private List<FlashSaleReservationDTO> runConcurrently(int requests, IndexedClaim claim) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<FlashSaleReservationDTO>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                results.add(executor.submit((Callable<FlashSaleReservationDTO>) () -> {
+                    start.await();
+                    try {
+                        return claim.reserve(index);
+                    } catch (BusinessException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<FlashSaleReservationDTO> reserved = new ArrayList<>();
+            for (Future<FlashSaleReservationDTO> result : results) {
+                FlashSaleReservationDTO reservation = result.get(60, TimeUnit.SECONDS);
+                if (reservation != null) {
+                    reserved.add(reservation);
+                }
+            }
+            return reserved;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexedClaim {
+        FlashSaleReservationDTO reserve(int index);
+    }
+
+    /**
+     * 单个秒杀商品的Redis状态，eval按参数区分开始、预占与结算脚本；与Redis一样逐个执行，只用于驱动服务层
+     */
+    private static class FakeFlashSaleRedis {
+
+        private boolean active;
+        private int available;
+        private int pending;
+        private int limit;
+        private final Map<String, Integer> bought = new HashMap<>();
+        private final Map<String, String> reservations = new ConcurrentHashMap<>();
+
+        synchronized void startSale(int stock, int perUserLimit) {
+            active = true;
+            available = stock;
+            pending = 0;
+            limit = perUserLimit;
+        }
+
+        synchronized Long eval(Object[] arguments) {
+            Object[] args = arguments.length == 3 && arguments[2] instanceof Object[] array
+                    ? array
+                    : Arrays.copyOfRange(arguments, 2, arguments.length);
+            if (!String.valueOf(((List<?>) arguments[1]).get(0)).contains("{" + PRODUCT_ID + "}")) {
+                return -1L;
+            }
+            if (args.length == 2) {
+                return start(Integer.parseInt((String) args[0]), Integer.parseInt((String) args[1]));
+            }
+            String last = String.valueOf(args[args.length - 1]);
+            if ("confirm".equals(last) || "release".equals(last)) {
+                return settle((String) args[0], (String) args[1], Integer.parseInt((String) args[2]), last);
+            }
+            return reserve((String) args[0], Integer.parseInt((String) args[1]), (String) args[2], last);
+        }
+
+        private Long start(int stock, int perUserLimit) {
+            if (active) {
+                return 0L;
+            }
+            bought.clear();
+            reservations.clear();
+            startSale(stock, perUserLimit);
+            return 1L;
+        }
+
+        private Long reserve(String userId, int quantity, String orderNo, String now) {
+            if (!active) {
+                return -1L;
+            }
+            if (limit > 0 && bought.getOrDefault(userId, 0) + quantity > limit) {
+                return -2L;
+            }
+            if (available < quantity) {
+                return -3L;
+            }
+            available -= quantity;
+            pending += quantity;
+            bought.merge(userId, quantity, Integer::sum);
+            reservations.put(orderNo, userId + ":" + quantity + ":" + now);
+            return (long) available;
+        }
+
+        private Long settle(String orderNo, String userId, int quantity, String mode) {
+            if (reservations.remove(orderNo) == null) {
+                return 0L;
+            }
+            pending -= quantity;
+            if ("release".equals(mode)) {
+                available += quantity;
+                bought.merge(userId, -quantity, Integer::sum);
+            }
+            return 1L;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.shopx.test;
+
+import com.shopx.cache.HotKeyDetector;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 热点key探测测试
+ */
+class HotKeyDetectorTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private HotKeyDetector detector(long threshold, int maxHotKeys) {
+        return new HotKeyDetector(4, 1024, 1, threshold, 60_000, maxHotKeys, now::get);
+    }
+
+    @Test
+    void testRecord_BecomesHotAtThreshold() {
+        HotKeyDetector detector = detector(100, 10);
+
+        // 阈值前不是热点
+        for (int i = 0; i < 99; i++) {
+            assertFalse(detector.record("shopx:product:1"));
+        }
+        assertFalse(detector.isHot("shopx:product:1"));
+        assertEquals(99, detector.estimate("shopx:product:1"));
+
+        // 达到阈值时返回true（需要广播），之后在保持期前半段不重复广播
+        assertTrue(detector.record("shopx:product:1"));
+        assertTrue(detector.isHot("shopx:product:1"));
+        assertFalse(detector.record("shopx:product:1"));
+
+        // 冷key不受影响
+        detector.record("shopx:product:2");
+        assertFalse(detector.isHot("shopx:product:2"));
+        assertEquals(1, detector.estimate("shopx:product:2"));
+    }
+
+    @Test
+    void testRecord_RenewsAfterHalfHoldAndExpires() {
+        HotKeyDetector detector = detector(10, 10);
+        for (int i = 0; i < 10; i++) {
+            detector.record("k");
+        }
+        assertTrue(detector.isHot("k"));
+
+        // 保持期过半后再次达到阈值需要续期广播
+        now.addAndGet(30_001);
+        assertTrue(detector.record("k"));
+
+        // 续期后60秒内一直是热点，到期后不再是
+        now.addAndGet(59_999);
+        assertTrue(detector.isHot("k"));
+        now.addAndGet(1);
+        assertFalse(detector.isHot("k"));
+    }
+
+    @Test
+    void testDecay_HalvesCountsAndDropsExpiredKeys() {
+        HotKeyDetector detector = detector(100, 10);
+        for (int i = 0; i < 80; i++) {
+            detector.record("warm");
+        }
+        detector.markHot("remote");
+
+        // 每个窗口减半
+        detector.decay();
+        assertEquals(40, detector.estimate("warm"));
+        detector.decay();
+        assertEquals(20, detector.estimate("warm"));
+
+        // 衰减后需要重新积累到阈值
+        for (int i = 0; i < 79; i++) {
+            assertFalse(detector.record("warm"));
+        }
+        assertTrue(detector.record("warm"));
+
+        // 到期的热点key在衰减时清理
+        now.addAndGet(60_000);
+        detector.decay();
+        List<Map<String, Object>> snapshot = detector.snapshot();
+        assertTrue(snapshot.isEmpty());
+    }
+
+    @Test
+    void testMarkHot_RespectsMaxHotKeys() {
+        HotKeyDetector detector = detector(1, 2);
+
+        assertTrue(detector.record("a"));
+        assertTrue(detector.record("b"));
+        assertFalse(detector.record("c"));
+        assertFalse(detector.isHot("c"));
+
+        // 已有热点到期后腾出名额
+        now.addAndGet(60_000);
+        detector.decay();
+        assertTrue(detector.record("c"));
+    }
+
+    @Test
+    void testSnapshot_SortedByEstimate() {
+        HotKeyDetector detector = detector(5, 10);
+        for (int i = 0; i < 5; i++) {
+            detector.record("low");
+        }
+        for (int i = 0; i < 20; i++) {
+            detector.record("high");
+        }
+
+        List<Map<String, Object>> snapshot = detector.snapshot();
+        assertEquals(List.of("high", "low"), snapshot.stream().map(item -> item.get("key")).toList());
+        assertEquals(20L, snapshot.get(0).get("estimate"));
+    }
+}
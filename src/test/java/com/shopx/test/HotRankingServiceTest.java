@@ -0,0 +1,154 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.enums.HotRankingWindowEnum;
+import com.shopx.service.impl.HotRankingServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 热门商品排行测试
+ */
+@ExtendWith(MockitoExtension.class)
+class HotRankingServiceTest {
+
+    private static final HotRankingWindowEnum WINDOW = HotRankingWindowEnum.DAY;
+    private static final long HALF_LIFE = WINDOW.getHalfLifeMillis();
+    private static final long GENERATION_MILLIS = HALF_LIFE * 16;
+    private static final long GENERATION = 5000;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private RedisOperations<String, String> pipeline;
+
+    @Mock
+    private ZSetOperations<String, String> pipelineZSet;
+
+    @Mock
+    private SetOperations<String, String> pipelineSet;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private HotRankingServiceImpl hotRankingService;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hotRankingService, "clock", (LongSupplier) now::get);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(pipeline.opsForZSet()).thenReturn(pipelineZSet);
+        lenient().when(pipeline.opsForSet()).thenReturn(pipelineSet);
+        lenient().when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenAnswer(invocation -> {
+                    ((SessionCallback<Object>) invocation.getArgument(0)).execute(pipeline);
+                    return List.of();
+                });
+    }
+
+    @Test
+    void testFlush_ForwardDecayScoresNewerEventsHigher() {
+        // Given: 其他节点已完成换代
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        String allKey = HotRankingServiceImpl.KEY_PREFIX + "24h:all:" + GENERATION;
+        String categoryKey = HotRankingServiceImpl.KEY_PREFIX + "24h:cat:手机:" + GENERATION;
+
+        // When: 代起点后2个半衰期点赞一次（权重3），再过1个半衰期又点赞一次
+        now.set(GENERATION * GENERATION_MILLIS + 2 * HALF_LIFE);
+        hotRankingService.recordLike(1L, "手机");
+        hotRankingService.flush();
+        now.addAndGet(HALF_LIFE);
+        hotRankingService.recordLike(1L, "手机");
+        hotRankingService.flush();
+
+        // Then: 分数为 权重 x 2^(距代起点的半衰期数)，晚一个半衰期的同样事件分数翻倍
+        verify(pipelineZSet).incrementScore(allKey, "1", 3.0 * 4);
+        verify(pipelineZSet).incrementScore(categoryKey, "1", 3.0 * 4);
+        verify(pipelineZSet).incrementScore(allKey, "1", 3.0 * 8);
+        verify(pipelineZSet, times(2)).removeRange(allKey, 0, -(shopXConfig.getHotRanking().getMaxEntries() + 1L));
+        verify(pipeline, atLeastOnce()).expire(allKey, Duration.ofMillis(GENERATION_MILLIS * 2));
+        verify(pipelineSet, times(2)).add(anyString(), eq("手机"));
+    }
+
+    @Test
+    void testFlush_RollsOverPreviousGenerationOnce() {
+        // Given: 本节点抢到换代标记，上一代有全站与分类排行
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(setOperations.members(anyString())).thenReturn(Set.of("手机"));
+        when(stringRedisTemplate.hasKey(anyString())).thenReturn(true);
+        String previousAll = HotRankingServiceImpl.KEY_PREFIX + "24h:all:" + (GENERATION - 1);
+        String currentAll = HotRankingServiceImpl.KEY_PREFIX + "24h:all:" + GENERATION;
+        String previousCategory = HotRankingServiceImpl.KEY_PREFIX + "24h:cat:手机:" + (GENERATION - 1);
+        String currentCategory = HotRankingServiceImpl.KEY_PREFIX + "24h:cat:手机:" + GENERATION;
+
+        // When: 同一代内两次写入
+        now.set(GENERATION * GENERATION_MILLIS + 1);
+        hotRankingService.flush();
+        hotRankingService.flush();
+
+        // Then: 上一代按2^-16并入新一代，只做一次
+        verify(valueOperations, times(1)).setIfAbsent(
+                eq(HotRankingServiceImpl.KEY_PREFIX + "24h:rolled:" + GENERATION), eq("1"), any(Duration.class));
+        verify(zSetOperations).unionAndStore(eq(currentAll), eq(List.of(previousAll)), eq(currentAll),
+                eq(Aggregate.SUM), argThat(weights -> weights.toArray()[0] == 1 && weights.toArray()[1] == Math.pow(2, -16)));
+        verify(zSetOperations).unionAndStore(eq(currentCategory), eq(List.of(previousCategory)), eq(currentCategory),
+                eq(Aggregate.SUM), any());
+        verify(zSetOperations).removeRangeByScore(eq(currentAll), eq(Double.NEGATIVE_INFINITY), anyDouble());
+
+        // When: 进入下一代
+        now.addAndGet(GENERATION_MILLIS);
+        hotRankingService.flush();
+
+        // Then: 新一代再换代一次
+        verify(valueOperations, times(1)).setIfAbsent(
+                eq(HotRankingServiceImpl.KEY_PREFIX + "24h:rolled:" + (GENERATION + 1)), eq("1"), any(Duration.class));
+    }
+
+    @Test
+    void testFlush_NoMergeWhenAnotherNodeRolled() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        now.set(GENERATION * GENERATION_MILLIS + 1);
+
+        hotRankingService.flush();
+
+        verify(zSetOperations, never()).unionAndStore(anyString(), anyList(), anyString(), any(), any());
+    }
+}
@@ -0,0 +1,83 @@
+package com.shopx.test;
+
+import com.shopx.cache.IdBloomFilter;
+import com.shopx.config.ShopXConfig;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.mapper.UserMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ID布隆过滤器测试
+ */
+@ExtendWith(MockitoExtension.class)
+class IdBloomFilterTest {
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private IdBloomFilter idBloomFilter;
+
+    @Test
+    void testMightContain_IdNewerThanRebuildFallsThroughUntilCaughtUp() {
+        // Given: 重建时数据库中有ID 1、2、3、10
+        when(productMapper.selectIdsAfter(0L, 5000)).thenReturn(List.of(1L, 2L, 3L, 10L));
+        idBloomFilter.rebuild();
+
+        // Then: 已加载范围内不存在的ID被拒绝，比已加载最大ID更新的ID放行回源
+        assertTrue(idBloomFilter.mightContainProduct(3L));
+        assertFalse(idBloomFilter.mightContainProduct(5L));
+        assertTrue(idBloomFilter.mightContainProduct(11L));
+
+        // Given: 其他节点新建了ID 11，广播丢失
+        when(productMapper.selectIdsAfter(10L, 5000)).thenReturn(List.of(11L));
+
+        // When
+        idBloomFilter.catchUp();
+
+        // Then: 增量补入后ID 11 已登记，更新的ID仍放行
+        assertTrue(idBloomFilter.mightContainProduct(11L));
+        assertTrue(idBloomFilter.mightContainProduct(12L));
+    }
+
+    @Test
+    void testCatchUp_RescansPreviousIntervalForLateCommits() {
+        // Given
+        when(productMapper.selectIdsAfter(0L, 5000)).thenReturn(List.of(1L, 10L));
+        when(productMapper.selectIdsAfter(10L, 5000)).thenReturn(List.of(12L), List.of(11L, 12L));
+        idBloomFilter.rebuild();
+        idBloomFilter.catchUp();
+        assertFalse(idBloomFilter.mightContainProduct(11L));
+
+        // When: ID 11 比 12 晚提交
+        idBloomFilter.catchUp();
+
+        // Then: 下一轮从上一轮之前的最大ID重新扫描，补入晚提交的ID
+        assertTrue(idBloomFilter.mightContainProduct(11L));
+        verify(productMapper, times(2)).selectIdsAfter(10L, 5000);
+    }
+}
@@ -0,0 +1,124 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.exception.BusinessException;
+import com.shopx.service.impl.IdGeneratorServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 分布式ID生成服务租约测试
+ * 租约30秒、续约间隔10秒、Redis超时3秒：发号截止时间为确认续约时刻 + 17秒
+ */
+@ExtendWith(MockitoExtension.class)
+class IdGeneratorServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private IdGeneratorServiceImpl idGeneratorService;
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idGeneratorService, "clock", (LongSupplier) now::get);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    void testNextId_StopsAtLeaseDeadlineWithoutScheduler() {
+        idGeneratorService.init();
+
+        now.set(1000 + 17000 - 1);
+        assertTrue(idGeneratorService.nextId() > 0);
+
+        // 续约任务未执行，截止时间到达后nextId自行拒绝
+        now.set(1000 + 17000);
+        BusinessException e = assertThrows(BusinessException.class, () -> idGeneratorService.nextId());
+        assertEquals(503, e.getCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testRenew_ExtendsDeadlineFromAttemptTime() {
+        idGeneratorService.init();
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(1L);
+
+        now.set(11000);
+        idGeneratorService.renew();
+
+        now.set(11000 + 17000 - 1);
+        assertTrue(idGeneratorService.nextId() > 0);
+        now.set(11000 + 17000);
+        assertThrows(BusinessException.class, () -> idGeneratorService.nextId());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testRenew_RedisErrorStopsIssuingUntilConfirmed() {
+        idGeneratorService.init();
+        int workerId = idGeneratorService.getWorkerId();
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenThrow(new RedisConnectionFailureException("timeout"))
+                .thenReturn(1L);
+
+        // 续约结果未知：截止时间未到也立即停止发号
+        now.set(11000);
+        idGeneratorService.renew();
+        assertThrows(BusinessException.class, () -> idGeneratorService.nextId());
+
+        // 确认租约仍属本节点后恢复，workerId不变
+        now.set(12000);
+        idGeneratorService.renew();
+        assertTrue(idGeneratorService.nextId() > 0);
+        assertEquals(workerId, idGeneratorService.getWorkerId());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testRenew_LostLeaseLeasesAgain() {
+        idGeneratorService.init();
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(0L);
+
+        now.set(11000);
+        idGeneratorService.renew();
+
+        verify(valueOperations, times(2)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        now.set(11000 + 17000 - 1);
+        assertTrue(idGeneratorService.nextId() > 0);
+    }
+
+    @Test
+    void testInit_RejectsMarginNotShorterThanTtl() {
+        shopXConfig.getIdGenerator().setLeaseTtlSeconds(13);
+
+        assertThrows(IllegalStateException.class, () -> idGeneratorService.init());
+    }
+}
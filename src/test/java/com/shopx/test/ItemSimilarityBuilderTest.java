@@ -0,0 +1,83 @@
+package com.shopx.test;
+
+import com.shopx.recommend.ItemSimilarityBuilder;
+import com.shopx.recommend.UserItemMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品相似度离线计算测试
+ */
+class ItemSimilarityBuilderTest {
+
+    @Test
+    void testBuild_CosineTopNAndHeavyUsersSkipped() {
+        UserItemMatrix matrix = new UserItemMatrix();
+        add(matrix, 1L, 100L, 101L);
+        add(matrix, 2L, 100L, 101L);
+        add(matrix, 3L, 100L, 102L);
+        add(matrix, 4L, 103L);
+        // 交互商品过多的用户不参与共现
+        add(matrix, 5L, 100L, 101L, 102L, 103L, 104L);
+
+        Map<Long, byte[]> model = new ItemSimilarityBuilder(matrix.copy(), 1, 4).build(new ForkJoinPool(2));
+
+        // 100与101共现2次：2/sqrt(4*3)；100与102共现1次：1/sqrt(4*2)，只保留前1个
+        Map<Long, Double> neighbors = ItemSimilarityBuilder.decode(model.get(100L));
+        assertEquals(List.of(101L), new ArrayList<>(neighbors.keySet()));
+        assertEquals(2 / Math.sqrt(12), neighbors.get(101L), 1e-6);
+        assertEquals(Map.of(100L, 1 / Math.sqrt(8)).keySet(), ItemSimilarityBuilder.decode(model.get(102L)).keySet());
+        assertFalse(model.containsKey(103L));
+        assertFalse(model.containsKey(104L));
+        assertTrue(ItemSimilarityBuilder.decode(null).isEmpty());
+    }
+
+    @Test
+    void testBuild_MatchesBruteForce() {
+        Random random = new Random(11);
+        UserItemMatrix matrix = new UserItemMatrix(4, 4);
+        Map<Long, Set<Long>> itemUsers = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long userId = 1 + random.nextInt(2000);
+            long itemId = 1 + random.nextInt(600);
+            matrix.add(userId, itemId);
+            itemUsers.computeIfAbsent(itemId, k -> new HashSet<>()).add(userId);
+        }
+
+        Map<Long, byte[]> model = new ItemSimilarityBuilder(matrix.copy(), 5, Integer.MAX_VALUE).build(new ForkJoinPool(4));
+
+        for (long itemId : List.of(1L, 42L, 300L, 599L)) {
+            Set<Long> users = itemUsers.get(itemId);
+            List<Map.Entry<Long, Double>> expected = new ArrayList<>();
+            itemUsers.forEach((other, otherUsers) -> {
+                Set<Long> shared = new HashSet<>(users);
+                shared.retainAll(otherUsers);
+                if (other != itemId && !shared.isEmpty()) {
+                    expected.add(Map.entry(other, shared.size() / Math.sqrt((double) users.size() * otherUsers.size())));
+                }
+            });
+            expected.sort((a, b) -> Float.compare(b.getValue().floatValue(), a.getValue().floatValue()) != 0
+                    ? Float.compare(b.getValue().floatValue(), a.getValue().floatValue())
+                    : Long.compare(a.getKey(), b.getKey()));
+
+            Map<Long, Double> actual = ItemSimilarityBuilder.decode(model.get(itemId));
+            assertEquals(expected.stream().limit(5).map(Map.Entry::getKey).toList(), new ArrayList<>(actual.keySet()));
+        }
+    }
+
+    private static void add(UserItemMatrix matrix, Long userId, Long... itemIds) {
+        for (Long itemId : itemIds) {
+            matrix.add(userId, itemId);
+        }
+    }
+}
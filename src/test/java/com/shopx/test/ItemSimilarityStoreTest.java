@@ -0,0 +1,116 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.recommend.ItemSimilarityStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品相似度模型发布测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ItemSimilarityStoreTest {
+
+    private static final String VERSION_PREFIX = ItemSimilarityStore.KEY_PREFIX + "v";
+
+    @Mock
+    private RedisTemplate<String, byte[]> cacheRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private ItemSimilarityStore itemSimilarityStore;
+
+    @BeforeEach
+    void setUp() {
+        shopXConfig.getRecommend().getItemSimilarity().setWriteBatchSize(2);
+        lenient().doReturn(hashOperations).when(cacheRedisTemplate).opsForHash();
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testPublish_StagesWithTtlAndPersistsAfterSwap() {
+        // Given
+        when(valueOperations.getAndSet(eq(ItemSimilarityStore.VERSION_KEY), anyString())).thenReturn("100");
+
+        // When
+        String version = itemSimilarityStore.publish(neighbors(3));
+
+        // Then: 两批写入，每批后设置暂存过期；切换版本号后才清除过期，旧版本延迟过期
+        String nextKey = VERSION_PREFIX + version;
+        InOrder inOrder = inOrder(hashOperations, cacheRedisTemplate, valueOperations);
+        inOrder.verify(hashOperations).putAll(eq(nextKey), anyMap());
+        inOrder.verify(cacheRedisTemplate).expire(nextKey, Duration.ofSeconds(3600));
+        inOrder.verify(hashOperations).putAll(eq(nextKey), anyMap());
+        inOrder.verify(cacheRedisTemplate).expire(nextKey, Duration.ofSeconds(3600));
+        inOrder.verify(valueOperations).getAndSet(ItemSimilarityStore.VERSION_KEY, version);
+        inOrder.verify(cacheRedisTemplate).persist(nextKey);
+        inOrder.verify(cacheRedisTemplate).expire(VERSION_PREFIX + "100", Duration.ofSeconds(600));
+        verify(cacheRedisTemplate, never()).delete(anyString());
+        assertTrue(itemSimilarityStore.isReady());
+    }
+
+    @Test
+    void testPublish_WriteFailureDeletesPartialVersion() {
+        // Given: 第二批写入时Redis超时
+        doNothing().doThrow(new QueryTimeoutException("timeout"))
+                .when(hashOperations).putAll(startsWith(VERSION_PREFIX), anyMap());
+
+        // When & Then: 删除写了一半的哈希，不切换版本
+        assertThrows(QueryTimeoutException.class, () -> itemSimilarityStore.publish(neighbors(4)));
+        verify(cacheRedisTemplate).delete(startsWith(VERSION_PREFIX));
+        verify(cacheRedisTemplate, never()).persist(anyString());
+        verifyNoInteractions(valueOperations);
+        assertFalse(itemSimilarityStore.isReady());
+    }
+
+    @Test
+    void testPublish_SwapFailureKeepsStagingTtl() {
+        // Given: 切换时结果未知
+        when(valueOperations.getAndSet(eq(ItemSimilarityStore.VERSION_KEY), anyString()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        // When & Then: 不删除也不清除过期时间，未生效的新版本到期自动删除
+        assertThrows(QueryTimeoutException.class, () -> itemSimilarityStore.publish(neighbors(1)));
+        verify(cacheRedisTemplate).expire(startsWith(VERSION_PREFIX), eq(Duration.ofSeconds(3600)));
+        verify(cacheRedisTemplate, never()).persist(anyString());
+        verify(cacheRedisTemplate, never()).delete(anyString());
+    }
+
+    private static Map<Long, byte[]> neighbors(int count) {
+        Map<Long, byte[]> neighbors = new LinkedHashMap<>();
+        for (long id = 1; id <= count; id++) {
+            neighbors.put(id, new byte[]{(byte) id});
+        }
+        return neighbors;
+    }
+}
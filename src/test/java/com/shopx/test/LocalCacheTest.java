@@ -0,0 +1,107 @@
+package com.shopx.test;
+
+import com.shopx.cache.LocalCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 本地缓存测试
+ */
+class LocalCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void testPut_SizeBoundedByMaximumSize() {
+        // Given: 16段，每段容量4
+        LocalCache cache = new LocalCache(64, now::get);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key:" + i, i, 60_000);
+        }
+
+        // Then: 每段超过容量即淘汰，总数不超过上限，最新写入的条目仍在
+        assertTrue(cache.size() <= 64, "size=" + cache.size());
+        assertTrue(cache.size() > 0);
+        assertEquals(999, cache.get("key:999"));
+    }
+
+    @Test
+    void testPut_SmallMaximumSizeKeepsOnePerSegment() {
+        // Given: 上限小于段数时每段至少保留一条
+        LocalCache cache = new LocalCache(1, now::get);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            cache.put("key:" + i, i, 60_000);
+        }
+
+        // Then
+        assertTrue(cache.size() <= 16);
+        assertEquals(99, cache.get("key:99"));
+    }
+
+    @Test
+    void testGet_ExpiresAfterTtl() {
+        // Given
+        LocalCache cache = new LocalCache(64, now::get);
+        cache.put("user:1", "alice", 1_000);
+
+        // When & Then: 过期前可读，到期时刻起不可读并被清理
+        now.addAndGet(999);
+        assertEquals("alice", cache.get("user:1"));
+        now.addAndGet(1);
+        assertNull(cache.get("user:1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_IgnoresNullValueAndNonPositiveTtl() {
+        LocalCache cache = new LocalCache(64, now::get);
+
+        cache.put("a", null, 1_000);
+        cache.put("b", "b", 0);
+        cache.put("c", "c", -1);
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void testPut_OverwriteRefreshesValueAndTtl() {
+        LocalCache cache = new LocalCache(64, now::get);
+        cache.put("k", "v1", 1_000);
+        now.addAndGet(800);
+        cache.put("k", "v2", 1_000);
+        now.addAndGet(800);
+
+        assertEquals("v2", cache.get("k"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testInvalidate_RemovesSingleKeyAndAll() {
+        // Given
+        LocalCache cache = new LocalCache(64, now::get);
+        cache.put("product:1", "p1", 60_000);
+        cache.put("product:2", "p2", 60_000);
+        cache.put("user:1", "u1", 60_000);
+
+        // When
+        cache.invalidate("product:1");
+        cache.invalidate("missing");
+
+        // Then
+        assertNull(cache.get("product:1"));
+        assertEquals("p2", cache.get("product:2"));
+        assertEquals(2, cache.size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("user:1"));
+    }
+}
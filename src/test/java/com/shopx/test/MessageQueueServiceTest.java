@@ -0,0 +1,91 @@
+package com.shopx.test;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.shopx.config.MessageQueueConfig;
+import com.shopx.dto.CheckoutOrderCommand;
+import com.shopx.dto.FlashSaleReservationDTO;
+import com.shopx.service.AsyncCheckoutService;
+import com.shopx.service.FlashSaleService;
+import com.shopx.service.MessageQueueService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 订单消息批量消费测试
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageQueueServiceTest {
+
+    @Mock
+    private FlashSaleService flashSaleService;
+
+    @Mock
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @InjectMocks
+    private MessageQueueService messageQueueService;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testHandleOrderMessages_BadMessageDeadLetteredOthersProcessed() {
+        // Given: 一批消息中夹着一条无法解析的和一条缺少payload的
+        String checkout = message(AsyncCheckoutService.MESSAGE_TYPE, command("O1"));
+        String broken = "{\"type\":\"CHECKOUT_ORDER\",\"payload\":";
+        String noPayload = "{\"type\":\"FLASH_SALE_ORDER\"}";
+        FlashSaleReservationDTO reservation = new FlashSaleReservationDTO();
+        reservation.setOrderNo("F1");
+        String flashSale = message(FlashSaleService.MESSAGE_TYPE, reservation);
+
+        // When
+        messageQueueService.handleOrderMessages(List.of(checkout, broken, noPayload, flashSale, "plain text"));
+
+        // Then: 坏消息逐条转入死信队列，其余消息照常处理
+        verify(rabbitTemplate).convertAndSend(MessageQueueConfig.ORDER_DEAD_LETTER_QUEUE, broken);
+        verify(rabbitTemplate).convertAndSend(MessageQueueConfig.ORDER_DEAD_LETTER_QUEUE, noPayload);
+        verify(flashSaleService).persistReservation(argThat(r -> "F1".equals(r.getOrderNo())));
+        ArgumentCaptor<List<CheckoutOrderCommand>> captor = ArgumentCaptor.forClass(List.class);
+        verify(asyncCheckoutService).persistBatch(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("O1", captor.getValue().get(0).getOrderNo());
+    }
+
+    @Test
+    void testHandleOrderMessages_ProcessingFailurePropagates() {
+        // Given: 落库时数据库不可用
+        doThrow(new IllegalStateException("db down")).when(asyncCheckoutService).persistBatch(anyList());
+
+        // When & Then: 处理异常仍向上抛出，整批重新投递，不进死信队列
+        assertThrows(IllegalStateException.class, () ->
+                messageQueueService.handleOrderMessages(List.of(message(AsyncCheckoutService.MESSAGE_TYPE, command("O2")))));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private static CheckoutOrderCommand command(String orderNo) {
+        CheckoutOrderCommand command = new CheckoutOrderCommand();
+        command.setOrderNo(orderNo);
+        command.setTicket("t-" + orderNo);
+        command.setUserId(1L);
+        return command;
+    }
+
+    private static String message(String type, Object payload) {
+        JSONObject message = new JSONObject();
+        message.put("type", type);
+        message.put("payload", payload);
+        return message.toJSONString();
+    }
+}
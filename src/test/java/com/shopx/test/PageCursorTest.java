@@ -0,0 +1,94 @@
+package com.shopx.test;
+
+import com.shopx.entity.Order;
+import com.shopx.exception.BusinessException;
+import com.shopx.util.PageCursor;
+import com.shopx.util.ResponseUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 游标分页测试
+ * 验证游标编码可逆、非法游标被拒绝，以及 LIMIT size+1 结果的下一页判断
+ */
+class PageCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        LocalDateTime createTime = LocalDateTime.of(2025, 3, 1, 12, 30, 45, 123000000);
+
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(createTime, 987654321L));
+
+        assertEquals(createTime, cursor.getCreateTime());
+        assertEquals(987654321L, cursor.getId());
+        assertNull(PageCursor.decode(null));
+    }
+
+    @Test
+    void testDecode_InvalidCursor() {
+        BusinessException e = assertThrows(BusinessException.class, () -> PageCursor.decode("not-a-cursor"));
+        assertEquals(400, e.getCode().intValue());
+    }
+
+    @Test
+    void testToPage_HasNextWhenExtraRowFetched() {
+        // Given: size=2，查询多取一行
+        List<Order> rows = orders(3);
+
+        // When
+        ResponseUtil.PageResult<Order> page = PageCursor.toPage(rows, null, 2, Order::getCreateTime, Order::getId, null);
+
+        // Then
+        assertEquals(2, page.getData().size());
+        assertTrue(page.isHasNext());
+        assertFalse(page.isHasPrevious());
+        assertEquals(-1, page.getTotal());
+        PageCursor next = PageCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).getId(), next.getId());
+    }
+
+    @Test
+    void testToPage_LastPage() {
+        ResponseUtil.PageResult<Order> page = PageCursor.toPage(orders(2), "cursor", 2,
+                Order::getCreateTime, Order::getId, 42L, true);
+
+        assertEquals(2, page.getData().size());
+        assertFalse(page.isHasNext());
+        assertTrue(page.isHasPrevious());
+        assertNull(page.getNextCursor());
+        assertEquals(42L, page.getTotal());
+        assertTrue(page.isApproximateTotal());
+    }
+
+    @Test
+    void testToPage_ExactTotalNotMarkedApproximate() {
+        ResponseUtil.PageResult<Order> exact = PageCursor.toPage(orders(1), null, 2,
+                Order::getCreateTime, Order::getId, 1L);
+        assertEquals(1L, exact.getTotal());
+        assertEquals(1, exact.getTotalPages());
+        assertFalse(exact.isApproximateTotal());
+
+        // 跳过计数时不存在总数，也不标记为近似
+        ResponseUtil.PageResult<Order> skipped = PageCursor.toPage(orders(1), null, 2,
+                Order::getCreateTime, Order::getId, null, true);
+        assertEquals(-1, skipped.getTotal());
+        assertFalse(skipped.isApproximateTotal());
+    }
+
+    private List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setId(100L - i);
+            order.setCreateTime(now.minusMinutes(i));
+            orders.add(order);
+        }
+        return orders;
+    }
+}
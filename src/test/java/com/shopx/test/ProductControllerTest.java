@@ -2,6 +2,8 @@ package com.shopx.test;
 
 import com.shopx.controller.ProductController;
 import com.shopx.entity.Product;
+import com.shopx.service.HotRankingService;
+import com.shopx.service.ProductCounterService;
 import com.shopx.service.ProductService;
 import com.shopx.util.ResponseUtil;
 import com.shopx.util.SaTokenUtil;
@@ -33,6 +35,12 @@ class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductCounterService productCounterService;
+
+    @Mock
+    private HotRankingService hotRankingService;
+
     @Mock
     private SaTokenUtil saTokenUtil;
 
@@ -69,7 +77,7 @@ class ProductControllerTest {
         when(productService.getProducts(1, 20, null, null)).thenReturn(products);
 
         // When
-        ResponseEntity<?> response = productController.getAllProducts(1, 20, null, null);
+        ResponseEntity<?> response = productController.getAllProducts(1, 20, null, null, "offset", null, false);
 
         // Then
         assertNotNull(response);
@@ -253,15 +261,15 @@ class ProductControllerTest {
     void testGetHotProducts_Success() {
         // Given
         List<Product> hotProducts = Arrays.asList(testProduct);
-        when(productService.getHotProducts(10)).thenReturn(hotProducts);
+        when(productService.getHotProducts(10, null, "24h")).thenReturn(hotProducts);
 
         // When
-        ResponseEntity<?> response = productController.getHotProducts(10);
+        ResponseEntity<?> response = productController.getHotProducts(10, null, "24h");
 
         // Then
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(productService).getHotProducts(10);
+        verify(productService).getHotProducts(10, null, "24h");
     }
 
     @Test
@@ -303,7 +311,7 @@ class ProductControllerTest {
                 .thenThrow(new BusinessException("参数错误"));
 
         // When
-        ResponseEntity<?> response = productController.getAllProducts(-1, 0, null, null);
+        ResponseEntity<?> response = productController.getAllProducts(-1, 0, null, null, "offset", null, false);
 
         // Then
         assertNotNull(response);
@@ -0,0 +1,132 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.dto.ProductCounterDelta;
+import com.shopx.entity.Product;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.service.impl.ProductCounterServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品计数写回测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductCounterServiceTest {
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private ProductCounterServiceImpl productCounterService;
+
+    @BeforeEach
+    void setUp() {
+        productCounterService.init();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFlush_AggregatesConcurrentIncrementsIntoOneStatement() throws Exception {
+        // Given: 8个线程并发累加两个商品的计数
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    productCounterService.incrementView(1L);
+                    productCounterService.incrementShare(2L);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        productCounterService.incrementLike(2L, 1);
+        productCounterService.incrementLike(2L, 1);
+        productCounterService.incrementLike(2L, -1);
+
+        // When
+        int flushed = productCounterService.flush();
+
+        // Then: 一条语句写回两个商品
+        assertEquals(2, flushed);
+        ArgumentCaptor<List<ProductCounterDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productMapper, times(1)).batchIncrementCounters(captor.capture());
+        List<ProductCounterDelta> deltas = captor.getValue();
+        assertEquals(new ProductCounterDelta(1L, 8000, 0, 0), deltas.get(0));
+        assertEquals(new ProductCounterDelta(2L, 0, 1, 8000), deltas.get(1));
+
+        // 没有新增量时不访问数据库
+        assertEquals(0, productCounterService.flush());
+        verifyNoMoreInteractions(productMapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFlush_FailureKeepsDeltasForRetry() {
+        // Given
+        productCounterService.incrementView(1L);
+        productCounterService.incrementView(1L);
+        when(productMapper.batchIncrementCounters(anyList()))
+                .thenThrow(new RuntimeException("数据库不可用"))
+                .thenReturn(1);
+
+        // When: 第一次写回失败，之后又有新的浏览
+        assertEquals(0, productCounterService.flush());
+        productCounterService.incrementView(1L);
+        assertEquals(1, productCounterService.flush());
+
+        // Then: 重试时带上失败批次的增量
+        ArgumentCaptor<List<ProductCounterDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productMapper, times(2)).batchIncrementCounters(captor.capture());
+        assertEquals(new ProductCounterDelta(1L, 3, 0, 0), captor.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    void testMergePending_ReturnsCopyWithUnflushedCounts() {
+        // Given
+        Product cached = new Product();
+        cached.setId(1L);
+        cached.setName("测试商品");
+        cached.setViewCount(10);
+        cached.setLikeCount(0);
+        productCounterService.incrementView(1L);
+        productCounterService.incrementLike(1L, -1);
+
+        // When
+        Product merged = productCounterService.mergePending(cached);
+
+        // Then: 缓存中的对象保持不变，点赞数不为负
+        assertNotSame(cached, merged);
+        assertEquals("测试商品", merged.getName());
+        assertEquals(11, merged.getViewCount());
+        assertEquals(0, merged.getLikeCount());
+        assertEquals(0, merged.getShareCount());
+        assertEquals(10, cached.getViewCount());
+
+        // 没有增量的商品原样返回
+        Product other = new Product();
+        other.setId(2L);
+        assertSame(other, productCounterService.mergePending(other));
+    }
+}
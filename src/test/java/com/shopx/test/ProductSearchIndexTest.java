@@ -0,0 +1,207 @@
+package com.shopx.test;
+
+import com.shopx.entity.Product;
+import com.shopx.search.ProductSearchIndex;
+import com.shopx.search.ProductSearchQuery;
+import com.shopx.search.ProductSearchResult;
+import com.shopx.search.SearchTokenizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品倒排索引测试
+ */
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(1.2f, 0.75f, 3);
+        index.upsert(product(1L, "苹果手机壳", "透明防摔手机壳", "配件", "19.90", 10, false));
+        index.upsert(product(2L, "华为手机", "旗舰手机，可搭配手机壳", "手机", "3999.00", 0, true));
+        index.upsert(product(3L, "Nike 运动鞋", "轻便跑步鞋", "鞋", "599.00", 5, false));
+        // 填充文档，使常见词与罕见词的IDF拉开差距
+        for (long id = 100; id < 200; id++) {
+            index.upsert(product(id, "商品" + id, "普通描述", "其他", "1.00", 1, false));
+        }
+    }
+
+    @Test
+    void testTokenizer_CjkBigramsAndLatinWords() {
+        assertEquals(List.of("iphone", "15", "手机", "机壳"), SearchTokenizer.tokenizeQuery("iPhone 15 手机壳"));
+        // 单字查询用单字，索引同时包含单字与二元组
+        assertEquals(List.of("鞋"), SearchTokenizer.tokenizeQuery("鞋"));
+        assertTrue(SearchTokenizer.tokenize("跑步鞋").containsAll(List.of("跑", "步", "鞋", "跑步", "步鞋")));
+    }
+
+    @Test
+    void testSearch_RanksByBm25() {
+        // 名称命中的商品排在仅描述命中的前面
+        ProductSearchResult result = index.search(query("手机壳"));
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of(1L, 2L), result.getProductIds());
+
+        assertEquals(List.of(3L), index.search(query("nike")).getProductIds());
+        assertEquals(List.of(3L), index.search(query("鞋")).getProductIds());
+        assertEquals(0, index.search(query("不存在的词")).getTotal());
+    }
+
+    @Test
+    void testSearch_FilterBitsets() {
+        ProductSearchQuery inStock = query("手机");
+        inStock.setInStock(true);
+        assertEquals(List.of(1L), index.search(inStock).getProductIds());
+
+        ProductSearchQuery with3d = query("手机");
+        with3d.setHas3dPreview(true);
+        assertEquals(List.of(2L), index.search(with3d).getProductIds());
+
+        ProductSearchQuery byCategory = query(null);
+        byCategory.setCategory("鞋");
+        assertEquals(List.of(3L), index.search(byCategory).getProductIds());
+
+        ProductSearchQuery byPrice = query("手机");
+        byPrice.setMinPrice(new BigDecimal("100"));
+        byPrice.setMaxPrice(new BigDecimal("5000"));
+        assertEquals(List.of(2L), index.search(byPrice).getProductIds());
+    }
+
+    @Test
+    void testSearch_PaginationAndSort() {
+        ProductSearchQuery query = query("商品");
+        query.setSort(ProductSearchQuery.Sort.NEWEST);
+        query.setOffset(10);
+        query.setLimit(3);
+
+        ProductSearchResult result = index.search(query);
+
+        assertEquals(100, result.getTotal());
+        assertEquals(List.of(189L, 188L, 187L), result.getProductIds());
+    }
+
+    @Test
+    void testUpsertAndRemove_Incremental() {
+        // 更新：旧内容不再命中，新内容立即可查
+        index.upsert(product(2L, "华为平板", "平板电脑", "平板", "2999.00", 3, true));
+        assertEquals(List.of(1L), index.search(query("手机")).getProductIds());
+        assertEquals(List.of(2L), index.search(query("平板")).getProductIds());
+
+        // 停用等同删除
+        Product disabled = product(3L, "Nike 运动鞋", "轻便跑步鞋", "鞋", "599.00", 5, false);
+        disabled.setEnabled(false);
+        index.upsert(disabled);
+        assertEquals(0, index.search(query("nike")).getTotal());
+
+        index.remove(1L);
+        assertEquals(0, index.search(query("手机壳")).getTotal());
+        assertEquals(101, index.size());
+        assertEquals(3, index.deletedCount());
+    }
+
+    @Test
+    void testUpsert_UnchangedContentUpdatesInPlace() {
+        // Given: 只有浏览数和库存数量变化
+        Product product = product(1L, "苹果手机壳", "透明防摔手机壳", "配件", "19.90", 10, false);
+        product.setViewCount(500);
+        product.setStock(3);
+
+        // When
+        boolean changed = index.upsert(product);
+
+        // Then: 不追加新文档，排序列已更新
+        assertFalse(changed);
+        assertEquals(0, index.deletedCount());
+        ProductSearchQuery popular = query("手机");
+        popular.setSort(ProductSearchQuery.Sort.POPULARITY);
+        assertEquals(List.of(1L, 2L), index.search(popular).getProductIds());
+
+        // 可检索内容变化时仍替换文档
+        product.setStock(0);
+        assertTrue(index.upsert(product));
+        assertEquals(1, index.deletedCount());
+        assertEquals(List.of(1L, 2L), index.search(popular).getProductIds());
+    }
+
+    @Test
+    void testUpsert_ContentChangeWithEqualHashCodeReplacesDocument() {
+        // Given: "Aa"与"BB"的String.hashCode相同，32位哈希摘要无法区分这两次修改
+        index.upsert(product(4L, "Aa", "描述", "配件", "9.90", 1, false));
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        // When
+        boolean changed = index.upsert(product(4L, "BB", "描述", "配件", "9.90", 1, false));
+
+        // Then: 文档被替换，新名称可查、旧名称不再命中
+        assertTrue(changed);
+        assertEquals(List.of(4L), index.search(query("bb")).getProductIds());
+        assertEquals(0, index.search(query("aa")).getTotal());
+    }
+
+    @Test
+    void testSearch_LatinTermsMatchWholeTokens() {
+        assertEquals(List.of(3L), index.search(query("nike")).getProductIds());
+        assertEquals(0, index.search(query("nik")).getTotal());
+    }
+
+    @Test
+    void testSearch_FacetCounts() {
+        ProductSearchQuery query = query("手机");
+        query.setFacets(true);
+
+        Map<String, Map<String, Long>> facets = index.search(query).getFacets();
+
+        assertEquals(Map.of("手机", 1L, "配件", 1L), facets.get(ProductSearchIndex.FACET_CATEGORY));
+        assertEquals(List.of("0-50", "50-100", "100-200", "200-500", "500-1000", "1000-5000", "5000+"),
+                List.copyOf(facets.get(ProductSearchIndex.FACET_PRICE).keySet()));
+        assertEquals(1L, facets.get(ProductSearchIndex.FACET_PRICE).get("0-50").longValue());
+        assertEquals(1L, facets.get(ProductSearchIndex.FACET_PRICE).get("1000-5000").longValue());
+        assertEquals(0L, facets.get(ProductSearchIndex.FACET_PRICE).get("5000+").longValue());
+        assertEquals(Map.of("inStock", 1L, "outOfStock", 1L), facets.get(ProductSearchIndex.FACET_STOCK_STATUS));
+
+        // 只有筛选条件时按过滤结果统计
+        ProductSearchQuery byCategory = query(null);
+        byCategory.setCategory("鞋");
+        byCategory.setFacets(true);
+        facets = index.search(byCategory).getFacets();
+        assertEquals(Map.of("鞋", 1L), facets.get(ProductSearchIndex.FACET_CATEGORY));
+        assertEquals(1L, facets.get(ProductSearchIndex.FACET_PRICE).get("500-1000").longValue());
+
+        // 商品变更后位图随之更新
+        index.upsert(product(2L, "华为平板", "平板电脑", "平板", "2999.00", 3, true));
+        facets = index.search(query).getFacets();
+        assertEquals(Map.of("配件", 1L), facets.get(ProductSearchIndex.FACET_CATEGORY));
+        assertEquals(Map.of("inStock", 1L, "outOfStock", 0L), facets.get(ProductSearchIndex.FACET_STOCK_STATUS));
+
+        assertNull(index.search(query("手机")).getFacets());
+    }
+
+    private static ProductSearchQuery query(String keyword) {
+        return ProductSearchQuery.builder().keyword(keyword).limit(20).build();
+    }
+
+    private static Product product(Long id, String name, String description, String category,
+                                   String price, int stock, boolean has3dPreview) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        product.setHas3dPreview(has3dPreview);
+        product.setIsRecyclable(false);
+        product.setEnabled(true);
+        product.setViewCount(0);
+        product.setLikeCount(0);
+        product.setCreateTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        return product;
+    }
+}
@@ -1,10 +1,14 @@
 package com.shopx.test;
 
 import com.shopx.entity.Product;
+import com.shopx.service.HotRankingService;
+import com.shopx.service.ProductCounterService;
 import com.shopx.service.ProductService;
 import com.shopx.service.impl.ProductServiceImpl;
 import com.shopx.mapper.ProductMapper;
+import com.shopx.search.ProductSearchEngine;
 import com.shopx.cache.CacheManager;
+import com.shopx.cache.IdBloomFilter;
 import com.shopx.util.SaTokenUtil;
 import com.shopx.validation.ValidationUtils;
 import com.shopx.exception.BusinessException;
@@ -17,9 +21,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,6 +44,18 @@ class ProductServiceTest {
     @Mock
     private CacheManager cacheManager;
 
+    @Mock
+    private IdBloomFilter idBloomFilter;
+
+    @Mock
+    private ProductCounterService productCounterService;
+
+    @Mock
+    private HotRankingService hotRankingService;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
     @Mock
     private SaTokenUtil saTokenUtil;
 
@@ -65,6 +83,14 @@ class ProductServiceTest {
         testProduct.setVrExperienceUrl("https://example.com/vr/experience");
         testProduct.setCreateTime(LocalDateTime.now());
         testProduct.setUpdateTime(LocalDateTime.now());
+        
+        // 缓存未命中，直接回源
+        lenient().when(cacheManager.getOrLoad(anyString(), any(Duration.class), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        lenient().when(cacheManager.getOrLoad(anyString(), any(Duration.class), any(), any(String[].class)))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        lenient().when(idBloomFilter.mightContainProduct(any())).thenReturn(true);
+        lenient().when(productCounterService.mergePending(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
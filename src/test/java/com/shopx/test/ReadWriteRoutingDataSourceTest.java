@@ -0,0 +1,156 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.datasource.ReadWriteRoutingDataSource;
+import com.shopx.datasource.RoutingContext;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 读写分离路由测试
+ * 用两个H2内存库分别充当主库与从库（各存一行标识自身的数据），从库中的t_replica_lag表模拟复制延迟
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcDataSource primary;
+    private JdbcDataSource replica;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = database("primary");
+        replica = database("replica");
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE t_replica_lag (seconds_behind_source BIGINT)");
+            statement.execute("INSERT INTO t_replica_lag VALUES (0)");
+        }
+
+        ShopXConfig.ReadWrite config = new ShopXConfig.ReadWrite();
+        config.setLagQuery("SELECT seconds_behind_source FROM t_replica_lag");
+        config.setLagColumn("seconds_behind_source");
+        config.setMaxLagSeconds(5L);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, List.of(replica), config);
+        routingDataSource.checkReplicaLag();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+    }
+
+    @Test
+    void testRoute_DefaultsToPrimary() {
+        assertEquals("primary", whoAmI());
+        assertEquals("primary", readWriteTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testRoute_UncheckedReplicaNotUsed() {
+        // 尚未检查过延迟的从库不可用
+        ShopXConfig.ReadWrite config = new ShopXConfig.ReadWrite();
+        ReadWriteRoutingDataSource unchecked = new ReadWriteRoutingDataSource(primary, List.of(replica), config);
+        assertFalse(unchecked.isReplicaAvailable(0));
+    }
+
+    @Test
+    void testRoute_ReadOnlyTransactionUsesReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testRoute_ReadOnlyAnnotationUsesReplica() {
+        RoutingContext.enterReadOnly();
+        try {
+            assertEquals("replica", whoAmI());
+        } finally {
+            RoutingContext.exitReadOnly();
+        }
+        assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void testRoute_StickyPrimaryAfterWrite() {
+        // Given: 同一请求中先发生写入
+        RoutingContext.markWrite();
+
+        // Then: 粘滞窗口内的只读查询仍读主库
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+
+        // When: 请求结束清理上下文
+        RoutingContext.clear();
+
+        // Then
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testRoute_LaggingReplicaFallsBackToPrimary() throws Exception {
+        // Given: 从库延迟超过阈值
+        setReplicaLag("30");
+        routingDataSource.checkReplicaLag();
+
+        // Then
+        assertFalse(routingDataSource.isReplicaAvailable(0));
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+
+        // When: 复制追上
+        setReplicaLag("1");
+        routingDataSource.checkReplicaLag();
+
+        // Then
+        assertTrue(routingDataSource.isReplicaAvailable(0));
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testRoute_StoppedReplicationFallsBackToPrimary() throws Exception {
+        // 复制线程停止时延迟为NULL
+        setReplicaLag("NULL");
+        routingDataSource.checkReplicaLag();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM t_node", String.class);
+    }
+
+    private void setReplicaLag(String seconds) throws Exception {
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE t_replica_lag SET seconds_behind_source = " + seconds);
+        }
+    }
+
+    private JdbcDataSource database(String name) throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE t_node (name VARCHAR(20))");
+            statement.execute("INSERT INTO t_node VALUES ('" + name + "')");
+        }
+        return dataSource;
+    }
+}
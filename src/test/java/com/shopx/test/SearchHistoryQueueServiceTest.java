@@ -0,0 +1,128 @@
+package com.shopx.test;
+
+import com.shopx.config.ShopXConfig;
+import com.shopx.entity.SearchHistory;
+import com.shopx.mapper.SearchHistoryMapper;
+import com.shopx.service.impl.SearchHistoryQueueServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 搜索历史异步写入测试
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchHistoryQueueServiceTest {
+
+    @Mock
+    private SearchHistoryMapper searchHistoryMapper;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private SearchHistoryQueueServiceImpl searchHistoryQueueService;
+
+    @BeforeEach
+    void setUp() {
+        shopXConfig.getSearch().getHistory().setQueueCapacity(5);
+        shopXConfig.getBatch().setChunkSize(2);
+        searchHistoryQueueService.init();
+        lenient().when(searchHistoryMapper.insertBatchSomeColumn(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFlush_BatchesQueuedRecordsAndDropsOnOverflow() {
+        // Given: 容量为5的队列放入7条
+        for (int i = 0; i < 7; i++) {
+            boolean accepted = searchHistoryQueueService.enqueue(history(i % 2 == 0 ? 1L : null, "关键词" + i));
+            assertEquals(i < 5, accepted);
+        }
+        assertEquals(5, meterRegistry.get("shopx.search.history.queue.size").gauge().value());
+
+        // When
+        int flushed = searchHistoryQueueService.flush();
+
+        // Then: 每块2行，按入队顺序写入，时间取入队时间
+        assertEquals(5, flushed);
+        ArgumentCaptor<List<SearchHistory>> captor = ArgumentCaptor.forClass(List.class);
+        verify(searchHistoryMapper, times(3)).insertBatchSomeColumn(captor.capture());
+        assertEquals(List.of(2, 2, 1), captor.getAllValues().stream().map(List::size).toList());
+        assertEquals("关键词0", captor.getAllValues().get(0).get(0).getKeyword());
+        assertNotNull(captor.getAllValues().get(0).get(0).getCreateTime());
+        assertEquals(0, meterRegistry.get("shopx.search.history.queue.size").gauge().value());
+        assertEquals(5, counter("accepted"));
+        assertEquals(2, counter("dropped"));
+        assertEquals(5, counter("written"));
+        assertEquals(0, searchHistoryQueueService.flush());
+    }
+
+    @Test
+    void testFlush_FailedBatchIsCountedAndDropped() {
+        when(searchHistoryMapper.insertBatchSomeColumn(anyList()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        for (int i = 0; i < 3; i++) {
+            searchHistoryQueueService.enqueue(history(1L, "关键词" + i));
+        }
+
+        assertEquals(1, searchHistoryQueueService.flush());
+        assertEquals(2, counter("failed"));
+        assertEquals(1, counter("written"));
+    }
+
+    @Test
+    void testTrim_OnlyUsersWithNewRecords() {
+        searchHistoryQueueService.enqueue(history(1L, "手机"));
+        searchHistoryQueueService.enqueue(history(null, "手机"));
+        searchHistoryQueueService.enqueue(history(2L, "手表"));
+        SearchHistory boundary = new SearchHistory();
+        boundary.setId(42L);
+        when(searchHistoryMapper.selectList(any()))
+                .thenReturn(List.of(boundary))
+                .thenReturn(List.of());
+
+        // 写入前不裁剪
+        assertEquals(0, searchHistoryQueueService.trimUserHistories());
+        searchHistoryQueueService.flush();
+
+        // 两个登录用户各查一次边界，只有超出保留条数的用户执行删除
+        assertEquals(2, searchHistoryQueueService.trimUserHistories());
+        verify(searchHistoryMapper, times(2)).selectList(any());
+        verify(searchHistoryMapper, times(1)).delete(any());
+
+        // 已裁剪的用户在有新记录前不再处理
+        assertEquals(0, searchHistoryQueueService.trimUserHistories());
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("shopx.search.history.events").tag("result", result).functionCounter().count();
+    }
+
+    private static SearchHistory history(Long userId, String keyword) {
+        SearchHistory history = new SearchHistory();
+        history.setUserId(userId);
+        history.setKeyword(keyword);
+        history.setSearchType("BASIC");
+        history.setResultCount(1);
+        return history;
+    }
+}
@@ -0,0 +1,129 @@
+package com.shopx.test;
+
+import com.shopx.cache.CacheManager;
+import com.shopx.config.ShopXConfig;
+import com.shopx.entity.Product;
+import com.shopx.entity.SearchHistory;
+import com.shopx.mapper.SearchHistoryMapper;
+import com.shopx.search.ProductSearchEngine;
+import com.shopx.search.ProductSearchQuery;
+import com.shopx.search.ProductSearchResult;
+import com.shopx.search.SearchSuggestionEngine;
+import com.shopx.service.ProductService;
+import com.shopx.service.SearchHistoryQueueService;
+import com.shopx.service.impl.SearchServiceImpl;
+import com.shopx.util.ResponseUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 搜索服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock
+    private SearchHistoryMapper searchHistoryMapper;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private SearchSuggestionEngine searchSuggestionEngine;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private SearchHistoryQueueService searchHistoryQueueService;
+
+    @Spy
+    private ShopXConfig shopXConfig = new ShopXConfig();
+
+    @InjectMocks
+    private SearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cacheManager.getOrLoad(anyString(), any(Duration.class), any(), any(String[].class)))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        lenient().when(productSearchEngine.search(any()))
+                .thenReturn(new ProductSearchResult(List.of(1L), 1, null));
+        lenient().when(productService.toPageResult(any(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> ResponseUtil.PageResult.<Product>builder()
+                        .data(List.of())
+                        .total(((ProductSearchResult) invocation.getArgument(0)).getTotal())
+                        .page(invocation.getArgument(1))
+                        .size(invocation.getArgument(2))
+                        .build());
+    }
+
+    @Test
+    void testAdvancedSearch_CanonicalCacheKeyAndFilterJson() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("maxPrice", "100.00");
+        first.put("category", " 手机 ");
+        first.put("has3dPreview", false);
+        first.put("sortOrder", "DESC");
+        first.put("utm_source", "ad");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("category", "手机");
+        second.put("maxPrice", 100);
+
+        searchService.advancedSearch("  Phone   Case ", first, 1, 20);
+        searchService.advancedSearch("phone case", second, 1, 20);
+        searchService.advancedSearch("phone case", second, 2, 20);
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(cacheManager, times(3)).getOrLoad(keys.capture(), any(Duration.class), any(),
+                eq(CacheManager.SEARCH_RESULT_TAG));
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertNotEquals(keys.getAllValues().get(1), keys.getAllValues().get(2));
+        assertTrue(keys.getAllValues().get(0).startsWith(CacheManager.SEARCH_RESULT_PREFIX));
+
+        // 检索使用规范化后的条件
+        ArgumentCaptor<ProductSearchQuery> queries = ArgumentCaptor.forClass(ProductSearchQuery.class);
+        verify(productSearchEngine, times(3)).search(queries.capture());
+        ProductSearchQuery query = queries.getAllValues().get(0);
+        assertEquals("phone case", query.getKeyword());
+        assertEquals("手机", query.getCategory());
+        assertEquals(0, new BigDecimal("100").compareTo(query.getMaxPrice()));
+
+        // 搜索历史中的筛选条件为与字段顺序无关的规范JSON
+        ArgumentCaptor<SearchHistory> histories = ArgumentCaptor.forClass(SearchHistory.class);
+        verify(searchHistoryQueueService, times(3)).enqueue(histories.capture());
+        assertEquals("{\"category\":\"手机\",\"maxPrice\":\"100\"}", histories.getAllValues().get(0).getFilterConditions());
+        assertEquals(histories.getAllValues().get(0).getFilterConditions(),
+                histories.getAllValues().get(1).getFilterConditions());
+    }
+
+    @Test
+    void testAdvancedSearch_CacheDisabled() {
+        shopXConfig.getSearch().getResultCache().setEnabled(false);
+
+        ResponseUtil.PageResult<Product> result = searchService.advancedSearch("手机", null, 1, 20);
+
+        assertEquals(1, result.getTotal());
+        verify(cacheManager, never()).getOrLoad(anyString(), any(Duration.class), any(), any(String[].class));
+    }
+}
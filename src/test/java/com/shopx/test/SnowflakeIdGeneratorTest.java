@@ -0,0 +1,121 @@
+package com.shopx.test;
+
+import com.shopx.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 雪花ID生成器测试
+ * 模拟多个节点（不同workerId）多线程同时发号，验证全局唯一、单线程内单调递增，以及时钟回拨时不重复
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final long EPOCH = 1704067200000L;
+    private static final int NODES = 8;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int IDS_PER_THREAD = 50000;
+
+    @Test
+    void testNextId_UniqueAcrossNodes() throws Exception {
+        // Given: 8个节点共用同一时钟，每个节点4个线程并发发号
+        List<SnowflakeIdGenerator> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new SnowflakeIdGenerator(EPOCH, i * 100));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (SnowflakeIdGenerator node : nodes) {
+                for (int t = 0; t < THREADS_PER_NODE; t++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        long[] ids = new long[IDS_PER_THREAD];
+                        for (int i = 0; i < ids.length; i++) {
+                            ids[i] = node.nextId();
+                        }
+                        return ids;
+                    }));
+                }
+            }
+            start.countDown();
+
+            // When
+            long[] all = new long[NODES * THREADS_PER_NODE * IDS_PER_THREAD];
+            int offset = 0;
+            for (int r = 0; r < results.size(); r++) {
+                long[] ids = results.get(r).get(60, TimeUnit.SECONDS);
+                int workerId = nodes.get(r / THREADS_PER_NODE).getWorkerId();
+                for (int i = 0; i < ids.length; i++) {
+                    // Then: 单线程内单调递增，workerId可解析
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "同一线程内ID必须递增");
+                    }
+                    assertEquals(workerId, SnowflakeIdGenerator.workerIdOf(ids[i]));
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+
+            // Then: 全局唯一
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertNotEquals(all[i - 1], all[i], "ID重复: " + all[i]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testNextId_MonotonicWhenClockMovesBackwards() {
+        // Given
+        AtomicLong clock = new AtomicLong(EPOCH + 10_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 1, clock::get);
+        long first = generator.nextId();
+
+        // When: 时钟回拨5秒
+        clock.addAndGet(-5_000);
+        long second = generator.nextId();
+
+        // Then
+        assertTrue(second > first);
+        assertEquals(EPOCH + 10_000, SnowflakeIdGenerator.timestampOf(second, EPOCH));
+    }
+
+    @Test
+    void testNextId_SequenceOverflowBorrowsNextMillisecond() {
+        // Given: 时钟停止，同一毫秒内发号超过4096个
+        AtomicLong clock = new AtomicLong(EPOCH + 1);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 3, clock::get);
+        long previous = generator.nextId();
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+
+        // Then: 序列号用尽后进位到下一毫秒
+        assertEquals(EPOCH + 2, SnowflakeIdGenerator.timestampOf(previous, EPOCH));
+        assertEquals(3, SnowflakeIdGenerator.workerIdOf(previous));
+    }
+
+    @Test
+    void testConstructor_InvalidWorkerId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(EPOCH, SnowflakeIdGenerator.MAX_WORKER_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(EPOCH, -1));
+    }
+}
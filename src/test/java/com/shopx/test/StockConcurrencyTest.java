@@ -0,0 +1,143 @@
+package com.shopx.test;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.shopx.mapper.ProductMapper;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 库存并发扣减测试
+ * 使用H2（MySQL模式）执行ProductMapper中的真实扣减SQL，验证500个并发下单不会超卖
+ */
+class StockConcurrencyTest {
+
+    private static final int ORDERS = 500;
+    private static final int THREADS = 100;
+    private static final int INITIAL_STOCK = 100;
+
+    private JdbcDataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:stock_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE t_product (id BIGINT PRIMARY KEY, name VARCHAR(100), stock INT NOT NULL)");
+            statement.execute("INSERT INTO t_product (id, name, stock) VALUES (1, '秒杀商品', " + INITIAL_STOCK + "), "
+                    + "(2, '搭配商品', " + INITIAL_STOCK + ")");
+        }
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(ProductMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Test
+    void testDecreaseStock_NoOversellUnderConcurrency() throws Exception {
+        // When: 500个订单同时抢购库存为100的同一商品，每单1件
+        int succeeded = runConcurrently(() -> {
+            try (SqlSession session = sqlSessionFactory.openSession(true)) {
+                return session.getMapper(ProductMapper.class).decreaseStock(1L, 1) == 1;
+            }
+        });
+
+        // Then
+        assertEquals(INITIAL_STOCK, succeeded);
+        assertEquals(0, queryStock(1L));
+    }
+
+    @Test
+    void testBatchDecreaseStock_NoOversellUnderConcurrency() throws Exception {
+        // When: 每单同时购买商品1一件、商品2两件，扣减失败的订单回滚
+        int succeeded = runConcurrently(() -> {
+            Map<Long, Integer> quantities = new TreeMap<>(Map.of(1L, 1, 2L, 2));
+            try (SqlSession session = sqlSessionFactory.openSession(false)) {
+                int updated = session.getMapper(ProductMapper.class).batchDecreaseStock(quantities);
+                if (updated < quantities.size()) {
+                    session.rollback();
+                    return false;
+                }
+                session.commit();
+                return true;
+            }
+        });
+
+        // Then: 商品2先售罄，两个商品的扣减保持一致
+        assertEquals(INITIAL_STOCK / 2, succeeded);
+        assertEquals(INITIAL_STOCK - succeeded, queryStock(1L));
+        assertEquals(0, queryStock(2L));
+    }
+
+    @Test
+    void testBatchIncreaseStock() throws Exception {
+        // When
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            session.getMapper(ProductMapper.class).batchIncreaseStock(new TreeMap<>(Map.of(1L, 3, 2L, 5)));
+        }
+
+        // Then
+        assertEquals(INITIAL_STOCK + 3, queryStock(1L));
+        assertEquals(INITIAL_STOCK + 5, queryStock(2L));
+    }
+
+    /**
+     * 所有订单就绪后同时开始，返回成功的订单数
+     */
+    private int runConcurrently(Callable<Boolean> order) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return order.call();
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int queryStock(Long id) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT stock FROM t_product WHERE id = " + id)) {
+            assertTrue(resultSet.next());
+            return resultSet.getInt(1);
+        }
+    }
+}
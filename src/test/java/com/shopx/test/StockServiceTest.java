@@ -0,0 +1,110 @@
+package com.shopx.test;
+
+import com.shopx.entity.Product;
+import com.shopx.entity.ProductReservation;
+import com.shopx.entity.StockNotification;
+import com.shopx.exception.BusinessException;
+import com.shopx.mapper.ProductMapper;
+import com.shopx.mapper.ProductReservationMapper;
+import com.shopx.mapper.StockNotificationMapper;
+import com.shopx.service.ProductService;
+import com.shopx.service.impl.StockServiceImpl;
+import com.shopx.util.BatchWriteUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 到货通知与预订处理测试
+ */
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private StockNotificationMapper notificationMapper;
+
+    @Mock
+    private ProductReservationMapper reservationMapper;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private BatchWriteUtil batchWriteUtil;
+
+    @InjectMocks
+    private StockServiceImpl stockService;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setStock(10);
+        lenient().when(productMapper.selectById(1L)).thenReturn(product);
+        lenient().when(reservationMapper.selectList(any())).thenReturn(List.of(reservation(11L, 2), reservation(12L, 3)));
+        lenient().when(notificationMapper.selectList(any())).thenReturn(List.of(notification(21L), notification(22L)));
+    }
+
+    @Test
+    void testFulfillReservation() {
+        // Given
+        when(batchWriteUtil.updateByIds(eq(reservationMapper), eq(List.of(11L, 12L)), any())).thenReturn(2);
+
+        // When
+        stockService.fulfillReservation(1L);
+
+        // Then
+        verify(productService).decreaseStock(Map.of(1L, 5));
+    }
+
+    @Test
+    void testFulfillReservation_ConcurrentRunDoesNotDecreaseStockTwice() {
+        // Given: 其他任务已把其中一个预订标记为已满足
+        when(batchWriteUtil.updateByIds(eq(reservationMapper), eq(List.of(11L, 12L)), any())).thenReturn(1);
+
+        // When & Then: 回滚且不扣减库存
+        BusinessException exception = assertThrows(BusinessException.class, () -> stockService.fulfillReservation(1L));
+        assertEquals(409, exception.getCode());
+        verify(productService, never()).decreaseStock(anyMap());
+    }
+
+    @Test
+    void testNotifyStockAvailable_ConcurrentRunRollsBack() {
+        // Given: 其他任务已发送其中一条通知
+        when(batchWriteUtil.updateByIds(eq(notificationMapper), eq(List.of(21L, 22L)), any())).thenReturn(1);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class, () -> stockService.notifyStockAvailable(1L));
+        assertEquals(409, exception.getCode());
+    }
+
+    private static ProductReservation reservation(Long id, int quantity) {
+        ProductReservation reservation = new ProductReservation();
+        reservation.setId(id);
+        reservation.setUserId(id);
+        reservation.setProductId(1L);
+        reservation.setQuantity(quantity);
+        return reservation;
+    }
+
+    private static StockNotification notification(Long id) {
+        StockNotification notification = new StockNotification();
+        notification.setId(id);
+        notification.setUserId(id);
+        notification.setProductId(1L);
+        return notification;
+    }
+}
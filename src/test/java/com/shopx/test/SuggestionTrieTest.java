@@ -0,0 +1,94 @@
+package com.shopx.test;
+
+import com.shopx.entity.Product;
+import com.shopx.search.PinyinConverter;
+import com.shopx.search.SuggestionTrie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 搜索建议前缀树测试
+ */
+class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new SuggestionTrie(3);
+        trie.upsertProduct(product(1L, "手机壳", 10));
+        trie.upsertProduct(product(2L, "手机", 1000));
+        trie.upsertProduct(product(3L, "手表", 100));
+        trie.upsertProduct(product(4L, "Nike 运动鞋", 0));
+    }
+
+    @Test
+    void testPinyinConverter() {
+        assertEquals("huaweishouji", PinyinConverter.toPinyin("华为手机"));
+        assertEquals("hwsj", PinyinConverter.toInitials("华为手机"));
+        assertEquals("iphonesj", PinyinConverter.toInitials("iPhone手机"));
+    }
+
+    @Test
+    void testSuggest_ByPrefixPinyinAndInitials() {
+        assertEquals(List.of("手机", "手表", "手机壳"), trie.suggest("手", 10));
+        assertEquals(List.of("手机", "手机壳"), trie.suggest("shouj", 10));
+        assertEquals(List.of("手机", "手机壳"), trie.suggest("sj", 10));
+        assertEquals(List.of("手表"), trie.suggest("sb", 10));
+        // 忽略大小写与空白
+        assertEquals(List.of("Nike 运动鞋"), trie.suggest("NIKE运", 10));
+        assertEquals(List.of("手机"), trie.suggest("手", 1));
+        assertTrue(trie.suggest("电脑", 10).isEmpty());
+    }
+
+    @Test
+    void testSuggest_QueryWeightAndTopK() {
+        trie.setQueryWeight("手机壳 防摔", 5);
+        trie.addQueryWeight("手机壳", 100);
+
+        // 前缀"手"下只保留权重最高的3条
+        assertEquals(List.of("手机壳", "手机", "手表"), trie.suggest("手", 10));
+        assertEquals(List.of("手机壳", "手机壳 防摔"), trie.suggest("sjk", 10));
+
+        // 撤回搜索词权重后"手机壳"跌出前缀"手"的前3条
+        trie.setQueryWeight("手机壳", 0);
+        assertEquals(List.of("手机", "手表", "手机壳 防摔"), trie.suggest("手", 10));
+        assertEquals(List.of("手机壳 防摔", "手机壳"), trie.suggest("手机壳", 10));
+    }
+
+    @Test
+    void testProductUpdates_Incremental() {
+        // 改名：旧名称不再补全
+        trie.upsertProduct(product(2L, "平板", 1000));
+        assertEquals(List.of("手表", "手机壳"), trie.suggest("手", 10));
+        assertEquals(List.of("平板"), trie.suggest("pb", 10));
+
+        // 停用等同删除
+        Product disabled = product(3L, "手表", 100);
+        disabled.setEnabled(false);
+        trie.upsertProduct(disabled);
+        assertEquals(List.of("手机壳"), trie.suggest("手", 10));
+
+        // 同名商品权重累加，删除其中一个仍保留建议
+        trie.upsertProduct(product(5L, "手机壳", 10));
+        trie.removeProduct(1L);
+        assertEquals(List.of("手机壳"), trie.suggest("sjk", 10));
+        trie.removeProduct(5L);
+        assertTrue(trie.suggest("手", 10).isEmpty());
+        assertEquals(2, trie.size());
+    }
+
+    private static Product product(Long id, String name, int viewCount) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setEnabled(true);
+        product.setViewCount(viewCount);
+        product.setLikeCount(0);
+        return product;
+    }
+}
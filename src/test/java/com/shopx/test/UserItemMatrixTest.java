@@ -0,0 +1,94 @@
+package com.shopx.test;
+
+import com.shopx.recommend.LongIntHashMap;
+import com.shopx.recommend.UserItemMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户-商品交互矩阵测试
+ */
+class UserItemMatrixTest {
+
+    @Test
+    void testLongIntHashMap_GrowsAndAccumulates() {
+        LongIntHashMap map = new LongIntHashMap(4, -1);
+        for (long key = -5000; key < 5000; key++) {
+            map.put(key * 31, (int) key);
+        }
+        assertEquals(10000, map.size());
+        assertEquals(123, map.get(123 * 31));
+        assertEquals(-1, map.get(7));
+        assertEquals(-4999, map.putIfAbsent(-4999 * 31, 0));
+        assertEquals(2, map.addTo(7, 2));
+        assertEquals(5, map.addTo(7, 3));
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, 1));
+    }
+
+    @Test
+    void testSimilarUsersAndRecommend() {
+        UserItemMatrix matrix = new UserItemMatrix(2, 2);
+        add(matrix, 1L, 100L, 101L, 102L);
+        add(matrix, 2L, 100L, 101L, 103L);
+        add(matrix, 3L, 100L, 104L, 105L, 106L);
+        add(matrix, 4L, 200L);
+        assertFalse(matrix.add(1L, 100L));
+        assertEquals(11, matrix.interactionCount());
+
+        Map<Long, Double> similarities = matrix.similarUsers(1L);
+        assertEquals(Map.of(2L, 0.5, 3L, 1.0 / 6), similarities);
+        assertTrue(matrix.similarUsers(99L).isEmpty());
+
+        // 用户3相似度低于阈值，不贡献候选
+        assertEquals(List.of(103L), matrix.recommend(1L, 0.3, 10));
+        // 相似度之和相同时按商品ID升序
+        assertEquals(List.of(103L, 104L, 105L), matrix.recommend(1L, 0.1, 3));
+        assertTrue(matrix.recommend(4L, 0.0, 10).isEmpty());
+    }
+
+    @Test
+    void testSimilarUsers_MatchesBruteForceJaccard() {
+        Random random = new Random(7);
+        UserItemMatrix matrix = new UserItemMatrix(4, 4);
+        Map<Long, Set<Long>> rows = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long userId = 1 + random.nextInt(300);
+            long itemId = 1000 + random.nextInt(200);
+            boolean added = rows.computeIfAbsent(userId, k -> new HashSet<>()).add(itemId);
+            assertEquals(added, matrix.add(userId, itemId));
+        }
+
+        for (long userId : List.of(1L, 17L, 150L, 299L)) {
+            Map<Long, Double> expected = new HashMap<>();
+            Set<Long> own = rows.get(userId);
+            rows.forEach((other, items) -> {
+                Set<Long> shared = new HashSet<>(own);
+                shared.retainAll(items);
+                if (!other.equals(userId) && !shared.isEmpty()) {
+                    expected.put(other, (double) shared.size() / (own.size() + items.size() - shared.size()));
+                }
+            });
+            assertEquals(expected, matrix.similarUsers(userId));
+            assertEquals(own, new HashSet<>(toList(matrix.items(userId))));
+        }
+    }
+
+    private static void add(UserItemMatrix matrix, Long userId, Long... itemIds) {
+        for (Long itemId : itemIds) {
+            assertTrue(matrix.add(userId, itemId));
+        }
+    }
+
+    private static List<Long> toList(long[] values) {
+        return Arrays.stream(values).boxed().toList();
+    }
+}
@@ -5,6 +5,7 @@ import com.shopx.service.UserService;
 import com.shopx.service.impl.UserServiceImpl;
 import com.shopx.mapper.UserMapper;
 import com.shopx.cache.CacheManager;
+import com.shopx.cache.IdBloomFilter;
 import com.shopx.util.PasswordUtil;
 import com.shopx.validation.ValidationUtils;
 import com.shopx.exception.BusinessException;
@@ -16,9 +17,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,6 +40,9 @@ class UserServiceTest {
     @Mock
     private CacheManager cacheManager;
 
+    @Mock
+    private IdBloomFilter idBloomFilter;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -58,6 +64,11 @@ class UserServiceTest {
         testUser.setRecycleCount(3);
         testUser.setCreateTime(LocalDateTime.now());
         testUser.setUpdateTime(LocalDateTime.now());
+        
+        // 缓存未命中，直接回源
+        lenient().when(cacheManager.getOrLoad(anyString(), any(Duration.class), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        lenient().when(idBloomFilter.mightContainUser(any())).thenReturn(true);
     }
 
     @Test
@@ -265,6 +276,27 @@ class UserServiceTest {
         verify(userMapper).updateById(any(User.class));
     }
 
+    @Test
+    void testDisableUser_DoesNotMutateCachedInstance() {
+        // Given: 本地缓存中的共享实例
+        Long userId = 1L;
+        User cachedUser = new User();
+        cachedUser.setId(userId);
+        cachedUser.setEnabled(true);
+        lenient().when(cacheManager.getOrLoad(anyString(), any(Duration.class), any())).thenReturn(cachedUser);
+        when(userMapper.selectById(userId)).thenReturn(testUser);
+        when(userMapper.updateById(any(User.class))).thenReturn(1);
+
+        // When
+        userService.disableUser(userId);
+
+        // Then: 修改的是数据库读取的新实体，缓存实例保持原样直到被替换
+        assertTrue(cachedUser.getEnabled());
+        assertFalse(testUser.getEnabled());
+        verify(userMapper).updateById(testUser);
+        verify(cacheManager).setUserCache(userId, testUser);
+    }
+
     @Test
     void testEnableUser_Success() {
         // Given